@@ -0,0 +1,105 @@
+package com.ppdai.framework.raptor.benchmark.client.transport;
+
+import com.ppdai.framework.raptor.benchmark.client.integration.ClientIntegrationApplication;
+import com.ppdai.framework.raptor.benchmark.server.httpclient.HttpclientRaptorServerBenchmark;
+import com.ppdai.framework.raptor.proto.HelloReply;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import com.ppdai.framework.raptor.proto.Simple;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.SocketUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比raptor.httpclient=apache(阻塞),raptor.httpclient=async(事件循环)和raptor.httpclient=h2c(HTTP/2多路复用)三种传输,
+ * main方法按线程数扫描,并与{@link HttpclientRaptorServerBenchmark}一起运行作为基准
+ *
+ * @author yinzuolong
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClientTransportBenchmark {
+
+    private static final int IN_FLIGHT = 16;
+    private static final int[] THREADS = {1, 8, 32, 128};
+
+    @Param({"apache", "async", "h2c"})
+    private String transport;
+
+    private ConfigurableApplicationContext context;
+
+    private Simple simple;
+
+    @Setup
+    public void setup() {
+        System.setProperty("server.port", String.valueOf(SocketUtils.findAvailableTcpPort()));
+        System.setProperty("raptor.httpclient", transport);
+        System.setProperty("raptor.server.http2.enabled", "true");
+        context = SpringApplication.run(ClientIntegrationApplication.class);
+        simple = context.getBean(ClientIntegrationApplication.class).getSimple();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.clearProperty("server.port");
+        System.clearProperty("raptor.httpclient");
+        System.clearProperty("raptor.server.http2.enabled");
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public void sync(Blackhole bh) {
+        bh.consume(simple.sayHello(createRequest()));
+    }
+
+    @Benchmark
+    public void async(Blackhole bh) {
+        bh.consume(simple.sayHelloAsync(createRequest()).join());
+    }
+
+    /**
+     * 每个线程同时发出多个请求,体现少量I/O线程复用连接的效果
+     */
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    @SuppressWarnings("unchecked")
+    public void asyncInFlight(Blackhole bh) {
+        CompletableFuture<HelloReply>[] futures = new CompletableFuture[IN_FLIGHT];
+        for (int i = 0; i < IN_FLIGHT; i++) {
+            futures[i] = simple.sayHelloAsync(createRequest());
+        }
+        for (CompletableFuture<HelloReply> future : futures) {
+            bh.consume(future.join());
+        }
+    }
+
+    private HelloRequest createRequest() {
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName("ppdai");
+        return helloRequest;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : THREADS) {
+            Options opt = new OptionsBuilder()
+                    .include(ClientTransportBenchmark.class.getSimpleName())
+                    .include(HttpclientRaptorServerBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(opt).run();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.ppdai.framework.raptor.benchmark.compress;
+
+import com.ppdai.framework.raptor.proto.Cat;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import com.ppdai.framework.raptor.spring.buffer.RecyclableBufferOutputStream;
+import com.ppdai.framework.raptor.spring.compress.RaptorCompressor;
+import com.ppdai.framework.raptor.spring.compress.RaptorCompressors;
+import com.ppdai.framework.raptor.spring.converter.RaptorJacksonMessageConverter;
+import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import com.ppdai.framework.raptor.spring.converter.RaptorProtobufMessageConverter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压缩格式的CPU开销和压缩后字节数对比.
+ * compress/decompress的耗时是每个body压缩、解压的CPU时间,identity是只复制body的基准;
+ * 压缩前后的字节数在每组参数开始时打印
+ *
+ * @author yinzuolong
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompressionBenchmark {
+
+    @Param({"small", "large"})
+    private String payload;
+
+    @Param({"application/json", "application/x-protobuf"})
+    private String contentType;
+
+    @Param({"identity", "gzip", "x-snappy-framed"})
+    private String encoding;
+
+    private RaptorCompressor compressor;
+    private byte[] body;
+    private byte[] compressed;
+    private RecyclableBufferOutputStream buffer;
+    private final byte[] readBuffer = new byte[8192];
+
+    @Setup
+    public void setup() throws IOException {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        RaptorMessageConverter converter = mediaType.equals(RaptorProtobufMessageConverter.APPLICATION_PROTOBUF)
+                ? new RaptorProtobufMessageConverter() : new RaptorJacksonMessageConverter();
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write("large".equals(payload) ? createLargeRequest() : createSmallRequest(), mediaType, outputMessage);
+        body = outputMessage.getBodyAsBytes();
+        compressor = RaptorCompressors.get(encoding);
+        buffer = new RecyclableBufferOutputStream(body.length);
+        compressed = compressor != null ? compressBody() : body;
+        System.out.printf("%n[%s %s %s] %d -> %d bytes (%.1f%%)%n", payload, contentType, encoding,
+                body.length, compressed.length, compressed.length * 100.0 / body.length);
+    }
+
+    @Benchmark
+    public int compress() throws IOException {
+        buffer.reset();
+        if (compressor == null) {
+            buffer.write(body, 0, body.length);
+            return buffer.size();
+        }
+        try (OutputStream out = compressor.compress(buffer)) {
+            out.write(body);
+        }
+        return buffer.size();
+    }
+
+    @Benchmark
+    public int decompress() throws IOException {
+        int count = 0;
+        try (InputStream in = RaptorCompressors.decompress(new ByteArrayInputStream(compressed), encoding)) {
+            int read;
+            while ((read = in.read(readBuffer)) >= 0) {
+                count += read;
+            }
+        }
+        return count;
+    }
+
+    private byte[] compressBody() throws IOException {
+        compress();
+        return buffer.toByteArray();
+    }
+
+    private static HelloRequest createSmallRequest() {
+        HelloRequest request = new HelloRequest();
+        request.setName("ppdai");
+        request.setCorpus(HelloRequest.Corpus.WEB);
+        request.setTint32(1);
+        return request;
+    }
+
+    /**
+     * 机房之间的批量查询结果:较多的重复字段名和相似的字符串
+     */
+    private static HelloRequest createLargeRequest() {
+        HelloRequest request = createSmallRequest();
+        List<Cat> cats = new ArrayList<>();
+        List<String> snippets = new ArrayList<>();
+        List<Long> repInt64 = new ArrayList<>();
+        Map<String, String> mapStringString = new LinkedHashMap<>();
+        for (int i = 0; i < 500; i++) {
+            cats.add(new Cat(i % 2 == 0 ? "black" : "white"));
+            snippets.add("https://www.ppdai.com/loan/" + (100000 + i) + "?channel=raptor&page=" + (i / 20));
+            repInt64.add(3232132555244324324L + i * 7919L);
+            mapStringString.put("key-" + i, "value-" + Integer.toHexString(i * 31));
+        }
+        request.setCats(cats);
+        request.setSnippets(snippets);
+        request.setRepInt64(repInt64);
+        request.setMapStringString(mapStringString);
+        return request;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CompressionBenchmark.class.getSimpleName())
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,87 @@
+package com.ppdai.framework.raptor.benchmark.id;
+
+import com.ppdai.framework.raptor.utils.CommonSelfIdGenerator;
+import com.ppdai.framework.raptor.utils.RequestIdUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * requestId生成吞吐量,main方法按线程数扫描.
+ * synchronizedId是原来加锁并自旋等待下一毫秒的实现,作为基准.
+ * 12位自增量限制了单个进程每毫秒最多4096个Id,吞吐量达到上限后主要对比SampleTime下的延迟分布
+ *
+ * @author yinzuolong
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RequestIdBenchmark {
+
+    private static final int[] THREADS = {1, 8, 32, 64, 128};
+
+    private final CommonSelfIdGenerator generator = new CommonSelfIdGenerator();
+    private final SynchronizedIdGenerator synchronizedGenerator = new SynchronizedIdGenerator();
+
+    @State(Scope.Thread)
+    public static class Buffer {
+        private final byte[] bytes = new byte[RequestIdUtils.MAX_LENGTH];
+    }
+
+    @Benchmark
+    public long casId() {
+        return generator.generateId();
+    }
+
+    @Benchmark
+    public long synchronizedId() {
+        return synchronizedGenerator.generateId();
+    }
+
+    @Benchmark
+    public String requestIdString() {
+        return RequestIdUtils.getRequestId();
+    }
+
+    @Benchmark
+    public int requestIdBytes(Buffer buffer) {
+        return RequestIdUtils.getBytes(RequestIdUtils.nextRequestId(), buffer.bytes, 0);
+    }
+
+    private static class SynchronizedIdGenerator {
+        private long sequence;
+        private long lastTime;
+
+        synchronized long generateId() {
+            long time = System.currentTimeMillis();
+            if (lastTime == time) {
+                if (0L == (++sequence & 0xFFF)) {
+                    while (time <= lastTime) {
+                        time = System.currentTimeMillis();
+                    }
+                }
+            } else {
+                sequence = 0;
+            }
+            lastTime = time;
+            return ((time - CommonSelfIdGenerator.EPOCH) << 22) | sequence;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : THREADS) {
+            Options opt = new OptionsBuilder()
+                    .include(RequestIdBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .forks(1)
+                    .build();
+            new Runner(opt).run();
+        }
+    }
+}
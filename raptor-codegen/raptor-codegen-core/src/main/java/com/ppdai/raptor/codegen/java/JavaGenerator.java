@@ -8,8 +8,17 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.ppdai.framework.raptor.annotation.RaptorAsync;
 import com.ppdai.framework.raptor.annotation.RaptorField;
+import com.ppdai.framework.raptor.annotation.RaptorStream;
 import com.ppdai.framework.raptor.common.RaptorConstants;
+import com.ppdai.framework.raptor.rpc.RaptorStreamIterator;
+import com.ppdai.framework.raptor.rpc.RaptorStreamObserver;
+import com.ppdai.framework.raptor.serialize.CodecRegistry;
+import com.ppdai.framework.raptor.serialize.ProtobufCodec;
+import com.ppdai.framework.raptor.serialize.ProtobufReader;
+import com.ppdai.framework.raptor.serialize.ProtobufType;
+import com.ppdai.framework.raptor.serialize.ProtobufWriter;
 import com.ppdai.raptor.codegen.java.option.InterfaceMetaInfo;
 import com.ppdai.raptor.codegen.java.option.MessageMetaInfo;
 import com.ppdai.raptor.codegen.java.option.Method;
@@ -24,8 +33,10 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static com.google.common.base.CaseFormat.LOWER_CAMEL;
 import static com.google.common.base.CaseFormat.UPPER_CAMEL;
@@ -51,6 +62,17 @@ public final class JavaGenerator {
     static final ClassName LIST = ClassName.get(List.class);
     static final ClassName ADAPTER = ClassName.get(ProtoAdapter.class);
     static final ClassName NULLABLE = ClassName.get("android.support.annotation", "Nullable");
+    static final ClassName PROTOBUF_CODEC = ClassName.get(ProtobufCodec.class);
+    static final ClassName PROTOBUF_WRITER = ClassName.get(ProtobufWriter.class);
+    static final ClassName PROTOBUF_READER = ClassName.get(ProtobufReader.class);
+    static final ClassName CODEC_REGISTRY = ClassName.get(CodecRegistry.class);
+    static final ClassName JSON_CODEC = ClassName.get("com.ppdai.framework.raptor.serialize", "JsonCodec");
+    static final ClassName JSON_CODEC_UTILS = ClassName.get("com.ppdai.framework.raptor.serialize", "JsonCodecUtils");
+    static final ClassName JSON_GENERATOR = ClassName.get("com.fasterxml.jackson.core", "JsonGenerator");
+    static final ClassName JSON_PARSER = ClassName.get("com.fasterxml.jackson.core", "JsonParser");
+    static final ClassName JSON_TOKEN = ClassName.get("com.fasterxml.jackson.core", "JsonToken");
+    static final String PROTOBUF_CODEC_FIELD = "PROTOBUF_CODEC";
+    static final String JSON_CODEC_FIELD = "JSON_CODEC";
 
     private static final Map<ProtoType, ClassName> BUILT_IN_TYPES_MAP =
             ImmutableMap.<ProtoType, ClassName>builder()
@@ -74,6 +96,25 @@ public final class JavaGenerator {
                     .put(MESSAGE_OPTIONS, ClassName.get("com.google.protobuf", "EnumOptions"))
                     .build();
 
+    private static final Map<ProtoType, String> PROTOBUF_SCALAR_METHODS =
+            ImmutableMap.<ProtoType, String>builder()
+                    .put(ProtoType.BOOL, "Bool")
+                    .put(ProtoType.BYTES, "Bytes")
+                    .put(ProtoType.DOUBLE, "Double")
+                    .put(ProtoType.FLOAT, "Float")
+                    .put(ProtoType.FIXED32, "Fixed32")
+                    .put(ProtoType.FIXED64, "Fixed64")
+                    .put(ProtoType.INT32, "Int32")
+                    .put(ProtoType.INT64, "Int64")
+                    .put(ProtoType.SFIXED32, "SFixed32")
+                    .put(ProtoType.SFIXED64, "SFixed64")
+                    .put(ProtoType.SINT32, "SInt32")
+                    .put(ProtoType.SINT64, "SInt64")
+                    .put(ProtoType.STRING, "String")
+                    .put(ProtoType.UINT32, "UInt32")
+                    .put(ProtoType.UINT64, "UInt64")
+                    .build();
+
 
     private static final String URL_CHARS = "[-!#$%&'()*+,./0-9:;=?@A-Z\\[\\]_a-z~]";
     private final Schema schema;
@@ -96,6 +137,8 @@ public final class JavaGenerator {
             nameAllocator.newName("serialVersionUID", "serialVersionUID");
             nameAllocator.newName("ADAPTER", "ADAPTER");
             nameAllocator.newName("MESSAGE_OPTIONS", "MESSAGE_OPTIONS");
+            nameAllocator.newName(PROTOBUF_CODEC_FIELD, PROTOBUF_CODEC_FIELD);
+            nameAllocator.newName(JSON_CODEC_FIELD, JSON_CODEC_FIELD);
             if (emitAndroid) {
                 nameAllocator.newName("CREATOR", "CREATOR");
             }
@@ -415,6 +458,18 @@ public final class JavaGenerator {
             builder.addMethod(messageToString(nameAllocator, type));
         }
 
+        //生成无反射的编解码器,类初始化时注册到CodecRegistry
+        if (supportsGeneratedCodec(type.type(), new HashSet<ProtoType>())) {
+            builder.addField(protobufCodecField(nameAllocator, type));
+            builder.addField(jsonCodecField(nameAllocator, type));
+            builder.addStaticBlock(CodeBlock.builder()
+                    .addStatement("$T.register($T.class, $T.class, $L)",
+                            CODEC_REGISTRY, javaType, PROTOBUF_CODEC, nameAllocator.get(PROTOBUF_CODEC_FIELD))
+                    .addStatement("$T.register($T.class, $T.class, $L)",
+                            CODEC_REGISTRY, javaType, JSON_CODEC, nameAllocator.get(JSON_CODEC_FIELD))
+                    .build());
+        }
+
         for (Type nestedType : type.nestedTypes()) {
             builder.addType(generateType(protoFile, nestedType));
         }
@@ -773,21 +828,84 @@ public final class JavaGenerator {
             rpcBuilder.addAnnotation(methodMetaInfo.generateRaptorMethod());
 
             rpcBuilder.addModifiers(PUBLIC, ABSTRACT);
-            rpcBuilder.returns(responseJavaType);
 
             ParameterSpec request = ParameterSpec.builder(requestJavaType, "request").build();
             rpcBuilder.addParameter(request);
+            if (rpc.responseStreaming()) {
+                //服务端流式响应通过observer返回
+                rpcBuilder.returns(TypeName.VOID);
+                rpcBuilder.addParameter(ParameterSpec.builder(
+                        ParameterizedTypeName.get(ClassName.get(RaptorStreamObserver.class), responseJavaType), "responseObserver").build());
+            } else {
+                rpcBuilder.returns(responseJavaType);
+            }
 
             if (!rpc.documentation().isEmpty()) {
                 rpcBuilder.addJavadoc("$L\n", rpc.documentation());
             }
 
             typeBuilder.addMethod(rpcBuilder.build());
+
+            if (rpc.responseStreaming()) {
+                typeBuilder.addMethod(generateStreamRpc(rpc, requestJavaType, responseJavaType));
+            } else if (interfaceMetaInfo.isAsync()) {
+                typeBuilder.addMethod(generateAsyncRpc(rpc, requestJavaType, responseJavaType));
+            }
         }
 
         return typeBuilder.build();
     }
 
+    // Example:
+    //
+    // @RaptorAsync
+    // default CompletableFuture<HelloReply> sayHelloAsync(HelloRequest request) {
+    //   CompletableFuture<HelloReply> future = new CompletableFuture<>();
+    //   try {
+    //     future.complete(sayHello(request));
+    //   } catch (Throwable e) {
+    //     future.completeExceptionally(e);
+    //   }
+    //   return future;
+    // }
+    //
+    // 客户端代理会拦截该方法走异步调用,默认实现只用于服务端实现类
+    private MethodSpec generateAsyncRpc(Rpc rpc, TypeName requestJavaType, TypeName responseJavaType) {
+        TypeName futureType = ParameterizedTypeName.get(ClassName.get(CompletableFuture.class), responseJavaType);
+        MethodSpec.Builder asyncBuilder = MethodSpec.methodBuilder(rpc.name() + "Async");
+        asyncBuilder.addAnnotation(RaptorAsync.class);
+        asyncBuilder.addModifiers(PUBLIC, DEFAULT);
+        asyncBuilder.returns(futureType);
+        asyncBuilder.addParameter(ParameterSpec.builder(requestJavaType, "request").build());
+        asyncBuilder.addStatement("$T future = new $T<>()", futureType, CompletableFuture.class);
+        asyncBuilder.beginControlFlow("try");
+        asyncBuilder.addStatement("future.complete($L(request))", rpc.name());
+        asyncBuilder.nextControlFlow("catch ($T e)", Throwable.class);
+        asyncBuilder.addStatement("future.completeExceptionally(e)");
+        asyncBuilder.endControlFlow();
+        asyncBuilder.addStatement("return future");
+        return asyncBuilder.build();
+    }
+
+    // Example:
+    //
+    // @RaptorStream
+    // default RaptorStreamIterator<HelloReply> listHelloStream(HelloRequest request) {
+    //   return RaptorStreamIterator.collect(responseObserver -> listHello(request, responseObserver));
+    // }
+    //
+    // 客户端代理会拦截该方法边读边返回消息,默认实现只用于服务端实现类
+    private MethodSpec generateStreamRpc(Rpc rpc, TypeName requestJavaType, TypeName responseJavaType) {
+        MethodSpec.Builder streamBuilder = MethodSpec.methodBuilder(rpc.name() + "Stream");
+        streamBuilder.addAnnotation(RaptorStream.class);
+        streamBuilder.addModifiers(PUBLIC, DEFAULT);
+        streamBuilder.returns(ParameterizedTypeName.get(ClassName.get(RaptorStreamIterator.class), responseJavaType));
+        streamBuilder.addParameter(ParameterSpec.builder(requestJavaType, "request").build());
+        streamBuilder.addStatement("return $T.collect(responseObserver -> $L(request, responseObserver))",
+                RaptorStreamIterator.class, rpc.name());
+        return streamBuilder.build();
+    }
+
     @SuppressWarnings("unchecked")
     private AnnotationSpec serviceAnnotation(Rpc rpc, ClassName className, InterfaceMetaInfo interfaceMetaInfo) {
         AnnotationSpec.Builder builder = AnnotationSpec.builder(RequestMapping.class);
@@ -919,5 +1037,457 @@ public final class JavaGenerator {
         return result.build();
     }
 
+    /**
+     * 字段类型都能直接生成编解码代码时返回true;使用profile自定义类型或map中包含bytes时回退到反射实现
+     */
+    private boolean supportsGeneratedCodec(ProtoType protoType, Set<ProtoType> visited) {
+        if (!visited.add(protoType)) {
+            return true;
+        }
+        Type type = schema.getType(protoType);
+        if (!(type instanceof MessageType) || profile.getTarget(protoType) != null) {
+            return false;
+        }
+        for (Field field : ((MessageType) type).fieldsAndOneOfFields()) {
+            ProtoType fieldType = field.type();
+            if (fieldType.isMap()) {
+                if (!supportsCodecValue(fieldType.keyType(), visited)
+                        || !supportsCodecValue(fieldType.valueType(), visited)
+                        || fieldType.keyType().equals(ProtoType.BYTES)
+                        || fieldType.valueType().equals(ProtoType.BYTES)) {
+                    return false;
+                }
+            } else if (!supportsCodecValue(fieldType, visited)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean supportsCodecValue(ProtoType type, Set<ProtoType> visited) {
+        if (profile.getTarget(type) != null) {
+            return false;
+        }
+        if (type.isScalar()) {
+            return PROTOBUF_SCALAR_METHODS.containsKey(type);
+        }
+        return isEnum(type) || supportsGeneratedCodec(type, visited);
+    }
+
+    private int wireType(ProtoType type) {
+        if (type.isScalar()) {
+            return ProtobufType.fromScalarName(type.toString()).getWireType();
+        }
+        return isEnum(type) ? ProtobufType.WIRE_VARINT : ProtobufType.WIRE_LENGTH_DELIMITED;
+    }
+
+    private boolean isPackable(ProtoType type) {
+        return wireType(type) != ProtobufType.WIRE_LENGTH_DELIMITED;
+    }
+
+    private TypeName valueTypeName(ProtoType type) {
+        TypeName typeName = typeName(type);
+        return typeName.equals(BYTE_STRING) ? ArrayTypeName.of(byte.class) : typeName;
+    }
+
+
+    // Example:
+    //
+    // public static final ProtobufCodec<SimpleMessage> PROTOBUF_CODEC = new ProtobufCodec<SimpleMessage>() {
+    //   @Override
+    //   public void write(SimpleMessage message, ProtobufWriter writer) {
+    //     if (message.name != null) {
+    //       writer.writeString(1, message.name);
+    //     }
+    //   }
+    //
+    //   @Override
+    //   public SimpleMessage read(ProtobufReader reader) {
+    //     SimpleMessage message = new SimpleMessage();
+    //     int tag;
+    //     while ((tag = reader.readTag()) != 0) {
+    //       switch (tag) {
+    //         case 10: message.name = reader.readString(); break;
+    //         default: reader.skipField(tag); break;
+    //       }
+    //     }
+    //     return message;
+    //   }
+    // };
+    //
+    private FieldSpec protobufCodecField(NameAllocator nameAllocator, MessageType type) {
+        ClassName javaType = (ClassName) typeName(type.type());
+        ParameterizedTypeName codecType = ParameterizedTypeName.get(PROTOBUF_CODEC, javaType);
+
+        MethodSpec.Builder write = MethodSpec.methodBuilder("write")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .addParameter(javaType, "message")
+                .addParameter(PROTOBUF_WRITER, "writer");
+        MethodSpec.Builder read = MethodSpec.methodBuilder("read")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(javaType)
+                .addParameter(PROTOBUF_READER, "reader")
+                .addStatement("$T message = new $T()", javaType, javaType)
+                .addStatement("int tag")
+                .beginControlFlow("while ((tag = reader.readTag()) != 0)")
+                .beginControlFlow("switch (tag)");
+
+        for (Field field : type.fieldsAndOneOfFields()) {
+            String fieldName = "message." + nameAllocator.get(field);
+            ProtoType fieldType = field.type();
+            int tag = field.tag();
+            if (fieldType.isMap()) {
+                ProtoType keyType = fieldType.keyType();
+                ProtoType valueType = fieldType.valueType();
+                TypeName keyJavaType = valueTypeName(keyType);
+                TypeName valueJavaType = valueTypeName(valueType);
+
+                write.beginControlFlow("if ($L != null)", fieldName)
+                        .beginControlFlow("for ($T<$T, $T> entry : $L.entrySet())",
+                                Map.Entry.class, keyJavaType, valueJavaType, fieldName)
+                        .addStatement("int lengthPosition = writer.beginLengthDelimited($L)", tag)
+                        .addStatement("if (entry.getKey() != null) $L", protobufWriteValue(keyType, 1, "entry.getKey()"))
+                        .addStatement("if (entry.getValue() != null) $L", protobufWriteValue(valueType, 2, "entry.getValue()"))
+                        .addStatement("writer.endLengthDelimited(lengthPosition)")
+                        .endControlFlow()
+                        .endControlFlow();
+
+                read.beginControlFlow("case $L:", makeTag(tag, ProtobufType.WIRE_LENGTH_DELIMITED))
+                        .addStatement("if ($1L == null) $1L = new $2T<>()", fieldName, LinkedHashMap.class)
+                        .addStatement("int oldLimit = reader.pushLimit()")
+                        .addStatement("$T key = $L", keyJavaType, protobufDefaultValue(keyType))
+                        .addStatement("$T value = $L", valueJavaType, protobufDefaultValue(valueType))
+                        .addStatement("int entryTag")
+                        .beginControlFlow("while ((entryTag = reader.readTag()) != 0)")
+                        .beginControlFlow("switch (entryTag)")
+                        .addStatement("case $L: key = $L; break", makeTag(1, wireType(keyType)), protobufReadValue(keyType))
+                        .addStatement("case $L: value = $L; break", makeTag(2, wireType(valueType)), protobufReadValue(valueType))
+                        .addStatement("default: reader.skipField(entryTag); break")
+                        .endControlFlow()
+                        .endControlFlow()
+                        .addStatement("reader.popLimit(oldLimit)")
+                        .addStatement("$L.put(key, value)", fieldName)
+                        .addStatement("break")
+                        .endControlFlow();
+            } else if (field.isRepeated()) {
+                TypeName elementType = valueTypeName(fieldType);
+                if (isPackable(fieldType)) {
+                    write.beginControlFlow("if ($1L != null && !$1L.isEmpty())", fieldName)
+                            .addStatement("int lengthPosition = writer.beginLengthDelimited($L)", tag)
+                            .beginControlFlow("for ($T element : $L)", elementType, fieldName)
+                            .addStatement("if (element != null) $L", protobufWriteValueNoTag(fieldType, "element"))
+                            .endControlFlow()
+                            .addStatement("writer.endLengthDelimited(lengthPosition)")
+                            .endControlFlow();
+
+                    read.beginControlFlow("case $L:", makeTag(tag, ProtobufType.WIRE_LENGTH_DELIMITED))
+                            .addStatement("if ($1L == null) $1L = new $2T<>()", fieldName, ArrayList.class)
+                            .addStatement("int oldLimit = reader.pushLimit()")
+                            .addStatement("while (!reader.isAtEnd()) $L.add($L)", fieldName, protobufReadValue(fieldType))
+                            .addStatement("reader.popLimit(oldLimit)")
+                            .addStatement("break")
+                            .endControlFlow();
+                } else {
+                    write.beginControlFlow("if ($L != null)", fieldName)
+                            .beginControlFlow("for ($T element : $L)", elementType, fieldName)
+                            .addStatement("if (element != null) $L", protobufWriteValue(fieldType, tag, "element"))
+                            .endControlFlow()
+                            .endControlFlow();
+                }
+                //未打包的格式也需要能读取
+                read.beginControlFlow("case $L:", makeTag(tag, wireType(fieldType)))
+                        .addStatement("if ($1L == null) $1L = new $2T<>()", fieldName, ArrayList.class)
+                        .addStatement("$L.add($L)", fieldName, protobufReadValue(fieldType))
+                        .addStatement("break")
+                        .endControlFlow();
+            } else {
+                write.beginControlFlow("if ($L != null)", fieldName)
+                        .addStatement("$L", protobufWriteValue(fieldType, tag, fieldName))
+                        .endControlFlow();
+
+                read.addStatement("case $L: $L = $L; break", makeTag(tag, wireType(fieldType)), fieldName, protobufReadValue(fieldType));
+            }
+        }
+
+        read.addStatement("default: reader.skipField(tag); break")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return message");
+
+        TypeSpec codec = TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(codecType)
+                .addMethod(write.build())
+                .addMethod(read.build())
+                .build();
+        return FieldSpec.builder(codecType, nameAllocator.get(PROTOBUF_CODEC_FIELD), PUBLIC, STATIC, FINAL)
+                .initializer("$L", codec)
+                .build();
+    }
+
+    private static int makeTag(int fieldNumber, int wireType) {
+        return (fieldNumber << 3) | wireType;
+    }
+
+    private CodeBlock protobufWriteValue(ProtoType type, int tag, String value) {
+        if (type.isScalar()) {
+            return CodeBlock.of("writer.write$L($L, $L)", PROTOBUF_SCALAR_METHODS.get(type), tag, value);
+        }
+        if (isEnum(type)) {
+            return CodeBlock.of("writer.writeEnum($L, $L.getValue())", tag, value);
+        }
+        return CodeBlock.of("writer.writeMessage($L, $L, $T.$L)", tag, value, typeName(type), PROTOBUF_CODEC_FIELD);
+    }
+
+    private CodeBlock protobufWriteValueNoTag(ProtoType type, String value) {
+        if (isEnum(type)) {
+            return CodeBlock.of("writer.writeEnumNoTag($L.getValue())", value);
+        }
+        return CodeBlock.of("writer.write$LNoTag($L)", PROTOBUF_SCALAR_METHODS.get(type), value);
+    }
+
+    private CodeBlock protobufReadValue(ProtoType type) {
+        if (type.isScalar()) {
+            return CodeBlock.of("reader.read$L()", PROTOBUF_SCALAR_METHODS.get(type));
+        }
+        if (isEnum(type)) {
+            return CodeBlock.of("$T.fromValue(reader.readEnum())", typeName(type));
+        }
+        return CodeBlock.of("reader.readMessage($T.$L)", typeName(type), PROTOBUF_CODEC_FIELD);
+    }
+
+    /**
+     * map entry中缺失key或value时使用的默认值
+     */
+    private CodeBlock protobufDefaultValue(ProtoType type) {
+        if (type.equals(ProtoType.STRING)) {
+            return CodeBlock.of("\"\"");
+        }
+        if (type.equals(ProtoType.BOOL)) {
+            return CodeBlock.of("false");
+        }
+        if (type.equals(ProtoType.DOUBLE)) {
+            return CodeBlock.of("0D");
+        }
+        if (type.equals(ProtoType.FLOAT)) {
+            return CodeBlock.of("0F");
+        }
+        if (type.isScalar()) {
+            return typeName(type).equals(TypeName.LONG.box()) ? CodeBlock.of("0L") : CodeBlock.of("0");
+        }
+        if (isEnum(type)) {
+            return CodeBlock.of("$T.fromValue(0)", typeName(type));
+        }
+        return CodeBlock.of("new $T()", typeName(type));
+    }
+
+
+    // Example:
+    //
+    // public static final JsonCodec<SimpleMessage> JSON_CODEC = new JsonCodec<SimpleMessage>() {
+    //   @Override
+    //   public void write(SimpleMessage message, JsonGenerator generator) throws IOException {
+    //     generator.writeStartObject();
+    //     generator.writeFieldName("name");
+    //     if (message.name == null) generator.writeNull(); else generator.writeString(message.name);
+    //     generator.writeEndObject();
+    //   }
+    //
+    //   @Override
+    //   public SimpleMessage read(JsonParser parser) throws IOException {
+    //     if (!JsonCodecUtils.startObject(parser)) return null;
+    //     SimpleMessage message = new SimpleMessage();
+    //     while (parser.nextToken() == JsonToken.FIELD_NAME) {
+    //       String fieldName = parser.getCurrentName();
+    //       parser.nextToken();
+    //       switch (fieldName) {
+    //         case "name": message.name = JsonCodecUtils.readString(parser); break;
+    //         default: parser.skipChildren(); break;
+    //       }
+    //     }
+    //     return message;
+    //   }
+    // };
+    //
+    private FieldSpec jsonCodecField(NameAllocator nameAllocator, MessageType type) {
+        ClassName javaType = (ClassName) typeName(type.type());
+        ParameterizedTypeName codecType = ParameterizedTypeName.get(JSON_CODEC, javaType);
+
+        MethodSpec.Builder write = MethodSpec.methodBuilder("write")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .addException(IOException.class)
+                .addParameter(javaType, "message")
+                .addParameter(JSON_GENERATOR, "generator")
+                .addStatement("generator.writeStartObject()");
+        MethodSpec.Builder read = MethodSpec.methodBuilder("read")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .addException(IOException.class)
+                .returns(javaType)
+                .addParameter(JSON_PARSER, "parser")
+                .addStatement("if (!$T.startObject(parser)) return null", JSON_CODEC_UTILS)
+                .addStatement("$T message = new $T()", javaType, javaType)
+                .beginControlFlow("while (parser.nextToken() == $T.FIELD_NAME)", JSON_TOKEN)
+                .addStatement("String fieldName = parser.getCurrentName()")
+                .addStatement("parser.nextToken()")
+                .beginControlFlow("switch (fieldName)");
+
+        for (Field field : jsonFieldOrder(nameAllocator, type)) {
+            String name = nameAllocator.get(field);
+            String fieldName = "message." + name;
+            String propertyName = jsonPropertyName(name);
+            ProtoType fieldType = field.type();
+
+            write.addStatement("generator.writeFieldName($S)", propertyName);
+            if (fieldType.isMap()) {
+                ProtoType keyType = fieldType.keyType();
+                ProtoType valueType = fieldType.valueType();
+                TypeName keyJavaType = typeName(keyType);
+                TypeName valueJavaType = typeName(valueType);
+
+                write.beginControlFlow("if ($L == null)", fieldName)
+                        .addStatement("generator.writeNull()")
+                        .nextControlFlow("else")
+                        .addStatement("generator.writeStartObject()")
+                        .beginControlFlow("for ($T<$T, $T> entry : $L.entrySet())",
+                                Map.Entry.class, keyJavaType, valueJavaType, fieldName)
+                        .addStatement("generator.writeFieldName($T.valueOf(entry.getKey()))", String.class)
+                        .addStatement("if (entry.getValue() == null) generator.writeNull(); else $L",
+                                jsonWriteValue(valueType, "entry.getValue()"))
+                        .endControlFlow()
+                        .addStatement("generator.writeEndObject()")
+                        .endControlFlow();
+
+                read.beginControlFlow("case $S:", propertyName)
+                        .beginControlFlow("if ($T.startObject(parser))", JSON_CODEC_UTILS)
+                        .addStatement("$1T<$2T, $3T> map = new $4T<>()", Map.class, keyJavaType, valueJavaType, LinkedHashMap.class)
+                        .beginControlFlow("while (parser.nextToken() == $T.FIELD_NAME)", JSON_TOKEN)
+                        .addStatement("$T key = $L", keyJavaType, jsonReadKey(keyType))
+                        .addStatement("parser.nextToken()")
+                        .addStatement("map.put(key, $L)", jsonReadValue(valueType))
+                        .endControlFlow()
+                        .addStatement("$L = map", fieldName)
+                        .nextControlFlow("else")
+                        .addStatement("$L = null", fieldName)
+                        .endControlFlow()
+                        .addStatement("break")
+                        .endControlFlow();
+            } else if (field.isRepeated()) {
+                TypeName elementType = valueTypeName(fieldType);
+
+                write.beginControlFlow("if ($L == null)", fieldName)
+                        .addStatement("generator.writeNull()")
+                        .nextControlFlow("else")
+                        .addStatement("generator.writeStartArray()")
+                        .beginControlFlow("for ($T element : $L)", elementType, fieldName)
+                        .addStatement("if (element == null) generator.writeNull(); else $L", jsonWriteValue(fieldType, "element"))
+                        .endControlFlow()
+                        .addStatement("generator.writeEndArray()")
+                        .endControlFlow();
+
+                read.beginControlFlow("case $S:", propertyName)
+                        .beginControlFlow("if ($T.startArray(parser))", JSON_CODEC_UTILS)
+                        .addStatement("$1T<$2T> list = new $3T<>()", List.class, elementType, ArrayList.class)
+                        .addStatement("while (parser.nextToken() != $T.END_ARRAY) list.add($L)", JSON_TOKEN, jsonReadValue(fieldType))
+                        .addStatement("$L = list", fieldName)
+                        .nextControlFlow("else")
+                        .addStatement("$L = null", fieldName)
+                        .endControlFlow()
+                        .addStatement("break")
+                        .endControlFlow();
+            } else {
+                write.addStatement("if ($1L == null) generator.writeNull(); else $2L", fieldName, jsonWriteValue(fieldType, fieldName));
+
+                read.addStatement("case $S: $L = $L; break", propertyName, fieldName, jsonReadValue(fieldType));
+            }
+        }
+
+        write.addStatement("generator.writeEndObject()");
+        read.addStatement("default: parser.skipChildren(); break")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return message");
+
+        TypeSpec codec = TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(codecType)
+                .addMethod(write.build())
+                .addMethod(read.build())
+                .build();
+        return FieldSpec.builder(codecType, nameAllocator.get(JSON_CODEC_FIELD), PUBLIC, STATIC, FINAL)
+                .initializer("$L", codec)
+                .build();
+    }
+
+    /**
+     * jackson先输出与字段同名的属性,属性名与字段名不一致的(如tDouble对应tdouble)只由getter产生,排在后面
+     */
+    private List<Field> jsonFieldOrder(NameAllocator nameAllocator, MessageType type) {
+        List<Field> fields = new ArrayList<>();
+        List<Field> getterOnlyFields = new ArrayList<>();
+        for (Field field : type.fieldsAndOneOfFields()) {
+            String name = nameAllocator.get(field);
+            if (jsonPropertyName(name).equals(name)) {
+                fields.add(field);
+            } else {
+                getterOnlyFields.add(field);
+            }
+        }
+        fields.addAll(getterOnlyFields);
+        return fields;
+    }
+
+    /**
+     * 与jackson根据getter推断的属性名一致:去掉get前缀后,开头连续的大写字母转为小写
+     */
+    private static String jsonPropertyName(String fieldName) {
+        char[] chars = LOWER_CAMEL.to(UPPER_CAMEL, fieldName).toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            char lower = Character.toLowerCase(chars[i]);
+            if (lower == chars[i]) {
+                break;
+            }
+            chars[i] = lower;
+        }
+        return new String(chars);
+    }
+
+    private CodeBlock jsonWriteValue(ProtoType type, String value) {
+        if (type.equals(ProtoType.STRING)) {
+            return CodeBlock.of("generator.writeString($L)", value);
+        }
+        if (type.equals(ProtoType.BOOL)) {
+            return CodeBlock.of("generator.writeBoolean($L)", value);
+        }
+        if (type.equals(ProtoType.BYTES)) {
+            return CodeBlock.of("generator.writeBinary($L)", value);
+        }
+        if (type.isScalar()) {
+            return CodeBlock.of("generator.writeNumber($L)", value);
+        }
+        if (isEnum(type)) {
+            return CodeBlock.of("generator.writeString($L.name())", value);
+        }
+        return CodeBlock.of("$T.$L.write($L, generator)", typeName(type), JSON_CODEC_FIELD, value);
+    }
 
+    private CodeBlock jsonReadValue(ProtoType type) {
+        if (type.isScalar()) {
+            TypeName javaType = typeName(type);
+            String method = javaType.equals(BYTE_STRING) ? "Bytes" : ((ClassName) javaType).simpleName();
+            return CodeBlock.of("$T.read$L(parser)", JSON_CODEC_UTILS, method);
+        }
+        if (isEnum(type)) {
+            return CodeBlock.of("$T.readEnum(parser, $T.class)", JSON_CODEC_UTILS, typeName(type));
+        }
+        return CodeBlock.of("$T.$L.read(parser)", typeName(type), JSON_CODEC_FIELD);
+    }
+
+    private CodeBlock jsonReadKey(ProtoType type) {
+        if (type.equals(ProtoType.STRING)) {
+            return CodeBlock.of("parser.getCurrentName()");
+        }
+        return CodeBlock.of("$T.valueOf(parser.getCurrentName())", typeName(type));
+    }
 }
@@ -22,9 +22,11 @@ import java.util.List;
 @Builder
 public class InterfaceMetaInfo {
     private static final ProtoMember SERVICE_PATH = ProtoMember.get(Options.SERVICE_OPTIONS, "servicePath");
+    private static final ProtoMember ASYNC = ProtoMember.get(Options.SERVICE_OPTIONS, "async");
 
 
     private String servicePath;
+    private boolean async;
     private String summary;
     private ProtoFileMetaInfo protoFileMetaInfo;
 
@@ -32,12 +34,14 @@ public class InterfaceMetaInfo {
     public static InterfaceMetaInfo readFrom(ProtoFile protoFile, Service service) {
         String servicePath = OptionUtil.readStringOption(service.options(), SERVICE_PATH);
         String summary = OptionUtil.readSummary(service.documentation());
+        boolean async = Boolean.parseBoolean(OptionUtil.readStringOption(service.options(), ASYNC));
         ProtoFileMetaInfo protoFileMetaInfo = ProtoFileMetaInfo.readFrom(protoFile);
 
         InterfaceMetaInfoBuilder builder = InterfaceMetaInfo.builder();
         builder.servicePath(servicePath)
                 .protoFileMetaInfo(protoFileMetaInfo)
-                .summary(summary);
+                .summary(summary)
+                .async(async);
 
         return builder.build();
     }
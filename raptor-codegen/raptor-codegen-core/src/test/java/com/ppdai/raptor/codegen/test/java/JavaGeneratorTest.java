@@ -62,6 +62,41 @@ public class JavaGeneratorTest extends AbstractCodegenTest {
 
     }
 
+    @Test
+    public void testGenerateAsyncInterface() {
+        JavaGenerator javaGenerator = JavaGenerator.get(schema)
+                .withProfile(profile);
+        Service service = schema.getService("com.ppdai.framework.raptor.proto.MoreService");
+
+        TypeSpec typeSpec = javaGenerator.generateService(schema.protoFile("com/ppdai/framework/raptor/proto/helloworld.proto"), service);
+        String cs = typeSpec.toString();
+        System.out.println(cs);
+
+        Assert.assertTrue(cs.contains("@com.ppdai.framework.raptor.annotation.RaptorAsync"));
+        Assert.assertTrue(cs.contains("default java.util.concurrent.CompletableFuture<com.ppdai.framework.raptor.proto.HelloReply> testGet1Async("));
+        Assert.assertTrue(cs.contains("future.complete(testGet1(request));"));
+
+        Service syncService = schema.getService("com.ppdai.framework.raptor.proto.Simple");
+        String syncCs = javaGenerator.generateService(schema.protoFile("com/ppdai/framework/raptor/proto/helloworld.proto"), syncService).toString();
+        Assert.assertFalse(syncCs.contains("RaptorAsync"));
+    }
+
+    @Test
+    public void testGenerateStreamInterface() {
+        JavaGenerator javaGenerator = JavaGenerator.get(schema)
+                .withProfile(profile);
+        Service service = schema.getService("com.ppdai.framework.raptor.proto.MoreService");
+
+        String cs = javaGenerator.generateService(schema.protoFile("com/ppdai/framework/raptor/proto/helloworld.proto"), service).toString();
+        System.out.println(cs);
+
+        Assert.assertTrue(cs.contains("void listHello(com.ppdai.framework.raptor.proto.HelloRequest request,"));
+        Assert.assertTrue(cs.contains("com.ppdai.framework.raptor.rpc.RaptorStreamObserver<com.ppdai.framework.raptor.proto.HelloReply> responseObserver);"));
+        Assert.assertTrue(cs.contains("@com.ppdai.framework.raptor.annotation.RaptorStream"));
+        Assert.assertTrue(cs.contains("default com.ppdai.framework.raptor.rpc.RaptorStreamIterator<com.ppdai.framework.raptor.proto.HelloReply> listHelloStream("));
+        Assert.assertFalse(cs.contains("listHelloAsync"));
+    }
+
     @Test
     public void testGenerateAll() throws IOException {
         JavaGenerator javaGenerator = JavaGenerator.get(schema)
@@ -0,0 +1,20 @@
+package com.ppdai.framework.raptor.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记返回CompletableFuture的异步方法,客户端代理使用对应同步方法的映射发起非阻塞调用
+ *
+ * @author yinzuolong
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RaptorAsync {
+
+    /**
+     * 对应的同步方法名,为空时为去掉Async后缀的方法名,参数类型与异步方法相同
+     */
+    String value() default "";
+
+}
@@ -0,0 +1,25 @@
+package com.ppdai.framework.raptor.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记可以合并发送的方法,客户端把一个时间窗口内的多次调用合并为一个批量请求,服务端拆开后分别调用原来的方法
+ *
+ * @author yinzuolong
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RaptorBatch {
+
+    /**
+     * 一个批量请求最多包含的调用数,达到后立即发送
+     */
+    int maxSize() default 32;
+
+    /**
+     * 第一个调用最多等待的毫秒数
+     */
+    long maxDelayMillis() default 2;
+
+}
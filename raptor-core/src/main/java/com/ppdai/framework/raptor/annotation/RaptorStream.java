@@ -0,0 +1,21 @@
+package com.ppdai.framework.raptor.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记返回{@link com.ppdai.framework.raptor.rpc.RaptorStreamIterator}的服务端流式方法,
+ * 客户端代理使用对应流式方法(最后一个参数为{@link com.ppdai.framework.raptor.rpc.RaptorStreamObserver})的映射发起调用
+ *
+ * @author yinzuolong
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RaptorStream {
+
+    /**
+     * 对应的流式方法名,为空时为去掉Stream后缀的方法名
+     */
+    String value() default "";
+
+}
@@ -13,5 +13,18 @@ public class RaptorConstants {
     public static final String HEADER_HOST_SERVER = "x-raptor-host-server";
     public static final String HEADER_TRACE_PREFIX = "x-raptortrace-";
     public static final String HEADER_ERROR="x-raptor-error";
+    public static final String HEADER_STREAM = "x-raptor-stream";
+
+    public static final String BATCH_PATH = "/raptor/batch";
+
+    /**
+     * 超过并发限制被拒绝时ErrorMessage的code
+     */
+    public static final int ERROR_CODE_LIMIT_EXCEEDED = 429;
+
+    /**
+     * 熔断打开时客户端直接失败的RaptorException的code
+     */
+    public static final int ERROR_CODE_CIRCUIT_OPEN = 503;
 
 }
@@ -0,0 +1,44 @@
+package com.ppdai.framework.raptor.concurrent;
+
+import com.ppdai.framework.raptor.rpc.RaptorContext;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 执行任务时传递提交线程的{@link com.ppdai.framework.raptor.rpc.RaptorContext};
+ * 指定snapshot时所有任务都使用该snapshot,不再在提交时保存
+ *
+ * @author yinzuolong
+ */
+public class RaptorContextExecutor implements Executor {
+
+    private final Executor delegate;
+    private final RaptorContext.Snapshot snapshot;
+
+    public RaptorContextExecutor(Executor delegate) {
+        this(delegate, null);
+    }
+
+    public RaptorContextExecutor(Executor delegate, RaptorContext.Snapshot snapshot) {
+        this.delegate = delegate;
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (snapshot == null) {
+            delegate.execute(RaptorContextExecutors.wrap(command));
+            return;
+        }
+        delegate.execute(() -> {
+            try (RaptorContext ignored = snapshot.restore()) {
+                command.run();
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "RaptorContextExecutor(" + delegate + ")";
+    }
+}
@@ -0,0 +1,88 @@
+package com.ppdai.framework.raptor.concurrent;
+
+import com.ppdai.framework.raptor.rpc.RaptorContext;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * 把当前线程的{@link RaptorContext}传递到其他线程执行的任务中.
+ * <p>
+ * 任务创建时保存context快照,执行时在执行线程上恢复,执行完后清空并恢复执行线程原来的context
+ *
+ * @author yinzuolong
+ */
+public class RaptorContextExecutors {
+
+    public static Runnable wrap(Runnable task) {
+        RaptorContext.Snapshot snapshot = RaptorContext.capture();
+        return () -> {
+            try (RaptorContext ignored = snapshot.restore()) {
+                task.run();
+            }
+        };
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        RaptorContext.Snapshot snapshot = RaptorContext.capture();
+        return () -> {
+            try (RaptorContext ignored = snapshot.restore()) {
+                return task.call();
+            }
+        };
+    }
+
+    public static <T> Supplier<T> wrapSupplier(Supplier<T> task) {
+        RaptorContext.Snapshot snapshot = RaptorContext.capture();
+        return () -> {
+            try (RaptorContext ignored = snapshot.restore()) {
+                return task.get();
+            }
+        };
+    }
+
+    /**
+     * 提交到返回的executor的任务都会带上提交时的context,可以用于CompletableFuture的*Async方法
+     */
+    public static Executor wrap(Executor executor) {
+        if (executor instanceof RaptorContextExecutor || executor instanceof RaptorContextExecutorService) {
+            return executor;
+        }
+        return new RaptorContextExecutor(executor);
+    }
+
+    /**
+     * 返回的executor执行的任务都使用调用本方法时的context.
+     * CompletableFuture的后续阶段由完成前一阶段的线程提交,用于thenApplyAsync等方法时应该使用本方法而不是{@link #wrap(Executor)}
+     */
+    public static Executor withCurrentContext(Executor executor) {
+        return new RaptorContextExecutor(executor, RaptorContext.capture());
+    }
+
+    public static ExecutorService wrap(ExecutorService executorService) {
+        if (executorService instanceof RaptorContextExecutorService) {
+            return executorService;
+        }
+        return new RaptorContextExecutorService(executorService);
+    }
+
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return supplyAsync(supplier, ForkJoinPool.commonPool());
+    }
+
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        return CompletableFuture.supplyAsync(wrapSupplier(supplier), executor);
+    }
+
+    public static CompletableFuture<Void> runAsync(Runnable runnable) {
+        return runAsync(runnable, ForkJoinPool.commonPool());
+    }
+
+    public static CompletableFuture<Void> runAsync(Runnable runnable, Executor executor) {
+        return CompletableFuture.runAsync(wrap(runnable), executor);
+    }
+}
@@ -1,12 +1,14 @@
 package com.ppdai.framework.raptor.exception;
 
 import com.ppdai.framework.raptor.annotation.RaptorField;
+import com.ppdai.framework.raptor.annotation.RaptorMessage;
 
 import java.util.Map;
 
 /**
  * @author yinzuolong
  */
+@RaptorMessage
 public class ErrorMessage {
 
     @RaptorField(
@@ -26,6 +28,7 @@ public class ErrorMessage {
     @RaptorField(
             fieldType = "string",
             keyType = "string",
+            isMap = true,
             order = 3,
             name = "attachments"
     )
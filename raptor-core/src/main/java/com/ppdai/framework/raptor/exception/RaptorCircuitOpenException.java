@@ -0,0 +1,15 @@
+package com.ppdai.framework.raptor.exception;
+
+import com.ppdai.framework.raptor.common.RaptorConstants;
+
+/**
+ * 下游的熔断处于打开状态,调用没有发出直接失败
+ *
+ * @author yinzuolong
+ */
+public class RaptorCircuitOpenException extends RaptorException {
+
+    public RaptorCircuitOpenException(String message) {
+        super(RaptorConstants.ERROR_CODE_CIRCUIT_OPEN, message, null);
+    }
+}
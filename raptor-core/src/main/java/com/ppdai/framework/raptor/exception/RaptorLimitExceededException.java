@@ -0,0 +1,22 @@
+package com.ppdai.framework.raptor.exception;
+
+import com.ppdai.framework.raptor.common.RaptorConstants;
+
+/**
+ * 超过并发限制,请求在执行前被拒绝,可以换一个实例或稍后重试
+ *
+ * @author yinzuolong
+ */
+public class RaptorLimitExceededException extends RaptorException {
+
+    public RaptorLimitExceededException(String message) {
+        super(RaptorConstants.ERROR_CODE_LIMIT_EXCEEDED, message, null);
+    }
+
+    /**
+     * 是否为服务端或客户端的并发限制拒绝的调用,服务端的拒绝在客户端解码为code相同的{@link RaptorException}
+     */
+    public static boolean isLimitExceeded(Throwable ex) {
+        return ex instanceof RaptorException && ((RaptorException) ex).getCode() == RaptorConstants.ERROR_CODE_LIMIT_EXCEEDED;
+    }
+}
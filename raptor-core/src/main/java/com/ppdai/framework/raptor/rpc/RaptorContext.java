@@ -1,33 +1,209 @@
 package com.ppdai.framework.raptor.rpc;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * 一次调用的上下文,保存在当前线程上.
+ * <p>
+ * 通过{@link #open()}或{@link #openCopy()}开始一次调用,{@link #close()}时恢复原来的context,清空后放回当前线程复用:
+ * <pre>
+ * try (RaptorContext context = RaptorContext.open()) {
+ *     ...
+ * }
+ * </pre>
+ * close之后不要再持有该context.attributes和requestAttachments只在一个线程上使用;
+ * responseAttachments会被异步调用的响应线程合并,仍然使用ConcurrentHashMap,
+ * 合并时通过{@link #mergeResponseAttachments(Map, long)}检查context是否已经close
+ *
  * @author yinzuolong
  */
 @Getter
 @Setter
-public class RaptorContext {
+public class RaptorContext implements AutoCloseable {
 
-    private Map<Object, Object> attributes = new ConcurrentHashMap<>();
-    private Map<String, String> requestAttachments = new ConcurrentHashMap<>();
-    private Map<String, String> responseAttachments = new ConcurrentHashMap<>();
+    /**
+     * 每个线程最多缓存的context个数,对应嵌套open的深度
+     */
+    private static final int MAX_SPARE = 4;
+
+    private Map<Object, Object> attributes = new HashMap<>(8);
+    private Map<String, String> requestAttachments = new HashMap<>(8);
+    private Map<String, String> responseAttachments = new ConcurrentHashMap<>(8);
     private RaptorRequest request;
     private RaptorResponse response;
+    /**
+     * 每次close时加1,context放回线程复用后与调用时取到的值不同
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile long generation;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private RaptorContext previous;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Holder holder;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean copied;
 
-    private static final ThreadLocal<RaptorContext> CONTEXT = new ThreadLocal<RaptorContext>() {
+    private static final ThreadLocal<Holder> HOLDER = new ThreadLocal<Holder>() {
         @Override
-        protected RaptorContext initialValue() {
-            return new RaptorContext();
+        protected Holder initialValue() {
+            return new Holder();
         }
     };
 
     public static RaptorContext getContext() {
-        return CONTEXT.get();
+        return HOLDER.get().current();
+    }
+
+    /**
+     * 替换当前线程的context,返回原来的context,用于在其他线程上继续处理同一次调用
+     */
+    public static RaptorContext setContext(RaptorContext context) {
+        Holder holder = HOLDER.get();
+        RaptorContext previous = holder.current();
+        holder.current = context;
+        return previous;
+    }
+
+    /**
+     * 在当前线程上开始一个空的context,close时恢复原来的context
+     */
+    public static RaptorContext open() {
+        return open(false);
+    }
+
+    /**
+     * 在当前线程上开始一个context,复制当前的attributes和requestAttachments;
+     * close时把responseAttachments合并回原来的context
+     */
+    public static RaptorContext openCopy() {
+        return open(true);
+    }
+
+    private static RaptorContext open(boolean copy) {
+        Holder holder = HOLDER.get();
+        RaptorContext parent = holder.current();
+        RaptorContext context = holder.obtain();
+        if (copy) {
+            context.attributes.putAll(parent.attributes);
+            context.requestAttachments.putAll(parent.requestAttachments);
+        }
+        context.previous = parent;
+        context.holder = holder;
+        context.copied = copy;
+        holder.current = context;
+        return context;
+    }
+
+    /**
+     * 结束{@link #open()}开始的context,必须在open的线程上调用.未通过open创建或者已经close时不做处理
+     */
+    @Override
+    public void close() {
+        Holder holder = this.holder;
+        if (holder == null) {
+            return;
+        }
+        if (HOLDER.get() != holder) {
+            throw new IllegalStateException("RaptorContext must be closed by the thread which opened it.");
+        }
+        RaptorContext parent = this.previous;
+        if (copied && parent != null) {
+            //响应头中的trace信息传回调用方的context
+            parent.responseAttachments.putAll(responseAttachments);
+        }
+        if (holder.current == this) {
+            holder.current = parent;
+        }
+        synchronized (this) {
+            generation++;
+        }
+        clear();
+        this.previous = null;
+        this.holder = null;
+        this.copied = false;
+        holder.recycle(this);
+    }
+
+    /**
+     * 调用转到其他线程继续处理时,恢复当前线程原来的context,之后该context不再放回线程复用
+     */
+    public void detach() {
+        Holder holder = this.holder;
+        if (holder == null) {
+            return;
+        }
+        if (HOLDER.get() == holder && holder.current == this) {
+            holder.current = previous;
+        }
+        this.holder = null;
+        this.previous = null;
+    }
+
+    /**
+     * 在当前线程上继续使用{@link #detach()}之后的context,close时恢复当前线程原来的context
+     */
+    public void attach() {
+        if (this.holder != null) {
+            throw new IllegalStateException("RaptorContext is already attached.");
+        }
+        Holder holder = HOLDER.get();
+        this.previous = holder.current;
+        this.holder = holder;
+        this.copied = false;
+        holder.current = this;
+    }
+
+    /**
+     * 把其他线程上完成的调用返回的responseAttachments合并到该context.
+     * 该context在取得generation之后已经close时不合并,避免写入复用该context的其他请求
+     *
+     * @param generation 发起调用时的{@link #getGeneration()}
+     * @return 是否合并
+     */
+    public synchronized boolean mergeResponseAttachments(Map<String, String> attachments, long generation) {
+        if (this.generation != generation) {
+            return false;
+        }
+        responseAttachments.putAll(attachments);
+        return true;
+    }
+
+    /**
+     * 清空request、response和所有attributes、attachments
+     */
+    public void clear() {
+        attributes.clear();
+        requestAttachments.clear();
+        responseAttachments.clear();
+        request = null;
+        response = null;
+    }
+
+    /**
+     * 创建一个新的context,复制当前的attributes和requestAttachments,用于同一线程上并发发起的异步调用
+     */
+    public RaptorContext copy() {
+        RaptorContext context = new RaptorContext();
+        context.attributes.putAll(this.attributes);
+        context.requestAttachments.putAll(this.requestAttachments);
+        return context;
+    }
+
+    /**
+     * 保存当前context的快照,在其他线程上通过{@link Snapshot#restore()}继续使用
+     */
+    public static Snapshot capture() {
+        return new Snapshot(getContext());
     }
 
     public void putAttribute(Object key, Object value) {
@@ -54,4 +230,69 @@ public class RaptorContext {
         return responseAttachments.get(key);
     }
 
+    /**
+     * context的快照,保存attributes和requestAttachments的副本以及request、response.
+     * 不包含responseAttachments,其他线程上调用返回的trace信息不会合并回原来的context
+     */
+    public static class Snapshot {
+        private final Map<Object, Object> attributes;
+        private final Map<String, String> requestAttachments;
+        private final RaptorRequest request;
+        private final RaptorResponse response;
+
+        private Snapshot(RaptorContext context) {
+            this.attributes = context.attributes.isEmpty() ? null : new HashMap<>(context.attributes);
+            this.requestAttachments = context.requestAttachments.isEmpty() ? null : new HashMap<>(context.requestAttachments);
+            this.request = context.request;
+            this.response = context.response;
+        }
+
+        /**
+         * 在当前线程上开始一个context并恢复快照的内容,使用完后需要close
+         */
+        public RaptorContext restore() {
+            RaptorContext context = RaptorContext.open();
+            if (attributes != null) {
+                context.attributes.putAll(attributes);
+            }
+            if (requestAttachments != null) {
+                context.requestAttachments.putAll(requestAttachments);
+            }
+            context.request = request;
+            context.response = response;
+            return context;
+        }
+    }
+
+    /**
+     * 线程上当前的context和可复用的context
+     */
+    private static class Holder {
+        private final RaptorContext[] spare = new RaptorContext[MAX_SPARE];
+        private int spareCount;
+        private RaptorContext current;
+
+        private RaptorContext current() {
+            if (current == null) {
+                current = new RaptorContext();
+            }
+            return current;
+        }
+
+        private RaptorContext obtain() {
+            if (spareCount > 0) {
+                RaptorContext context = spare[--spareCount];
+                spare[spareCount] = null;
+                return context;
+            }
+            return new RaptorContext();
+        }
+
+        private void recycle(RaptorContext context) {
+            if (spareCount < MAX_SPARE) {
+                spare[spareCount++] = context;
+            }
+        }
+    }
+
 }
@@ -0,0 +1,63 @@
+package com.ppdai.framework.raptor.rpc;
+
+import com.ppdai.framework.raptor.exception.RaptorException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 服务端流式响应的迭代器,客户端边读边解析,没有读完时需要调用close释放连接
+ *
+ * @author yinzuolong
+ */
+public interface RaptorStreamIterator<T> extends Iterator<T>, AutoCloseable {
+
+    @Override
+    void close();
+
+    /**
+     * 在当前线程执行流式方法,收集全部消息,用于生成接口的默认实现
+     */
+    static <T> RaptorStreamIterator<T> collect(Consumer<RaptorStreamObserver<T>> call) {
+        List<T> values = new ArrayList<>();
+        Throwable[] error = new Throwable[1];
+        call.accept(new RaptorStreamObserver<T>() {
+            @Override
+            public void onNext(T value) {
+                values.add(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                error[0] = t;
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        if (error[0] instanceof RuntimeException) {
+            throw (RuntimeException) error[0];
+        } else if (error[0] != null) {
+            throw new RaptorException(error[0].getMessage(), error[0]);
+        }
+        Iterator<T> iterator = values.iterator();
+        return new RaptorStreamIterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
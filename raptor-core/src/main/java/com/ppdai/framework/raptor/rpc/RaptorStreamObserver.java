@@ -0,0 +1,18 @@
+package com.ppdai.framework.raptor.rpc;
+
+/**
+ * 服务端流式响应的接收者.
+ * <p>
+ * 服务端实现中依次调用onNext发送消息,最后调用onCompleted或onError,方法返回时还没有结束的流会自动结束,
+ * 所有调用都必须在服务方法返回前完成;客户端调用时在调用线程上依次回调
+ *
+ * @author yinzuolong
+ */
+public interface RaptorStreamObserver<T> {
+
+    void onNext(T value);
+
+    void onError(Throwable t);
+
+    void onCompleted();
+}
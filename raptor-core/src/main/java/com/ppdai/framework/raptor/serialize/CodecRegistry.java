@@ -0,0 +1,54 @@
+package com.ppdai.framework.raptor.serialize;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 消息类型到生成的编解码器的映射.
+ * <p>
+ * 生成的消息类在静态初始化时注册,查找不到时先触发一次类初始化,仍没有则返回null,由调用方回退到反射实现
+ *
+ * @author yinzuolong
+ */
+public final class CodecRegistry {
+
+    private static final ConcurrentMap<Class<?>, Map<Class<?>, Object>> CODECS = new ConcurrentHashMap<>();
+
+    private static final Map<Class<?>, Object> NONE = Collections.emptyMap();
+
+    private CodecRegistry() {
+    }
+
+    public static <C> void register(Class<?> messageType, Class<C> codecType, C codec) {
+        //注册只发生在类初始化时,使用copy-on-write,查找时无锁
+        CODECS.compute(messageType, (type, codecs) -> {
+            Map<Class<?>, Object> newCodecs = codecs == null ? new HashMap<>() : new HashMap<>(codecs);
+            newCodecs.put(codecType, codec);
+            return newCodecs;
+        });
+    }
+
+    public static <C> C getCodec(Class<?> messageType, Class<C> codecType) {
+        Map<Class<?>, Object> codecs = CODECS.get(messageType);
+        if (codecs == null) {
+            initialize(messageType);
+            codecs = CODECS.get(messageType);
+            if (codecs == null) {
+                CODECS.putIfAbsent(messageType, NONE);
+                codecs = CODECS.get(messageType);
+            }
+        }
+        return codecType.cast(codecs.get(codecType));
+    }
+
+    private static void initialize(Class<?> messageType) {
+        try {
+            Class.forName(messageType.getName(), true, messageType.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            //ignore, use reflection
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.ppdai.framework.raptor.serialize;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * 单个消息类型的json编解码器,由代码生成器为每个RaptorMessage生成,输出与jackson默认的bean序列化一致
+ *
+ * @author yinzuolong
+ */
+public interface JsonCodec<T> {
+
+    void write(T message, JsonGenerator generator) throws IOException;
+
+    /**
+     * @param parser 当前token为START_OBJECT或VALUE_NULL
+     */
+    T read(JsonParser parser) throws IOException;
+}
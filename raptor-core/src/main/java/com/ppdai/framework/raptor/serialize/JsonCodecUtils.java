@@ -0,0 +1,163 @@
+package com.ppdai.framework.raptor.serialize;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * 生成的{@link JsonCodec}使用的读取方法,类型转换规则与jackson默认的反序列化一致
+ *
+ * @author yinzuolong
+ */
+public final class JsonCodecUtils {
+
+    private JsonCodecUtils() {
+    }
+
+    /**
+     * @return 当前token为START_OBJECT时返回true,为null时返回false
+     */
+    public static boolean startObject(JsonParser parser) throws IOException {
+        return start(parser, JsonToken.START_OBJECT);
+    }
+
+    /**
+     * @return 当前token为START_ARRAY时返回true,为null时返回false
+     */
+    public static boolean startArray(JsonParser parser) throws IOException {
+        return start(parser, JsonToken.START_ARRAY);
+    }
+
+    public static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.VALUE_STRING || token.isScalarValue()) {
+            return parser.getValueAsString();
+        }
+        throw unexpected(parser, "String");
+    }
+
+    public static Integer readInteger(JsonParser parser) throws IOException {
+        String text = readNumberText(parser);
+        if (text == null) {
+            return parser.getCurrentToken() == JsonToken.VALUE_NULL || parser.getCurrentToken() == JsonToken.VALUE_STRING ? null : parser.getIntValue();
+        }
+        return Integer.valueOf(text);
+    }
+
+    public static Long readLong(JsonParser parser) throws IOException {
+        String text = readNumberText(parser);
+        if (text == null) {
+            return parser.getCurrentToken() == JsonToken.VALUE_NULL || parser.getCurrentToken() == JsonToken.VALUE_STRING ? null : parser.getLongValue();
+        }
+        return Long.valueOf(text);
+    }
+
+    public static Double readDouble(JsonParser parser) throws IOException {
+        String text = readNumberText(parser);
+        if (text == null) {
+            return parser.getCurrentToken() == JsonToken.VALUE_NULL || parser.getCurrentToken() == JsonToken.VALUE_STRING ? null : parser.getDoubleValue();
+        }
+        return Double.valueOf(text);
+    }
+
+    public static Float readFloat(JsonParser parser) throws IOException {
+        String text = readNumberText(parser);
+        if (text == null) {
+            return parser.getCurrentToken() == JsonToken.VALUE_NULL || parser.getCurrentToken() == JsonToken.VALUE_STRING ? null : parser.getFloatValue();
+        }
+        return Float.valueOf(text);
+    }
+
+    public static Boolean readBoolean(JsonParser parser) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NUMBER_INT:
+                return parser.getIntValue() != 0;
+            case VALUE_STRING:
+                String text = parser.getText().trim();
+                return text.isEmpty() ? null : Boolean.valueOf(text);
+            default:
+                throw unexpected(parser, "Boolean");
+        }
+    }
+
+    public static byte[] readBytes(JsonParser parser) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.VALUE_STRING || token == JsonToken.VALUE_EMBEDDED_OBJECT) {
+            return parser.getBinaryValue();
+        }
+        throw unexpected(parser, "byte[]");
+    }
+
+    public static <E extends Enum<E>> E readEnum(JsonParser parser, Class<E> enumType) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String name = parser.getText();
+            if (name.isEmpty()) {
+                return null;
+            }
+            try {
+                return Enum.valueOf(enumType, name);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(parser, "Unknown value '" + name + "' of enum " + enumType.getName(), e);
+            }
+        }
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            //与jackson一致,数字按ordinal处理
+            E[] constants = enumType.getEnumConstants();
+            int index = parser.getIntValue();
+            if (index >= 0 && index < constants.length) {
+                return constants[index];
+            }
+            throw new JsonParseException(parser, "Unknown index " + index + " of enum " + enumType.getName());
+        }
+        throw unexpected(parser, enumType.getName());
+    }
+
+    /**
+     * 字符串形式的数字返回去掉空白的文本,空字符串和其他token返回null
+     */
+    private static String readNumberText(JsonParser parser) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            String text = parser.getText().trim();
+            return text.isEmpty() ? null : text;
+        }
+        if (token != JsonToken.VALUE_NULL && !token.isNumeric()) {
+            throw unexpected(parser, "Number");
+        }
+        return null;
+    }
+
+    private static boolean start(JsonParser parser, JsonToken startToken) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == startToken) {
+            return true;
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return false;
+        }
+        throw unexpected(parser, startToken.name());
+    }
+
+    private static JsonParseException unexpected(JsonParser parser, String expected) {
+        return new JsonParseException(parser, "Unexpected token " + parser.getCurrentToken() + ", expected " + expected);
+    }
+}
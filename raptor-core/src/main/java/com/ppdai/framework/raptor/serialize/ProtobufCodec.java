@@ -0,0 +1,13 @@
+package com.ppdai.framework.raptor.serialize;
+
+/**
+ * 单个消息类型的protobuf编解码器,由代码生成器为每个RaptorMessage生成,不使用反射
+ *
+ * @author yinzuolong
+ */
+public interface ProtobufCodec<T> {
+
+    void write(T message, ProtobufWriter writer);
+
+    T read(ProtobufReader reader);
+}
@@ -0,0 +1,420 @@
+package com.ppdai.framework.raptor.serialize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * protobuf wire格式读取器.
+ * <p>
+ * 从{@link InputStream}读取时只保留一个固定大小的缓冲区,边读边解析,不需要先把整个body读入内存;
+ * 流读取错误以{@link UncheckedIOException}抛出
+ *
+ * @author yinzuolong
+ */
+public class ProtobufReader {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * 超过该长度的bytes/string字段分块读取,按实际读到的数据分配内存,避免被错误的长度前缀一次分配过大的数组
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final InputStream input;
+    private final byte[] buffer;
+    /**
+     * buffer中有效数据的结尾
+     */
+    private int bufferLength;
+    /**
+     * 按当前limit截断后的有效数据结尾
+     */
+    private int bufferSize;
+    private int bufferPos;
+    /**
+     * buffer[0]之前已经读过的字节数
+     */
+    private int totalBytesRetired;
+    /**
+     * 当前字段的结束位置(相对消息开始)
+     */
+    private int currentLimit = Integer.MAX_VALUE;
+
+    public ProtobufReader(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    public ProtobufReader(byte[] buffer, int offset, int length) {
+        this.input = null;
+        this.buffer = buffer;
+        this.bufferPos = offset;
+        this.bufferLength = offset + length;
+        this.bufferSize = bufferLength;
+        this.totalBytesRetired = -offset;
+    }
+
+    public ProtobufReader(InputStream input) {
+        this(input, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ProtobufReader(InputStream input, int bufferSize) {
+        this.input = input;
+        this.buffer = new byte[Math.max(bufferSize, 16)];
+    }
+
+    /**
+     * @return 已经读取的字节数
+     */
+    public int getPosition() {
+        return totalBytesRetired + bufferPos;
+    }
+
+    public boolean isAtEnd() {
+        return bufferPos == bufferSize && !tryRefill(1);
+    }
+
+    /**
+     * @return 下一个字段的tag,读到当前limit时返回0
+     */
+    public int readTag() {
+        if (isAtEnd()) {
+            return 0;
+        }
+        int tag = readRawVarint32();
+        if ((tag >>> 3) == 0) {
+            throw new IllegalArgumentException("Invalid protobuf tag: " + tag);
+        }
+        return tag;
+    }
+
+    /**
+     * 进入长度前缀的字段,返回旧的limit,交给{@link #popLimit(int)}恢复
+     */
+    public int pushLimit() {
+        int length = readRawVarint32();
+        if (length < 0 || (long) getPosition() + length > currentLimit) {
+            throw truncated();
+        }
+        int oldLimit = currentLimit;
+        currentLimit = getPosition() + length;
+        recomputeBufferSize();
+        return oldLimit;
+    }
+
+    public void popLimit(int oldLimit) {
+        skipRawBytes(currentLimit - getPosition());
+        currentLimit = oldLimit;
+        recomputeBufferSize();
+    }
+
+    public Object readScalar(ProtobufType type) {
+        switch (type) {
+            case DOUBLE:
+                return readDouble();
+            case FLOAT:
+                return readFloat();
+            case INT32:
+            case UINT32:
+            case ENUM:
+                return readInt32();
+            case INT64:
+            case UINT64:
+                return readInt64();
+            case SINT32:
+                return readSInt32();
+            case SINT64:
+                return readSInt64();
+            case FIXED32:
+            case SFIXED32:
+                return readFixed32();
+            case FIXED64:
+            case SFIXED64:
+                return readFixed64();
+            case BOOL:
+                return readBool();
+            case STRING:
+                return readString();
+            case BYTES:
+                return readBytes();
+            default:
+                throw new IllegalArgumentException("Not a scalar protobuf type: " + type);
+        }
+    }
+
+    public int readInt32() {
+        return readRawVarint32();
+    }
+
+    public long readInt64() {
+        return readRawVarint64();
+    }
+
+    public int readUInt32() {
+        return readRawVarint32();
+    }
+
+    public long readUInt64() {
+        return readRawVarint64();
+    }
+
+    public int readSInt32() {
+        return decodeZigZag32(readRawVarint32());
+    }
+
+    public long readSInt64() {
+        return decodeZigZag64(readRawVarint64());
+    }
+
+    public int readFixed32() {
+        return readRawFixed32();
+    }
+
+    public long readFixed64() {
+        return readRawFixed64();
+    }
+
+    public int readSFixed32() {
+        return readRawFixed32();
+    }
+
+    public long readSFixed64() {
+        return readRawFixed64();
+    }
+
+    public double readDouble() {
+        return Double.longBitsToDouble(readRawFixed64());
+    }
+
+    public float readFloat() {
+        return Float.intBitsToFloat(readRawFixed32());
+    }
+
+    public boolean readBool() {
+        return readRawVarint64() != 0;
+    }
+
+    public int readEnum() {
+        return readRawVarint32();
+    }
+
+    public <T> T readMessage(ProtobufCodec<T> codec) {
+        int oldLimit = pushLimit();
+        T message = codec.read(this);
+        popLimit(oldLimit);
+        return message;
+    }
+
+    public String readString() {
+        int length = readLength();
+        if (length <= bufferSize - bufferPos) {
+            String value = new String(buffer, bufferPos, length, StandardCharsets.UTF_8);
+            bufferPos += length;
+            return value;
+        }
+        return new String(readRawBytes(length), StandardCharsets.UTF_8);
+    }
+
+    public byte[] readBytes() {
+        return readRawBytes(readLength());
+    }
+
+    public void skipField(int tag) {
+        switch (tag & 0x7) {
+            case ProtobufType.WIRE_VARINT:
+                readRawVarint64();
+                break;
+            case ProtobufType.WIRE_FIXED64:
+                skipRawBytes(8);
+                break;
+            case ProtobufType.WIRE_LENGTH_DELIMITED:
+                skipRawBytes(readLength());
+                break;
+            case ProtobufType.WIRE_FIXED32:
+                skipRawBytes(4);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported protobuf wire type: " + (tag & 0x7));
+        }
+    }
+
+    public int readRawVarint32() {
+        return (int) readRawVarint64();
+    }
+
+    public long readRawVarint64() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (bufferPos == bufferSize && !tryRefill(1)) {
+                throw truncated();
+            }
+            byte b = buffer[bufferPos++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed protobuf varint.");
+    }
+
+    public int readRawFixed32() {
+        if (bufferSize - bufferPos < 4 && !tryRefill(4)) {
+            throw truncated();
+        }
+        byte[] buf = buffer;
+        int pos = bufferPos;
+        bufferPos = pos + 4;
+        return (buf[pos] & 0xFF)
+                | ((buf[pos + 1] & 0xFF) << 8)
+                | ((buf[pos + 2] & 0xFF) << 16)
+                | ((buf[pos + 3] & 0xFF) << 24);
+    }
+
+    public long readRawFixed64() {
+        long low = readRawFixed32() & 0xFFFFFFFFL;
+        long high = readRawFixed32() & 0xFFFFFFFFL;
+        return low | (high << 32);
+    }
+
+    public static int decodeZigZag32(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static long decodeZigZag64(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int readLength() {
+        int length = readRawVarint32();
+        if (length < 0 || (long) getPosition() + length > currentLimit) {
+            throw truncated();
+        }
+        return length;
+    }
+
+    private byte[] readRawBytes(int length) {
+        if (length <= bufferSize - bufferPos) {
+            byte[] value = Arrays.copyOfRange(buffer, bufferPos, bufferPos + length);
+            bufferPos += length;
+            return value;
+        }
+        if (input == null || (long) getPosition() + length > currentLimit) {
+            throw truncated();
+        }
+        //先取走缓冲区中剩余的数据,其余直接从流中读取
+        int buffered = bufferSize - bufferPos;
+        List<byte[]> chunks = new ArrayList<>();
+        byte[] first = new byte[Math.min(length, Math.max(buffered, CHUNK_SIZE))];
+        System.arraycopy(buffer, bufferPos, first, 0, buffered);
+        discardBuffer();
+        readFully(first, buffered, first.length - buffered);
+        chunks.add(first);
+        int read = first.length;
+        while (read < length) {
+            byte[] chunk = new byte[Math.min(length - read, CHUNK_SIZE)];
+            readFully(chunk, 0, chunk.length);
+            chunks.add(chunk);
+            read += chunk.length;
+        }
+        recomputeBufferSize();
+        if (chunks.size() == 1) {
+            return first;
+        }
+        byte[] value = new byte[length];
+        int pos = 0;
+        for (byte[] chunk : chunks) {
+            System.arraycopy(chunk, 0, value, pos, chunk.length);
+            pos += chunk.length;
+        }
+        return value;
+    }
+
+    private void skipRawBytes(int length) {
+        if (length <= bufferSize - bufferPos) {
+            bufferPos += length;
+            return;
+        }
+        if (input == null || (long) getPosition() + length > currentLimit) {
+            throw truncated();
+        }
+        int remaining = length - (bufferSize - bufferPos);
+        discardBuffer();
+        while (remaining > 0) {
+            int read = read(buffer, 0, Math.min(remaining, buffer.length));
+            if (read < 0) {
+                throw truncated();
+            }
+            totalBytesRetired += read;
+            remaining -= read;
+        }
+        recomputeBufferSize();
+    }
+
+    /**
+     * 保证缓冲区中至少有n个可读字节
+     *
+     * @return 到达limit或流结束时返回false
+     */
+    private boolean tryRefill(int n) {
+        if (input == null || (long) getPosition() + n > currentLimit) {
+            return false;
+        }
+        if (bufferPos > 0) {
+            int remaining = bufferLength - bufferPos;
+            System.arraycopy(buffer, bufferPos, buffer, 0, remaining);
+            totalBytesRetired += bufferPos;
+            bufferLength = remaining;
+            bufferPos = 0;
+        }
+        while (bufferLength < n) {
+            int read = read(buffer, bufferLength, buffer.length - bufferLength);
+            if (read < 0) {
+                recomputeBufferSize();
+                return false;
+            }
+            bufferLength += read;
+        }
+        recomputeBufferSize();
+        return true;
+    }
+
+    private void discardBuffer() {
+        totalBytesRetired += bufferLength;
+        bufferLength = 0;
+        bufferPos = 0;
+        bufferSize = 0;
+    }
+
+    private void readFully(byte[] target, int offset, int length) {
+        while (length > 0) {
+            int read = read(target, offset, length);
+            if (read < 0) {
+                throw truncated();
+            }
+            totalBytesRetired += read;
+            offset += read;
+            length -= read;
+        }
+    }
+
+    private int read(byte[] target, int offset, int length) {
+        try {
+            return input.read(target, offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void recomputeBufferSize() {
+        long limitInBuffer = (long) currentLimit - totalBytesRetired;
+        bufferSize = (int) Math.min(bufferLength, limitInBuffer);
+    }
+
+    private static IllegalArgumentException truncated() {
+        return new IllegalArgumentException("Truncated protobuf message.");
+    }
+}
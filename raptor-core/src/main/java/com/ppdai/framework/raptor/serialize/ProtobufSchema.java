@@ -0,0 +1,399 @@
+package com.ppdai.framework.raptor.serialize;
+
+import com.ppdai.framework.raptor.annotation.RaptorField;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 根据{@link RaptorField}元数据构建的消息结构,按类缓存,运行时不再扫描注解
+ *
+ * @author yinzuolong
+ */
+final class ProtobufSchema {
+
+    private static final ConcurrentMap<Class<?>, ProtobufSchema> SCHEMAS = new ConcurrentHashMap<>();
+
+    private static final int MAX_INDEXED_FIELD_NUMBER = 1024;
+
+    private final Constructor<?> constructor;
+    private final FieldSchema[] fields;
+    private final FieldSchema[] fieldsByNumber;
+    private final Map<Integer, FieldSchema> fieldMap;
+
+    static ProtobufSchema of(Class<?> type) {
+        ProtobufSchema schema = SCHEMAS.get(type);
+        if (schema == null) {
+            //嵌套消息的schema延迟解析,这里不会递归修改SCHEMAS
+            schema = new ProtobufSchema(type);
+            ProtobufSchema exists = SCHEMAS.putIfAbsent(type, schema);
+            if (exists != null) {
+                schema = exists;
+            }
+        }
+        return schema;
+    }
+
+    private ProtobufSchema(Class<?> type) {
+        try {
+            this.constructor = type.getDeclaredConstructor();
+            this.constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("RaptorMessage must have a no-arg constructor: " + type.getName(), e);
+        }
+        List<FieldSchema> fieldList = new ArrayList<>();
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                RaptorField raptorField = field.getAnnotation(RaptorField.class);
+                if (raptorField != null && !Modifier.isStatic(field.getModifiers())) {
+                    fieldList.add(new FieldSchema(field, raptorField));
+                }
+            }
+        }
+        fieldList.sort(Comparator.comparingInt(f -> f.number));
+        this.fields = fieldList.toArray(new FieldSchema[0]);
+
+        int maxNumber = fields.length == 0 ? 0 : fields[fields.length - 1].number;
+        if (maxNumber <= MAX_INDEXED_FIELD_NUMBER) {
+            this.fieldsByNumber = new FieldSchema[maxNumber + 1];
+            for (FieldSchema field : fields) {
+                fieldsByNumber[field.number] = field;
+            }
+            this.fieldMap = null;
+        } else {
+            this.fieldsByNumber = null;
+            this.fieldMap = new HashMap<>();
+            for (FieldSchema field : fields) {
+                fieldMap.put(field.number, field);
+            }
+        }
+    }
+
+    Object newInstance() {
+        try {
+            return constructor.newInstance();
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Can't instantiate " + constructor.getDeclaringClass().getName(), e);
+        }
+    }
+
+    void write(Object message, ProtobufWriter writer) {
+        for (FieldSchema field : fields) {
+            Object value = field.get(message);
+            if (value != null) {
+                field.write(value, writer);
+            }
+        }
+    }
+
+    Object read(ProtobufReader reader) {
+        Object message = newInstance();
+        int tag;
+        while ((tag = reader.readTag()) != 0) {
+            FieldSchema field = findField(tag >>> 3);
+            if (field == null) {
+                reader.skipField(tag);
+            } else {
+                field.read(message, tag, reader);
+            }
+        }
+        return message;
+    }
+
+    private FieldSchema findField(int number) {
+        if (fieldsByNumber != null) {
+            return number < fieldsByNumber.length ? fieldsByNumber[number] : null;
+        }
+        return fieldMap.get(number);
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return rawClass(((ParameterizedType) type).getRawType());
+        }
+        return Object.class;
+    }
+
+    private static Type typeArgument(Field field, int index) {
+        Type genericType = field.getGenericType();
+        if (genericType instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+            if (arguments.length > index) {
+                return arguments[index];
+            }
+        }
+        throw new IllegalArgumentException("Can't resolve generic type of field " + field);
+    }
+
+    private static final class FieldSchema {
+        private final Field field;
+        private final int number;
+        private final boolean repeated;
+        private final boolean map;
+        private final ValueSchema key;
+        private final ValueSchema value;
+
+        FieldSchema(Field field, RaptorField raptorField) {
+            this.field = field;
+            this.field.setAccessible(true);
+            this.number = raptorField.order();
+            this.map = raptorField.isMap() || Map.class.isAssignableFrom(field.getType());
+            this.repeated = !map && (raptorField.repeated() || List.class.isAssignableFrom(field.getType()));
+            if (map) {
+                this.key = new ValueSchema(raptorField.keyType(), rawClass(typeArgument(field, 0)));
+                this.value = new ValueSchema(raptorField.fieldType(), rawClass(typeArgument(field, 1)));
+            } else if (repeated) {
+                this.key = null;
+                this.value = new ValueSchema(raptorField.fieldType(), rawClass(typeArgument(field, 0)));
+            } else {
+                this.key = null;
+                this.value = new ValueSchema(raptorField.fieldType(), field.getType());
+            }
+        }
+
+        Object get(Object message) {
+            try {
+                return field.get(message);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void set(Object message, Object fieldValue) {
+            try {
+                field.set(message, fieldValue);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void write(Object fieldValue, ProtobufWriter writer) {
+            if (map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) fieldValue).entrySet()) {
+                    int lengthPosition = writer.beginLengthDelimited(number);
+                    if (entry.getKey() != null) {
+                        key.write(1, entry.getKey(), writer);
+                    }
+                    if (entry.getValue() != null) {
+                        value.write(2, entry.getValue(), writer);
+                    }
+                    writer.endLengthDelimited(lengthPosition);
+                }
+            } else if (repeated) {
+                List<?> list = (List<?>) fieldValue;
+                if (list.isEmpty()) {
+                    return;
+                }
+                if (value.type.isPackable()) {
+                    int lengthPosition = writer.beginLengthDelimited(number);
+                    for (Object element : list) {
+                        if (element != null) {
+                            value.writeNoTag(element, writer);
+                        }
+                    }
+                    writer.endLengthDelimited(lengthPosition);
+                } else {
+                    for (Object element : list) {
+                        if (element != null) {
+                            value.write(number, element, writer);
+                        }
+                    }
+                }
+            } else {
+                value.write(number, fieldValue, writer);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void read(Object message, int tag, ProtobufReader reader) {
+            int wireType = tag & 0x7;
+            if (map) {
+                if (wireType != ProtobufType.WIRE_LENGTH_DELIMITED) {
+                    reader.skipField(tag);
+                    return;
+                }
+                Map<Object, Object> fieldValue = (Map<Object, Object>) get(message);
+                if (fieldValue == null) {
+                    fieldValue = new LinkedHashMap<>();
+                    set(message, fieldValue);
+                }
+                readEntry(fieldValue, reader);
+            } else if (repeated) {
+                List<Object> fieldValue = (List<Object>) get(message);
+                if (fieldValue == null) {
+                    fieldValue = new ArrayList<>();
+                    set(message, fieldValue);
+                }
+                if (wireType == ProtobufType.WIRE_LENGTH_DELIMITED && value.type.isPackable()) {
+                    int oldLimit = reader.pushLimit();
+                    while (!reader.isAtEnd()) {
+                        fieldValue.add(value.read(reader));
+                    }
+                    reader.popLimit(oldLimit);
+                } else if (wireType == value.type.getWireType()) {
+                    fieldValue.add(value.read(reader));
+                } else {
+                    reader.skipField(tag);
+                }
+            } else if (wireType == value.type.getWireType()) {
+                set(message, value.read(reader));
+            } else {
+                reader.skipField(tag);
+            }
+        }
+
+        private void readEntry(Map<Object, Object> fieldValue, ProtobufReader reader) {
+            int oldLimit = reader.pushLimit();
+            Object entryKey = null;
+            Object entryValue = null;
+            int tag;
+            while ((tag = reader.readTag()) != 0) {
+                int entryNumber = tag >>> 3;
+                if (entryNumber == 1 && (tag & 0x7) == key.type.getWireType()) {
+                    entryKey = key.read(reader);
+                } else if (entryNumber == 2 && (tag & 0x7) == value.type.getWireType()) {
+                    entryValue = value.read(reader);
+                } else {
+                    reader.skipField(tag);
+                }
+            }
+            reader.popLimit(oldLimit);
+            fieldValue.put(entryKey != null ? entryKey : key.defaultValue(),
+                    entryValue != null ? entryValue : value.defaultValue());
+        }
+    }
+
+    private static final class ValueSchema {
+        private final ProtobufType type;
+        private final Class<?> javaType;
+        private final EnumSchema enumSchema;
+        private volatile ProtobufSchema messageSchema;
+
+        ValueSchema(String fieldType, Class<?> javaType) {
+            this.javaType = javaType;
+            ProtobufType scalarType = ProtobufType.fromScalarName(fieldType);
+            if (scalarType != null) {
+                this.type = scalarType;
+            } else if (javaType.isEnum()) {
+                this.type = ProtobufType.ENUM;
+            } else {
+                this.type = ProtobufType.MESSAGE;
+            }
+            this.enumSchema = type == ProtobufType.ENUM ? new EnumSchema(javaType) : null;
+        }
+
+        ProtobufSchema messageSchema() {
+            ProtobufSchema schema = messageSchema;
+            if (schema == null) {
+                schema = ProtobufSchema.of(javaType);
+                messageSchema = schema;
+            }
+            return schema;
+        }
+
+        void write(int number, Object value, ProtobufWriter writer) {
+            if (type == ProtobufType.MESSAGE) {
+                int lengthPosition = writer.beginLengthDelimited(number);
+                messageSchema().write(value, writer);
+                writer.endLengthDelimited(lengthPosition);
+            } else {
+                writer.writeTag(number, type.getWireType());
+                writeNoTag(value, writer);
+            }
+        }
+
+        void writeNoTag(Object value, ProtobufWriter writer) {
+            if (type == ProtobufType.ENUM) {
+                writer.writeRawVarint64(enumSchema.toValue(value));
+            } else {
+                writer.writeScalarNoTag(type, value);
+            }
+        }
+
+        Object read(ProtobufReader reader) {
+            switch (type) {
+                case MESSAGE: {
+                    int oldLimit = reader.pushLimit();
+                    Object message = messageSchema().read(reader);
+                    reader.popLimit(oldLimit);
+                    return message;
+                }
+                case ENUM:
+                    return enumSchema.fromValue(reader.readRawVarint32());
+                default:
+                    return reader.readScalar(type);
+            }
+        }
+
+        Object defaultValue() {
+            switch (type) {
+                case DOUBLE:
+                    return 0D;
+                case FLOAT:
+                    return 0F;
+                case INT64:
+                case UINT64:
+                case SINT64:
+                case FIXED64:
+                case SFIXED64:
+                    return 0L;
+                case BOOL:
+                    return Boolean.FALSE;
+                case STRING:
+                    return "";
+                case BYTES:
+                    return new byte[0];
+                case ENUM:
+                    return enumSchema.fromValue(0);
+                case MESSAGE:
+                    return messageSchema().newInstance();
+                default:
+                    return 0;
+            }
+        }
+    }
+
+    /**
+     * 生成的枚举带有getValue()/fromValue(int),没有时使用ordinal
+     */
+    private static final class EnumSchema {
+        private final int[] values;
+        private final Map<Integer, Object> constants = new HashMap<>();
+
+        EnumSchema(Class<?> enumType) {
+            Object[] enumConstants = enumType.getEnumConstants();
+            this.values = new int[enumConstants.length];
+            Method getValue = null;
+            try {
+                getValue = enumType.getMethod("getValue");
+            } catch (NoSuchMethodException e) {
+                //ignore, use ordinal
+            }
+            for (int i = 0; i < enumConstants.length; i++) {
+                int value = i;
+                if (getValue != null) {
+                    try {
+                        value = ((Number) getValue.invoke(enumConstants[i])).intValue();
+                    } catch (IllegalAccessException | InvocationTargetException e) {
+                        throw new IllegalStateException("Can't get value of enum " + enumConstants[i], e);
+                    }
+                }
+                values[i] = value;
+                constants.putIfAbsent(value, enumConstants[i]);
+            }
+        }
+
+        int toValue(Object constant) {
+            return values[((Enum<?>) constant).ordinal()];
+        }
+
+        Object fromValue(int value) {
+            return constants.get(value);
+        }
+    }
+}
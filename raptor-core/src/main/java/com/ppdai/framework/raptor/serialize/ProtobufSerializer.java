@@ -0,0 +1,52 @@
+package com.ppdai.framework.raptor.serialize;
+
+import java.io.InputStream;
+
+/**
+ * 按{@link com.ppdai.framework.raptor.annotation.RaptorField}元数据进行protobuf二进制序列化,
+ * 与protoc生成代码的wire格式兼容.
+ * <p>
+ * 优先使用代码生成的{@link ProtobufCodec},没有时使用反射构建的schema
+ *
+ * @author yinzuolong
+ */
+public final class ProtobufSerializer {
+
+    private ProtobufSerializer() {
+    }
+
+    public static byte[] serialize(Object message) {
+        ProtobufWriter writer = new ProtobufWriter();
+        serialize(message, writer);
+        return writer.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void serialize(Object message, ProtobufWriter writer) {
+        ProtobufCodec<Object> codec = CodecRegistry.getCodec(message.getClass(), ProtobufCodec.class);
+        if (codec != null) {
+            codec.write(message, writer);
+        } else {
+            ProtobufSchema.of(message.getClass()).write(message, writer);
+        }
+    }
+
+    public static <T> T deserialize(byte[] data, Class<T> type) {
+        return deserialize(new ProtobufReader(data), type);
+    }
+
+    /**
+     * 从流中边读边解析,不需要先读出整个消息
+     */
+    public static <T> T deserialize(InputStream input, Class<T> type) {
+        return deserialize(new ProtobufReader(input), type);
+    }
+
+    public static <T> T deserialize(ProtobufReader reader, Class<T> type) {
+        ProtobufCodec<?> codec = CodecRegistry.getCodec(type, ProtobufCodec.class);
+        if (codec != null) {
+            return type.cast(codec.read(reader));
+        }
+        return type.cast(ProtobufSchema.of(type).read(reader));
+    }
+}
@@ -0,0 +1,67 @@
+package com.ppdai.framework.raptor.serialize;
+
+/**
+ * protobuf字段类型,与{@link com.ppdai.framework.raptor.annotation.RaptorField#fieldType()}对应
+ *
+ * @author yinzuolong
+ */
+public enum ProtobufType {
+
+    DOUBLE("double", ProtobufType.WIRE_FIXED64),
+    FLOAT("float", ProtobufType.WIRE_FIXED32),
+    INT32("int32", ProtobufType.WIRE_VARINT),
+    INT64("int64", ProtobufType.WIRE_VARINT),
+    UINT32("uint32", ProtobufType.WIRE_VARINT),
+    UINT64("uint64", ProtobufType.WIRE_VARINT),
+    SINT32("sint32", ProtobufType.WIRE_VARINT),
+    SINT64("sint64", ProtobufType.WIRE_VARINT),
+    FIXED32("fixed32", ProtobufType.WIRE_FIXED32),
+    FIXED64("fixed64", ProtobufType.WIRE_FIXED64),
+    SFIXED32("sfixed32", ProtobufType.WIRE_FIXED32),
+    SFIXED64("sfixed64", ProtobufType.WIRE_FIXED64),
+    BOOL("bool", ProtobufType.WIRE_VARINT),
+    STRING("string", ProtobufType.WIRE_LENGTH_DELIMITED),
+    BYTES("bytes", ProtobufType.WIRE_LENGTH_DELIMITED),
+    ENUM("enum", ProtobufType.WIRE_VARINT),
+    MESSAGE("message", ProtobufType.WIRE_LENGTH_DELIMITED);
+
+    public static final int WIRE_VARINT = 0;
+    public static final int WIRE_FIXED64 = 1;
+    public static final int WIRE_LENGTH_DELIMITED = 2;
+    public static final int WIRE_FIXED32 = 5;
+
+    private final String protoName;
+    private final int wireType;
+
+    ProtobufType(String protoName, int wireType) {
+        this.protoName = protoName;
+        this.wireType = wireType;
+    }
+
+    public String getProtoName() {
+        return protoName;
+    }
+
+    public int getWireType() {
+        return wireType;
+    }
+
+    /**
+     * 数值类型的repeated字段使用packed编码
+     */
+    public boolean isPackable() {
+        return wireType != WIRE_LENGTH_DELIMITED;
+    }
+
+    /**
+     * @return 标量类型返回对应的ProtobufType,enum/message或自定义类型名返回null
+     */
+    public static ProtobufType fromScalarName(String name) {
+        for (ProtobufType type : values()) {
+            if (type != ENUM && type != MESSAGE && type.protoName.equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,382 @@
+package com.ppdai.framework.raptor.serialize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * protobuf wire格式写入器,直接写入可增长的byte数组.
+ * <p>
+ * 长度前缀字段(string/bytes/message/packed/map entry)先预留1个字节,
+ * 写完内容后回填长度,长度超过127时再整体后移,避免嵌套消息二次计算大小.
+ *
+ * @author yinzuolong
+ */
+public class ProtobufWriter {
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private byte[] buffer;
+    private int position;
+
+    public ProtobufWriter() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ProtobufWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public void reset() {
+        this.position = 0;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(buffer, 0, position);
+    }
+
+    public void writeTag(int fieldNumber, int wireType) {
+        writeRawVarint32((fieldNumber << 3) | wireType);
+    }
+
+    /**
+     * 开始一个长度前缀的字段,返回值交给{@link #endLengthDelimited(int)}回填长度
+     */
+    public int beginLengthDelimited(int fieldNumber) {
+        writeTag(fieldNumber, ProtobufType.WIRE_LENGTH_DELIMITED);
+        ensureCapacity(1);
+        return position++;
+    }
+
+    public void endLengthDelimited(int lengthPosition) {
+        int length = position - lengthPosition - 1;
+        int lengthSize = computeRawVarint32Size(length);
+        if (lengthSize > 1) {
+            ensureCapacity(lengthSize - 1);
+            System.arraycopy(buffer, lengthPosition + 1, buffer, lengthPosition + lengthSize, length);
+            position += lengthSize - 1;
+        }
+        int end = position;
+        position = lengthPosition;
+        writeRawVarint32(length);
+        position = end;
+    }
+
+    public void writeString(int fieldNumber, String value) {
+        writeTag(fieldNumber, ProtobufType.WIRE_LENGTH_DELIMITED);
+        writeStringNoTag(value);
+    }
+
+    public void writeBytes(int fieldNumber, byte[] value) {
+        writeTag(fieldNumber, ProtobufType.WIRE_LENGTH_DELIMITED);
+        writeBytesNoTag(value);
+    }
+
+    public void writeInt32(int fieldNumber, int value) {
+        writeTag(fieldNumber, ProtobufType.WIRE_VARINT);
+        writeInt32NoTag(value);
+    }
+
+    public void writeInt64(int fieldNumber, long value) {
+        writeTag(fieldNumber, ProtobufType.WIRE_VARINT);
+        writeRawVarint64(value);
+    }
+
+    public void writeUInt32(int fieldNumber, int value) {
+        writeTag(fieldNumber, ProtobufType.WIRE_VARINT);
+        writeRawVarint32(value);
+    }
+
+    public void writeUInt64(int fieldNumber, long value) {
+        writeInt64(fieldNumber, value);
+    }
+
+    public void writeSInt32(int fieldNumber, int value) {
+        writeTag(fieldNumber, ProtobufType.WIRE_VARINT);
+        writeSInt32NoTag(value);
+    }
+
+    public void writeSInt64(int fieldNumber, long value) {
+        writeTag(fieldNumber, ProtobufType.WIRE_VARINT);
+        writeSInt64NoTag(value);
+    }
+
+    public void writeFixed32(int fieldNumber, int value) {
+        writeTag(fieldNumber, ProtobufType.WIRE_FIXED32);
+        writeRawFixed32(value);
+    }
+
+    public void writeFixed64(int fieldNumber, long value) {
+        writeTag(fieldNumber, ProtobufType.WIRE_FIXED64);
+        writeRawFixed64(value);
+    }
+
+    public void writeSFixed32(int fieldNumber, int value) {
+        writeFixed32(fieldNumber, value);
+    }
+
+    public void writeSFixed64(int fieldNumber, long value) {
+        writeFixed64(fieldNumber, value);
+    }
+
+    public void writeDouble(int fieldNumber, double value) {
+        writeFixed64(fieldNumber, Double.doubleToRawLongBits(value));
+    }
+
+    public void writeFloat(int fieldNumber, float value) {
+        writeFixed32(fieldNumber, Float.floatToRawIntBits(value));
+    }
+
+    public void writeBool(int fieldNumber, boolean value) {
+        writeTag(fieldNumber, ProtobufType.WIRE_VARINT);
+        writeRawByte(value ? 1 : 0);
+    }
+
+    public void writeEnum(int fieldNumber, int value) {
+        writeInt32(fieldNumber, value);
+    }
+
+    public <T> void writeMessage(int fieldNumber, T value, ProtobufCodec<T> codec) {
+        int lengthPosition = beginLengthDelimited(fieldNumber);
+        codec.write(value, this);
+        endLengthDelimited(lengthPosition);
+    }
+
+    public void writeInt32NoTag(int value) {
+        //负数按64位varint写入,与protoc一致
+        writeRawVarint64(value);
+    }
+
+    public void writeInt64NoTag(long value) {
+        writeRawVarint64(value);
+    }
+
+    public void writeUInt32NoTag(int value) {
+        writeRawVarint32(value);
+    }
+
+    public void writeUInt64NoTag(long value) {
+        writeRawVarint64(value);
+    }
+
+    public void writeSInt32NoTag(int value) {
+        writeRawVarint32(encodeZigZag32(value));
+    }
+
+    public void writeSInt64NoTag(long value) {
+        writeRawVarint64(encodeZigZag64(value));
+    }
+
+    public void writeFixed32NoTag(int value) {
+        writeRawFixed32(value);
+    }
+
+    public void writeFixed64NoTag(long value) {
+        writeRawFixed64(value);
+    }
+
+    public void writeSFixed32NoTag(int value) {
+        writeRawFixed32(value);
+    }
+
+    public void writeSFixed64NoTag(long value) {
+        writeRawFixed64(value);
+    }
+
+    public void writeDoubleNoTag(double value) {
+        writeRawFixed64(Double.doubleToRawLongBits(value));
+    }
+
+    public void writeFloatNoTag(float value) {
+        writeRawFixed32(Float.floatToRawIntBits(value));
+    }
+
+    public void writeBoolNoTag(boolean value) {
+        writeRawByte(value ? 1 : 0);
+    }
+
+    public void writeEnumNoTag(int value) {
+        writeInt32NoTag(value);
+    }
+
+    /**
+     * 按类型写入一个标量值(不含tag)
+     */
+    public void writeScalarNoTag(ProtobufType type, Object value) {
+        switch (type) {
+            case DOUBLE:
+                writeDoubleNoTag(((Number) value).doubleValue());
+                break;
+            case FLOAT:
+                writeFloatNoTag(((Number) value).floatValue());
+                break;
+            case INT32:
+            case ENUM:
+                writeInt32NoTag(((Number) value).intValue());
+                break;
+            case INT64:
+            case UINT64:
+                writeRawVarint64(((Number) value).longValue());
+                break;
+            case UINT32:
+                writeRawVarint32(((Number) value).intValue());
+                break;
+            case SINT32:
+                writeSInt32NoTag(((Number) value).intValue());
+                break;
+            case SINT64:
+                writeSInt64NoTag(((Number) value).longValue());
+                break;
+            case FIXED32:
+            case SFIXED32:
+                writeRawFixed32(((Number) value).intValue());
+                break;
+            case FIXED64:
+            case SFIXED64:
+                writeRawFixed64(((Number) value).longValue());
+                break;
+            case BOOL:
+                writeBoolNoTag((Boolean) value);
+                break;
+            case STRING:
+                writeStringNoTag((String) value);
+                break;
+            case BYTES:
+                writeBytesNoTag((byte[]) value);
+                break;
+            default:
+                throw new IllegalArgumentException("Not a scalar protobuf type: " + type);
+        }
+    }
+
+    public void writeScalar(int fieldNumber, ProtobufType type, Object value) {
+        writeTag(fieldNumber, type.getWireType());
+        writeScalarNoTag(type, value);
+    }
+
+    public void writeStringNoTag(String value) {
+        ensureCapacity(1);
+        int lengthPosition = position++;
+        writeRawUtf8(value);
+        endLengthDelimited(lengthPosition);
+    }
+
+    public void writeBytesNoTag(byte[] value) {
+        writeRawVarint32(value.length);
+        writeRawBytes(value, 0, value.length);
+    }
+
+    public void writeRawByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeRawBytes(byte[] value, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(value, offset, buffer, position, length);
+        position += length;
+    }
+
+    public void writeRawVarint32(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeRawVarint64(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) (((int) value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeRawFixed32(int value) {
+        ensureCapacity(4);
+        buffer[position++] = (byte) value;
+        buffer[position++] = (byte) (value >> 8);
+        buffer[position++] = (byte) (value >> 16);
+        buffer[position++] = (byte) (value >> 24);
+    }
+
+    public void writeRawFixed64(long value) {
+        writeRawFixed32((int) value);
+        writeRawFixed32((int) (value >> 32));
+    }
+
+    /**
+     * 直接把字符串编码为UTF-8写入缓冲区,不产生中间byte数组
+     */
+    public void writeRawUtf8(String value) {
+        int length = value.length();
+        ensureCapacity(length * 3);
+        byte[] buf = buffer;
+        int pos = position;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buf[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >>> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buf[pos++] = (byte) (0xF0 | (codePoint >>> 18));
+                buf[pos++] = (byte) (0x80 | ((codePoint >>> 12) & 0x3F));
+                buf[pos++] = (byte) (0x80 | ((codePoint >>> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                //不成对的代理字符,与String.getBytes(UTF_8)保持一致写入'?'
+                buf[pos++] = (byte) '?';
+            } else {
+                buf[pos++] = (byte) (0xE0 | (c >>> 12));
+                buf[pos++] = (byte) (0x80 | ((c >>> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        position = pos;
+    }
+
+    public static int encodeZigZag32(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    public static long encodeZigZag64(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public static int computeRawVarint32Size(int value) {
+        if ((value & (~0 << 7)) == 0) {
+            return 1;
+        }
+        if ((value & (~0 << 14)) == 0) {
+            return 2;
+        }
+        if ((value & (~0 << 21)) == 0) {
+            return 3;
+        }
+        if ((value & (~0 << 28)) == 0) {
+            return 4;
+        }
+        return 5;
+    }
+
+    private void ensureCapacity(int length) {
+        int required = position + length;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, required));
+        }
+    }
+}
@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 自生成Id生成器.
@@ -36,6 +37,11 @@ public class CommonSelfIdGenerator {
 
     private static final long WORKER_ID_MAX_VALUE = 1L << WORKER_ID_BITS;
 
+    /**
+     * 时钟回拨超过该值时,自增量用完后不再等待时钟追上
+     */
+    public static final long MAX_BACKWARD_MILLIS = 1000L;
+
     @Getter
     private long workerId;
 
@@ -49,9 +55,10 @@ public class CommonSelfIdGenerator {
         EPOCH = calendar.getTimeInMillis();
     }
 
-    private long sequence;
-
-    private long lastTime;
+    /**
+     * 最近一次生成的时间偏移量和自增量,高位为时间偏移量,低12位为自增量
+     */
+    private final AtomicLong state = new AtomicLong();
 
     /**
      * 设置工作进程Id.
@@ -73,30 +80,44 @@ public class CommonSelfIdGenerator {
 
     /**
      * 生成Id.
+     * <p>
+     * 通过CAS更新时间偏移量和自增量,不加锁.
+     * 系统时钟回拨时沿用上一次的时间继续递增,不会生成重复Id;同一毫秒内自增量用完时等待下一毫秒,
+     * 回拨超过{@link #MAX_BACKWARD_MILLIS}时不再等待时钟,直接进位到下一毫秒
      *
      * @return 返回@{@link Long}类型的Id
      */
-    public synchronized long generateId() {
-        long time = System.currentTimeMillis();
-        if (lastTime == time) {
-            if (0L == (++sequence & SEQUENCE_MASK)) {
-                time = waitUntilNextTime(time);
+    public long generateId() {
+        for (; ; ) {
+            long current = state.get();
+            long lastTime = current >>> SEQUENCE_BITS;
+            long time = currentTimeMillis() - EPOCH;
+            long next;
+            if (time > lastTime) {
+                next = time << SEQUENCE_BITS;
+            } else if ((current & SEQUENCE_MASK) != SEQUENCE_MASK || lastTime - time > MAX_BACKWARD_MILLIS) {
+                //自增量溢出时进位到下一毫秒
+                next = current + 1;
+            } else {
+                Thread.yield();
+                continue;
+            }
+            if (state.compareAndSet(current, next)) {
+                return toId(next);
             }
-        } else {
-            sequence = 0;
         }
-        lastTime = time;
+    }
+
+    private long toId(long state) {
+        long time = state >>> SEQUENCE_BITS;
+        long sequence = state & SEQUENCE_MASK;
         if (log.isDebugEnabled()) {
-            log.debug("{}-{}-{}", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(lastTime)), workerId, sequence);
+            log.debug("{}-{}-{}", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(time + EPOCH)), workerId, sequence);
         }
-        return ((time - EPOCH) << TIMESTAMP_LEFT_SHIFT_BITS) | (workerId << WORKER_ID_LEFT_SHIFT_BITS) | sequence;
+        return (time << TIMESTAMP_LEFT_SHIFT_BITS) | (workerId << WORKER_ID_LEFT_SHIFT_BITS) | sequence;
     }
 
-    private long waitUntilNextTime(final long lastTime) {
-        long time = System.currentTimeMillis();
-        while (time <= lastTime) {
-            time = System.currentTimeMillis();
-        }
-        return time;
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
     }
 }
@@ -4,6 +4,11 @@ import java.net.InetAddress;
 
 public class RequestIdUtils {
 
+    /**
+     * long转为十进制后的最大长度(含负号)
+     */
+    public static final int MAX_LENGTH = 20;
+
     private static CommonSelfIdGenerator ID_GENERATOR = new CommonSelfIdGenerator();
 
     static {
@@ -25,4 +30,67 @@ public class RequestIdUtils {
     public static String getRequestId() {
         return String.valueOf(ID_GENERATOR.generateId());
     }
+
+    /**
+     * 获取long类型的requestId,需要写入header时可以配合{@link #getBytes(long, byte[], int)}使用,不创建String
+     *
+     * @return
+     */
+    public static long nextRequestId() {
+        return ID_GENERATOR.generateId();
+    }
+
+    /**
+     * 以十进制ASCII写入requestId
+     *
+     * @param id     requestId
+     * @param buf    目标数组,从offset开始至少有{@link #MAX_LENGTH}个位置时一定能写下
+     * @param offset 开始位置
+     * @return 写入后的结束位置
+     */
+    public static int getBytes(long id, byte[] buf, int offset) {
+        int end = offset + stringSize(id);
+        int pos = end;
+        long value = id;
+        if (value < 0) {
+            buf[offset] = '-';
+        }
+        do {
+            buf[--pos] = (byte) ('0' + Math.abs(value % 10));
+            value /= 10;
+        } while (value != 0);
+        return end;
+    }
+
+    /**
+     * 以十进制字符写入requestId
+     *
+     * @return 写入后的结束位置
+     * @see #getBytes(long, byte[], int)
+     */
+    public static int getChars(long id, char[] buf, int offset) {
+        int end = offset + stringSize(id);
+        int pos = end;
+        long value = id;
+        if (value < 0) {
+            buf[offset] = '-';
+        }
+        do {
+            buf[--pos] = (char) ('0' + Math.abs(value % 10));
+            value /= 10;
+        } while (value != 0);
+        return end;
+    }
+
+    /**
+     * 十进制表示的长度
+     */
+    public static int stringSize(long id) {
+        int size = id < 0 ? 2 : 1;
+        long value = id;
+        while ((value /= 10) != 0) {
+            size++;
+        }
+        return size;
+    }
 }
@@ -0,0 +1,68 @@
+package com.ppdai.framework.raptor.concurrent;
+
+import com.ppdai.framework.raptor.rpc.RaptorContext;
+import com.ppdai.framework.raptor.rpc.RaptorRequest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorContextExecutorsTest {
+
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() {
+        pool = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testExecutorService() throws Exception {
+        ExecutorService executorService = RaptorContextExecutors.wrap(pool);
+        RaptorRequest request = new RaptorRequest();
+        try (RaptorContext context = RaptorContext.open()) {
+            context.putRequestAttachment("x-raptortrace-id", "1");
+            context.putAttribute("a", "b");
+            context.setRequest(request);
+            Future<String> future = executorService.submit(() -> RaptorContext.getContext().getRequestAttachment("x-raptortrace-id")
+                    + RaptorContext.getContext().getAttribute("a"));
+            Assert.assertEquals("1b", future.get());
+            Assert.assertSame(request, executorService.submit(() -> RaptorContext.getContext().getRequest()).get());
+            Assert.assertEquals(Arrays.asList("1", "1"), Arrays.asList(
+                    executorService.invokeAll(Arrays.asList(
+                            () -> RaptorContext.getContext().getRequestAttachment("x-raptortrace-id"),
+                            () -> RaptorContext.getContext().getRequestAttachment("x-raptortrace-id"))).get(0).get(),
+                    executorService.invokeAny(Arrays.asList(
+                            () -> RaptorContext.getContext().getRequestAttachment("x-raptortrace-id")))));
+        }
+        //执行完后恢复线程池线程原来的context
+        Assert.assertNull(pool.submit(() -> RaptorContext.getContext().getRequestAttachment("x-raptortrace-id")).get());
+        Assert.assertNull(pool.submit(() -> RaptorContext.getContext().getRequest()).get());
+    }
+
+    @Test
+    public void testCompletableFuture() throws Exception {
+        try (RaptorContext context = RaptorContext.open()) {
+            context.putRequestAttachment("x-raptortrace-id", "2");
+            Assert.assertEquals("2", RaptorContextExecutors.supplyAsync(
+                    () -> RaptorContext.getContext().getRequestAttachment("x-raptortrace-id"), pool).get());
+            Assert.assertEquals("22", RaptorContextExecutors.supplyAsync(() -> "2")
+                    .thenApplyAsync(value -> value + RaptorContext.getContext().getRequestAttachment("x-raptortrace-id"),
+                            RaptorContextExecutors.withCurrentContext(pool))
+                    .get());
+        }
+    }
+}
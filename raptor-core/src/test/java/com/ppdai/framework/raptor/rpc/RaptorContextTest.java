@@ -0,0 +1,111 @@
+package com.ppdai.framework.raptor.rpc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorContextTest {
+
+    @Test
+    public void testOpenClose() {
+        RaptorContext root = RaptorContext.getContext();
+        RaptorContext opened;
+        try (RaptorContext context = RaptorContext.open()) {
+            opened = context;
+            Assert.assertSame(context, RaptorContext.getContext());
+            context.putAttribute("a", 1);
+            context.putRequestAttachment("x-raptor-trace", "1");
+            context.setRequest(new RaptorRequest());
+        }
+        Assert.assertSame(root, RaptorContext.getContext());
+        //close后清空,下次open时复用
+        Assert.assertNull(opened.getAttribute("a"));
+        Assert.assertNull(opened.getRequest());
+        try (RaptorContext context = RaptorContext.open()) {
+            Assert.assertSame(opened, context);
+            Assert.assertTrue(context.getRequestAttachments().isEmpty());
+        }
+        //重复close不影响当前context
+        opened.close();
+        Assert.assertSame(root, RaptorContext.getContext());
+    }
+
+    @Test
+    public void testOpenCopy() {
+        try (RaptorContext parent = RaptorContext.open()) {
+            parent.putRequestAttachment("x-raptor-trace", "1");
+            try (RaptorContext child = RaptorContext.openCopy()) {
+                Assert.assertEquals("1", child.getRequestAttachment("x-raptor-trace"));
+                child.putRequestAttachment("x-raptor-child", "2");
+                child.putResponseAttachment("x-raptor-server", "s");
+            }
+            Assert.assertSame(parent, RaptorContext.getContext());
+            Assert.assertNull(parent.getRequestAttachment("x-raptor-child"));
+            Assert.assertEquals("s", parent.getResponseAttachment("x-raptor-server"));
+        }
+    }
+
+    @Test
+    public void testDetach() throws Exception {
+        RaptorContext root = RaptorContext.getContext();
+        RaptorContext context = RaptorContext.open();
+        context.putAttribute("a", 1);
+        context.detach();
+        Assert.assertSame(root, RaptorContext.getContext());
+        //转到其他线程后不再清空和复用
+        context.close();
+        Assert.assertEquals(1, context.getAttribute("a"));
+    }
+
+    @Test
+    public void testAttach() throws Exception {
+        RaptorContext context = RaptorContext.open();
+        context.putAttribute("a", 1);
+        context.detach();
+        //在其他线程上继续处理,close时恢复该线程原来的context
+        CompletableFuture.runAsync(() -> {
+            RaptorContext root = RaptorContext.getContext();
+            context.attach();
+            Assert.assertSame(context, RaptorContext.getContext());
+            Assert.assertEquals(1, RaptorContext.getContext().getAttribute("a"));
+            context.close();
+            Assert.assertSame(root, RaptorContext.getContext());
+        }).get();
+        Assert.assertNull(context.getAttribute("a"));
+    }
+
+    @Test
+    public void testCloseOnOtherThread() throws Exception {
+        RaptorContext context = RaptorContext.open();
+        try {
+            CompletableFuture.runAsync(context::close).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test
+    public void testMergeResponseAttachments() {
+        RaptorContext parent = RaptorContext.open();
+        long generation = parent.getGeneration();
+        Assert.assertTrue(parent.mergeResponseAttachments(Collections.singletonMap("x-raptortrace-a", "1"), generation));
+        Assert.assertEquals("1", parent.getResponseAttachment("x-raptortrace-a"));
+        parent.close();
+
+        //close后放回线程复用,旧的调用完成时不再写入
+        try (RaptorContext reused = RaptorContext.open()) {
+            Assert.assertSame(parent, reused);
+            Assert.assertFalse(reused.mergeResponseAttachments(Collections.singletonMap("x-raptortrace-b", "2"), generation));
+            Assert.assertNull(reused.getResponseAttachment("x-raptortrace-b"));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.ppdai.framework.raptor.serialize;
+
+import com.ppdai.framework.raptor.exception.ErrorMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author yinzuolong
+ */
+public class ProtobufSerializerTest {
+
+    @Test
+    public void testWireFormat() {
+        ErrorMessage errorMessage = new ErrorMessage();
+        errorMessage.setCode(150);
+        errorMessage.setMessage("testing");
+        errorMessage.setAttachments(Collections.singletonMap("a", "b"));
+        byte[] bytes = ProtobufSerializer.serialize(errorMessage);
+        //与protoc生成代码的输出一致
+        byte[] expected = new byte[]{
+                0x08, (byte) 0x96, 0x01,
+                0x12, 0x07, 't', 'e', 's', 't', 'i', 'n', 'g',
+                0x1a, 0x06, 0x0a, 0x01, 'a', 0x12, 0x01, 'b'};
+        Assert.assertArrayEquals(expected, bytes);
+
+        ErrorMessage result = ProtobufSerializer.deserialize(bytes, ErrorMessage.class);
+        Assert.assertEquals(150, result.getCode());
+        Assert.assertEquals("testing", result.getMessage());
+        Assert.assertEquals("b", result.getAttachments().get("a"));
+    }
+
+    @Test
+    public void testLongString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("中文😀");
+        }
+        ErrorMessage errorMessage = new ErrorMessage();
+        errorMessage.setMessage(sb.toString());
+        ErrorMessage result = ProtobufSerializer.deserialize(ProtobufSerializer.serialize(errorMessage), ErrorMessage.class);
+        Assert.assertEquals(sb.toString(), result.getMessage());
+    }
+
+    @Test
+    public void testSkipUnknownField() {
+        ProtobufWriter writer = new ProtobufWriter();
+        writer.writeScalar(1, ProtobufType.INT32, -1);
+        writer.writeScalar(99, ProtobufType.FIXED64, 1L);
+        writer.writeString(100, "unknown");
+        writer.writeScalar(2, ProtobufType.STRING, "message");
+        ErrorMessage result = ProtobufSerializer.deserialize(writer.toByteArray(), ErrorMessage.class);
+        Assert.assertEquals(-1, result.getCode());
+        Assert.assertEquals("message", result.getMessage());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncated() {
+        ProtobufSerializer.deserialize(new byte[]{0x12, 0x07, 't'}, ErrorMessage.class);
+    }
+
+    @Test
+    public void testStream() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 30000; i++) {
+            sb.append("中文😀");
+        }
+        Map<String, String> attachments = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            attachments.put("key" + i, "value" + i);
+        }
+        ErrorMessage errorMessage = new ErrorMessage();
+        errorMessage.setCode(-150);
+        errorMessage.setMessage(sb.toString());
+        errorMessage.setAttachments(attachments);
+        ProtobufWriter writer = new ProtobufWriter();
+        writer.writeScalar(99, ProtobufType.BYTES, new byte[100 * 1024]);
+        ProtobufSerializer.serialize(errorMessage, writer);
+        byte[] bytes = writer.toByteArray();
+
+        //每次只返回一个字节,覆盖所有跨缓冲区边界的情况
+        ErrorMessage result = ProtobufSerializer.deserialize(new ProtobufReader(new OneByteInputStream(bytes), 16), ErrorMessage.class);
+        Assert.assertEquals(-150, result.getCode());
+        Assert.assertEquals(sb.toString(), result.getMessage());
+        Assert.assertEquals(attachments, result.getAttachments());
+
+        result = ProtobufSerializer.deserialize(new ByteArrayInputStream(bytes), ErrorMessage.class);
+        Assert.assertEquals(sb.toString(), result.getMessage());
+        Assert.assertEquals(attachments, result.getAttachments());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStreamTruncated() {
+        ProtobufSerializer.deserialize(new ByteArrayInputStream(new byte[]{0x12, 0x07, 't'}), ErrorMessage.class);
+    }
+
+    private static class OneByteInputStream extends FilterInputStream {
+
+        OneByteInputStream(byte[] bytes) {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, 1));
+        }
+    }
+}
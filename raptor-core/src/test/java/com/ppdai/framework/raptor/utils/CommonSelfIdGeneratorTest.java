@@ -3,10 +3,12 @@ package com.ppdai.framework.raptor.utils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class CommonSelfIdGeneratorTest {
 
@@ -50,5 +52,74 @@ public class CommonSelfIdGeneratorTest {
 
     }
 
+    @Test
+    public void testClockBackwards() {
+        AtomicLong now = new AtomicLong(CommonSelfIdGenerator.EPOCH + 1000);
+        CommonSelfIdGenerator generator = new CommonSelfIdGenerator() {
+            @Override
+            protected long currentTimeMillis() {
+                return now.get();
+            }
+        };
+        generator.setWorkerId(3L);
+        long first = generator.generateId();
+        now.addAndGet(-500);
+        long second = generator.generateId();
+        Assert.assertTrue(second > first);
+        //时钟回拨期间沿用上一次的时间
+        Assert.assertEquals(first >>> 22, second >>> 22);
+        Assert.assertEquals(3L, (second >>> 12) & 0x3FF);
+        Assert.assertEquals(1L, second & 0xFFF);
+    }
 
+    @Test
+    public void testSequenceOverflow() throws Exception {
+        AtomicLong now = new AtomicLong(CommonSelfIdGenerator.EPOCH + 1000);
+        CommonSelfIdGenerator generator = new CommonSelfIdGenerator() {
+            @Override
+            protected long currentTimeMillis() {
+                return now.get();
+            }
+        };
+        long last = -1;
+        for (int i = 0; i < 4096; i++) {
+            long id = generator.generateId();
+            Assert.assertTrue(id > last);
+            last = id;
+        }
+        //同一毫秒自增量用完后等待下一毫秒
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        Future<Long> next = executorService.submit(generator::generateId);
+        Thread.sleep(50);
+        Assert.assertFalse(next.isDone());
+        now.incrementAndGet();
+        long id = next.get(1, TimeUnit.SECONDS);
+        executorService.shutdown();
+        Assert.assertTrue(id > last);
+        Assert.assertEquals(1001L, id >>> 22);
+        Assert.assertEquals(0L, id & 0xFFF);
+
+        //时钟回拨太多时不再等待,直接进位
+        now.addAndGet(-CommonSelfIdGenerator.MAX_BACKWARD_MILLIS - 1000);
+        last = id;
+        for (int i = 0; i < 4097; i++) {
+            id = generator.generateId();
+            Assert.assertTrue(id > last);
+            last = id;
+        }
+        Assert.assertEquals(1002L, last >>> 22);
+    }
+
+    @Test
+    public void testRender() {
+        byte[] bytes = new byte[RequestIdUtils.MAX_LENGTH + 2];
+        char[] chars = new char[RequestIdUtils.MAX_LENGTH];
+        for (long id : new long[]{0L, 7L, 10L, 123456789012345L, Long.MAX_VALUE, -1L, Long.MIN_VALUE,
+                RequestIdUtils.nextRequestId()}) {
+            int end = RequestIdUtils.getBytes(id, bytes, 2);
+            Assert.assertEquals(String.valueOf(id), new String(bytes, 2, end - 2, StandardCharsets.US_ASCII));
+            end = RequestIdUtils.getChars(id, chars, 0);
+            Assert.assertEquals(String.valueOf(id), new String(chars, 0, end));
+        }
+    }
 }
@@ -0,0 +1,57 @@
+package com.ppdai.framework.raptor.utils;
+
+import com.ppdai.framework.raptor.rpc.RaptorContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * @author yinzuolong
+ */
+public class VirtualThreadUtilsTest {
+
+    @Test
+    public void testUnsupported() {
+        if (VirtualThreadUtils.isSupported()) {
+            return;
+        }
+        try {
+            VirtualThreadUtils.newThreadPerTaskExecutor("test-");
+            Assert.fail();
+        } catch (UnsupportedOperationException e) {
+            Assert.assertTrue(e.getMessage().contains("not supported"));
+        }
+    }
+
+    @Test
+    public void testContextPerVirtualThread() throws Exception {
+        if (!VirtualThreadUtils.isSupported()) {
+            return;
+        }
+        ExecutorService executor = VirtualThreadUtils.newThreadPerTaskExecutor("test-");
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                String value = String.valueOf(i);
+                futures.add(executor.submit(() -> {
+                    Assert.assertTrue(Thread.currentThread().getName().startsWith("test-"));
+                    //每个虚拟线程上的context相互独立
+                    try (RaptorContext context = RaptorContext.open()) {
+                        context.putRequestAttachment("id", value);
+                        Thread.sleep(10);
+                        return RaptorContext.getContext().getRequestAttachment("id");
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Assert.assertEquals(String.valueOf(i), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
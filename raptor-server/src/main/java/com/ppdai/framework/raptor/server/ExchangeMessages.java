@@ -0,0 +1,96 @@
+package com.ppdai.framework.raptor.server;
+
+import com.ppdai.framework.raptor.spring.buffer.MaxBodySizeInputStream;
+import com.ppdai.framework.raptor.spring.buffer.RecyclableBufferOutputStream;
+import com.ppdai.framework.raptor.spring.compress.RaptorCompressor;
+import com.sun.net.httpserver.HttpExchange;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HttpExchange与spring HttpMessage的适配
+ *
+ * @author yinzuolong
+ */
+class ExchangeMessages {
+
+    static class InputMessage implements HttpInputMessage {
+        private final HttpExchange exchange;
+        private final int maxBodySize;
+        private final RaptorCompressor compressor;
+        private HttpHeaders headers;
+
+        /**
+         * @param compressor 请求body的压缩格式,为null时不解压
+         */
+        InputMessage(HttpExchange exchange, int maxBodySize, RaptorCompressor compressor) {
+            this.exchange = exchange;
+            this.maxBodySize = maxBodySize;
+            this.compressor = compressor;
+        }
+
+        /**
+         * 压缩前后的字节数都不能超过maxBodySize
+         */
+        @Override
+        public InputStream getBody() throws IOException {
+            InputStream in = new MaxBodySizeInputStream(exchange.getRequestBody(), maxBodySize);
+            return compressor == null ? in : new MaxBodySizeInputStream(compressor.decompress(in), maxBodySize);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                headers = new HttpHeaders();
+                for (Map.Entry<String, List<String>> entry : exchange.getRequestHeaders().entrySet()) {
+                    headers.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return headers;
+        }
+    }
+
+    /**
+     * 响应先写入内存,完成后设置Content-Length一次发送
+     */
+    static class OutputMessage implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final RecyclableBufferOutputStream body = new RecyclableBufferOutputStream(256);
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        void reset() {
+            headers.clear();
+            body.reset();
+        }
+
+        void send(HttpExchange exchange, int status) throws IOException {
+            for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                exchange.getResponseHeaders().put(entry.getKey(), entry.getValue());
+            }
+            if (body.size() == 0 || "HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(status, body.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                body.writeTo(out);
+            }
+        }
+    }
+}
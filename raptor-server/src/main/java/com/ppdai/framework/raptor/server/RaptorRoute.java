@@ -0,0 +1,59 @@
+package com.ppdai.framework.raptor.server;
+
+import com.ppdai.framework.raptor.spring.service.RaptorMessageBinder;
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+
+/**
+ * 一个服务方法的路由,启动时解析好调用需要的所有信息
+ *
+ * @author yinzuolong
+ */
+@Getter
+public class RaptorRoute {
+
+    private final String path;
+    /**
+     * 为空时不限制http method
+     */
+    private final Set<String> httpMethods;
+    private final Object bean;
+    /**
+     * 调用的接口方法,实现类覆盖了异步方法时为异步方法
+     */
+    private final Method method;
+    private final boolean async;
+    private final Class<?> parameterType;
+    /**
+     * GET请求的参数绑定
+     */
+    private final RaptorMessageBinder binder;
+    private final Class<?> returnType;
+    private final String interfaceName;
+    private final String methodName;
+
+    public RaptorRoute(String path, Set<String> httpMethods, Object bean, Method method, boolean async,
+                       Class<?> returnType, String interfaceName, String methodName) {
+        this.path = path;
+        this.httpMethods = httpMethods;
+        this.bean = bean;
+        this.method = method;
+        this.async = async;
+        this.parameterType = method.getParameterTypes()[0];
+        this.binder = new RaptorMessageBinder(parameterType);
+        this.returnType = returnType;
+        this.interfaceName = interfaceName;
+        this.methodName = methodName;
+    }
+
+    public boolean supports(String httpMethod) {
+        return httpMethods.isEmpty() || httpMethods.contains(httpMethod);
+    }
+
+    @Override
+    public String toString() {
+        return httpMethods + " " + path + " -> " + interfaceName + "#" + methodName;
+    }
+}
@@ -0,0 +1,108 @@
+package com.ppdai.framework.raptor.server;
+
+import com.ppdai.framework.raptor.spring.utils.RaptorInterfaceUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * 按路径精确匹配的路由表,路径与springMVC对服务接口上的{@link RequestMapping}解析的路径相同.
+ * 不支持带通配符或路径变量的路径和流式方法
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+public class RaptorRouteTable {
+
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final Map<String, RaptorRoute> routes;
+
+    private RaptorRouteTable(Map<String, RaptorRoute> routes) {
+        this.routes = routes;
+    }
+
+    public RaptorRoute getRoute(String path) {
+        return routes.get(path);
+    }
+
+    public Collection<RaptorRoute> getRoutes() {
+        return Collections.unmodifiableCollection(routes.values());
+    }
+
+    /**
+     * @param beans 实现了RaptorInterface的服务
+     */
+    public static RaptorRouteTable build(Collection<?> beans) {
+        Map<String, RaptorRoute> routes = new HashMap<>();
+        for (Object bean : beans) {
+            Class<?> beanType = ClassUtils.getUserClass(bean);
+            for (Class<?> interfaceClass : RaptorInterfaceUtils.findRaptorInterfaces(beanType)) {
+                RequestMapping typeMapping = AnnotatedElementUtils.findMergedAnnotation(interfaceClass, RequestMapping.class);
+                for (Method method : interfaceClass.getMethods()) {
+                    RequestMapping methodMapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+                    if (methodMapping == null) {
+                        continue;
+                    }
+                    if (RaptorInterfaceUtils.isStreamMethod(method) || method.getParameterCount() != 1) {
+                        log.warn("Raptor standalone server doesn't support method {}, ignored.", RaptorInterfaceUtils.getMethodSignature(method));
+                        continue;
+                    }
+                    for (String path : combinePaths(typeMapping, methodMapping)) {
+                        if (PATH_MATCHER.isPattern(path)) {
+                            log.warn("Raptor standalone server doesn't support path pattern {}, ignored.", path);
+                            continue;
+                        }
+                        RaptorRoute route = createRoute(path, bean, beanType, interfaceClass, method, methodMapping);
+                        RaptorRoute existing = routes.put(path, route);
+                        if (existing != null) {
+                            throw new IllegalStateException("Ambiguous raptor route " + path + ": " + existing + " and " + route);
+                        }
+                    }
+                }
+            }
+        }
+        return new RaptorRouteTable(routes);
+    }
+
+    private static RaptorRoute createRoute(String path, Object bean, Class<?> beanType, Class<?> interfaceClass,
+                                           Method method, RequestMapping methodMapping) {
+        Set<String> httpMethods = new HashSet<>();
+        for (RequestMethod requestMethod : methodMapping.method()) {
+            httpMethods.add(requestMethod.name());
+        }
+        //实现类覆盖了默认的异步方法时调用异步方法
+        Method asyncMethod = RaptorInterfaceUtils.findAsyncMethod(beanType, method);
+        if (asyncMethod != null && !asyncMethod.getDeclaringClass().isInterface()) {
+            Method interfaceAsyncMethod = ClassUtils.getMethod(interfaceClass, asyncMethod.getName(), asyncMethod.getParameterTypes());
+            return new RaptorRoute(path, httpMethods, bean, interfaceAsyncMethod, true, method.getReturnType(),
+                    interfaceClass.getName(), method.getName());
+        }
+        return new RaptorRoute(path, httpMethods, bean, method, false, method.getReturnType(),
+                interfaceClass.getName(), method.getName());
+    }
+
+    private static List<String> combinePaths(RequestMapping typeMapping, RequestMapping methodMapping) {
+        String[] typePaths = typeMapping != null && typeMapping.path().length > 0 ? typeMapping.path() : new String[]{""};
+        String[] methodPaths = methodMapping.path().length > 0 ? methodMapping.path() : new String[]{""};
+        List<String> paths = new ArrayList<>();
+        for (String typePath : typePaths) {
+            for (String methodPath : methodPaths) {
+                paths.add(prependSlash(PATH_MATCHER.combine(prependSlash(typePath), prependSlash(methodPath))));
+            }
+        }
+        return paths;
+    }
+
+    private static String prependSlash(String path) {
+        return StringUtils.hasLength(path) && !path.startsWith("/") ? "/" + path : path;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ppdai.framework.raptor.server;
+
+import com.ppdai.framework.raptor.rpc.RaptorServiceInterceptor;
+import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * raptor.server.standalone.enabled=true时,在单独的端口上提供raptor服务,不经过DispatcherServlet
+ *
+ * @author yinzuolong
+ */
+@Configuration
+@ConditionalOnClass(HttpServer.class)
+@ConditionalOnProperty(name = "raptor.server.standalone.enabled", havingValue = "true")
+@EnableConfigurationProperties(RaptorServerProperties.class)
+public class RaptorServerAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RaptorStandaloneServer raptorStandaloneServer(RaptorServerProperties properties,
+                                                         List<RaptorMessageConverter> converters,
+                                                         ObjectProvider<List<RaptorServiceInterceptor>> interceptors) {
+        List<RaptorServiceInterceptor> interceptorList = interceptors.getIfAvailable();
+        return new RaptorStandaloneServer(properties, converters,
+                interceptorList != null ? interceptorList : Collections.<RaptorServiceInterceptor>emptyList());
+    }
+}
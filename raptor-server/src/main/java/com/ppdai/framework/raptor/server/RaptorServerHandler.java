@@ -0,0 +1,315 @@
+package com.ppdai.framework.raptor.server;
+
+import com.ppdai.framework.raptor.common.RaptorConstants;
+import com.ppdai.framework.raptor.exception.ErrorMessage;
+import com.ppdai.framework.raptor.rpc.RaptorContext;
+import com.ppdai.framework.raptor.rpc.RaptorRequest;
+import com.ppdai.framework.raptor.rpc.RaptorResponse;
+import com.ppdai.framework.raptor.rpc.RaptorServiceInterceptor;
+import com.ppdai.framework.raptor.spring.compress.RaptorCompressor;
+import com.ppdai.framework.raptor.spring.compress.RaptorCompressors;
+import com.ppdai.framework.raptor.spring.converter.RaptorConverterSelector;
+import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import com.ppdai.framework.raptor.spring.service.ByteArrayBase64PropertyEditor;
+import com.ppdai.framework.raptor.spring.service.RaptorMessageBinder;
+import com.ppdai.framework.raptor.spring.service.RaptorHandlerExceptionResolver;
+import com.ppdai.framework.raptor.spring.utils.RaptorConverterUtils;
+import com.ppdai.framework.raptor.utils.NetUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.DataBinder;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 按路由表直接调用服务方法,处理流程与springMVC中的RaptorContextInitHandlerInterceptor、RaptorHandlerMethodProcessor和
+ * RaptorHandlerExceptionResolver相同:
+ * <ol>
+ * <li>在独立的RaptorContext中初始化RaptorRequest/RaptorResponse</li>
+ * <li>调用拦截器preHandle,按Content-Type读取参数(GET/HEAD按查询参数绑定),调用服务方法</li>
+ * <li>调用拦截器postHandle,按Accept写出结果;出错时返回500和ErrorMessage</li>
+ * <li>调用拦截器afterCompletion</li>
+ * </ol>
+ * 请求body按Content-Encoding解压,解压后同样受maxBodySize限制,不支持的压缩格式返回415;
+ * 异步方法在返回的CompletionStage完成时在完成的线程上写出结果
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+public class RaptorServerHandler implements HttpHandler {
+
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_NOT_FOUND = 404;
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+    private static final int STATUS_UNSUPPORTED_MEDIA_TYPE = 415;
+    private static final int STATUS_ERROR = 500;
+
+    private final RaptorRouteTable routeTable;
+    private final List<RaptorMessageConverter> converters;
+    private final RaptorConverterSelector converterSelector;
+    private final RaptorServiceInterceptor[] interceptors;
+    private final int maxBodySize;
+
+    public RaptorServerHandler(RaptorRouteTable routeTable, List<RaptorMessageConverter> converters,
+                               List<RaptorServiceInterceptor> interceptors, int maxBodySize) {
+        this.routeTable = routeTable;
+        this.converters = converters;
+        this.converterSelector = new RaptorConverterSelector(converters);
+        this.interceptors = interceptors.toArray(new RaptorServiceInterceptor[0]);
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        RaptorRoute route = routeTable.getRoute(exchange.getRequestURI().getPath());
+        if (route == null) {
+            sendStatus(exchange, STATUS_NOT_FOUND);
+            return;
+        }
+        if (!route.supports(exchange.getRequestMethod())) {
+            sendStatus(exchange, STATUS_METHOD_NOT_ALLOWED);
+            return;
+        }
+        String contentEncoding = exchange.getRequestHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        RaptorCompressor compressor = null;
+        if (!RaptorCompressors.isIdentity(contentEncoding)) {
+            compressor = RaptorCompressors.get(contentEncoding);
+            if (compressor == null) {
+                sendStatus(exchange, STATUS_UNSUPPORTED_MEDIA_TYPE);
+                return;
+            }
+        }
+        RaptorContext context = RaptorContext.open();
+        Invocation invocation = new Invocation(exchange, route, context);
+        Object result;
+        try {
+            initRaptorContext(exchange, route, context);
+            invocation.applyPreHandle();
+            Object arg = readArgument(exchange, route, compressor);
+            result = route.getMethod().invoke(route.getBean(), arg);
+        } catch (InvocationTargetException e) {
+            invocation.complete(null, e.getTargetException());
+            return;
+        } catch (Throwable e) {
+            invocation.complete(null, e);
+            return;
+        }
+        if (route.isAsync() && result instanceof CompletionStage) {
+            //结果在其他线程上完成,context随调用转到完成的线程
+            context.detach();
+            ((CompletionStage<?>) result).whenComplete((value, ex) -> {
+                context.attach();
+                invocation.complete(value, ex);
+            });
+            return;
+        }
+        invocation.complete(result, null);
+    }
+
+    protected void initRaptorContext(HttpExchange exchange, RaptorRoute route, RaptorContext context) {
+        RaptorRequest request = new RaptorRequest();
+        request.setInterfaceName(route.getInterfaceName());
+        request.setMethodName(route.getMethodName());
+        for (Map.Entry<String, List<String>> entry : exchange.getRequestHeaders().entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            String name = entry.getKey().toLowerCase();
+            String value = entry.getValue().get(0);
+            request.setAttachment(name, value);
+            //传递request头
+            if (name.startsWith(RaptorConstants.HEADER_TRACE_PREFIX)) {
+                context.putRequestAttachment(name, value);
+            }
+        }
+        request.setRequestId(request.getAttachments().get(RaptorConstants.HEADER_REQUEST_ID));
+        context.setRequest(request);
+        context.setResponse(new RaptorResponse());
+    }
+
+    /**
+     * @param compressor 请求body的压缩格式,没有压缩时为null
+     */
+    private Object readArgument(HttpExchange exchange, RaptorRoute route, RaptorCompressor compressor) throws IOException {
+        String httpMethod = exchange.getRequestMethod();
+        if ("GET".equals(httpMethod) || "HEAD".equals(httpMethod)) {
+            return bindQuery(exchange.getRequestURI().getRawQuery(), route);
+        }
+        ExchangeMessages.InputMessage inputMessage = new ExchangeMessages.InputMessage(exchange, maxBodySize, compressor);
+        String contentType = exchange.getRequestHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+        RaptorConverterSelector.Selection selection = converterSelector.selectReader(contentType, route.getParameterType());
+        if (selection == null) {
+            throw new IllegalArgumentException("Unsupported content type: " + contentType);
+        }
+        RaptorMessageConverter converter = selection.getConverter();
+        if (converter instanceof GenericHttpMessageConverter) {
+            return ((GenericHttpMessageConverter<?>) converter).read(route.getParameterType(), null, inputMessage);
+        }
+        return converter.read(route.getParameterType(), inputMessage);
+    }
+
+    private Object bindQuery(String query, RaptorRoute route) {
+        Map<String, String[]> parameters = new LinkedHashMap<>();
+        if (StringUtils.hasLength(query)) {
+            for (String pair : StringUtils.tokenizeToStringArray(query, "&")) {
+                int index = pair.indexOf('=');
+                String name = decode(index >= 0 ? pair.substring(0, index) : pair);
+                String value = index >= 0 ? decode(pair.substring(index + 1)) : "";
+                String[] values = parameters.get(name);
+                parameters.put(name, values == null ? new String[]{value} : StringUtils.addStringToArray(values, value));
+            }
+        }
+        RaptorMessageBinder messageBinder = route.getBinder();
+        Object target = messageBinder.newInstance();
+        MutablePropertyValues others = messageBinder.bind(target, parameters);
+        if (others != null) {
+            DataBinder binder = new DataBinder(target);
+            binder.registerCustomEditor(byte[].class, new ByteArrayBase64PropertyEditor());
+            binder.bind(others);
+        }
+        return target;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void writeResult(HttpExchange exchange, Object result, ExchangeMessages.OutputMessage outputMessage) throws IOException {
+        if (result == null) {
+            return;
+        }
+        String accept = exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT);
+        RaptorConverterSelector.Selection selection = converterSelector.selectWriter(accept, result.getClass());
+        if (selection != null) {
+            selection.getConverter().write(result, selection.getMediaType(), outputMessage);
+        } else {
+            RaptorMessageConverter converter = converters.get(0);
+            converter.write(result, RaptorConverterUtils.getDefaultMediaType(converter), outputMessage);
+        }
+    }
+
+    private void applyResponse(RaptorContext context, ExchangeMessages.OutputMessage outputMessage, int status) {
+        HttpHeaders headers = outputMessage.getHeaders();
+        headers.add(RaptorConstants.HEADER_HOST_SERVER, NetUtils.getLocalIp());
+        RaptorResponse response = context.getResponse();
+        if (response != null) {
+            response.setCode(status);
+            for (Map.Entry<String, String> entry : response.getAttachments().entrySet()) {
+                if (entry.getKey().toLowerCase().startsWith(RaptorConstants.HEADER_TRACE_PREFIX)) {
+                    headers.add(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        for (Map.Entry<String, String> entry : context.getRequestAttachments().entrySet()) {
+            headers.add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static void sendStatus(HttpExchange exchange, int status) throws IOException {
+        try {
+            exchange.sendResponseHeaders(status, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        if (ex instanceof CompletionException && ex.getCause() != null) {
+            return ex.getCause();
+        }
+        return ex;
+    }
+
+    /**
+     * 一次调用的拦截器状态
+     */
+    private class Invocation {
+        private final HttpExchange exchange;
+        private final RaptorRoute route;
+        private final RaptorContext context;
+        private int interceptorIndex = -1;
+
+        Invocation(HttpExchange exchange, RaptorRoute route, RaptorContext context) {
+            this.exchange = exchange;
+            this.route = route;
+            this.context = context;
+        }
+
+        void applyPreHandle() throws Exception {
+            for (int i = 0; i < interceptors.length; i++) {
+                interceptors[i].preHandle(context.getRequest(), context.getResponse());
+                interceptorIndex = i;
+            }
+        }
+
+        void complete(Object result, Throwable ex) {
+            ex = ex != null ? unwrap(ex) : null;
+            ExchangeMessages.OutputMessage outputMessage = new ExchangeMessages.OutputMessage();
+            int status = STATUS_OK;
+            try {
+                if (ex == null) {
+                    try {
+                        for (int i = interceptors.length - 1; i >= 0; i--) {
+                            interceptors[i].postHandle(context.getRequest(), context.getResponse());
+                        }
+                        applyResponse(context, outputMessage, status);
+                        writeResult(exchange, result, outputMessage);
+                    } catch (Throwable e) {
+                        ex = e;
+                    }
+                }
+                if (ex != null) {
+                    status = STATUS_ERROR;
+                    outputMessage.reset();
+                    writeError(outputMessage, ex);
+                }
+                outputMessage.send(exchange, status);
+            } catch (Throwable e) {
+                log.warn("Send raptor response error.", e);
+            } finally {
+                triggerAfterCompletion(ex);
+                context.close();
+                exchange.close();
+            }
+        }
+
+        private void writeError(ExchangeMessages.OutputMessage outputMessage, Throwable ex) throws IOException {
+            applyResponse(context, outputMessage, STATUS_ERROR);
+            outputMessage.getHeaders().add(RaptorConstants.HEADER_ERROR, "true");
+            ErrorMessage errorMessage = RaptorHandlerExceptionResolver.toErrorMessage(ex);
+            writeResult(exchange, errorMessage, outputMessage);
+        }
+
+        private void triggerAfterCompletion(Throwable ex) {
+            RaptorResponse response = context.getResponse();
+            if (response != null) {
+                response.setException(ex);
+            }
+            for (int i = interceptorIndex; i >= 0; i--) {
+                try {
+                    interceptors[i].afterCompletion(context.getRequest(), response);
+                } catch (Throwable e) {
+                    log.error("RaptorServiceInterceptor.afterCompletion threw exception", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.ppdai.framework.raptor.server;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 独立server的配置
+ *
+ * @author yinzuolong
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "raptor.server.standalone")
+public class RaptorServerProperties {
+
+    private boolean enabled = false;
+    private String host;
+    private int port = 8090;
+    /**
+     * 处理请求的线程数
+     */
+    private int threads = 200;
+    /**
+     * 等待accept的连接数,0使用系统默认值
+     */
+    private int backlog = 0;
+    /**
+     * 请求body的最大字节数
+     */
+    private int maxBodySize = 16 * 1024 * 1024;
+}
@@ -0,0 +1,123 @@
+package com.ppdai.framework.raptor.server;
+
+import com.ppdai.framework.raptor.annotation.RaptorInterface;
+import com.ppdai.framework.raptor.rpc.RaptorServiceInterceptor;
+import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不经过springMVC的独立server,使用JDK自带的HttpServer,启动时根据容器中实现了{@link RaptorInterface}的bean生成路由表
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+public class RaptorStandaloneServer implements SmartLifecycle, ApplicationContextAware {
+
+    private final RaptorServerProperties properties;
+    private final List<RaptorMessageConverter> converters;
+    private final List<RaptorServiceInterceptor> interceptors;
+    private ApplicationContext applicationContext;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    @Getter
+    private RaptorRouteTable routeTable;
+    private volatile boolean running;
+
+    public RaptorStandaloneServer(RaptorServerProperties properties, List<RaptorMessageConverter> converters,
+                                  List<RaptorServiceInterceptor> interceptors) {
+        this.properties = properties;
+        this.converters = converters;
+        this.interceptors = new ArrayList<>(interceptors);
+        this.interceptors.sort(new AnnotationAwareOrderComparator());
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        routeTable = RaptorRouteTable.build(applicationContext.getBeansWithAnnotation(RaptorInterface.class).values());
+        InetSocketAddress address = StringUtils.hasText(properties.getHost())
+                ? new InetSocketAddress(properties.getHost(), properties.getPort())
+                : new InetSocketAddress(properties.getPort());
+        try {
+            server = HttpServer.create(address, properties.getBacklog());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Start raptor standalone server error, port: " + properties.getPort(), e);
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("raptor-server-");
+        threadFactory.setDaemon(true);
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        threadPool.allowCoreThreadTimeOut(true);
+        executor = threadPool;
+        server.setExecutor(executor);
+        server.createContext("/", new RaptorServerHandler(routeTable, converters, interceptors, properties.getMaxBodySize()));
+        server.start();
+        running = true;
+        log.info("Raptor standalone server started on port {}, routes: {}", getPort(), routeTable.getRoutes());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return 实际监听的端口,配置为0时为随机端口
+     */
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : properties.getPort();
+    }
+}
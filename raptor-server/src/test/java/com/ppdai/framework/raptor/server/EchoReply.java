@@ -0,0 +1,17 @@
+package com.ppdai.framework.raptor.server;
+
+import com.ppdai.framework.raptor.annotation.RaptorMessage;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * @author yinzuolong
+ */
+@Getter
+@Setter
+@RaptorMessage
+public class EchoReply {
+    private String message;
+    private String method;
+    private String trace;
+}
@@ -0,0 +1,19 @@
+package com.ppdai.framework.raptor.server;
+
+import com.ppdai.framework.raptor.annotation.RaptorField;
+import com.ppdai.framework.raptor.annotation.RaptorMessage;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * @author yinzuolong
+ */
+@Getter
+@Setter
+@RaptorMessage
+public class EchoRequest {
+    @RaptorField(order = 1, name = "name", fieldType = "string")
+    private String name;
+    @RaptorField(order = 2, name = "count", fieldType = "int32")
+    private Integer count;
+}
@@ -0,0 +1,42 @@
+package com.ppdai.framework.raptor.server;
+
+import com.ppdai.framework.raptor.annotation.RaptorAsync;
+import com.ppdai.framework.raptor.annotation.RaptorInterface;
+import com.ppdai.framework.raptor.annotation.RaptorMethod;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 与代码生成的服务接口结构相同
+ *
+ * @author yinzuolong
+ */
+@RaptorInterface(appId = "900001", appName = "echo", library = "spring")
+@RequestMapping
+public interface EchoService {
+
+    @RequestMapping(path = "/raptor/com.ppdai.framework.raptor.server.EchoService/echo", method = RequestMethod.POST)
+    @RaptorMethod
+    EchoReply echo(EchoRequest request);
+
+    @RequestMapping(path = "/raptor/com.ppdai.framework.raptor.server.EchoService/echoLater", method = RequestMethod.POST)
+    @RaptorMethod
+    EchoReply echoLater(EchoRequest request);
+
+    @RaptorAsync
+    default CompletableFuture<EchoReply> echoLaterAsync(EchoRequest request) {
+        CompletableFuture<EchoReply> future = new CompletableFuture<>();
+        try {
+            future.complete(echoLater(request));
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @RequestMapping(path = "/echo/get", method = RequestMethod.GET)
+    @RaptorMethod
+    EchoReply get(EchoRequest request);
+}
@@ -0,0 +1,56 @@
+package com.ppdai.framework.raptor.server;
+
+import com.ppdai.framework.raptor.exception.RaptorException;
+import com.ppdai.framework.raptor.rpc.RaptorContext;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author yinzuolong
+ */
+@Service
+public class EchoServiceImpl implements EchoService {
+
+    @Override
+    public EchoReply echo(EchoRequest request) {
+        if ("RaptorException".equals(request.getName())) {
+            throw new RaptorException(1001, "RaptorException!", Collections.singletonMap("a", "b"), null);
+        }
+        return reply("echo " + request.getName());
+    }
+
+    @Override
+    public EchoReply echoLater(EchoRequest request) {
+        throw new UnsupportedOperationException("echoLaterAsync should be called.");
+    }
+
+    @Override
+    public CompletableFuture<EchoReply> echoLaterAsync(EchoRequest request) {
+        CompletableFuture<EchoReply> future = new CompletableFuture<>();
+        new Thread(() -> {
+            if ("AsyncException".equals(request.getName())) {
+                future.completeExceptionally(new RaptorException(1002, "AsyncException!", null, null));
+            } else {
+                future.complete(new EchoReply());
+            }
+        }).start();
+        //在调用线程上读取context,完成线程上写出结果
+        EchoReply expected = reply("later " + request.getName());
+        return future.thenApply(reply -> expected);
+    }
+
+    @Override
+    public EchoReply get(EchoRequest request) {
+        return reply("get " + request.getName() + " " + request.getCount());
+    }
+
+    private EchoReply reply(String message) {
+        EchoReply reply = new EchoReply();
+        reply.setMessage(message);
+        reply.setMethod(RaptorContext.getContext().getRequest().getMethodName());
+        reply.setTrace(RaptorContext.getContext().getRequestAttachment("x-raptortrace-id"));
+        return reply;
+    }
+}
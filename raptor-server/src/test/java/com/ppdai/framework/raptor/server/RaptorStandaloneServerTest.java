@@ -0,0 +1,187 @@
+package com.ppdai.framework.raptor.server;
+
+import com.ppdai.framework.raptor.exception.RaptorException;
+import com.ppdai.framework.raptor.rpc.RaptorContext;
+import com.ppdai.framework.raptor.rpc.RaptorRequest;
+import com.ppdai.framework.raptor.rpc.RaptorResponse;
+import com.ppdai.framework.raptor.rpc.RaptorServiceInterceptor;
+import com.ppdai.framework.raptor.spring.annotation.RaptorClient;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.SocketUtils;
+
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 客户端开启请求压缩,所有请求body都用gzip压缩
+ *
+ * @author yinzuolong
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {TestApplication.class, RaptorStandaloneServerTest.InterceptorConfiguration.class},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"raptor.server.standalone.enabled=true",
+                "raptor.client.config[900001].url=http://localhost:${raptor.server.standalone.port}",
+                "raptor.client.config[900001].compression=gzip",
+                "raptor.client.config[900001].request-compression=true",
+                "raptor.client.config[900001].compression-min-size=0"})
+public class RaptorStandaloneServerTest {
+
+    private static final List<String> EVENTS = new CopyOnWriteArrayList<>();
+
+    @RaptorClient
+    private EchoService echoService;
+
+    @Autowired
+    private RaptorStandaloneServer server;
+
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty("raptor.server.standalone.port", String.valueOf(SocketUtils.findAvailableTcpPort()));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        System.clearProperty("raptor.server.standalone.port");
+    }
+
+    @Before
+    public void before() {
+        EVENTS.clear();
+    }
+
+    @Test
+    public void testRoutes() {
+        Assert.assertEquals(3, server.getRouteTable().getRoutes().size());
+        RaptorRoute route = server.getRouteTable().getRoute("/raptor/com.ppdai.framework.raptor.server.EchoService/echoLater");
+        Assert.assertTrue(route.isAsync());
+        Assert.assertEquals("echoLater", route.getMethodName());
+    }
+
+    @Test
+    public void testEcho() throws Exception {
+        try (RaptorContext context = RaptorContext.open()) {
+            context.putRequestAttachment("x-raptortrace-id", "t1");
+            EchoReply reply = echoService.echo(request("ppdai"));
+            Assert.assertEquals("echo ppdai", reply.getMessage());
+            Assert.assertEquals("echo", reply.getMethod());
+            Assert.assertEquals("t1", reply.getTrace());
+        }
+        awaitEvents(3);
+        Assert.assertEquals("[pre echo, post echo, after echo null]", EVENTS.toString());
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        EchoReply reply = echoService.echoLater(request("ppdai"));
+        Assert.assertEquals("later ppdai", reply.getMessage());
+        Assert.assertEquals("echoLater", reply.getMethod());
+
+        try {
+            echoService.echoLater(request("AsyncException"));
+            Assert.fail();
+        } catch (RaptorException e) {
+            Assert.assertEquals(1002, e.getCode());
+        }
+    }
+
+    @Test
+    public void testGet() {
+        EchoRequest request = request("中文");
+        request.setCount(3);
+        Assert.assertEquals("get 中文 3", echoService.get(request).getMessage());
+    }
+
+    @Test
+    public void testException() throws Exception {
+        try {
+            echoService.echo(request("RaptorException"));
+            Assert.fail();
+        } catch (RaptorException e) {
+            Assert.assertEquals(1001, e.getCode());
+            Assert.assertEquals("b", e.getAttachments().get("a"));
+        }
+        awaitEvents(2);
+        Assert.assertEquals("[pre echo, after echo RaptorException!]", EVENTS.toString());
+    }
+
+    @Test
+    public void testNotFound() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + "/raptor/unknown").openConnection();
+        Assert.assertEquals(404, connection.getResponseCode());
+        connection.disconnect();
+    }
+
+    @Test
+    public void testUnsupportedContentEncoding() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort()
+                + "/raptor/com.ppdai.framework.raptor.server.EchoService/echo").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_UTF8_VALUE);
+        connection.setRequestProperty(HttpHeaders.CONTENT_ENCODING, "br");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write("{}".getBytes(StandardCharsets.UTF_8));
+        }
+        Assert.assertEquals(415, connection.getResponseCode());
+        connection.disconnect();
+    }
+
+    private EchoRequest request(String name) {
+        EchoRequest request = new EchoRequest();
+        request.setName(name);
+        return request;
+    }
+
+    /**
+     * afterCompletion在响应发送之后调用
+     */
+    private void awaitEvents(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (EVENTS.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Configuration
+    static class InterceptorConfiguration {
+
+        @Bean
+        public RaptorServiceInterceptor recordingInterceptor() {
+            return new RaptorServiceInterceptor() {
+                @Override
+                public void preHandle(RaptorRequest request, RaptorResponse response) {
+                    EVENTS.add("pre " + request.getMethodName());
+                }
+
+                @Override
+                public void postHandle(RaptorRequest request, RaptorResponse response) {
+                    EVENTS.add("post " + request.getMethodName());
+                }
+
+                @Override
+                public void afterCompletion(RaptorRequest request, RaptorResponse response) {
+                    Throwable ex = response.getException();
+                    EVENTS.add("after " + request.getMethodName() + " " + (ex != null ? ex.getMessage() : null));
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.ppdai.framework.raptor.server;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * @author yinzuolong
+ */
+@SpringBootApplication
+public class TestApplication {
+}
@@ -1,20 +1,35 @@
 package com.ppdai.framework.raptor.spring;
 
+import com.ppdai.framework.raptor.spring.context.RaptorContextPropagationConfiguration;
 import com.ppdai.framework.raptor.spring.converter.RaptorJacksonMessageConverter;
 import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import com.ppdai.framework.raptor.spring.converter.RaptorProtobufMessageConverter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
 /**
  * @author yinzuolong
  */
 @Configuration
+@Import(RaptorContextPropagationConfiguration.class)
 public class RaptorAutoConfiguration {
 
     @Bean
-    @ConditionalOnMissingBean
+    @ConditionalOnMissingBean(value = RaptorMessageConverter.class, ignored = RaptorProtobufMessageConverter.class)
     public RaptorMessageConverter createRaptorMessageConverter() {
         return new RaptorJacksonMessageConverter();
     }
+
+    /**
+     * 在json converter之后注册,json仍然是默认格式,客户端通过content-type配置使用protobuf
+     */
+    @Bean
+    @ConditionalOnMissingBean(RaptorProtobufMessageConverter.class)
+    @ConditionalOnProperty(name = "raptor.protobuf.enabled", havingValue = "true", matchIfMissing = true)
+    public RaptorProtobufMessageConverter createRaptorProtobufMessageConverter() {
+        return new RaptorProtobufMessageConverter();
+    }
 }
@@ -0,0 +1,151 @@
+package com.ppdai.framework.raptor.spring.batch;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量请求/响应的编码,body为:版本 + 调用数 + 每个调用依次编码.
+ * <p>
+ * 请求:method, uri, headers, body;响应:status, headers, body.
+ * 字符串和body都是4字节长度 + 内容,body使用原请求的Content-Type,不做二次编码
+ *
+ * @author yinzuolong
+ */
+public final class RaptorBatchCodec {
+
+    public static final MediaType MEDIA_TYPE = new MediaType("application", "x-raptor-batch");
+
+    private static final int VERSION = 1;
+
+    private RaptorBatchCodec() {
+    }
+
+    public static void writeRequests(List<RaptorBatchRequest> requests, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeByte(VERSION);
+        data.writeInt(requests.size());
+        for (RaptorBatchRequest request : requests) {
+            writeString(data, request.getMethod());
+            writeString(data, request.getUri());
+            writeHeaders(data, request.getHeaders());
+            writeBytes(data, request.getBody());
+        }
+        data.flush();
+    }
+
+    /**
+     * @param maxCalls 最多允许的调用数,超过时抛出异常
+     */
+    public static List<RaptorBatchRequest> readRequests(InputStream in, int maxCalls) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int count = readHeader(data, maxCalls);
+        List<RaptorBatchRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            RaptorBatchRequest request = new RaptorBatchRequest();
+            request.setMethod(readString(data));
+            request.setUri(readString(data));
+            request.setHeaders(readHeaders(data));
+            request.setBody(readBytes(data));
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    public static void writeResponses(List<RaptorBatchResponse> responses, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeByte(VERSION);
+        data.writeInt(responses.size());
+        for (RaptorBatchResponse response : responses) {
+            data.writeInt(response.getStatus());
+            writeHeaders(data, response.getHeaders());
+            writeBytes(data, response.getBody());
+        }
+        data.flush();
+    }
+
+    public static List<RaptorBatchResponse> readResponses(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int count = readHeader(data, Integer.MAX_VALUE);
+        List<RaptorBatchResponse> responses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            RaptorBatchResponse response = new RaptorBatchResponse();
+            response.setStatus(data.readInt());
+            response.setHeaders(readHeaders(data));
+            response.setBody(readBytes(data));
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    private static int readHeader(DataInputStream data, int maxCalls) throws IOException {
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported raptor batch version " + version);
+        }
+        int count = data.readInt();
+        if (count < 0 || count > maxCalls) {
+            throw new IOException("Raptor batch size " + count + " exceeds max " + maxCalls);
+        }
+        return count;
+    }
+
+    private static void writeHeaders(DataOutputStream data, HttpHeaders headers) throws IOException {
+        int count = 0;
+        for (List<String> values : headers.values()) {
+            count += values.size();
+        }
+        data.writeInt(count);
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            for (String value : entry.getValue()) {
+                writeString(data, entry.getKey());
+                writeString(data, value);
+            }
+        }
+    }
+
+    private static HttpHeaders readHeaders(DataInputStream data) throws IOException {
+        int count = data.readInt();
+        HttpHeaders headers = new HttpHeaders();
+        for (int i = 0; i < count; i++) {
+            headers.add(readString(data), readString(data));
+        }
+        return headers;
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        writeBytes(data, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        return new String(readBytes(data), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream data, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            data.writeInt(0);
+            return;
+        }
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            throw new IOException("Malformed raptor batch.");
+        }
+        byte[] bytes = new byte[length];
+        data.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ppdai.framework.raptor.spring.batch;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * 批量请求中的一个调用
+ *
+ * @author yinzuolong
+ */
+@Getter
+@Setter
+public class RaptorBatchRequest {
+
+    private String method;
+    /**
+     * 相对服务根路径的path和query
+     */
+    private String uri;
+    private HttpHeaders headers = new HttpHeaders();
+    private byte[] body;
+
+}
@@ -0,0 +1,20 @@
+package com.ppdai.framework.raptor.spring.batch;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * 批量响应中的一个调用结果,与请求顺序一致
+ *
+ * @author yinzuolong
+ */
+@Getter
+@Setter
+public class RaptorBatchResponse {
+
+    private int status;
+    private HttpHeaders headers = new HttpHeaders();
+    private byte[] body;
+
+}
@@ -0,0 +1,63 @@
+package com.ppdai.framework.raptor.spring.buffer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 限制body的最大字节数,超过时抛出IOException,避免过大的body占满堆内存。
+ * 包装在解压流外面时限制的是解压后的字节数
+ *
+ * @author yinzuolong
+ */
+public class MaxBodySizeInputStream extends FilterInputStream {
+
+    private final long maxBodySize;
+    private long count;
+
+    public MaxBodySizeInputStream(InputStream in, long maxBodySize) {
+        super(in);
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read > 0) {
+            count(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(long n) throws IOException {
+        count += n;
+        if (count > maxBodySize) {
+            throw exceeded(maxBodySize);
+        }
+    }
+
+    public static IOException exceeded(long maxBodySize) {
+        return new IOException("Body exceeds max size " + maxBodySize + " bytes.");
+    }
+}
@@ -0,0 +1,77 @@
+package com.ppdai.framework.raptor.spring.buffer;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 消息body编码缓冲区池,客户端请求和服务端响应共用.
+ * <p>
+ * 按消息类型记录编码后大小的估计值,取出缓冲区时直接扩容到估计值,避免编码过程中反复扩容复制;
+ * 用完归还后复用,超过maxRetainedSize的缓冲区不保留
+ *
+ * @author yinzuolong
+ */
+public class MessageBufferPool {
+
+    public static final int DEFAULT_MAX_POOLED_BUFFERS = Runtime.getRuntime().availableProcessors() * 2;
+    public static final int DEFAULT_MAX_RETAINED_SIZE = 1024 * 1024;
+
+    private static final int MIN_ESTIMATE = 256;
+
+    private final int maxPooledBuffers;
+    private final int maxRetainedSize;
+    private final Queue<RecyclableBufferOutputStream> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledCount = new AtomicInteger();
+    private final Map<Class<?>, Integer> estimates = new ConcurrentHashMap<>();
+
+    public MessageBufferPool() {
+        this(DEFAULT_MAX_POOLED_BUFFERS, DEFAULT_MAX_RETAINED_SIZE);
+    }
+
+    public MessageBufferPool(int maxPooledBuffers, int maxRetainedSize) {
+        this.maxPooledBuffers = maxPooledBuffers;
+        this.maxRetainedSize = maxRetainedSize;
+    }
+
+    public RecyclableBufferOutputStream acquire(Class<?> messageType) {
+        int estimate = getEstimate(messageType);
+        RecyclableBufferOutputStream buffer = buffers.poll();
+        if (buffer == null) {
+            return new RecyclableBufferOutputStream(estimate);
+        }
+        pooledCount.decrementAndGet();
+        buffer.ensureCapacity(estimate);
+        return buffer;
+    }
+
+    public void release(Class<?> messageType, RecyclableBufferOutputStream buffer) {
+        updateEstimate(messageType, buffer.size());
+        buffer.reset();
+        if (buffer.capacity() > maxRetainedSize) {
+            return;
+        }
+        if (pooledCount.incrementAndGet() <= maxPooledBuffers) {
+            buffers.offer(buffer);
+        } else {
+            pooledCount.decrementAndGet();
+        }
+    }
+
+    public int getEstimate(Class<?> messageType) {
+        Integer estimate = estimates.get(messageType);
+        return estimate != null ? estimate : MIN_ESTIMATE;
+    }
+
+    private void updateEstimate(Class<?> messageType, int size) {
+        int estimate = getEstimate(messageType);
+        //变大时立即跟上,变小时缓慢衰减;多留1/8余量
+        int target = size + (size >> 3);
+        int newEstimate = target >= estimate ? target : estimate - ((estimate - target) >> 3);
+        if (newEstimate != estimate) {
+            estimates.put(messageType, Math.max(newEstimate, MIN_ESTIMATE));
+        }
+    }
+}
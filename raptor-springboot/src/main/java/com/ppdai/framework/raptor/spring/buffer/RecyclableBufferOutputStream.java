@@ -0,0 +1,76 @@
+package com.ppdai.framework.raptor.spring.buffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * 可复用的字节缓冲区,与ByteArrayOutputStream相比不加锁,reset后保留已分配的数组
+ *
+ * @author yinzuolong
+ */
+public class RecyclableBufferOutputStream extends OutputStream {
+
+    private byte[] buf;
+    private int count;
+
+    public RecyclableBufferOutputStream(int initialCapacity) {
+        this.buf = new byte[Math.max(initialCapacity, 32)];
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buf[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    /**
+     * 保证至少能容纳minCapacity字节,空缓冲区扩容时不需要复制数据
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError();
+        }
+        if (minCapacity <= buf.length) {
+            return;
+        }
+        int newCapacity = Math.max(buf.length << 1, minCapacity);
+        if (newCapacity < 0) {
+            newCapacity = Integer.MAX_VALUE - 8;
+        }
+        buf = count == 0 ? new byte[newCapacity] : Arrays.copyOf(buf, newCapacity);
+    }
+
+    /**
+     * @return 恰好为写入长度的数组
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, count);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buf, 0, count);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return buf.length;
+    }
+
+    public void reset() {
+        count = 0;
+    }
+}
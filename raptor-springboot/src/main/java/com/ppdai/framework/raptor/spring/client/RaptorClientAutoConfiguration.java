@@ -1,12 +1,19 @@
 package com.ppdai.framework.raptor.spring.client;
 
+import com.ppdai.framework.raptor.spring.client.discovery.RaptorServiceDiscoveryConfiguration;
+import com.ppdai.framework.raptor.spring.client.feign.BlockingRaptorAsyncClient;
 import com.ppdai.framework.raptor.spring.client.feign.FeignClientProperties;
+import com.ppdai.framework.raptor.spring.client.feign.RaptorAsyncClient;
 import com.ppdai.framework.raptor.spring.client.feign.SpringFeignClientFactory;
 import com.ppdai.framework.raptor.spring.client.feign.HeaderTraceRequestInterceptor;
+import com.ppdai.framework.raptor.spring.client.http2.RaptorHttp2ClientConfiguration;
+import com.ppdai.framework.raptor.spring.client.httpclient.RaptorAsyncHttpClientConfiguration;
 import com.ppdai.framework.raptor.spring.client.httpclient.RaptorHttpClientConfiguration;
 import com.ppdai.framework.raptor.spring.endpoint.RaptorClientsEndpoint;
+import com.ppdai.framework.raptor.utils.VirtualThreadUtils;
 import feign.Client;
 import feign.httpclient.ApacheHttpClient;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.http.client.HttpClient;
 import org.springframework.beans.BeansException;
 import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
@@ -18,9 +25,13 @@ import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
 
+@Slf4j
 @Configuration
-@Import({RaptorClientPostProcessor.class, RaptorHttpClientConfiguration.class})
+@Import({RaptorClientPostProcessor.class, RaptorHttpClientConfiguration.class,
+        RaptorAsyncHttpClientConfiguration.class, RaptorHttp2ClientConfiguration.class,
+        RaptorServiceDiscoveryConfiguration.class})
 @EnableConfigurationProperties({FeignClientProperties.class})
 public class RaptorClientAutoConfiguration implements ApplicationContextAware {
 
@@ -48,6 +59,23 @@ public class RaptorClientAutoConfiguration implements ApplicationContextAware {
         }
     }
 
+    /**
+     * 异步方法使用的客户端,所有raptor客户端共用;默认在有上限的线程池中执行同步客户端,
+     * raptor.threads.virtual=true时每个请求使用一个虚拟线程
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RaptorAsyncClient createRaptorAsyncClient(Client client, Environment environment, FeignClientProperties properties) {
+        if (environment.getProperty("raptor.threads.virtual", Boolean.class, false)) {
+            if (VirtualThreadUtils.isSupported()) {
+                return new BlockingRaptorAsyncClient(client, VirtualThreadUtils.newThreadPerTaskExecutor("raptor-async-client-"));
+            }
+            log.warn("raptor.threads.virtual is enabled, but virtual thread is not supported by java {}, use platform threads.",
+                    System.getProperty("java.version"));
+        }
+        return new BlockingRaptorAsyncClient(client, properties.getAsyncMaxPoolSize(), properties.getAsyncQueueCapacity());
+    }
+
     @Bean
     public HeaderTraceRequestInterceptor createHeaderTraceClientInterceptor() {
         return new HeaderTraceRequestInterceptor();
@@ -0,0 +1,198 @@
+package com.ppdai.framework.raptor.spring.client.batch;
+
+import com.ppdai.framework.raptor.common.RaptorConstants;
+import com.ppdai.framework.raptor.spring.batch.RaptorBatchCodec;
+import com.ppdai.framework.raptor.spring.batch.RaptorBatchRequest;
+import com.ppdai.framework.raptor.spring.batch.RaptorBatchResponse;
+import com.ppdai.framework.raptor.spring.buffer.RecyclableBufferOutputStream;
+import com.ppdai.framework.raptor.spring.client.feign.RaptorAsyncClient;
+import com.ppdai.framework.raptor.spring.utils.HttpHeadersUtils;
+import feign.Request;
+import feign.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static feign.Util.ensureClosed;
+
+/**
+ * 把一个方法的多次调用合并为一个批量请求发送到服务端的{@link RaptorConstants#BATCH_PATH},再按顺序拆分响应.
+ * <p>
+ * 第一个调用进入后最多等待maxDelayMillis,或者攒够maxSize个调用时立即发送;只有一个调用时按原请求发送.
+ * 服务端不支持批量请求(404/405)时,之后的调用都直接发送
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+public class RaptorBatchClient implements RaptorAsyncClient {
+
+    private static final ScheduledExecutorService TIMER = createTimer();
+
+    private final String url;
+    private final RaptorAsyncClient delegate;
+    private final int maxSize;
+    private final long maxDelayMillis;
+    private final Object lock = new Object();
+    private List<Call> pending = new ArrayList<>();
+    private ScheduledFuture<?> pendingTimeout;
+    private volatile boolean unsupported;
+
+    /**
+     * @param url 服务根路径,与{@link feign.Target#url()}一致
+     */
+    public RaptorBatchClient(String url, RaptorAsyncClient delegate, int maxSize, long maxDelayMillis) {
+        this.url = url.endsWith(RaptorConstants.PATH_SEPARATOR) ? url.substring(0, url.length() - 1) : url;
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Request.Options options) {
+        if (unsupported || maxSize <= 1 || !request.url().startsWith(url)) {
+            return delegate.execute(request, options);
+        }
+        Call call = new Call(request, options);
+        List<Call> calls = null;
+        synchronized (lock) {
+            pending.add(call);
+            if (pending.size() >= maxSize) {
+                calls = takePending();
+            } else if (pending.size() == 1) {
+                pendingTimeout = TIMER.schedule(this::flush, maxDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (calls != null) {
+            send(calls);
+        }
+        return call.future;
+    }
+
+    private void flush() {
+        List<Call> calls;
+        synchronized (lock) {
+            calls = takePending();
+        }
+        if (!calls.isEmpty()) {
+            send(calls);
+        }
+    }
+
+    private List<Call> takePending() {
+        List<Call> calls = pending;
+        pending = new ArrayList<>();
+        if (pendingTimeout != null) {
+            pendingTimeout.cancel(false);
+            pendingTimeout = null;
+        }
+        return calls;
+    }
+
+    private void send(List<Call> calls) {
+        if (calls.size() == 1) {
+            sendDirectly(calls.get(0));
+            return;
+        }
+        Request batchRequest;
+        try {
+            batchRequest = createBatchRequest(calls);
+        } catch (Exception e) {
+            calls.forEach(call -> call.future.completeExceptionally(e));
+            return;
+        }
+        delegate.execute(batchRequest, calls.get(0).options).whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                calls.forEach(call -> call.future.completeExceptionally(throwable));
+                return;
+            }
+            try {
+                if (response.status() == 404 || response.status() == 405) {
+                    log.warn("Raptor batch is not supported by {}, send requests directly.", url);
+                    unsupported = true;
+                    calls.forEach(this::sendDirectly);
+                    return;
+                }
+                if (response.status() != 200) {
+                    throw new IOException("Raptor batch request " + batchRequest.url() + " failed, status " + response.status());
+                }
+                List<RaptorBatchResponse> batchResponses;
+                try (InputStream body = response.body().asInputStream()) {
+                    batchResponses = RaptorBatchCodec.readResponses(body);
+                }
+                if (batchResponses.size() != calls.size()) {
+                    throw new IOException("Raptor batch response size " + batchResponses.size() + " mismatch request size " + calls.size());
+                }
+                for (int i = 0; i < calls.size(); i++) {
+                    Call call = calls.get(i);
+                    RaptorBatchResponse batchResponse = batchResponses.get(i);
+                    call.future.complete(Response.builder()
+                            .status(batchResponse.getStatus())
+                            .headers(HttpHeadersUtils.getHeaders(batchResponse.getHeaders()))
+                            .body(batchResponse.getBody())
+                            .request(call.request)
+                            .build());
+                }
+            } catch (Throwable e) {
+                calls.forEach(call -> call.future.completeExceptionally(e));
+            } finally {
+                ensureClosed(response.body());
+            }
+        });
+    }
+
+    private void sendDirectly(Call call) {
+        delegate.execute(call.request, call.options).whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                call.future.completeExceptionally(throwable);
+            } else {
+                call.future.complete(response);
+            }
+        });
+    }
+
+    private Request createBatchRequest(List<Call> calls) throws IOException {
+        List<RaptorBatchRequest> batchRequests = new ArrayList<>(calls.size());
+        for (Call call : calls) {
+            RaptorBatchRequest batchRequest = new RaptorBatchRequest();
+            batchRequest.setMethod(call.request.method());
+            batchRequest.setUri(call.request.url().substring(url.length()));
+            batchRequest.setHeaders(HttpHeadersUtils.getHttpHeaders(call.request.headers()));
+            batchRequest.setBody(call.request.body());
+            batchRequests.add(batchRequest);
+        }
+        RecyclableBufferOutputStream out = new RecyclableBufferOutputStream(1024);
+        RaptorBatchCodec.writeRequests(batchRequests, out);
+        Map<String, Collection<String>> headers = new LinkedHashMap<>();
+        headers.put(HttpHeaders.CONTENT_TYPE, Collections.singletonList(RaptorBatchCodec.MEDIA_TYPE.toString()));
+        headers.put(HttpHeaders.ACCEPT, Collections.singletonList(RaptorBatchCodec.MEDIA_TYPE.toString()));
+        return Request.create("POST", url + RaptorConstants.BATCH_PATH, headers, out.toByteArray(), null);
+    }
+
+    private static ScheduledExecutorService createTimer() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("raptor-batch-timer-");
+        threadFactory.setDaemon(true);
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private static class Call {
+        private final Request request;
+        private final Request.Options options;
+        private final CompletableFuture<Response> future = new CompletableFuture<>();
+
+        Call(Request request, Request.Options options) {
+            this.request = request;
+            this.options = options;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.ppdai.framework.raptor.spring.client.breaker;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 一个下游方法的熔断。
+ * <p>
+ * 关闭时按秒分桶统计最近windowSeconds秒的调用,失败率或慢调用率达到阈值时打开;
+ * 打开时调用直接失败,经过openMillis后第一个调用把状态转为半开;半开时放行halfOpenCalls个调用,
+ * 全部成功后关闭并使用新的窗口,任一失败或慢调用时重新打开。
+ * <p>
+ * 状态是不可变的{@link Phase},通过CAS替换,调用路径上不加锁;成功的调用只增加桶的计数,
+ * 失败或慢调用时才汇总窗口计算比例
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+public class RaptorCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final long BUCKET_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Getter
+    private final String name;
+    private final RaptorCircuitBreakerConfig config;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final AtomicReference<Phase> phase;
+
+    public RaptorCircuitBreaker(String name, RaptorCircuitBreakerConfig config) {
+        this.name = name;
+        this.config = config;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(config.getSlowCallDurationMillis());
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(config.getOpenMillis());
+        this.phase = new AtomicReference<>(closed());
+    }
+
+    public State getState() {
+        return phase.get().state;
+    }
+
+    /**
+     * @return false时熔断打开,不要发出调用
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            Phase current = phase.get();
+            switch (current.state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.nanoTime() - current.openUntil < 0) {
+                        return false;
+                    }
+                    transition(current, halfOpen());
+                    break;
+                default:
+                    return current.permitted.incrementAndGet() <= config.getHalfOpenCalls();
+            }
+        }
+    }
+
+    /**
+     * 放行的调用完成后调用
+     *
+     * @param durationNanos 调用执行的纳秒数
+     * @param failed        调用是否失败
+     */
+    public void onComplete(long durationNanos, boolean failed) {
+        Phase current = phase.get();
+        boolean slow = durationNanos >= slowCallNanos;
+        switch (current.state) {
+            case CLOSED:
+                long now = System.nanoTime();
+                current.window.record(now, failed, slow);
+                if ((failed || slow) && shouldOpen(current.window, now)) {
+                    transition(current, open());
+                }
+                break;
+            case HALF_OPEN:
+                if (failed || slow) {
+                    transition(current, open());
+                } else if (current.succeeded.incrementAndGet() >= config.getHalfOpenCalls()) {
+                    transition(current, closed());
+                }
+                break;
+            default:
+                //打开之前发出的调用,结果不影响状态
+                break;
+        }
+    }
+
+    private boolean shouldOpen(Window window, long now) {
+        int[] counts = window.sum(now);
+        int total = counts[0];
+        if (total < config.getMinimumCalls()) {
+            return false;
+        }
+        return counts[1] * 100L >= (long) config.getFailureRateThreshold() * total
+                || counts[2] * 100L >= (long) config.getSlowCallRateThreshold() * total;
+    }
+
+    private void transition(Phase from, Phase to) {
+        if (phase.compareAndSet(from, to)) {
+            if (to.state == State.OPEN) {
+                log.warn("Raptor circuit breaker [{}] changed from {} to {}.", name, from.state, to.state);
+            } else {
+                log.info("Raptor circuit breaker [{}] changed from {} to {}.", name, from.state, to.state);
+            }
+        }
+    }
+
+    private Phase closed() {
+        return new Phase(State.CLOSED, 0, new Window(config.getWindowSeconds()));
+    }
+
+    private Phase open() {
+        return new Phase(State.OPEN, System.nanoTime() + openNanos, null);
+    }
+
+    private Phase halfOpen() {
+        return new Phase(State.HALF_OPEN, 0, null);
+    }
+
+    @Override
+    public String toString() {
+        return name + "[" + getState() + "]";
+    }
+
+    private static class Phase {
+        private final State state;
+        private final long openUntil;
+        private final Window window;
+        private final AtomicInteger permitted = new AtomicInteger();
+        private final AtomicInteger succeeded = new AtomicInteger();
+
+        private Phase(State state, long openUntil, Window window) {
+            this.state = state;
+            this.openUntil = openUntil;
+            this.window = window;
+        }
+    }
+
+    /**
+     * 按秒分桶的滑动窗口,过期的桶在写入时通过CAS替换
+     */
+    static class Window {
+        private final AtomicReferenceArray<Bucket> buckets;
+
+        Window(int seconds) {
+            this.buckets = new AtomicReferenceArray<>(Math.max(1, seconds));
+        }
+
+        void record(long now, boolean failed, boolean slow) {
+            Bucket bucket = bucket(now / BUCKET_NANOS);
+            bucket.total.incrementAndGet();
+            if (failed) {
+                bucket.failed.incrementAndGet();
+            }
+            if (slow) {
+                bucket.slow.incrementAndGet();
+            }
+        }
+
+        /**
+         * @return 窗口内的调用数、失败数、慢调用数
+         */
+        int[] sum(long now) {
+            long second = now / BUCKET_NANOS;
+            int[] counts = new int[3];
+            for (int i = 0; i < buckets.length(); i++) {
+                Bucket bucket = buckets.get(i);
+                if (bucket != null && second - bucket.second < buckets.length()) {
+                    counts[0] += bucket.total.get();
+                    counts[1] += bucket.failed.get();
+                    counts[2] += bucket.slow.get();
+                }
+            }
+            return counts;
+        }
+
+        private Bucket bucket(long second) {
+            int index = (int) Math.floorMod(second, (long) buckets.length());
+            while (true) {
+                Bucket bucket = buckets.get(index);
+                if (bucket != null && bucket.second >= second) {
+                    return bucket;
+                }
+                Bucket created = new Bucket(second);
+                if (buckets.compareAndSet(index, bucket, created)) {
+                    return created;
+                }
+            }
+        }
+    }
+
+    private static class Bucket {
+        private final long second;
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger slow = new AtomicInteger();
+
+        private Bucket(long second) {
+            this.second = second;
+        }
+    }
+}
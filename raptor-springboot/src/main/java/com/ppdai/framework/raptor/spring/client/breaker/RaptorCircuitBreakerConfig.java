@@ -0,0 +1,56 @@
+package com.ppdai.framework.raptor.spring.client.breaker;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 熔断的参数,由raptor.client.config的circuitBreaker*配置合并得到
+ *
+ * @author yinzuolong
+ */
+@Getter
+@Setter
+public class RaptorCircuitBreakerConfig {
+    public static final int DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+    public static final int DEFAULT_SLOW_CALL_RATE_THRESHOLD = 100;
+    public static final long DEFAULT_SLOW_CALL_DURATION_MILLIS = 10000L;
+    public static final int DEFAULT_MINIMUM_CALLS = 20;
+    public static final int DEFAULT_WINDOW_SECONDS = 10;
+    public static final long DEFAULT_OPEN_MILLIS = 5000L;
+    public static final int DEFAULT_HALF_OPEN_CALLS = 3;
+
+    /**
+     * 窗口内失败调用的百分比达到该值时打开
+     */
+    private int failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+
+    /**
+     * 窗口内慢调用的百分比达到该值时打开
+     */
+    private int slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+
+    /**
+     * 执行时间达到该毫秒数的调用为慢调用
+     */
+    private long slowCallDurationMillis = DEFAULT_SLOW_CALL_DURATION_MILLIS;
+
+    /**
+     * 窗口内调用数达到该值才计算失败率,避免少量调用失败就打开
+     */
+    private int minimumCalls = DEFAULT_MINIMUM_CALLS;
+
+    /**
+     * 统计最近多少秒的调用
+     */
+    private int windowSeconds = DEFAULT_WINDOW_SECONDS;
+
+    /**
+     * 打开后经过该毫秒数转为半开,放行少量调用探测下游是否恢复
+     */
+    private long openMillis = DEFAULT_OPEN_MILLIS;
+
+    /**
+     * 半开时放行的调用数,全部成功后关闭,任一失败或慢调用时重新打开
+     */
+    private int halfOpenCalls = DEFAULT_HALF_OPEN_CALLS;
+}
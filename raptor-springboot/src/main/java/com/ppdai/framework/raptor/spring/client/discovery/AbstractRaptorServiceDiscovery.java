@@ -0,0 +1,87 @@
+package com.ppdai.framework.raptor.spring.client.discovery;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 以服务名(appId或appName)到实例url列表的映射实现服务发现,先按appId查找,没有时按appName查找。
+ * 子类通过{@link #setServices(Map)}整体替换映射,只通知实例列表变化了的订阅者
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+public abstract class AbstractRaptorServiceDiscovery implements RaptorServiceDiscovery {
+
+    private volatile Map<String, List<String>> services = Collections.emptyMap();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    @Override
+    public List<String> getUrls(String appId, String appName) {
+        return getUrls(services, appId, appName);
+    }
+
+    /**
+     * 与{@link #setServices(Map)}互斥,listener先收到当前的实例列表,再按顺序收到之后的变化
+     */
+    @Override
+    public synchronized void subscribe(String appId, String appName, Listener listener) {
+        subscriptions.add(new Subscription(appId, appName, listener));
+        listener.onChange(getUrls(services, appId, appName));
+    }
+
+    public Map<String, List<String>> getServices() {
+        return services;
+    }
+
+    protected synchronized void setServices(Map<String, List<String>> services) {
+        Map<String, List<String>> newServices = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : services.entrySet()) {
+            newServices.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        }
+        Map<String, List<String>> oldServices = this.services;
+        this.services = Collections.unmodifiableMap(newServices);
+
+        for (Subscription subscription : subscriptions) {
+            List<String> urls = getUrls(newServices, subscription.appId, subscription.appName);
+            if (urls.equals(getUrls(oldServices, subscription.appId, subscription.appName))) {
+                continue;
+            }
+            log.info("Raptor service [appId={}, appName={}] changed to {}.", subscription.appId, subscription.appName, urls);
+            try {
+                subscription.listener.onChange(urls);
+            } catch (Exception e) {
+                log.error("Notify raptor service change error.", e);
+            }
+        }
+    }
+
+    private static List<String> getUrls(Map<String, List<String>> services, String appId, String appName) {
+        List<String> urls = null;
+        if (StringUtils.hasText(appId)) {
+            urls = services.get(appId);
+        }
+        if ((urls == null || urls.isEmpty()) && StringUtils.hasText(appName)) {
+            urls = services.get(appName);
+        }
+        return urls == null ? Collections.emptyList() : urls;
+    }
+
+    private static class Subscription {
+        private final String appId;
+        private final String appName;
+        private final Listener listener;
+
+        private Subscription(String appId, String appName, Listener listener) {
+            this.appId = appId;
+            this.appName = appName;
+            this.listener = listener;
+        }
+    }
+}
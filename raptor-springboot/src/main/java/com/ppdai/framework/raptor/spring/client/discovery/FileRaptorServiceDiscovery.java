@@ -0,0 +1,91 @@
+package com.ppdai.framework.raptor.spring.client.discovery;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 从本地properties文件读取服务实例,每行为 服务名(appId或appName)=url1,url2。
+ * <p>
+ * 按固定间隔重新读取文件,而不是依赖文件的修改时间或WatchService:
+ * 修改时间的精度可能是秒,配置挂载为符号链接时替换文件也不一定产生事件;文件很小,重复读取的开销可以忽略。
+ * 文件不存在或读取失败时保留上次的实例列表
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+public class FileRaptorServiceDiscovery extends AbstractRaptorServiceDiscovery implements Closeable {
+
+    private final Path file;
+    private final long refreshIntervalMillis;
+    private ScheduledExecutorService scheduler;
+
+    public FileRaptorServiceDiscovery(Path file, long refreshIntervalMillis) {
+        this.file = file;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        refresh();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("RaptorServiceDiscovery.file.refresh");
+        threadFactory.setDaemon(true);
+        scheduler = new ScheduledThreadPoolExecutor(1, threadFactory);
+        scheduler.scheduleWithFixedDelay(this::refresh, refreshIntervalMillis, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 重新读取文件,实例有变化时通知订阅者
+     */
+    public void refresh() {
+        if (!Files.isRegularFile(file)) {
+            log.warn("Raptor service discovery file [{}] not found.", file);
+            return;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException | RuntimeException e) {
+            log.error("Read raptor service discovery file [{}] error.", file, e);
+            return;
+        }
+        Map<String, List<String>> services = new HashMap<>();
+        for (String service : properties.stringPropertyNames()) {
+            List<String> urls = new ArrayList<>();
+            for (String url : StringUtils.commaDelimitedListToStringArray(properties.getProperty(service))) {
+                if (StringUtils.hasText(url)) {
+                    urls.add(url.trim());
+                }
+            }
+            if (!urls.isEmpty()) {
+                services.put(service.trim(), urls);
+            }
+        }
+        setServices(services);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
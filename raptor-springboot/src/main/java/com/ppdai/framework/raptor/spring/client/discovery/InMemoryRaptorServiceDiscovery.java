@@ -0,0 +1,33 @@
+package com.ppdai.framework.raptor.spring.client.discovery;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 在内存中维护服务实例,用于测试或由其他注册中心的客户端写入
+ *
+ * @author yinzuolong
+ */
+public class InMemoryRaptorServiceDiscovery extends AbstractRaptorServiceDiscovery {
+
+    public synchronized void setUrls(String service, List<String> urls) {
+        Map<String, List<String>> services = new HashMap<>(getServices());
+        if (urls == null || urls.isEmpty()) {
+            services.remove(service);
+        } else {
+            services.put(service, urls);
+        }
+        setServices(services);
+    }
+
+    public void setUrls(String service, String... urls) {
+        setUrls(service, Arrays.asList(urls));
+    }
+
+    @Override
+    public synchronized void setServices(Map<String, List<String>> services) {
+        super.setServices(services);
+    }
+}
@@ -0,0 +1,28 @@
+package com.ppdai.framework.raptor.spring.client.discovery;
+
+import java.util.List;
+
+/**
+ * 服务发现,按{@link com.ppdai.framework.raptor.annotation.RaptorInterface}的appId、appName查找服务实例的url。
+ * 客户端创建时订阅,实例变化时通过listener更新,不需要重新创建feign代理
+ *
+ * @author yinzuolong
+ */
+public interface RaptorServiceDiscovery {
+
+    /**
+     * @return 服务实例的url,没有时返回空列表
+     */
+    List<String> getUrls(String appId, String appName);
+
+    /**
+     * 订阅服务实例的变化,参数与{@link #getUrls(String, String)}的结果相同.
+     * 订阅时先以当前的实例列表调用一次listener,之后在实例列表变化后调用,订阅与变化之间不会漏掉通知
+     */
+    void subscribe(String appId, String appName, Listener listener);
+
+    interface Listener {
+
+        void onChange(List<String> urls);
+    }
+}
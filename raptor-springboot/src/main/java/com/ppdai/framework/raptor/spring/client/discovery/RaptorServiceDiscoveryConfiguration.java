@@ -0,0 +1,29 @@
+package com.ppdai.framework.raptor.spring.client.discovery;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * 配置raptor.client.discovery.file时使用文件的服务发现;也可以自定义{@link RaptorServiceDiscovery}的bean
+ *
+ * @author yinzuolong
+ */
+@Configuration
+@EnableConfigurationProperties({RaptorServiceDiscoveryProperties.class})
+@ConditionalOnProperty(name = "raptor.client.discovery.file")
+public class RaptorServiceDiscoveryConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean(RaptorServiceDiscovery.class)
+    public FileRaptorServiceDiscovery fileRaptorServiceDiscovery(RaptorServiceDiscoveryProperties properties) {
+        FileRaptorServiceDiscovery discovery = new FileRaptorServiceDiscovery(Paths.get(properties.getFile()),
+                properties.getRefreshIntervalMillis());
+        discovery.start();
+        return discovery;
+    }
+}
@@ -0,0 +1,25 @@
+package com.ppdai.framework.raptor.spring.client.discovery;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @author yinzuolong
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "raptor.client.discovery")
+public class RaptorServiceDiscoveryProperties {
+    public static final long DEFAULT_REFRESH_INTERVAL_MILLIS = 5000L;
+
+    /**
+     * 服务实例文件的路径,每行为 服务名(appId或appName)=url1,url2
+     */
+    private String file;
+
+    /**
+     * 重新读取文件的间隔毫秒数
+     */
+    private long refreshIntervalMillis = DEFAULT_REFRESH_INTERVAL_MILLIS;
+}
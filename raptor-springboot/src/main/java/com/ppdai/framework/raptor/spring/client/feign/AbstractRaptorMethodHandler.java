@@ -0,0 +1,86 @@
+package com.ppdai.framework.raptor.spring.client.feign;
+
+import feign.*;
+import feign.codec.Encoder;
+import feign.codec.ErrorDecoder;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static feign.Util.checkArgument;
+
+/**
+ * 异步方法和流式方法共用的请求构造,与同步调用的{@link feign.SynchronousMethodHandler}保持一致
+ *
+ * @author yinzuolong
+ */
+public abstract class AbstractRaptorMethodHandler {
+
+    protected final Target<?> target;
+    protected final MethodMetadata metadata;
+    protected final RaptorFeignClient client;
+    protected final Request.Options options;
+    protected final List<RequestInterceptor> requestInterceptors;
+    protected final Encoder encoder;
+    protected final ErrorDecoder errorDecoder;
+
+    protected AbstractRaptorMethodHandler(Target<?> target, MethodMetadata metadata, RaptorFeignClient client,
+                                          Request.Options options, List<RequestInterceptor> requestInterceptors,
+                                          Encoder encoder, ErrorDecoder errorDecoder) {
+        this.target = target;
+        this.metadata = metadata;
+        this.client = client;
+        this.options = options;
+        this.requestInterceptors = requestInterceptors;
+        this.encoder = encoder;
+        this.errorDecoder = errorDecoder;
+    }
+
+    protected RequestTemplate buildTemplate(Object[] argv) {
+        RequestTemplate template = new RequestTemplate(metadata.template());
+        if (metadata.urlIndex() != null) {
+            int urlIndex = metadata.urlIndex();
+            checkArgument(argv[urlIndex] != null, "URI parameter %s was null", urlIndex);
+            template.insert(0, String.valueOf(argv[urlIndex]));
+        }
+        Map<String, Object> variables = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Collection<String>> entry : metadata.indexToName().entrySet()) {
+            int i = entry.getKey();
+            Object value = argv[i];
+            if (value != null) {
+                Param.Expander expander = metadata.indexToExpander() != null ? metadata.indexToExpander().get(i) : null;
+                if (expander != null) {
+                    value = expander.expand(value);
+                }
+                for (String name : entry.getValue()) {
+                    variables.put(name, value);
+                }
+            }
+        }
+        if (metadata.bodyIndex() != null) {
+            Object body = argv[metadata.bodyIndex()];
+            checkArgument(body != null, "Body parameter %s was null", metadata.bodyIndex());
+            encoder.encode(body, metadata.bodyType(), template);
+        }
+        return template.resolve(variables);
+    }
+
+    protected Request targetRequest(RequestTemplate template) {
+        for (RequestInterceptor interceptor : requestInterceptors) {
+            interceptor.apply(template);
+        }
+        return target.apply(new RequestTemplate(template));
+    }
+
+    protected Throwable errorExecuting(Request request, Throwable throwable) {
+        if (throwable instanceof IOException) {
+            //与同步调用一致,IO异常转换为RetryableException
+            return new RetryableException(String.format("%s executing %s %s", throwable.getMessage(), request.method(), request.url()),
+                    throwable, null);
+        }
+        return throwable;
+    }
+}
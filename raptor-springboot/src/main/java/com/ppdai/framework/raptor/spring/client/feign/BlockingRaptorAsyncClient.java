@@ -0,0 +1,116 @@
+package com.ppdai.framework.raptor.spring.client.feign;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.Closeable;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 在线程池中执行同步的{@link Client},没有配置非阻塞客户端时使用。
+ * <p>
+ * 线程数和等待队列都有上限,线程池满时请求直接以RejectedExecutionException失败,不会无限创建线程
+ *
+ * @author yinzuolong
+ */
+public class BlockingRaptorAsyncClient implements RaptorAsyncClient, Closeable {
+
+    public static final int DEFAULT_MAX_POOL_SIZE = 200;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final Client client;
+    private final ExecutorService executor;
+
+    public BlockingRaptorAsyncClient(Client client) {
+        this(client, DEFAULT_MAX_POOL_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param queueCapacity 等待执行的请求数,为0时没有空闲线程就拒绝
+     */
+    public BlockingRaptorAsyncClient(Client client, int maxPoolSize, int queueCapacity) {
+        this(client, newExecutor(maxPoolSize, queueCapacity));
+    }
+
+    public BlockingRaptorAsyncClient(Client client, ExecutorService executor) {
+        this.client = client;
+        this.executor = executor;
+    }
+
+    /**
+     * 没有异步客户端bean时共用的线程池,按默认大小创建,不随某个客户端关闭
+     */
+    static ExecutorService getDefaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    /**
+     * 请求在线程中阻塞等待响应,先增加线程到maxPoolSize再排队,队列满后拒绝;空闲的线程超时后回收
+     */
+    private static ExecutorService newExecutor(int maxPoolSize, int queueCapacity) {
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new LinkedBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxPoolSize, maxPoolSize,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue, new NamedThreadFactory("raptor-async-client-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Request.Options options) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    Response response = client.execute(request, options);
+                    if (!future.complete(response)) {
+                        //已被取消,释放响应
+                        response.close();
+                    }
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static class DefaultExecutorHolder {
+        private static final ExecutorService EXECUTOR = newExecutor(DEFAULT_MAX_POOL_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+        private final String prefix;
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -22,20 +22,155 @@ public class FeignClientProperties {
 
     private String defaultConfig = "default";
 
+    /**
+     * 异步调用共用线程池的最大线程数,只在没有配置非阻塞客户端时使用
+     */
+    private int asyncMaxPoolSize = BlockingRaptorAsyncClient.DEFAULT_MAX_POOL_SIZE;
+
+    /**
+     * 异步调用等待线程的最大请求数,线程和队列都满时请求失败
+     */
+    private int asyncQueueCapacity = BlockingRaptorAsyncClient.DEFAULT_QUEUE_CAPACITY;
+
     private Map<String, RaptorClientConfiguration> config = new HashMap<>();
 
     @Setter
     @Getter
     public static class RaptorClientConfiguration {
 
+        /**
+         * 服务地址,多个实例用逗号分隔
+         */
         private String url;
 
+        /**
+         * 服务实例地址列表,配置后忽略url
+         */
+        private List<String> urls;
+
+        /**
+         * 多个实例时的负载均衡策略:round-robin(默认)、least-outstanding、p2c
+         */
+        private String loadBalancer;
+
+        /**
+         * 请求的Content-Type,如application/x-protobuf,为空时使用json
+         */
+        private String contentType;
+
         private Logger.Level loggerLevel;
 
         private Integer connectTimeout;
 
         private Integer readTimeout;
 
+        /**
+         * 响应body的最大字节数,超过时解码失败,为空时不限制
+         */
+        private Long maxResponseBodySize;
+
+        /**
+         * 按优先顺序的压缩格式,可选gzip、x-snappy-framed;所有格式通过Accept-Encoding告诉服务端,为空时不压缩
+         */
+        private List<String> compression;
+
+        /**
+         * 请求body是否使用compression的第一个格式压缩,为空时不压缩;
+         * 服务端需要开启压缩并支持该格式,否则请求被拒绝
+         */
+        private Boolean requestCompression;
+
+        /**
+         * 请求body达到该字节数才压缩,为空时为2048
+         */
+        private Integer compressionMinSize;
+
+        /**
+         * 合并发送的方法名,与方法上的{@link com.ppdai.framework.raptor.annotation.RaptorBatch}作用相同;
+         * 服务端需要配置raptor.server.batch.enabled=true
+         */
+        private List<String> batchMethods;
+
+        /**
+         * 一个批量请求最多包含的调用数,为空时使用注解上的值或默认值
+         */
+        private Integer batchMaxSize;
+
+        /**
+         * 批量请求中第一个调用最多等待的毫秒数,为空时使用注解上的值或默认值
+         */
+        private Long batchMaxDelayMillis;
+
+        /**
+         * 是否按下游自适应限制同时执行的请求数,超过时在本地直接拒绝
+         */
+        private Boolean concurrencyLimitEnabled;
+
+        /**
+         * 自适应并发限制的上限,为空时为200
+         */
+        private Integer maxConcurrency;
+
+        /**
+         * 是否按接口全名#方法名熔断,以下circuitBreaker*为空时使用默认值
+         */
+        private Boolean circuitBreakerEnabled;
+
+        /**
+         * 窗口内失败调用的百分比达到该值时打开,默认50
+         */
+        private Integer circuitBreakerFailureRateThreshold;
+
+        /**
+         * 窗口内慢调用的百分比达到该值时打开,默认100
+         */
+        private Integer circuitBreakerSlowCallRateThreshold;
+
+        /**
+         * 执行时间达到该毫秒数的调用为慢调用,默认10000
+         */
+        private Long circuitBreakerSlowCallDurationMillis;
+
+        /**
+         * 窗口内调用数达到该值才计算失败率,默认20
+         */
+        private Integer circuitBreakerMinimumCalls;
+
+        /**
+         * 统计最近多少秒的调用,默认10
+         */
+        private Integer circuitBreakerWindowSeconds;
+
+        /**
+         * 打开后经过该毫秒数转为半开,默认5000
+         */
+        private Long circuitBreakerOpenMillis;
+
+        /**
+         * 半开时放行的探测调用数,默认3
+         */
+        private Integer circuitBreakerHalfOpenCalls;
+
+        /**
+         * 是否对冲GET请求:延迟内没有响应时向另一个实例再发送一次,使用先返回的响应;只有一个配置的实例时不对冲
+         */
+        private Boolean hedgingEnabled;
+
+        /**
+         * 发送对冲请求前等待的毫秒数,为空时使用同一路径最近的延迟分位数
+         */
+        private Long hedgingDelayMillis;
+
+        /**
+         * 没有配置hedgingDelayMillis时使用的延迟分位数,默认95
+         */
+        private Integer hedgingPercentile;
+
+        /**
+         * 对冲请求数最多占请求数的百分比,默认5
+         */
+        private Integer hedgingBudgetPercent;
+
         private Class<Retryer> retryer;
 
         private Class<ErrorDecoder> errorDecoder;
@@ -1,11 +1,11 @@
 package com.ppdai.framework.raptor.spring.client.feign;
 
+import com.ppdai.framework.raptor.spring.buffer.RecyclableBufferOutputStream;
 import com.ppdai.framework.raptor.spring.utils.HttpHeadersUtils;
 import feign.RequestTemplate;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpOutputMessage;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -14,11 +14,15 @@ import java.io.OutputStream;
  */
 public class FeignRequestOutputMessage implements HttpOutputMessage {
     private HttpHeaders httpHeaders;
-    private ByteArrayOutputStream buf;
+    private RecyclableBufferOutputStream buf;
 
     public FeignRequestOutputMessage(RequestTemplate request) {
+        this(request, new RecyclableBufferOutputStream(256));
+    }
+
+    public FeignRequestOutputMessage(RequestTemplate request, RecyclableBufferOutputStream buf) {
         this.httpHeaders = HttpHeadersUtils.getHttpHeaders(request.headers());
-        this.buf = new ByteArrayOutputStream();
+        this.buf = buf;
     }
 
     @Override
@@ -15,9 +15,18 @@ import java.io.InputStream;
 public class FeignResponseAdapter implements ClientHttpResponse {
 
     private final Response response;
+    private final long maxBodySize;
 
     public FeignResponseAdapter(Response response) {
+        this(response, 0);
+    }
+
+    /**
+     * @param maxBodySize body最大字节数,小于等于0时不限制
+     */
+    public FeignResponseAdapter(Response response, long maxBodySize) {
         this.response = response;
+        this.maxBodySize = maxBodySize;
     }
 
     @Override
@@ -46,7 +55,7 @@ public class FeignResponseAdapter implements ClientHttpResponse {
 
     @Override
     public InputStream getBody() throws IOException {
-        return this.response.body().asInputStream();
+        return FeignResponseInputMessage.getBody(this.response, this.maxBodySize);
     }
 
     @Override
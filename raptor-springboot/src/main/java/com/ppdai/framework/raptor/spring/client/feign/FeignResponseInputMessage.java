@@ -1,12 +1,17 @@
 package com.ppdai.framework.raptor.spring.client.feign;
 
+import com.ppdai.framework.raptor.spring.buffer.MaxBodySizeInputStream;
+import com.ppdai.framework.raptor.spring.compress.RaptorCompressors;
 import com.ppdai.framework.raptor.spring.utils.HttpHeadersUtils;
 import feign.Response;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpInputMessage;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * @author yinzuolong
@@ -14,18 +19,62 @@ import java.io.InputStream;
 public class FeignResponseInputMessage implements HttpInputMessage {
 
     private Response response;
+    private long maxBodySize;
 
     public FeignResponseInputMessage(Response response) {
+        this(response, 0);
+    }
+
+    /**
+     * @param maxBodySize body最大字节数,小于等于0时不限制
+     */
+    public FeignResponseInputMessage(Response response, long maxBodySize) {
         this.response = response;
+        this.maxBodySize = maxBodySize;
     }
 
     @Override
     public InputStream getBody() throws IOException {
-        return response.body().asInputStream();
+        return getBody(response, maxBodySize);
     }
 
     @Override
     public HttpHeaders getHeaders() {
         return HttpHeadersUtils.getHttpHeaders(response.headers());
     }
+
+    /**
+     * 响应有Content-Encoding时先解压,限制的是解压后的字节数
+     *
+     * @param maxBodySize 小于等于0时不限制
+     */
+    static InputStream getBody(Response response, long maxBodySize) throws IOException {
+        Response.Body body = response.body();
+        if (body == null) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        String contentEncoding = getContentEncoding(response);
+        if (!RaptorCompressors.isIdentity(contentEncoding)) {
+            InputStream in = RaptorCompressors.decompress(body.asInputStream(), contentEncoding);
+            return maxBodySize <= 0 ? in : new MaxBodySizeInputStream(in, maxBodySize);
+        }
+        if (maxBodySize <= 0) {
+            return body.asInputStream();
+        }
+        //有Content-Length时不需要读取就能判断
+        Integer length = body.length();
+        if (length != null && length > maxBodySize) {
+            throw MaxBodySizeInputStream.exceeded(maxBodySize);
+        }
+        return new MaxBodySizeInputStream(body.asInputStream(), maxBodySize);
+    }
+
+    private static String getContentEncoding(Response response) {
+        for (Map.Entry<String, Collection<String>> entry : response.headers().entrySet()) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(entry.getKey()) && !entry.getValue().isEmpty()) {
+                return entry.getValue().iterator().next();
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,43 @@
+package com.ppdai.framework.raptor.spring.client.feign;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 异步执行http请求,{@link com.ppdai.framework.raptor.annotation.RaptorAsync}方法使用
+ *
+ * @author yinzuolong
+ */
+public interface RaptorAsyncClient {
+
+    CompletableFuture<Response> execute(Request request, Request.Options options);
+
+    /**
+     * 同步方法使用的{@link Client},在调用线程上等待异步结果
+     */
+    default Client toBlockingClient() {
+        return (request, options) -> {
+            try {
+                return execute(request, options).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(e.getMessage());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException(cause);
+            }
+        };
+    }
+}
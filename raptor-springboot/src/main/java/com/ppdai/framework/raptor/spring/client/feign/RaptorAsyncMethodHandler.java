@@ -0,0 +1,70 @@
+package com.ppdai.framework.raptor.spring.client.feign;
+
+import feign.*;
+import feign.codec.DecodeException;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import feign.codec.ErrorDecoder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static feign.Util.ensureClosed;
+
+/**
+ * 异步方法的处理器,按对应同步方法的{@link MethodMetadata}构造请求,
+ * 通过{@link RaptorFeignClient#executeAsync(Request, Request.Options)}发送,在响应线程上解码
+ *
+ * @author yinzuolong
+ */
+public class RaptorAsyncMethodHandler extends AbstractRaptorMethodHandler {
+
+    private final Decoder decoder;
+
+    public RaptorAsyncMethodHandler(Target<?> target, MethodMetadata metadata, RaptorFeignClient client,
+                                    Request.Options options, List<RequestInterceptor> requestInterceptors,
+                                    Encoder encoder, Decoder decoder, ErrorDecoder errorDecoder) {
+        super(target, metadata, client, options, requestInterceptors, encoder, errorDecoder);
+        this.decoder = decoder;
+    }
+
+    public CompletableFuture<Object> invoke(Object[] argv) {
+        Request request = targetRequest(buildTemplate(argv));
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        client.executeAsync(request, options).whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(errorExecuting(request, unwrap(throwable)));
+                return;
+            }
+            try {
+                result.complete(decode(request, response));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    protected Object decode(Request request, Response response) throws Exception {
+        response = response.toBuilder().request(request).build();
+        try {
+            if (response.status() >= 200 && response.status() < 300) {
+                if (void.class == metadata.returnType()) {
+                    return null;
+                }
+                return decoder.decode(response, metadata.returnType());
+            }
+            throw errorDecoder.decode(metadata.configKey(), response);
+        } catch (IOException e) {
+            throw new DecodeException(e.getMessage(), e);
+        } finally {
+            ensureClosed(response.body());
+        }
+    }
+
+    static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+}
@@ -4,23 +4,44 @@ import com.ppdai.framework.raptor.common.RaptorConstants;
 import com.ppdai.framework.raptor.exception.ErrorMessage;
 import com.ppdai.framework.raptor.exception.RaptorException;
 import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import com.ppdai.framework.raptor.spring.utils.RaptorConverterUtils;
 import feign.Response;
 import feign.codec.ErrorDecoder;
-import org.springframework.util.StreamUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * @author yinzuolong
  */
 public class RaptorErrorDecoder implements ErrorDecoder {
 
-    private RaptorMessageConverter raptorMessageConverter;
+    /**
+     * 非raptor格式的错误响应最多读取的字节数
+     */
+    private static final int MAX_ERROR_BODY_STRING_SIZE = 16 * 1024;
+
+    private List<RaptorMessageConverter> raptorMessageConverters;
+    private long maxBodySize;
 
     public RaptorErrorDecoder(RaptorMessageConverter raptorMessageConverter) {
-        this.raptorMessageConverter = raptorMessageConverter;
+        this(Collections.singletonList(raptorMessageConverter));
+    }
+
+    public RaptorErrorDecoder(List<RaptorMessageConverter> raptorMessageConverters) {
+        this(raptorMessageConverters, 0);
+    }
+
+    /**
+     * @param maxBodySize 响应body最大字节数,小于等于0时不限制
+     */
+    public RaptorErrorDecoder(List<RaptorMessageConverter> raptorMessageConverters, long maxBodySize) {
+        this.raptorMessageConverters = raptorMessageConverters;
+        this.maxBodySize = maxBodySize;
     }
 
     @Override
@@ -29,19 +50,35 @@ public class RaptorErrorDecoder implements ErrorDecoder {
         String raptorError = raptorErrorHeaders.iterator().hasNext() ? raptorErrorHeaders.iterator().next() : null;
         if ("true".equals(raptorError)) {
             try {
-                ErrorMessage errorMessage = (ErrorMessage) raptorMessageConverter.read(ErrorMessage.class, new FeignResponseInputMessage(response));
-                return new RaptorException(errorMessage);
+                FeignResponseInputMessage inputMessage = new FeignResponseInputMessage(response, maxBodySize);
+                RaptorMessageConverter converter = RaptorConverterUtils.findConverter(raptorMessageConverters, inputMessage.getHeaders().getContentType());
+                if (converter != null) {
+                    ErrorMessage errorMessage = (ErrorMessage) converter.read(ErrorMessage.class, inputMessage);
+                    return new RaptorException(errorMessage);
+                }
             } catch (IOException e) {
                 return new RaptorException(getResponseBodyString(response));
             }
-        } else {
-            return new RaptorException(getResponseBodyString(response));
         }
+        return new RaptorException(getResponseBodyString(response));
     }
 
+    /**
+     * 只读取body的前{@link #MAX_ERROR_BODY_STRING_SIZE}个字节
+     */
     private String getResponseBodyString(Response response) {
-        try {
-            return StreamUtils.copyToString(response.body().asInputStream(), StandardCharsets.UTF_8);
+        if (response.body() == null) {
+            return "";
+        }
+        try (InputStream in = response.body().asInputStream()) {
+            byte[] buffer = new byte[MAX_ERROR_BODY_STRING_SIZE];
+            int length = 0;
+            int read;
+            while (length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += read;
+            }
+            String body = new String(buffer, 0, length, StandardCharsets.UTF_8);
+            return length == buffer.length && in.read() >= 0 ? body + "..." : body;
         } catch (IOException e) {
             return "error read response body. " + e.getMessage();
         }
@@ -12,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author yinzuolong
@@ -24,9 +25,15 @@ public class RaptorFeignClient implements Client {
     public static final String NAME_HTTP_METHOD = "raptor-client-http-method";
 
     private final Client client;
+    private volatile RaptorAsyncClient asyncClient;
 
     public RaptorFeignClient(Client client) {
+        this(client, null);
+    }
+
+    public RaptorFeignClient(Client client, RaptorAsyncClient asyncClient) {
         this.client = client;
+        this.asyncClient = asyncClient;
     }
 
     @Override
@@ -51,6 +58,60 @@ public class RaptorFeignClient implements Client {
         }
     }
 
+    /**
+     * 异步执行请求,preHandle在调用线程执行,postHandle和afterCompletion在响应线程上使用调用时的RaptorContext执行
+     */
+    public CompletableFuture<Response> executeAsync(Request request, Request.Options options) {
+        RaptorContext context = RaptorContext.getContext();
+        long start = System.nanoTime();
+        CompletableFuture<Response> future;
+        try {
+            preHandle(request, options);
+            future = getAsyncClient().execute(request, options);
+        } catch (Exception e) {
+            afterCompletion(request, null, e, System.nanoTime() - start);
+            CompletableFuture<Response> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        future.whenComplete((response, throwable) -> {
+            RaptorContext previous = RaptorContext.setContext(context);
+            Exception ex = null;
+            try {
+                if (throwable != null) {
+                    Throwable cause = RaptorAsyncMethodHandler.unwrap(throwable);
+                    ex = cause instanceof Exception ? (Exception) cause : new RuntimeException("Request execute error.", cause);
+                } else {
+                    postHandle(request, response);
+                }
+            } catch (Exception e) {
+                ex = e;
+            } finally {
+                afterCompletion(request, response, ex, System.nanoTime() - start);
+                RaptorContext.setContext(previous);
+            }
+            if (ex != null) {
+                result.completeExceptionally(ex);
+            } else {
+                result.complete(response);
+            }
+        });
+        return result;
+    }
+
+    public RaptorAsyncClient getAsyncClient() {
+        //没有配置异步客户端时,在共用的线程池中执行同步客户端
+        if (asyncClient == null) {
+            synchronized (this) {
+                if (asyncClient == null) {
+                    asyncClient = new BlockingRaptorAsyncClient(client, BlockingRaptorAsyncClient.getDefaultExecutor());
+                }
+            }
+        }
+        return asyncClient;
+    }
+
     protected void preHandle(Request request, Request.Options options) throws Exception {
         //设置url和method到Context中，方便其他地方取
         RaptorContext.getContext().putAttribute(NAME_HTTP_URI, UrlUtils.getUri(request.url()));
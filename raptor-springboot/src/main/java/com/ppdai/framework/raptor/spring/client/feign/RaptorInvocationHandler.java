@@ -1,22 +1,33 @@
 package com.ppdai.framework.raptor.spring.client.feign;
 
+import com.ppdai.framework.raptor.exception.RaptorCircuitOpenException;
+import com.ppdai.framework.raptor.exception.RaptorLimitExceededException;
 import com.ppdai.framework.raptor.rpc.RaptorClientInterceptor;
 import com.ppdai.framework.raptor.rpc.RaptorContext;
 import com.ppdai.framework.raptor.rpc.RaptorRequest;
 import com.ppdai.framework.raptor.rpc.RaptorResponse;
+import com.ppdai.framework.raptor.rpc.RaptorStreamIterator;
+import com.ppdai.framework.raptor.rpc.RaptorStreamObserver;
+import com.ppdai.framework.raptor.spring.client.breaker.RaptorCircuitBreaker;
+import com.ppdai.framework.raptor.spring.client.breaker.RaptorCircuitBreakerConfig;
+import com.ppdai.framework.raptor.spring.limit.RaptorConcurrencyLimiter;
 import com.ppdai.framework.raptor.utils.RequestIdUtils;
 import feign.InvocationHandlerFactory;
+import feign.RetryableException;
 import feign.Target;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 
 import static feign.Util.checkNotNull;
 
@@ -26,96 +37,495 @@ import static feign.Util.checkNotNull;
 @Slf4j
 public class RaptorInvocationHandler implements InvocationHandler {
 
+    private static final RaptorClientInterceptor[] EMPTY_INTERCEPTORS = new RaptorClientInterceptor[0];
+
     @Getter
-    @Setter
     private List<RaptorClientInterceptor> interceptors = new LinkedList<>();
+    @Getter
+    private Map<Method, AsyncMethod> asyncDispatch = Collections.emptyMap();
+    @Getter
+    private Map<Method, StreamMethod> streamDispatch = Collections.emptyMap();
+    /**
+     * 合并发送的同步方法,调用线程等待批量响应
+     */
+    @Getter
+    private Map<Method, RaptorAsyncMethodHandler> batchDispatch = Collections.emptyMap();
+    /**
+     * 下游的并发限制,为null时不限制;超过限制时不调用拦截器,直接抛出{@link RaptorLimitExceededException}
+     */
+    @Getter
+    @Setter
+    private RaptorConcurrencyLimiter concurrencyLimiter;
+    /**
+     * 熔断配置,为null时不熔断
+     */
+    @Getter
+    private RaptorCircuitBreakerConfig circuitBreakerConfig;
+    /**
+     * 按接口全名#方法名的熔断,异步方法与对应的同步方法共用;重新创建方法描述时保留状态
+     */
+    private final ConcurrentMap<String, RaptorCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
     private Target<?> target;
     private Map<Method, InvocationHandlerFactory.MethodHandler> dispatch;
 
+    /**
+     * 按Method.equals查找的方法描述,由{@link #prepare()}一次性创建
+     */
+    private volatile Map<Method, MethodDescriptor> descriptors;
+    /**
+     * 代理传入的Method实例按引用缓存,写时复制,调用路径上只做一次identity查找
+     */
+    private volatile Map<Method, MethodDescriptor> identityDescriptors = new IdentityHashMap<>();
+    private final Object lock = new Object();
+
     public RaptorInvocationHandler(Target target, Map<Method, InvocationHandlerFactory.MethodHandler> dispatch) {
         this.target = checkNotNull(target, "target");
         this.dispatch = checkNotNull(dispatch, "dispatch for %s", target);
     }
 
-    @Override
-    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        if ("equals".equals(method.getName())) {
+    public void setInterceptors(List<RaptorClientInterceptor> interceptors) {
+        this.interceptors = interceptors;
+        reset();
+    }
+
+    public void setAsyncDispatch(Map<Method, AsyncMethod> asyncDispatch) {
+        this.asyncDispatch = asyncDispatch;
+        reset();
+    }
+
+    public void setStreamDispatch(Map<Method, StreamMethod> streamDispatch) {
+        this.streamDispatch = streamDispatch;
+        reset();
+    }
+
+    public void setCircuitBreakerConfig(RaptorCircuitBreakerConfig circuitBreakerConfig) {
+        this.circuitBreakerConfig = circuitBreakerConfig;
+        this.circuitBreakers.clear();
+        reset();
+    }
+
+    public Map<String, RaptorCircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(circuitBreakers);
+    }
+
+    public void setBatchDispatch(Map<Method, RaptorAsyncMethodHandler> batchDispatch) {
+        this.batchDispatch = batchDispatch;
+        reset();
+    }
+
+    /**
+     * 根据当前的dispatch和拦截器创建所有方法的描述,修改配置后需要重新调用;未调用时在第一次调用方法时创建
+     */
+    public void prepare() {
+        synchronized (lock) {
+            RaptorClientInterceptor[] chain = interceptors != null && !interceptors.isEmpty()
+                    ? interceptors.toArray(new RaptorClientInterceptor[0]) : EMPTY_INTERCEPTORS;
+            Set<Method> methods = new LinkedHashSet<>(dispatch.keySet());
+            methods.addAll(asyncDispatch.keySet());
+            methods.addAll(streamDispatch.keySet());
+            methods.addAll(batchDispatch.keySet());
             try {
-                Object otherHandler = args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0]) : null;
-                return equals(otherHandler);
-            } catch (IllegalArgumentException e) {
-                return false;
+                methods.add(Object.class.getMethod("equals", Object.class));
+                methods.add(Object.class.getMethod("hashCode"));
+                methods.add(Object.class.getMethod("toString"));
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
             }
+            Map<Method, MethodDescriptor> map = new HashMap<>(methods.size() * 2);
+            for (Method method : methods) {
+                map.put(method, createDescriptor(method, chain));
+            }
+            this.descriptors = map;
+            this.identityDescriptors = new IdentityHashMap<>();
+        }
+    }
+
+    private void reset() {
+        synchronized (lock) {
+            this.descriptors = null;
+            this.identityDescriptors = new IdentityHashMap<>();
+        }
+    }
+
+    protected MethodDescriptor getDescriptor(Method method) {
+        MethodDescriptor descriptor = identityDescriptors.get(method);
+        if (descriptor != null) {
+            return descriptor;
+        }
+        synchronized (lock) {
+            if (descriptors == null) {
+                prepare();
+            }
+            descriptor = descriptors.get(method);
+            if (descriptor == null) {
+                descriptor = createDescriptor(method, interceptors != null
+                        ? interceptors.toArray(new RaptorClientInterceptor[0]) : EMPTY_INTERCEPTORS);
+            }
+            Map<Method, MethodDescriptor> copy = new IdentityHashMap<>(identityDescriptors);
+            copy.put(method, descriptor);
+            this.identityDescriptors = copy;
+        }
+        return descriptor;
+    }
+
+    protected MethodDescriptor createDescriptor(Method method, RaptorClientInterceptor[] chain) {
+        MethodDescriptor descriptor = newDescriptor(method, chain);
+        RaptorCircuitBreakerConfig config = this.circuitBreakerConfig;
+        if (config != null && descriptor.getKind() != MethodKind.EQUALS
+                && descriptor.getKind() != MethodKind.HASH_CODE && descriptor.getKind() != MethodKind.TO_STRING) {
+            String name = descriptor.getInterfaceName() + "#" + descriptor.getMethodName();
+            descriptor.circuitBreaker = circuitBreakers.computeIfAbsent(name, key -> new RaptorCircuitBreaker(key, config));
+        }
+        return descriptor;
+    }
+
+    private MethodDescriptor newDescriptor(Method method, RaptorClientInterceptor[] chain) {
+        if ("equals".equals(method.getName())) {
+            return new MethodDescriptor(method, MethodKind.EQUALS, method, null, chain);
         } else if ("hashCode".equals(method.getName())) {
-            return hashCode();
+            return new MethodDescriptor(method, MethodKind.HASH_CODE, method, null, chain);
         } else if ("toString".equals(method.getName())) {
-            return toString();
+            return new MethodDescriptor(method, MethodKind.TO_STRING, method, null, chain);
+        }
+        AsyncMethod asyncMethod = asyncDispatch.get(method);
+        if (asyncMethod != null) {
+            MethodDescriptor descriptor = new MethodDescriptor(method, MethodKind.ASYNC, asyncMethod.getSyncMethod(), null, chain);
+            descriptor.asyncMethod = asyncMethod;
+            return descriptor;
+        }
+        StreamMethod streamMethod = streamDispatch.get(method);
+        if (streamMethod != null) {
+            MethodDescriptor descriptor = new MethodDescriptor(method, MethodKind.STREAM, streamMethod.getStreamMethod(),
+                    streamMethod.getHandler(), chain);
+            descriptor.streamMethod = streamMethod;
+            return descriptor;
+        }
+        RaptorAsyncMethodHandler batchHandler = batchDispatch.get(method);
+        if (batchHandler != null) {
+            return new MethodDescriptor(method, MethodKind.SYNC, method, argv -> {
+                try {
+                    return batchHandler.invoke(argv).get();
+                } catch (ExecutionException e) {
+                    throw e.getCause();
+                }
+            }, chain);
         }
-        initRequestResponse(method, args);
-        Object result = null;
-        Exception ex = null;
+        return new MethodDescriptor(method, MethodKind.SYNC, method, dispatch.get(method), chain);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        MethodDescriptor descriptor = getDescriptor(method);
+        switch (descriptor.getKind()) {
+            case EQUALS:
+                try {
+                    Object otherHandler = args.length > 0 && args[0] != null ? Proxy.getInvocationHandler(args[0]) : null;
+                    return equals(otherHandler);
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            case HASH_CODE:
+                return hashCode();
+            case TO_STRING:
+                return toString();
+            case ASYNC:
+                return invokeAsync(descriptor, args);
+            case STREAM:
+                return invokeStream(descriptor, args);
+            default:
+                return invokeSync(descriptor, args);
+        }
+    }
+
+    protected Object invokeSync(MethodDescriptor descriptor, Object[] args) throws Throwable {
+        RaptorConcurrencyLimiter limiter = this.concurrencyLimiter;
+        if (limiter == null && descriptor.getCircuitBreaker() == null) {
+            return doInvokeSync(descriptor, args);
+        }
+        acquire(limiter, descriptor);
+        long start = System.nanoTime();
+        Throwable ex = null;
         try {
-            applyPreHandle();
-            result = dispatch.get(method).invoke(args);
-            return applyPostHandle(result);
-        } catch (Exception e) {
+            return doInvokeSync(descriptor, args);
+        } catch (Throwable e) {
             ex = e;
             throw e;
         } finally {
-            triggerAfterCompletion(result, ex);
+            release(limiter, descriptor, System.nanoTime() - start, ex);
+        }
+    }
+
+    /**
+     * 同步调用在调用方context的副本中执行,结束后清空副本并恢复调用方的context,响应头中的trace信息合并回调用方
+     */
+    protected Object doInvokeSync(MethodDescriptor descriptor, Object[] args) throws Throwable {
+        RaptorClientInterceptor[] chain = descriptor.getInterceptors();
+        try (RaptorContext context = RaptorContext.openCopy()) {
+            initRequestResponse(context, descriptor, args);
+            Object result = null;
+            Exception ex = null;
+            try {
+                applyPreHandle(context, chain);
+                result = descriptor.getHandler().invoke(args);
+                return applyPostHandle(context, chain, result);
+            } catch (Exception e) {
+                ex = e;
+                throw e;
+            } finally {
+                triggerAfterCompletion(context, chain, result, ex);
+            }
+        }
+    }
+
+    /**
+     * 拦截器只包围建立流的过程,postHandle拿到的是{@link RaptorStreamIterator}.
+     * observer方法在调用线程上读完整个流,错误通过observer.onError返回
+     */
+    @SuppressWarnings("unchecked")
+    protected Object invokeStream(MethodDescriptor descriptor, Object[] args) throws Throwable {
+        if (!descriptor.getStreamMethod().isObserver()) {
+            return invokeSync(descriptor, args);
+        }
+        RaptorStreamObserver<Object> observer = (RaptorStreamObserver<Object>) args[args.length - 1];
+        RaptorStreamIterator<Object> iterator;
+        try {
+            iterator = (RaptorStreamIterator<Object>) invokeSync(descriptor, args);
+        } catch (Throwable e) {
+            observer.onError(e);
+            return null;
+        }
+        try {
+            while (iterator.hasNext()) {
+                observer.onNext(iterator.next());
+            }
+            observer.onCompleted();
+        } catch (Throwable e) {
+            observer.onError(e);
+        } finally {
+            iterator.close();
+        }
+        return null;
+    }
+
+    /**
+     * 异步调用使用独立的RaptorContext,拦截器的postHandle和afterCompletion在响应线程上使用该context执行
+     */
+    protected CompletableFuture<Object> invokeAsync(MethodDescriptor descriptor, Object[] args) throws Exception {
+        RaptorConcurrencyLimiter limiter = this.concurrencyLimiter;
+        boolean guarded = limiter != null || descriptor.getCircuitBreaker() != null;
+        if (guarded) {
+            try {
+                acquire(limiter, descriptor);
+            } catch (RaptorLimitExceededException | RaptorCircuitOpenException e) {
+                CompletableFuture<Object> rejected = new CompletableFuture<>();
+                rejected.completeExceptionally(e);
+                return rejected;
+            }
+        }
+        long start = System.nanoTime();
+        RaptorClientInterceptor[] chain = descriptor.getInterceptors();
+        RaptorContext parent = RaptorContext.getContext();
+        //调用方可能在响应前结束,context被其他请求复用
+        long parentGeneration = parent.getGeneration();
+        RaptorContext context = parent.copy();
+        CompletableFuture<Object> future;
+        RaptorContext.setContext(context);
+        try {
+            initRequestResponse(context, descriptor, args);
+            applyPreHandle(context, chain);
+            future = descriptor.getAsyncMethod().getHandler().invoke(args);
+        } catch (Exception e) {
+            triggerAfterCompletion(context, chain, null, e);
+            if (guarded) {
+                release(limiter, descriptor, System.nanoTime() - start, e);
+            }
+            throw e;
+        } finally {
+            RaptorContext.setContext(parent);
         }
+
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        future.whenComplete((value, throwable) -> {
+            RaptorContext previous = RaptorContext.setContext(context);
+            Object returnValue = value;
+            Exception ex = null;
+            try {
+                if (throwable != null) {
+                    Throwable cause = RaptorAsyncMethodHandler.unwrap(throwable);
+                    ex = cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+                } else {
+                    returnValue = applyPostHandle(context, chain, value);
+                }
+            } catch (Exception e) {
+                ex = e;
+            } finally {
+                if (guarded) {
+                    //postHandle抛出的异常与同步调用一样算作失败
+                    release(limiter, descriptor, System.nanoTime() - start, ex);
+                }
+                triggerAfterCompletion(context, chain, returnValue, ex);
+                //响应头中的trace信息传回调用方的context,调用方已经结束时丢弃
+                parent.mergeResponseAttachments(context.getResponseAttachments(), parentGeneration);
+                RaptorContext.setContext(previous);
+            }
+            if (ex != null) {
+                result.completeExceptionally(ex);
+            } else {
+                result.complete(returnValue);
+            }
+        });
+        return result;
     }
 
-    protected void initRequestResponse(Method method, Object[] args) throws Exception {
+    /**
+     * 先检查并发限制,再检查熔断;熔断拒绝时归还并发限制的许可
+     *
+     * @param limiter 为null时不限制
+     */
+    protected void acquire(RaptorConcurrencyLimiter limiter, MethodDescriptor descriptor) {
+        if (limiter != null && !limiter.tryAcquire()) {
+            throw new RaptorLimitExceededException("Too many concurrent calls to " + target.url() + " when calling "
+                    + descriptor.getInterfaceName() + "#" + descriptor.getMethodName() + ", concurrency limit " + limiter.getLimit() + ".");
+        }
+        RaptorCircuitBreaker circuitBreaker = descriptor.getCircuitBreaker();
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+            if (limiter != null) {
+                //执行时间为0,不影响limit
+                limiter.release(0, false);
+            }
+            throw new RaptorCircuitOpenException("Circuit breaker of " + circuitBreaker.getName() + " is open, call to "
+                    + target.url() + " is rejected.");
+        }
+    }
+
+    /**
+     * 与{@link #acquire(RaptorConcurrencyLimiter, MethodDescriptor)}成对,熔断把所有异常都算作失败
+     */
+    protected void release(RaptorConcurrencyLimiter limiter, MethodDescriptor descriptor, long elapsedNanos, Throwable ex) {
+        if (limiter != null) {
+            limiter.release(elapsedNanos, ex != null && isDropped(ex));
+        }
+        RaptorCircuitBreaker circuitBreaker = descriptor.getCircuitBreaker();
+        if (circuitBreaker != null) {
+            circuitBreaker.onComplete(elapsedNanos, ex != null);
+        }
+    }
+
+    /**
+     * 连接失败、超时或下游超过并发限制,说明下游过载,减小并发限制;业务异常按正常完成的延迟计算
+     */
+    protected boolean isDropped(Throwable ex) {
+        return ex instanceof RetryableException || ex instanceof IOException || RaptorLimitExceededException.isLimitExceeded(ex);
+    }
+
+    protected void initRequestResponse(RaptorContext context, MethodDescriptor descriptor, Object[] args) throws Exception {
         RaptorRequest request = new RaptorRequest();
         request.setArguments(args);
-        request.setInterfaceName(method.getDeclaringClass().getName());
-        request.setMethodName(method.getName());
+        request.setInterfaceName(descriptor.getInterfaceName());
+        request.setMethodName(descriptor.getMethodName());
         request.setRequestId(RequestIdUtils.getRequestId());
-        RaptorContext.getContext().setRequest(request);
+        context.setRequest(request);
 
         RaptorResponse response = new RaptorResponse(request.getRequestId());
-        RaptorContext.getContext().setResponse(response);
+        context.setResponse(response);
     }
 
-    protected void applyPreHandle() throws Exception {
-        if (interceptors != null) {
-            RaptorRequest request = RaptorContext.getContext().getRequest();
-            RaptorResponse response = RaptorContext.getContext().getResponse();
-            for (RaptorClientInterceptor interceptor : interceptors) {
-                interceptor.preHandle(request, response);
-            }
+    protected void applyPreHandle(RaptorContext context, RaptorClientInterceptor[] chain) throws Exception {
+        if (chain.length == 0) {
+            return;
+        }
+        RaptorRequest request = context.getRequest();
+        RaptorResponse response = context.getResponse();
+        for (int i = 0; i < chain.length; i++) {
+            chain[i].preHandle(request, response);
         }
     }
 
-    protected Object applyPostHandle(Object result) throws Exception {
-        RaptorRequest request = RaptorContext.getContext().getRequest();
-        RaptorResponse response = RaptorContext.getContext().getResponse();
+    protected Object applyPostHandle(RaptorContext context, RaptorClientInterceptor[] chain, Object result) throws Exception {
+        RaptorRequest request = context.getRequest();
+        RaptorResponse response = context.getResponse();
         response.setValue(result);
-        if (interceptors != null) {
-            for (RaptorClientInterceptor interceptor : interceptors) {
-                interceptor.postHandle(request, response);
-            }
+        for (int i = 0; i < chain.length; i++) {
+            chain[i].postHandle(request, response);
         }
         return response.getValue();
     }
 
-    protected void triggerAfterCompletion(Object result, Exception ex) {
-        RaptorRequest request = RaptorContext.getContext().getRequest();
-        RaptorResponse response = RaptorContext.getContext().getResponse();
+    protected void triggerAfterCompletion(RaptorContext context, RaptorClientInterceptor[] chain, Object result, Exception ex) {
+        RaptorRequest request = context.getRequest();
+        RaptorResponse response = context.getResponse();
         response.setValue(result);
         response.setException(ex);
-        if (interceptors != null) {
-            for (RaptorClientInterceptor interceptor : interceptors) {
-                try {
-                    interceptor.afterCompletion(request, response);
-                } catch (Exception e) {
-                    log.error("RaptorInvocationHandler afterCompletion threw exception", e);
-                }
+        for (int i = 0; i < chain.length; i++) {
+            try {
+                chain[i].afterCompletion(request, response);
+            } catch (Exception e) {
+                log.error("RaptorInvocationHandler afterCompletion threw exception", e);
             }
         }
     }
 
+    public enum MethodKind {
+        EQUALS, HASH_CODE, TO_STRING, SYNC, ASYNC, STREAM
+    }
+
+    /**
+     * 一个接口方法的调用信息,创建后不再修改.
+     * interfaceName和methodName取自实际发送请求的方法:异步方法取对应的同步方法,流式迭代方法取observer方法
+     */
+    @Getter
+    public static class MethodDescriptor {
+        private final Method method;
+        private final MethodKind kind;
+        private final String interfaceName;
+        private final String methodName;
+        private final InvocationHandlerFactory.MethodHandler handler;
+        private final RaptorClientInterceptor[] interceptors;
+        private AsyncMethod asyncMethod;
+        private StreamMethod streamMethod;
+        private RaptorCircuitBreaker circuitBreaker;
+
+        MethodDescriptor(Method method, MethodKind kind, Method requestMethod,
+                         InvocationHandlerFactory.MethodHandler handler, RaptorClientInterceptor[] interceptors) {
+            this.method = method;
+            this.kind = kind;
+            this.interfaceName = requestMethod.getDeclaringClass().getName();
+            this.methodName = requestMethod.getName();
+            this.handler = handler;
+            this.interceptors = interceptors;
+        }
+    }
+
+    /**
+     * 异步方法及其对应的同步方法
+     */
+    @Getter
+    public static class AsyncMethod {
+        private final Method syncMethod;
+        private final RaptorAsyncMethodHandler handler;
+
+        public AsyncMethod(Method syncMethod, RaptorAsyncMethodHandler handler) {
+            this.syncMethod = syncMethod;
+            this.handler = handler;
+        }
+    }
+
+    /**
+     * 流式方法对应的observer方法,observer为false时调用的是返回迭代器的方法
+     */
+    @Getter
+    public static class StreamMethod {
+        private final Method streamMethod;
+        private final RaptorStreamMethodHandler handler;
+        private final boolean observer;
+
+        public StreamMethod(Method streamMethod, RaptorStreamMethodHandler handler, boolean observer) {
+            this.streamMethod = streamMethod;
+            this.handler = handler;
+            this.observer = observer;
+        }
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof RaptorInvocationHandler) {
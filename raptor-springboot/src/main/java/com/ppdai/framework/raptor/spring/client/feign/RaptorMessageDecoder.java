@@ -2,28 +2,51 @@ package com.ppdai.framework.raptor.spring.client.feign;
 
 import com.ppdai.framework.raptor.annotation.RaptorMessage;
 import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import com.ppdai.framework.raptor.spring.utils.RaptorConverterUtils;
 import feign.FeignException;
 import feign.Response;
+import feign.codec.DecodeException;
 import feign.codec.Decoder;
 import org.springframework.core.annotation.AnnotationUtils;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * @author yinzuolong
  */
 public class RaptorMessageDecoder implements Decoder {
-    private RaptorMessageConverter raptorMessageConverter;
+    private List<RaptorMessageConverter> raptorMessageConverters;
+    private long maxBodySize;
 
     public RaptorMessageDecoder(RaptorMessageConverter raptorMessageConverter) {
-        this.raptorMessageConverter = raptorMessageConverter;
+        this(Collections.singletonList(raptorMessageConverter));
+    }
+
+    public RaptorMessageDecoder(List<RaptorMessageConverter> raptorMessageConverters) {
+        this(raptorMessageConverters, 0);
+    }
+
+    /**
+     * @param maxBodySize 响应body最大字节数,小于等于0时不限制
+     */
+    public RaptorMessageDecoder(List<RaptorMessageConverter> raptorMessageConverters, long maxBodySize) {
+        this.raptorMessageConverters = raptorMessageConverters;
+        this.maxBodySize = maxBodySize;
     }
 
     @Override
     public Object decode(Response response, Type type) throws IOException, FeignException {
         if (type instanceof Class && AnnotationUtils.findAnnotation((Class) type, RaptorMessage.class) != null) {
-            return raptorMessageConverter.read((Class) type, new FeignResponseAdapter(response));
+            //converter直接从连接的输入流中解析,不会先把整个body读入内存
+            FeignResponseAdapter responseAdapter = new FeignResponseAdapter(response, maxBodySize);
+            RaptorMessageConverter converter = RaptorConverterUtils.findConverter(raptorMessageConverters, responseAdapter.getHeaders().getContentType());
+            if (converter == null) {
+                throw new DecodeException("Can't decode response, unsupported content type: " + responseAdapter.getHeaders().getContentType());
+            }
+            return converter.read((Class) type, responseAdapter);
         }
         throw new RuntimeException("Can't decode response, Return Type must be RaptorMessage.");
     }
@@ -1,56 +1,126 @@
 package com.ppdai.framework.raptor.spring.client.feign;
 
 import com.ppdai.framework.raptor.annotation.RaptorMessage;
+import com.ppdai.framework.raptor.spring.buffer.MessageBufferPool;
+import com.ppdai.framework.raptor.spring.buffer.RecyclableBufferOutputStream;
+import com.ppdai.framework.raptor.spring.compress.RaptorCompressionPolicy;
+import com.ppdai.framework.raptor.spring.compress.RaptorCompressor;
 import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
 import com.ppdai.framework.raptor.spring.utils.HttpHeadersUtils;
-import com.ppdai.framework.raptor.spring.utils.RaptorMessageUtils;
+import com.ppdai.framework.raptor.spring.utils.RaptorConverterUtils;
+import com.ppdai.framework.raptor.spring.utils.RaptorQueryCodec;
 import feign.RequestTemplate;
 import feign.codec.EncodeException;
 import feign.codec.Encoder;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
-import java.nio.charset.StandardCharsets;
-import java.util.Map;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * @author yinzuolong
  */
 public class RaptorMessageEncoder implements Encoder {
 
+    private static final MessageBufferPool BUFFER_POOL = new MessageBufferPool();
+    private static final MessageBufferPool COMPRESSED_BUFFER_POOL = new MessageBufferPool();
+
     private RaptorMessageConverter raptorMessageConverter;
+    private MediaType contentType;
+    private RaptorCompressionPolicy compressionPolicy;
+    private boolean compressRequest;
 
     public RaptorMessageEncoder(RaptorMessageConverter raptorMessageConverter) {
-        this.raptorMessageConverter = raptorMessageConverter;
+        this(Collections.singletonList(raptorMessageConverter), null);
+    }
+
+    /**
+     * @param converters  可用的converter,第一个为默认
+     * @param contentType 请求使用的Content-Type,为空时使用默认converter的第一个mediaType
+     */
+    public RaptorMessageEncoder(List<RaptorMessageConverter> converters, MediaType contentType) {
+        this(converters, contentType, RaptorCompressionPolicy.NONE);
+    }
+
+    /**
+     * @param compressionPolicy 响应接受的压缩格式,请求body不压缩
+     */
+    public RaptorMessageEncoder(List<RaptorMessageConverter> converters, MediaType contentType, RaptorCompressionPolicy compressionPolicy) {
+        this(converters, contentType, compressionPolicy, false);
+    }
+
+    /**
+     * @param compressRequest 是否按compressionPolicy压缩请求body,需要服务端支持
+     */
+    public RaptorMessageEncoder(List<RaptorMessageConverter> converters, MediaType contentType, RaptorCompressionPolicy compressionPolicy,
+                                boolean compressRequest) {
+        this.compressionPolicy = compressionPolicy;
+        this.compressRequest = compressRequest;
+        this.raptorMessageConverter = RaptorConverterUtils.findConverter(converters, contentType);
+        if (this.raptorMessageConverter == null) {
+            throw new IllegalArgumentException("Can't find RaptorMessageConverter for content type " + contentType);
+        }
+        this.contentType = contentType != null ? contentType : RaptorConverterUtils.getDefaultMediaType(this.raptorMessageConverter);
     }
 
     @Override
     public void encode(Object requestBody, Type bodyType, RequestTemplate request) throws EncodeException {
         Class<?> requestType = requestBody.getClass();
         if (AnnotationUtils.findAnnotation(requestType, RaptorMessage.class) != null) {
+            //响应使用与请求相同的格式
+            request.header(HttpHeaders.ACCEPT, contentType.toString());
+            if (compressionPolicy.isEnabled()) {
+                request.header(HttpHeaders.ACCEPT_ENCODING, compressionPolicy.getAcceptEncoding());
+            }
             if ("GET".equalsIgnoreCase(request.method())) {
                 try {
-                    Map<String, String> map = RaptorMessageUtils.transferMessageToMap(requestBody);
-                    for (Map.Entry<String, String> entry : map.entrySet()) {
-                        request.query(entry.getKey(), entry.getValue());
-                    }
+                    //参数名和值直接编码,feign不再重复编码
+                    RaptorQueryCodec.encode(requestBody, (name, value) ->
+                            request.query(true, RaptorQueryCodec.urlEncode(name), RaptorQueryCodec.urlEncode(value)));
                 } catch (Exception e) {
                     throw new RuntimeException("Transfer requestBody to query string error.", e);
                 }
             } else {
-                FeignRequestOutputMessage outputMessage = new FeignRequestOutputMessage(request);
+                RecyclableBufferOutputStream buffer = BUFFER_POOL.acquire(requestType);
                 try {
-                    raptorMessageConverter.write(requestBody,  MediaType.APPLICATION_JSON, outputMessage);
-                    request.body(outputMessage.body(), StandardCharsets.UTF_8);
+                    FeignRequestOutputMessage outputMessage = new FeignRequestOutputMessage(request, buffer);
+                    raptorMessageConverter.write(requestBody, contentType, outputMessage);
+                    RaptorCompressor compressor = compressRequest ? compressionPolicy.getCompressor(buffer.size()) : null;
+                    if (compressor != null) {
+                        request.body(compress(requestType, buffer, compressor), null);
+                        outputMessage.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                        outputMessage.getHeaders().set(HttpHeaders.CONTENT_ENCODING, compressor.getEncoding());
+                    } else {
+                        //编码结果只复制一次;不传charset,feign使用ByteArrayEntity直接发送,不会先解码成字符串再重新编码.
+                        //charset已经在Content-Type header中
+                        request.body(outputMessage.body(), null);
+                    }
+                    request.headers(HttpHeadersUtils.getHeaders(outputMessage.getHeaders()));
                 } catch (IOException ex) {
                     throw new EncodeException("Error converting request body", ex);
+                } finally {
+                    BUFFER_POOL.release(requestType, buffer);
                 }
-                request.headers(HttpHeadersUtils.getHeaders(outputMessage.getHeaders()));
             }
         } else {
             throw new RuntimeException("Can't encode requestBody, bodyType must be RaptorMessage.");
         }
     }
+
+    private static byte[] compress(Class<?> requestType, RecyclableBufferOutputStream buffer, RaptorCompressor compressor) throws IOException {
+        RecyclableBufferOutputStream compressed = COMPRESSED_BUFFER_POOL.acquire(requestType);
+        try {
+            try (OutputStream out = compressor.compress(compressed)) {
+                buffer.writeTo(out);
+            }
+            return compressed.toByteArray();
+        } finally {
+            COMPRESSED_BUFFER_POOL.release(requestType, compressed);
+        }
+    }
 }
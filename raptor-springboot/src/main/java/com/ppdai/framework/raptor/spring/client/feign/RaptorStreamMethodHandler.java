@@ -0,0 +1,140 @@
+package com.ppdai.framework.raptor.spring.client.feign;
+
+import com.ppdai.framework.raptor.common.RaptorConstants;
+import com.ppdai.framework.raptor.rpc.RaptorStreamIterator;
+import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import com.ppdai.framework.raptor.spring.stream.StreamFrameReader;
+import com.ppdai.framework.raptor.spring.utils.HttpHeadersUtils;
+import com.ppdai.framework.raptor.spring.utils.RaptorConverterUtils;
+import feign.*;
+import feign.codec.DecodeException;
+import feign.codec.Encoder;
+import feign.codec.ErrorDecoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static feign.Util.ensureClosed;
+
+/**
+ * 服务端流式方法的处理器,连接建立后返回{@link RaptorStreamIterator},消息在迭代时才从连接上读取和解析
+ *
+ * @author yinzuolong
+ */
+public class RaptorStreamMethodHandler extends AbstractRaptorMethodHandler implements InvocationHandlerFactory.MethodHandler {
+
+    private final List<RaptorMessageConverter> converters;
+    private final Class<?> elementType;
+    private final long maxFrameSize;
+
+    /**
+     * @param elementType  流中消息的类型
+     * @param maxFrameSize 单条消息最大字节数,小于等于0时不限制
+     */
+    public RaptorStreamMethodHandler(Target<?> target, MethodMetadata metadata, RaptorFeignClient client,
+                                     Request.Options options, List<RequestInterceptor> requestInterceptors,
+                                     Encoder encoder, ErrorDecoder errorDecoder,
+                                     List<RaptorMessageConverter> converters, Class<?> elementType, long maxFrameSize) {
+        super(target, metadata, client, options, requestInterceptors, encoder, errorDecoder);
+        this.converters = converters;
+        this.elementType = elementType;
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    @Override
+    public RaptorStreamIterator<Object> invoke(Object[] argv) throws Throwable {
+        Request request = targetRequest(buildTemplate(argv));
+        Response response;
+        try {
+            response = client.execute(request, options);
+        } catch (IOException e) {
+            throw errorExecuting(request, e);
+        }
+        response = response.toBuilder().request(request).build();
+        boolean opened = false;
+        try {
+            if (response.status() < 200 || response.status() >= 300) {
+                throw errorDecoder.decode(metadata.configKey(), response);
+            }
+            HttpHeaders headers = HttpHeadersUtils.getHttpHeaders(response.headers());
+            if (!headers.containsKey(RaptorConstants.HEADER_STREAM)) {
+                throw new DecodeException("Response of " + metadata.configKey() + " is not a raptor stream.");
+            }
+            MediaType mediaType = headers.getContentType();
+            RaptorMessageConverter converter = RaptorConverterUtils.findConverter(converters, mediaType);
+            if (converter == null) {
+                throw new DecodeException("Can't decode stream, unsupported content type: " + mediaType);
+            }
+            StreamFrameReader reader = new StreamFrameReader(response.body().asInputStream(), converter, mediaType, maxFrameSize);
+            opened = true;
+            return new ResponseStreamIterator(response, reader);
+        } catch (IOException e) {
+            throw new DecodeException(e.getMessage(), e);
+        } finally {
+            if (!opened) {
+                ensureClosed(response.body());
+            }
+        }
+    }
+
+    /**
+     * 预读一条消息判断是否还有下一条,读到结束帧或出错时关闭连接
+     */
+    private class ResponseStreamIterator implements RaptorStreamIterator<Object> {
+
+        private final Response response;
+        private final StreamFrameReader reader;
+        private Object next;
+        private boolean closed;
+
+        ResponseStreamIterator(Response response, StreamFrameReader reader) {
+            this.response = response;
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (closed) {
+                return false;
+            }
+            try {
+                next = reader.read(elementType);
+            } catch (IOException e) {
+                close();
+                throw new DecodeException(e.getMessage(), e);
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+            if (next == null) {
+                close();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object value = next;
+            next = null;
+            return value;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                ensureClosed(response.body());
+            }
+        }
+    }
+}
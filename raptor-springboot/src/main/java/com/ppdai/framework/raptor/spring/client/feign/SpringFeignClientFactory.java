@@ -1,12 +1,28 @@
 package com.ppdai.framework.raptor.spring.client.feign;
 
+import com.ppdai.framework.raptor.annotation.RaptorBatch;
 import com.ppdai.framework.raptor.annotation.RaptorInterface;
 import com.ppdai.framework.raptor.rpc.RaptorClientInterceptor;
 import com.ppdai.framework.raptor.spring.client.RaptorClientFactory;
+import com.ppdai.framework.raptor.spring.client.batch.RaptorBatchClient;
+import com.ppdai.framework.raptor.spring.client.breaker.RaptorCircuitBreakerConfig;
+import com.ppdai.framework.raptor.spring.client.discovery.RaptorServiceDiscovery;
+import com.ppdai.framework.raptor.spring.client.hedge.HedgingAsyncClient;
+import com.ppdai.framework.raptor.spring.client.hedge.RaptorHedgingPolicy;
 import com.ppdai.framework.raptor.spring.client.httpclient.RaptorHttpClientProperties;
+import com.ppdai.framework.raptor.spring.client.loadbalance.LoadBalancedAsyncClient;
+import com.ppdai.framework.raptor.spring.client.loadbalance.LoadBalancedClient;
+import com.ppdai.framework.raptor.spring.client.loadbalance.RaptorEndpointGroup;
+import com.ppdai.framework.raptor.spring.client.loadbalance.RaptorLoadBalancer;
+import com.ppdai.framework.raptor.spring.compress.RaptorCompressionPolicy;
+import com.ppdai.framework.raptor.spring.converter.RaptorJacksonMessageConverter;
 import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import com.ppdai.framework.raptor.spring.limit.RaptorConcurrencyLimiter;
 import com.ppdai.framework.raptor.spring.utils.FieldUtils;
+import com.ppdai.framework.raptor.spring.utils.RaptorInterfaceUtils;
 import feign.*;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
 import feign.codec.ErrorDecoder;
 import feign.slf4j.Slf4jLogger;
 import lombok.extern.slf4j.Slf4j;
@@ -15,15 +31,17 @@ import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.http.MediaType;
 import org.springframework.util.StringUtils;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author yinzuolong
@@ -35,6 +53,11 @@ public class SpringFeignClientFactory extends RaptorClientFactory.BaseFactory im
 
     private ApplicationContext applicationContext;
 
+    /**
+     * 按下游的url共用并发限制,同一个服务的多个接口一起限制
+     */
+    private final ConcurrentMap<String, RaptorConcurrencyLimiter> concurrencyLimiters = new ConcurrentHashMap<>();
+
     @Override
     public boolean support(Class<?> type) {
         return LIBRARY.equalsIgnoreCase(getLibrary(type));
@@ -42,12 +65,13 @@ public class SpringFeignClientFactory extends RaptorClientFactory.BaseFactory im
 
     @Override
     public <T> T create(Class<T> type) {
-        RaptorMessageConverter raptorMessageConverter = getOrInstantiate(RaptorMessageConverter.class);
+        List<RaptorMessageConverter> raptorMessageConverters = getMessageConverters();
+        long maxResponseBodySize = getMaxResponseBodySize(type);
 
         Feign.Builder builder = Feign.builder()
-                .encoder(new RaptorMessageEncoder(raptorMessageConverter))
-                .decoder(new RaptorMessageDecoder(raptorMessageConverter))
-                .errorDecoder(new RaptorErrorDecoder(raptorMessageConverter))
+                .encoder(new RaptorMessageEncoder(raptorMessageConverters, getContentType(type), getCompressionPolicy(type), isRequestCompression(type)))
+                .decoder(new RaptorMessageDecoder(raptorMessageConverters, maxResponseBodySize))
+                .errorDecoder(new RaptorErrorDecoder(raptorMessageConverters, maxResponseBodySize))
                 .contract(new SpringMvcContract())
                 .retryer(Retryer.NEVER_RETRY)
                 .logger(new Slf4jLogger(type))
@@ -55,20 +79,34 @@ public class SpringFeignClientFactory extends RaptorClientFactory.BaseFactory im
                 .requestInterceptors(getList(RequestInterceptor.class));
 
         //自定义InvocationHandlerFactory，用于自定义拦截器
-        builder.invocationHandlerFactory(createInvocationHandlerFactory());
+        builder.invocationHandlerFactory(createInvocationHandlerFactory(builder));
 
-        //设置client
-        builder.client(createRaptorFeignClient());
+        //设置client,多个实例或使用服务发现时在client中负载均衡
+        RaptorEndpointGroup endpointGroup = createEndpointGroup(type);
+        RaptorHedgingPolicy hedgingPolicy = getHedgingPolicy(type);
+        if (hedgingPolicy != null && endpointGroup == null) {
+            log.warn("Hedging of raptor client [{}] is ignored because there is only one endpoint.", type.getName());
+        }
+        builder.client(createRaptorFeignClient(endpointGroup, hedgingPolicy));
 
         //自定义配置
         configureUsingProperties(type, builder);
 
-        String url = getUrl(type);
+        String url = endpointGroup != null ? endpointGroup.getBaseUrl() : getUrl(type);
         T t = builder.target(type, url);
-        log.info("Create raptor client of type [{}] by url [{}].", type.getName(), url);
+        log.info("Create raptor client of type [{}] by url {}.", type.getName(), endpointGroup != null ? endpointGroup : url);
         return t;
     }
 
+    protected List<RaptorMessageConverter> getMessageConverters() {
+        List<RaptorMessageConverter> converters = getList(RaptorMessageConverter.class);
+        if (converters.isEmpty()) {
+            converters.add(new RaptorJacksonMessageConverter());
+        }
+        converters.sort(new AnnotationAwareOrderComparator());
+        return converters;
+    }
+
     protected Request.Options createOptions() {
         RaptorHttpClientProperties httpClientProperties = getOptional(RaptorHttpClientProperties.class);
         if (httpClientProperties != null) {
@@ -85,43 +123,489 @@ public class SpringFeignClientFactory extends RaptorClientFactory.BaseFactory im
                 clientInterceptors.sort(new AnnotationAwareOrderComparator());
                 RaptorInvocationHandler invocationHandler = new RaptorInvocationHandler(target, dispatch);
                 invocationHandler.setInterceptors(clientInterceptors);
+                invocationHandler.setConcurrencyLimiter(getConcurrencyLimiter(target));
+                invocationHandler.setCircuitBreakerConfig(getCircuitBreakerConfig(target.type()));
                 return invocationHandler;
             }
         };
     }
 
+    /**
+     * 在{@link #createInvocationHandlerFactory()}创建的处理器上设置异步、批量和流式方法的处理器,
+     * 这些处理器使用builder上最终生效的配置;子类返回的不是RaptorInvocationHandler时直接使用
+     */
+    protected InvocationHandlerFactory createInvocationHandlerFactory(Feign.Builder builder) {
+        InvocationHandlerFactory factory = createInvocationHandlerFactory();
+        return new InvocationHandlerFactory() {
+            @Override
+            public InvocationHandler create(Target target, Map<Method, MethodHandler> dispatch) {
+                InvocationHandler handler = factory.create(target, dispatch);
+                if (handler instanceof RaptorInvocationHandler) {
+                    RaptorInvocationHandler invocationHandler = (RaptorInvocationHandler) handler;
+                    Map<Method, RaptorAsyncMethodHandler> batchDispatch = createBatchDispatch(target, builder);
+                    invocationHandler.setBatchDispatch(batchDispatch);
+                    invocationHandler.setAsyncDispatch(createAsyncDispatch(target, builder, batchDispatch));
+                    invocationHandler.setStreamDispatch(createStreamDispatch(target, builder));
+                    //创建时确定每个方法的调用信息,调用时不再查找dispatch
+                    invocationHandler.prepare();
+                }
+                return handler;
+            }
+        };
+    }
+
+    /**
+     * 为{@link com.ppdai.framework.raptor.annotation.RaptorAsync}方法创建处理器,使用builder上最终生效的配置
+     */
+    protected Map<Method, RaptorInvocationHandler.AsyncMethod> createAsyncDispatch(Target<?> target, Feign.Builder builder) {
+        return createAsyncDispatch(target, builder, new HashMap<>());
+    }
+
+    /**
+     * @param batchDispatch 同步方法合并发送时,对应的异步方法使用同一个处理器
+     */
+    protected Map<Method, RaptorInvocationHandler.AsyncMethod> createAsyncDispatch(Target<?> target, Feign.Builder builder,
+                                                                                  Map<Method, RaptorAsyncMethodHandler> batchDispatch) {
+        Map<Method, RaptorInvocationHandler.AsyncMethod> asyncDispatch = new HashMap<>();
+        Map<String, MethodMetadata> metadataMap = null;
+        for (Method method : target.type().getMethods()) {
+            Method syncMethod = RaptorInterfaceUtils.findSyncMethod(target.type(), method);
+            if (syncMethod == null) {
+                continue;
+            }
+            RaptorAsyncMethodHandler handler = batchDispatch.get(syncMethod);
+            if (handler == null) {
+                if (metadataMap == null) {
+                    metadataMap = getMetadataMap(target, builder);
+                }
+                MethodMetadata metadata = metadataMap.get(Feign.configKey(target.type(), syncMethod));
+                handler = createAsyncMethodHandler(target, builder, metadata, getRaptorFeignClient(builder));
+            }
+            asyncDispatch.put(method, new RaptorInvocationHandler.AsyncMethod(syncMethod, handler));
+        }
+        return asyncDispatch;
+    }
+
+    /**
+     * 为{@link RaptorBatch}注解或batchMethods配置的方法创建合并发送的处理器,每个方法单独合并
+     */
+    protected Map<Method, RaptorAsyncMethodHandler> createBatchDispatch(Target<?> target, Feign.Builder builder) {
+        Set<String> batchMethods = new HashSet<>();
+        Integer batchMaxSize = null;
+        Long batchMaxDelayMillis = null;
+        for (FeignClientProperties.RaptorClientConfiguration config : getClientConfigs(target.type())) {
+            if (config == null) {
+                continue;
+            }
+            if (config.getBatchMethods() != null) {
+                batchMethods.addAll(config.getBatchMethods());
+            }
+            if (config.getBatchMaxSize() != null) {
+                batchMaxSize = config.getBatchMaxSize();
+            }
+            if (config.getBatchMaxDelayMillis() != null) {
+                batchMaxDelayMillis = config.getBatchMaxDelayMillis();
+            }
+        }
+
+        Map<Method, RaptorAsyncMethodHandler> batchDispatch = new HashMap<>();
+        Map<String, MethodMetadata> metadataMap = null;
+        for (Method method : target.type().getMethods()) {
+            RaptorBatch raptorBatch = AnnotationUtils.findAnnotation(method, RaptorBatch.class);
+            if (method.isDefault() || RaptorInterfaceUtils.isStreamMethod(method)
+                    || (raptorBatch == null && !batchMethods.contains(method.getName()))) {
+                continue;
+            }
+            if (metadataMap == null) {
+                metadataMap = getMetadataMap(target, builder);
+            }
+            int maxSize = batchMaxSize != null ? batchMaxSize
+                    : (int) (raptorBatch != null ? raptorBatch.maxSize() : AnnotationUtils.getDefaultValue(RaptorBatch.class, "maxSize"));
+            long maxDelayMillis = batchMaxDelayMillis != null ? batchMaxDelayMillis
+                    : (long) (raptorBatch != null ? raptorBatch.maxDelayMillis() : AnnotationUtils.getDefaultValue(RaptorBatch.class, "maxDelayMillis"));
+            RaptorFeignClient raptorFeignClient = getRaptorFeignClient(builder);
+            RaptorBatchClient batchClient = new RaptorBatchClient(target.url(), raptorFeignClient.getAsyncClient(), maxSize, maxDelayMillis);
+            MethodMetadata metadata = metadataMap.get(Feign.configKey(target.type(), method));
+            batchDispatch.put(method, createAsyncMethodHandler(target, builder, metadata, new RaptorFeignClient(raptorFeignClient, batchClient)));
+        }
+        return batchDispatch;
+    }
+
+    private Map<String, MethodMetadata> getMetadataMap(Target<?> target, Feign.Builder builder) {
+        Map<String, MethodMetadata> metadataMap = new HashMap<>();
+        Contract contract = (Contract) FieldUtils.getPrivateField(Feign.Builder.class, builder, "contract");
+        for (MethodMetadata metadata : contract.parseAndValidatateMetadata(target.type())) {
+            metadataMap.put(metadata.configKey(), metadata);
+        }
+        return metadataMap;
+    }
+
+    private RaptorFeignClient getRaptorFeignClient(Feign.Builder builder) {
+        Client client = (Client) FieldUtils.getPrivateField(Feign.Builder.class, builder, "client");
+        return client instanceof RaptorFeignClient ? (RaptorFeignClient) client : new RaptorFeignClient(client);
+    }
+
+    @SuppressWarnings("unchecked")
+    private RaptorAsyncMethodHandler createAsyncMethodHandler(Target<?> target, Feign.Builder builder,
+                                                              MethodMetadata metadata, RaptorFeignClient client) {
+        return new RaptorAsyncMethodHandler(target, metadata, client,
+                (Request.Options) FieldUtils.getPrivateField(Feign.Builder.class, builder, "options"),
+                (List<RequestInterceptor>) FieldUtils.getPrivateField(Feign.Builder.class, builder, "requestInterceptors"),
+                (Encoder) FieldUtils.getPrivateField(Feign.Builder.class, builder, "encoder"),
+                (Decoder) FieldUtils.getPrivateField(Feign.Builder.class, builder, "decoder"),
+                (ErrorDecoder) FieldUtils.getPrivateField(Feign.Builder.class, builder, "errorDecoder"));
+    }
+
+    /**
+     * 为流式方法创建处理器,observer方法和{@link com.ppdai.framework.raptor.annotation.RaptorStream}迭代方法共用同一个处理器
+     */
+    @SuppressWarnings("unchecked")
+    protected Map<Method, RaptorInvocationHandler.StreamMethod> createStreamDispatch(Target<?> target, Feign.Builder builder) {
+        Map<Method, RaptorInvocationHandler.StreamMethod> streamDispatch = new HashMap<>();
+        Map<Method, RaptorStreamMethodHandler> handlers = new HashMap<>();
+        Map<String, MethodMetadata> metadataMap = null;
+        for (Method method : target.type().getMethods()) {
+            if (method.isDefault() || !RaptorInterfaceUtils.isStreamMethod(method)) {
+                continue;
+            }
+            if (metadataMap == null) {
+                metadataMap = getMetadataMap(target, builder);
+            }
+            MethodMetadata metadata = metadataMap.get(Feign.configKey(target.type(), method));
+            RaptorFeignClient raptorFeignClient = getRaptorFeignClient(builder);
+            Class<?> elementType = ResolvableType.forMethodParameter(method, method.getParameterCount() - 1).getGeneric(0).resolve(Object.class);
+            RaptorStreamMethodHandler handler = new RaptorStreamMethodHandler(target, metadata, raptorFeignClient,
+                    (Request.Options) FieldUtils.getPrivateField(Feign.Builder.class, builder, "options"),
+                    (List<RequestInterceptor>) FieldUtils.getPrivateField(Feign.Builder.class, builder, "requestInterceptors"),
+                    (Encoder) FieldUtils.getPrivateField(Feign.Builder.class, builder, "encoder"),
+                    (ErrorDecoder) FieldUtils.getPrivateField(Feign.Builder.class, builder, "errorDecoder"),
+                    getMessageConverters(), elementType, getMaxResponseBodySize(target.type()));
+            handlers.put(method, handler);
+            streamDispatch.put(method, new RaptorInvocationHandler.StreamMethod(method, handler, true));
+        }
+        for (Method method : target.type().getMethods()) {
+            Method streamMethod = RaptorInterfaceUtils.findStreamMethod(target.type(), method);
+            if (streamMethod != null && handlers.containsKey(streamMethod)) {
+                streamDispatch.put(method, new RaptorInvocationHandler.StreamMethod(streamMethod, handlers.get(streamMethod), false));
+            }
+        }
+        return streamDispatch;
+    }
+
     protected RaptorFeignClient createRaptorFeignClient() {
-        return new RaptorFeignClient(get(Client.class));
+        List<RaptorAsyncClient> asyncClients = getList(RaptorAsyncClient.class);
+        return new RaptorFeignClient(get(Client.class), asyncClients.isEmpty() ? null : asyncClients.get(0));
+    }
+
+    /**
+     * 同步和异步client使用同一组实例的统计,批量请求也经过负载均衡
+     *
+     * @param endpointGroup 为null时只有一个实例
+     */
+    protected RaptorFeignClient createRaptorFeignClient(RaptorEndpointGroup endpointGroup) {
+        return createRaptorFeignClient(endpointGroup, null);
+    }
+
+    /**
+     * 对冲时同步方法也通过异步client发送,在调用线程上等待先返回的响应
+     *
+     * @param hedgingPolicy 为null时不对冲
+     */
+    protected RaptorFeignClient createRaptorFeignClient(RaptorEndpointGroup endpointGroup, RaptorHedgingPolicy hedgingPolicy) {
+        if (endpointGroup == null) {
+            return createRaptorFeignClient();
+        }
+        List<RaptorAsyncClient> asyncClients = getList(RaptorAsyncClient.class);
+        if (hedgingPolicy != null) {
+            RaptorAsyncClient delegate = asyncClients.isEmpty()
+                    ? new BlockingRaptorAsyncClient(get(Client.class), BlockingRaptorAsyncClient.getDefaultExecutor()) : asyncClients.get(0);
+            HedgingAsyncClient hedgingClient = new HedgingAsyncClient(delegate, endpointGroup, hedgingPolicy);
+            return new RaptorFeignClient(hedgingClient.toBlockingClient(), hedgingClient);
+        }
+        RaptorAsyncClient asyncClient = asyncClients.isEmpty() ? null : new LoadBalancedAsyncClient(asyncClients.get(0), endpointGroup);
+        return new RaptorFeignClient(new LoadBalancedClient(get(Client.class), endpointGroup), asyncClient);
+    }
+
+    /**
+     * 配置了url时使用配置的实例,否则使用{@link RaptorServiceDiscovery}并订阅实例的变化
+     *
+     * @return 只有一个配置的实例时为null
+     */
+    protected RaptorEndpointGroup createEndpointGroup(Class<?> type) {
+        List<String> urls = findUrls(type);
+        if (!urls.isEmpty()) {
+            return urls.size() > 1 ? new RaptorEndpointGroup(urls, getLoadBalancer(type)) : null;
+        }
+        List<RaptorServiceDiscovery> discoveries = getList(RaptorServiceDiscovery.class);
+        if (discoveries.isEmpty()) {
+            throw new RuntimeException("Can't find url for interface " + type.getName());
+        }
+        RaptorServiceDiscovery discovery = discoveries.get(0);
+        RaptorInterface raptorInterface = AnnotationUtils.findAnnotation(type, RaptorInterface.class);
+        String appId = raptorInterface.appId();
+        String appName = raptorInterface.appName();
+        //feign target使用的占位url,请求时替换为发现的实例
+        String service = StringUtils.hasText(appId) ? appId : StringUtils.hasText(appName) ? appName : type.getName();
+        RaptorEndpointGroup endpointGroup = new RaptorEndpointGroup("http://" + service,
+                Collections.emptyList(), getLoadBalancer(type));
+        //订阅时先收到当前的实例列表,不会漏掉订阅之前的变化
+        discovery.subscribe(appId, appName, endpointGroup::update);
+        if (endpointGroup.getEndpoints().isEmpty()) {
+            log.warn("No endpoint of raptor client [{}] found by service discovery yet.", type.getName());
+        }
+        return endpointGroup;
     }
 
     protected String getUrl(Class<?> type) {
+        return getUrls(type).get(0);
+    }
+
+    /**
+     * 服务实例的url,依次按接口全名、appId、appName的配置查找
+     */
+    protected List<String> getUrls(Class<?> type) {
+        List<String> urls = findUrls(type);
+        if (urls.isEmpty()) {
+            throw new RuntimeException("Can't find url for interface " + type.getName());
+        }
+        return urls;
+    }
+
+    /**
+     * @return 没有配置时返回空列表
+     */
+    protected List<String> findUrls(Class<?> type) {
         //根据配置的接口找url
-        String url = getUrlFromConfig(type.getName());
+        List<String> urls = getUrlsFromConfig(type.getName());
 
-        if (!StringUtils.hasText(url)) {
+        if (urls.isEmpty()) {
             RaptorInterface raptorInterface = AnnotationUtils.findAnnotation(type, RaptorInterface.class);
             //根据配置的appId找url
-            url = getUrlFromConfig(raptorInterface.appId());
-            if (!StringUtils.hasText(url)) {
+            urls = getUrlsFromConfig(raptorInterface.appId());
+            if (urls.isEmpty()) {
                 //根据配置的appName找url
-                url = getUrlFromConfig(raptorInterface.appName());
+                urls = getUrlsFromConfig(raptorInterface.appName());
             }
         }
-        if (!StringUtils.hasText(url)) {
-            throw new RuntimeException("Can't find url for interface " + type.getName());
-        }
-        return url;
+        return urls;
     }
 
     protected String getUrlFromConfig(String name) {
+        List<String> urls = getUrlsFromConfig(name);
+        return urls.isEmpty() ? null : urls.get(0);
+    }
+
+    /**
+     * urls优先,否则按逗号拆分url
+     */
+    protected List<String> getUrlsFromConfig(String name) {
+        List<String> urls = new ArrayList<>();
         if (!StringUtils.hasText(name)) {
-            return null;
+            return urls;
         }
         FeignClientProperties.RaptorClientConfiguration config = getClientConfig(name);
         if (config == null) {
+            return urls;
+        }
+        if (config.getUrls() != null && !config.getUrls().isEmpty()) {
+            for (String url : config.getUrls()) {
+                if (StringUtils.hasText(url)) {
+                    urls.add(url.trim());
+                }
+            }
+        } else if (StringUtils.hasText(config.getUrl())) {
+            for (String url : StringUtils.commaDelimitedListToStringArray(config.getUrl())) {
+                if (StringUtils.hasText(url)) {
+                    urls.add(url.trim());
+                }
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * 负载均衡策略,覆盖顺序同{@link #getContentType(Class)}
+     */
+    protected RaptorLoadBalancer getLoadBalancer(Class<?> type) {
+        String loadBalancer = null;
+        for (FeignClientProperties.RaptorClientConfiguration config : getClientConfigs(type)) {
+            if (config != null && StringUtils.hasText(config.getLoadBalancer())) {
+                loadBalancer = config.getLoadBalancer();
+            }
+        }
+        return RaptorLoadBalancer.forName(loadBalancer);
+    }
+
+    /**
+     * 请求的Content-Type,按默认配置、appName、appId、接口全名依次覆盖
+     */
+    protected MediaType getContentType(Class<?> type) {
+        String contentType = null;
+        for (FeignClientProperties.RaptorClientConfiguration config : getClientConfigs(type)) {
+            if (config != null && StringUtils.hasText(config.getContentType())) {
+                contentType = config.getContentType();
+            }
+        }
+        return contentType == null ? null : MediaType.parseMediaType(contentType);
+    }
+
+    /**
+     * 响应body最大字节数,覆盖顺序同{@link #getContentType(Class)},0表示不限制
+     */
+    protected long getMaxResponseBodySize(Class<?> type) {
+        long maxResponseBodySize = 0;
+        for (FeignClientProperties.RaptorClientConfiguration config : getClientConfigs(type)) {
+            if (config != null && config.getMaxResponseBodySize() != null) {
+                maxResponseBodySize = config.getMaxResponseBodySize();
+            }
+        }
+        return maxResponseBodySize;
+    }
+
+    /**
+     * 压缩配置,覆盖顺序同{@link #getContentType(Class)}
+     */
+    protected RaptorCompressionPolicy getCompressionPolicy(Class<?> type) {
+        List<String> compression = null;
+        int compressionMinSize = RaptorCompressionPolicy.DEFAULT_MIN_SIZE;
+        for (FeignClientProperties.RaptorClientConfiguration config : getClientConfigs(type)) {
+            if (config == null) {
+                continue;
+            }
+            if (config.getCompression() != null) {
+                compression = config.getCompression();
+            }
+            if (config.getCompressionMinSize() != null) {
+                compressionMinSize = config.getCompressionMinSize();
+            }
+        }
+        return RaptorCompressionPolicy.of(compression, compressionMinSize);
+    }
+
+    /**
+     * 是否压缩请求body,覆盖顺序同{@link #getContentType(Class)}
+     */
+    protected boolean isRequestCompression(Class<?> type) {
+        boolean requestCompression = false;
+        for (FeignClientProperties.RaptorClientConfiguration config : getClientConfigs(type)) {
+            if (config != null && config.getRequestCompression() != null) {
+                requestCompression = config.getRequestCompression();
+            }
+        }
+        return requestCompression;
+    }
+
+    /**
+     * 并发限制配置,覆盖顺序同{@link #getContentType(Class)};同一个url的多个接口使用第一个创建的限制
+     *
+     * @return 没有开启时为null
+     */
+    protected RaptorConcurrencyLimiter getConcurrencyLimiter(Target<?> target) {
+        boolean enabled = false;
+        int maxConcurrency = RaptorConcurrencyLimiter.DEFAULT_MAX_LIMIT;
+        for (FeignClientProperties.RaptorClientConfiguration config : getClientConfigs(target.type())) {
+            if (config == null) {
+                continue;
+            }
+            if (config.getConcurrencyLimitEnabled() != null) {
+                enabled = config.getConcurrencyLimitEnabled();
+            }
+            if (config.getMaxConcurrency() != null) {
+                maxConcurrency = config.getMaxConcurrency();
+            }
+        }
+        if (!enabled) {
             return null;
         }
-        return config.getUrl();
+        int max = maxConcurrency;
+        return concurrencyLimiters.computeIfAbsent(target.url(), url -> new RaptorConcurrencyLimiter(
+                Math.min(RaptorConcurrencyLimiter.DEFAULT_INITIAL_LIMIT, max), Math.min(RaptorConcurrencyLimiter.DEFAULT_MIN_LIMIT, max), max));
+    }
+
+    /**
+     * 熔断配置,覆盖顺序同{@link #getContentType(Class)}
+     *
+     * @return 没有开启时为null
+     */
+    protected RaptorCircuitBreakerConfig getCircuitBreakerConfig(Class<?> type) {
+        boolean enabled = false;
+        RaptorCircuitBreakerConfig circuitBreakerConfig = new RaptorCircuitBreakerConfig();
+        for (FeignClientProperties.RaptorClientConfiguration config : getClientConfigs(type)) {
+            if (config == null) {
+                continue;
+            }
+            if (config.getCircuitBreakerEnabled() != null) {
+                enabled = config.getCircuitBreakerEnabled();
+            }
+            if (config.getCircuitBreakerFailureRateThreshold() != null) {
+                circuitBreakerConfig.setFailureRateThreshold(config.getCircuitBreakerFailureRateThreshold());
+            }
+            if (config.getCircuitBreakerSlowCallRateThreshold() != null) {
+                circuitBreakerConfig.setSlowCallRateThreshold(config.getCircuitBreakerSlowCallRateThreshold());
+            }
+            if (config.getCircuitBreakerSlowCallDurationMillis() != null) {
+                circuitBreakerConfig.setSlowCallDurationMillis(config.getCircuitBreakerSlowCallDurationMillis());
+            }
+            if (config.getCircuitBreakerMinimumCalls() != null) {
+                circuitBreakerConfig.setMinimumCalls(config.getCircuitBreakerMinimumCalls());
+            }
+            if (config.getCircuitBreakerWindowSeconds() != null) {
+                circuitBreakerConfig.setWindowSeconds(config.getCircuitBreakerWindowSeconds());
+            }
+            if (config.getCircuitBreakerOpenMillis() != null) {
+                circuitBreakerConfig.setOpenMillis(config.getCircuitBreakerOpenMillis());
+            }
+            if (config.getCircuitBreakerHalfOpenCalls() != null) {
+                circuitBreakerConfig.setHalfOpenCalls(config.getCircuitBreakerHalfOpenCalls());
+            }
+        }
+        return enabled ? circuitBreakerConfig : null;
+    }
+
+    /**
+     * 对冲配置,覆盖顺序同{@link #getContentType(Class)}
+     *
+     * @return 没有开启时为null
+     */
+    protected RaptorHedgingPolicy getHedgingPolicy(Class<?> type) {
+        boolean enabled = false;
+        Long delayMillis = null;
+        int percentile = RaptorHedgingPolicy.DEFAULT_PERCENTILE;
+        int budgetPercent = RaptorHedgingPolicy.DEFAULT_BUDGET_PERCENT;
+        for (FeignClientProperties.RaptorClientConfiguration config : getClientConfigs(type)) {
+            if (config == null) {
+                continue;
+            }
+            if (config.getHedgingEnabled() != null) {
+                enabled = config.getHedgingEnabled();
+            }
+            if (config.getHedgingDelayMillis() != null) {
+                delayMillis = config.getHedgingDelayMillis();
+            }
+            if (config.getHedgingPercentile() != null) {
+                percentile = config.getHedgingPercentile();
+            }
+            if (config.getHedgingBudgetPercent() != null) {
+                budgetPercent = config.getHedgingBudgetPercent();
+            }
+        }
+        return enabled ? new RaptorHedgingPolicy(delayMillis, percentile, budgetPercent) : null;
+    }
+
+    private List<FeignClientProperties.RaptorClientConfiguration> getClientConfigs(Class<?> type) {
+        List<FeignClientProperties.RaptorClientConfiguration> configs = new ArrayList<>();
+        configs.add(getClientConfig(null));
+        RaptorInterface raptorInterface = AnnotationUtils.findAnnotation(type, RaptorInterface.class);
+        if (raptorInterface != null) {
+            if (StringUtils.hasText(raptorInterface.appName())) {
+                configs.add(getClientConfig(raptorInterface.appName()));
+            }
+            if (StringUtils.hasText(raptorInterface.appId())) {
+                configs.add(getClientConfig(raptorInterface.appId()));
+            }
+        }
+        configs.add(getClientConfig(type.getName()));
+        return configs;
     }
 
     protected void configureUsingProperties(Class<?> type, Feign.Builder builder) {
@@ -1,5 +1,6 @@
 package com.ppdai.framework.raptor.spring.client.feign;
 
+import com.ppdai.framework.raptor.rpc.RaptorStreamObserver;
 import feign.Contract;
 import feign.Feign;
 import feign.MethodMetadata;
@@ -193,6 +194,10 @@ public class SpringMvcContract extends Contract.BaseContract
         AnnotatedParameterProcessor.AnnotatedParameterContext context = new SimpleAnnotatedParameterContext(
                 data, paramIndex);
         Method method = this.processedMethods.get(data.configKey());
+        if (RaptorStreamObserver.class == method.getParameterTypes()[paramIndex]) {
+            //流式方法的observer参数不参与请求
+            return true;
+        }
         for (Annotation parameterAnnotation : annotations) {
             AnnotatedParameterProcessor processor = this.annotatedArgumentProcessors
                     .get(parameterAnnotation.annotationType());
@@ -0,0 +1,127 @@
+package com.ppdai.framework.raptor.spring.client.hedge;
+
+import com.ppdai.framework.raptor.spring.client.feign.RaptorAsyncClient;
+import com.ppdai.framework.raptor.spring.client.loadbalance.LoadBalancedAsyncClient;
+import com.ppdai.framework.raptor.spring.client.loadbalance.RaptorEndpoint;
+import com.ppdai.framework.raptor.spring.client.loadbalance.RaptorEndpointGroup;
+import feign.Request;
+import feign.Response;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 对冲请求:GET请求在延迟内没有响应时,向另一个实例再发送一次,使用先返回的响应并取消另一个请求.
+ * 只有请求失败时才等待另一个请求,全部失败时返回最后的异常;没有其他实例或预算不足时不对冲
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+public class HedgingAsyncClient extends LoadBalancedAsyncClient {
+
+    private static final ScheduledExecutorService TIMER;
+
+    static {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("raptor-hedging-timer-");
+        threadFactory.setDaemon(true);
+        TIMER = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @Getter
+    private final RaptorHedgingPolicy policy;
+
+    public HedgingAsyncClient(RaptorAsyncClient delegate, RaptorEndpointGroup endpointGroup, RaptorHedgingPolicy policy) {
+        super(delegate, endpointGroup);
+        this.policy = policy;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Request.Options options) {
+        if (!policy.isHedgeable(request)) {
+            return super.execute(request, options);
+        }
+        RaptorEndpoint endpoint = getEndpointGroup().choose();
+        if (endpoint == null) {
+            return noEndpoint();
+        }
+        policy.onRequest();
+        String key = policy.getKey(request);
+        HedgedCall call = new HedgedCall(request, options, key);
+        call.attempt(endpoint);
+        long delayNanos = policy.getDelayNanos(key);
+        if (delayNanos >= 0 && !call.result.isDone()) {
+            call.timer = TIMER.schedule(() -> call.hedge(endpoint), delayNanos, TimeUnit.NANOSECONDS);
+            call.result.whenComplete((response, ex) -> call.timer.cancel(false));
+        }
+        return call.result;
+    }
+
+    private class HedgedCall {
+        private final Request request;
+        private final Request.Options options;
+        private final String key;
+        private final CompletableFuture<Response> result = new CompletableFuture<>();
+        /**
+         * 已发送且没有失败的请求数,减到0时返回失败
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile ScheduledFuture<?> timer;
+
+        HedgedCall(Request request, Request.Options options, String key) {
+            this.request = request;
+            this.options = options;
+            this.key = key;
+        }
+
+        void hedge(RaptorEndpoint primary) {
+            if (result.isDone()) {
+                return;
+            }
+            RaptorEndpoint endpoint = getEndpointGroup().chooseOther(primary);
+            if (endpoint == null || !policy.tryAcquire()) {
+                return;
+            }
+            log.debug("Send hedged request {} to {}.", key, endpoint.getUrl());
+            attempt(endpoint);
+        }
+
+        void attempt(RaptorEndpoint endpoint) {
+            pending.incrementAndGet();
+            long start = System.nanoTime();
+            CompletableFuture<Response> future;
+            try {
+                future = execute(request, options, endpoint);
+            } catch (RuntimeException e) {
+                onFailure(e);
+                return;
+            }
+            //结果已返回时取消仍在进行的请求,包括调用方取消
+            result.whenComplete((response, ex) -> future.cancel(true));
+            future.whenComplete((response, ex) -> {
+                if (ex == null) {
+                    policy.record(key, System.nanoTime() - start);
+                    if (!result.complete(response)) {
+                        //另一个请求已经返回,释放这个响应
+                        response.close();
+                    }
+                } else if (!(ex instanceof CancellationException)) {
+                    onFailure(ex);
+                }
+            });
+        }
+
+        void onFailure(Throwable ex) {
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.ppdai.framework.raptor.spring.client.hedge;
+
+import feign.Request;
+import lombok.Getter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对冲请求的策略:只对冲幂等的GET请求,等待固定延迟或该路径最近的延迟分位数后才发送,
+ * 并按预算限制对冲请求占全部请求的比例.
+ * 预算是令牌桶,每个请求存入budgetPercent/100个令牌,每次对冲取出1个,最多积累{@link #MAX_BUDGET_TOKENS}个
+ *
+ * @author yinzuolong
+ */
+@Getter
+public class RaptorHedgingPolicy {
+    public static final int DEFAULT_PERCENTILE = 95;
+    public static final int DEFAULT_BUDGET_PERCENT = 5;
+    public static final int DEFAULT_MIN_SAMPLES = 100;
+    public static final long DEFAULT_WINDOW_MILLIS = 10000L;
+    public static final int MAX_BUDGET_TOKENS = 10;
+    /**
+     * 统计延迟的路径数上限,超过后新的路径共用一个分布
+     */
+    private static final int MAX_KEYS = 1024;
+    private static final String OTHERS_KEY = "*";
+    private static final long TOKEN_UNIT = 100;
+
+    /**
+     * 固定的对冲延迟,为null时使用延迟分位数
+     */
+    private final Long delayMillis;
+    private final int percentile;
+    private final int budgetPercent;
+    private final int minSamples;
+    private final long windowMillis;
+
+    private final AtomicLong tokens = new AtomicLong();
+    private final ConcurrentMap<String, RaptorLatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public RaptorHedgingPolicy(Long delayMillis, int percentile, int budgetPercent) {
+        this(delayMillis, percentile, budgetPercent, DEFAULT_MIN_SAMPLES, DEFAULT_WINDOW_MILLIS);
+    }
+
+    public RaptorHedgingPolicy(Long delayMillis, int percentile, int budgetPercent, int minSamples, long windowMillis) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Hedging percentile must be in (0, 100]: " + percentile);
+        }
+        this.delayMillis = delayMillis;
+        this.percentile = percentile;
+        this.budgetPercent = Math.max(budgetPercent, 0);
+        this.minSamples = minSamples;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * 只有GET请求是幂等的
+     */
+    public boolean isHedgeable(Request request) {
+        return "GET".equalsIgnoreCase(request.method());
+    }
+
+    /**
+     * 统计延迟使用的key,不包含query参数
+     */
+    public String getKey(Request request) {
+        String url = request.url();
+        int index = url.indexOf('?');
+        return request.method() + " " + (index < 0 ? url : url.substring(0, index));
+    }
+
+    /**
+     * @return 发送对冲请求前等待的纳秒数,样本不足时为-1,不对冲
+     */
+    public long getDelayNanos(String key) {
+        if (delayMillis != null) {
+            return TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        }
+        RaptorLatencyHistogram histogram = histograms.get(key);
+        if (histogram == null) {
+            histogram = histograms.get(OTHERS_KEY);
+        }
+        return histogram != null ? histogram.getPercentileNanos(percentile, minSamples) : -1;
+    }
+
+    public void record(String key, long nanos) {
+        if (delayMillis != null) {
+            return;
+        }
+        RaptorLatencyHistogram histogram = histograms.get(key);
+        if (histogram == null) {
+            histogram = histograms.size() < MAX_KEYS ? histograms.computeIfAbsent(key, k -> new RaptorLatencyHistogram(windowMillis))
+                    : histograms.computeIfAbsent(OTHERS_KEY, k -> new RaptorLatencyHistogram(windowMillis));
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * 每个可对冲的请求存入预算
+     */
+    public void onRequest() {
+        long max = MAX_BUDGET_TOKENS * TOKEN_UNIT;
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= max) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(current + budgetPercent, max)));
+    }
+
+    /**
+     * 预算不足时返回false,不发送对冲请求
+     */
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN_UNIT) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN_UNIT));
+        return true;
+    }
+}
@@ -0,0 +1,98 @@
+package com.ppdai.framework.raptor.spring.client.hedge;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 最近一段时间的延迟分布,用于估计分位数.
+ * 按微秒的二进制位数分桶,每个2的幂区间再分4个桶,估计值最多偏大25%;
+ * 保留当前和上一个周期的计数,每个周期开始时丢弃上上个周期,记录时不加锁
+ *
+ * @author yinzuolong
+ */
+public class RaptorLatencyHistogram {
+
+    private static final int SUB_BUCKETS = 4;
+    /**
+     * 覆盖到2^40微秒
+     */
+    private static final int BUCKETS = 40 * SUB_BUCKETS;
+
+    private final long periodNanos;
+    private final AtomicLong nextRotate;
+    private volatile AtomicLongArray current = new AtomicLongArray(BUCKETS);
+    private volatile AtomicLongArray previous = new AtomicLongArray(BUCKETS);
+
+    public RaptorLatencyHistogram(long periodMillis) {
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        this.nextRotate = new AtomicLong(System.nanoTime() + periodNanos);
+    }
+
+    public void record(long nanos) {
+        rotateIfNecessary(System.nanoTime());
+        current.incrementAndGet(index(TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    /**
+     * @param percentile 0到100
+     * @param minCount   样本数少于该值时不估计
+     * @return 分位数的纳秒数,样本不足时为-1
+     */
+    public long getPercentileNanos(double percentile, long minCount) {
+        rotateIfNecessary(System.nanoTime());
+        AtomicLongArray current = this.current;
+        AtomicLongArray previous = this.previous;
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = current.get(i) + previous.get(i);
+            total += counts[i];
+        }
+        if (total == 0 || total < minCount) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return TimeUnit.MICROSECONDS.toNanos(upperBound(i));
+            }
+        }
+        return TimeUnit.MICROSECONDS.toNanos(upperBound(BUCKETS - 1));
+    }
+
+    private void rotateIfNecessary(long now) {
+        long rotate = nextRotate.get();
+        if (now - rotate < 0) {
+            return;
+        }
+        if (nextRotate.compareAndSet(rotate, now + periodNanos)) {
+            //超过两个周期没有记录时,上一个周期的计数也已过期
+            previous = now - rotate < periodNanos ? current : new AtomicLongArray(BUCKETS);
+            current = new AtomicLongArray(BUCKETS);
+        }
+    }
+
+    static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) Math.max(micros, 0);
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (msb - 2)) & (SUB_BUCKETS - 1);
+        return Math.min((msb - 1) * SUB_BUCKETS + sub, BUCKETS - 1);
+    }
+
+    /**
+     * 桶内延迟的上界(不含)
+     */
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index + 1;
+        }
+        int msb = index / SUB_BUCKETS + 1;
+        int sub = index % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub + 1) << (msb - 2);
+    }
+}
@@ -0,0 +1,141 @@
+package com.ppdai.framework.raptor.spring.client.http2;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * HPACK解码,维护对端编码器的动态表,一个连接一个实例,只在读线程上使用
+ *
+ * @author yinzuolong
+ */
+class HpackDecoder {
+
+    private final LinkedList<String[]> dynamicTable = new LinkedList<>();
+    private final int maxAllowedTableSize;
+    private int maxTableSize;
+    private int tableSize;
+
+    private byte[] data;
+    private int position;
+    private int limit;
+
+    HpackDecoder(int maxAllowedTableSize) {
+        this.maxAllowedTableSize = maxAllowedTableSize;
+        this.maxTableSize = maxAllowedTableSize;
+    }
+
+    /**
+     * @return 按顺序排列的(name, value)
+     */
+    List<String[]> decode(byte[] block, int offset, int length) throws IOException {
+        this.data = block;
+        this.position = offset;
+        this.limit = offset + length;
+        List<String[]> headers = new ArrayList<>();
+        while (position < limit) {
+            int b = data[position] & 0xFF;
+            if ((b & 0x80) != 0) {
+                //Indexed Header Field
+                headers.add(getEntry(readInteger(7)));
+            } else if ((b & 0x40) != 0) {
+                //Literal Header Field with Incremental Indexing
+                String[] header = readLiteral(6);
+                addEntry(header);
+                headers.add(header);
+            } else if ((b & 0x20) != 0) {
+                //Dynamic Table Size Update
+                int size = readInteger(5);
+                if (size > maxAllowedTableSize) {
+                    throw new IOException("HPACK table size update exceeds limit: " + size);
+                }
+                maxTableSize = size;
+                evict();
+            } else {
+                //Literal Header Field without Indexing / Never Indexed
+                headers.add(readLiteral(4));
+            }
+        }
+        this.data = null;
+        return headers;
+    }
+
+    private String[] readLiteral(int prefixBits) throws IOException {
+        int nameIndex = readInteger(prefixBits);
+        String name = nameIndex == 0 ? readString() : getEntry(nameIndex)[0];
+        return new String[]{name, readString()};
+    }
+
+    private String[] getEntry(int index) throws IOException {
+        if (index <= 0) {
+            throw new IOException("Invalid HPACK index: " + index);
+        }
+        if (index <= Hpack.STATIC_TABLE_LENGTH) {
+            return Hpack.STATIC_TABLE[index];
+        }
+        int dynamicIndex = index - Hpack.STATIC_TABLE_LENGTH - 1;
+        if (dynamicIndex >= dynamicTable.size()) {
+            throw new IOException("Invalid HPACK index: " + index);
+        }
+        return dynamicTable.get(dynamicIndex);
+    }
+
+    private void addEntry(String[] header) {
+        int size = Hpack.entrySize(header[0], header[1]);
+        if (size > maxTableSize) {
+            dynamicTable.clear();
+            tableSize = 0;
+            return;
+        }
+        dynamicTable.addFirst(header);
+        tableSize += size;
+        evict();
+    }
+
+    private void evict() {
+        while (tableSize > maxTableSize) {
+            String[] removed = dynamicTable.removeLast();
+            tableSize -= Hpack.entrySize(removed[0], removed[1]);
+        }
+    }
+
+    private int readInteger(int prefixBits) throws IOException {
+        int maxPrefix = (1 << prefixBits) - 1;
+        int value = readByte() & maxPrefix;
+        if (value < maxPrefix) {
+            return value;
+        }
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 28) {
+                throw new IOException("HPACK integer overflow.");
+            }
+            b = readByte();
+            value += (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private String readString() throws IOException {
+        boolean huffman = (data[position] & 0x80) != 0;
+        int length = readInteger(7);
+        if (length < 0 || position + length > limit) {
+            throw new IOException("Truncated HPACK string.");
+        }
+        String value = huffman ? Hpack.decodeHuffman(data, position, length)
+                : new String(data, position, length, StandardCharsets.ISO_8859_1);
+        position += length;
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        if (position >= limit) {
+            throw new IOException("Truncated HPACK block.");
+        }
+        return data[position++] & 0xFF;
+    }
+}
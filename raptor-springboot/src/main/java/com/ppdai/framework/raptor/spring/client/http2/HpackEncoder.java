@@ -0,0 +1,135 @@
+package com.ppdai.framework.raptor.spring.client.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * HPACK编码,重复出现的header(x-raptor-*, content-type, :path等)进入动态表,之后只发送索引.
+ * <p>
+ * 一个连接一个实例,调用方需要保证header块的编码顺序与发送顺序一致
+ *
+ * @author yinzuolong
+ */
+class HpackEncoder {
+
+    private static final Map<String, Integer> STATIC_NAME_INDEX = new HashMap<>();
+    private static final Map<String, Integer> STATIC_FIELD_INDEX = new HashMap<>();
+
+    static {
+        for (int i = Hpack.STATIC_TABLE_LENGTH; i > 0; i--) {
+            String[] entry = Hpack.STATIC_TABLE[i];
+            STATIC_NAME_INDEX.put(entry[0], i);
+            STATIC_FIELD_INDEX.put(entry[0] + ':' + entry[1], i);
+        }
+    }
+
+    /**
+     * 每次请求都不同的header,不进入动态表
+     */
+    private final Set<String> neverIndexedNames;
+    private final LinkedList<String[]> dynamicTable = new LinkedList<>();
+    private int maxTableSize = 4096;
+    private int tableSize;
+    private int pendingTableSizeUpdate = -1;
+
+    HpackEncoder(Set<String> neverIndexedNames) {
+        this.neverIndexedNames = neverIndexedNames;
+    }
+
+    /**
+     * 对端SETTINGS_HEADER_TABLE_SIZE变化时调用,下一个header块开头发送Dynamic Table Size Update
+     */
+    void setMaxTableSize(int size) {
+        int newSize = Math.min(size, 4096);
+        if (newSize != maxTableSize) {
+            maxTableSize = newSize;
+            pendingTableSizeUpdate = newSize;
+            evict();
+        }
+    }
+
+    /**
+     * @param headers (name, value),name必须是小写
+     */
+    byte[] encode(List<String[]> headers) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        if (pendingTableSizeUpdate >= 0) {
+            Hpack.writeInteger(out, pendingTableSizeUpdate, 5, 0x20);
+            pendingTableSizeUpdate = -1;
+        }
+        for (String[] header : headers) {
+            String name = header[0];
+            String value = header[1];
+            int index = findField(name, value);
+            if (index > 0) {
+                Hpack.writeInteger(out, index, 7, 0x80);
+                continue;
+            }
+            int nameIndex = findName(name);
+            boolean indexing = !neverIndexedNames.contains(name);
+            if (indexing) {
+                Hpack.writeInteger(out, nameIndex, 6, 0x40);
+            } else {
+                Hpack.writeInteger(out, nameIndex, 4, 0);
+            }
+            if (nameIndex == 0) {
+                Hpack.writeString(out, name);
+            }
+            Hpack.writeString(out, value);
+            if (indexing) {
+                addEntry(name, value);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private int findField(String name, String value) {
+        int i = 0;
+        for (String[] entry : dynamicTable) {
+            i++;
+            if (entry[0].equals(name) && entry[1].equals(value)) {
+                return Hpack.STATIC_TABLE_LENGTH + i;
+            }
+        }
+        Integer index = STATIC_FIELD_INDEX.get(name + ':' + value);
+        return index != null ? index : 0;
+    }
+
+    private int findName(String name) {
+        Integer index = STATIC_NAME_INDEX.get(name);
+        if (index != null) {
+            return index;
+        }
+        int i = 0;
+        for (String[] entry : dynamicTable) {
+            i++;
+            if (entry[0].equals(name)) {
+                return Hpack.STATIC_TABLE_LENGTH + i;
+            }
+        }
+        return 0;
+    }
+
+    private void addEntry(String name, String value) {
+        int size = Hpack.entrySize(name, value);
+        if (size > maxTableSize) {
+            dynamicTable.clear();
+            tableSize = 0;
+            return;
+        }
+        dynamicTable.addFirst(new String[]{name, value});
+        tableSize += size;
+        evict();
+    }
+
+    private void evict() {
+        while (tableSize > maxTableSize) {
+            String[] removed = dynamicTable.removeLast();
+            tableSize -= Hpack.entrySize(removed[0], removed[1]);
+        }
+    }
+}
@@ -0,0 +1,679 @@
+package com.ppdai.framework.raptor.spring.client.http2;
+
+import feign.Request;
+import feign.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 一条h2c(prior knowledge)连接,多个请求以stream的形式复用同一个socket.
+ * <p>
+ * 请求在调用线程上编码并写出,响应由连接的读线程接收,完成时回调future
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+class Http2Connection implements Closeable {
+
+    private static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private static final int TYPE_DATA = 0x0;
+    private static final int TYPE_HEADERS = 0x1;
+    private static final int TYPE_RST_STREAM = 0x3;
+    private static final int TYPE_SETTINGS = 0x4;
+    private static final int TYPE_PUSH_PROMISE = 0x5;
+    private static final int TYPE_PING = 0x6;
+    private static final int TYPE_GOAWAY = 0x7;
+    private static final int TYPE_WINDOW_UPDATE = 0x8;
+    private static final int TYPE_CONTINUATION = 0x9;
+
+    private static final int FLAG_END_STREAM = 0x1;
+    private static final int FLAG_ACK = 0x1;
+    private static final int FLAG_END_HEADERS = 0x4;
+    private static final int FLAG_PADDED = 0x8;
+    private static final int FLAG_PRIORITY = 0x20;
+
+    private static final int SETTINGS_HEADER_TABLE_SIZE = 0x1;
+    private static final int SETTINGS_ENABLE_PUSH = 0x2;
+    private static final int SETTINGS_MAX_CONCURRENT_STREAMS = 0x3;
+    private static final int SETTINGS_INITIAL_WINDOW_SIZE = 0x4;
+    private static final int SETTINGS_MAX_FRAME_SIZE = 0x5;
+
+    private static final int ERROR_CANCEL = 0x8;
+
+    private static final int DEFAULT_WINDOW_SIZE = 65535;
+    private static final int DEFAULT_MAX_FRAME_SIZE = 16384;
+    private static final int HEADER_TABLE_SIZE = 4096;
+    /**
+     * 接收窗口,消费超过一半时发送WINDOW_UPDATE
+     */
+    private static final int LOCAL_WINDOW_SIZE = 16 * 1024 * 1024;
+
+    private static final Set<String> CONNECTION_HEADERS = new HashSet<>(Arrays.asList(
+            "connection", "keep-alive", "proxy-connection", "transfer-encoding", "upgrade", "host"));
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final String authority;
+    private final Socket socket;
+    private final DataInputStream in;
+    private final OutputStream out;
+    private final ScheduledExecutorService timer;
+    private final HpackEncoder encoder;
+    private final HpackDecoder decoder = new HpackDecoder(HEADER_TABLE_SIZE);
+    private final Map<Integer, Http2Stream> streams = new ConcurrentHashMap<>();
+
+    //使用ReentrantLock而不是synchronized,虚拟线程写socket或等待流控窗口时不会占住载体线程
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private int nextStreamId = 1;
+
+    private final ReentrantLock windowLock = new ReentrantLock();
+    private final Condition windowAvailable = windowLock.newCondition();
+    private long connectionSendWindow = DEFAULT_WINDOW_SIZE;
+    private int initialSendWindow = DEFAULT_WINDOW_SIZE;
+
+    private volatile int maxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+    private volatile long maxConcurrentStreams = Integer.MAX_VALUE;
+    private volatile boolean goAway;
+    private volatile boolean closed;
+
+    //只在读线程上访问
+    private int connectionUnacknowledged;
+    private ByteArrayOutputStream continuationBuffer;
+    private int continuationStreamId;
+    private boolean continuationEndStream;
+
+    Http2Connection(String host, int port, int connectTimeout, Set<String> neverIndexedHeaders,
+                    ScheduledExecutorService timer) throws IOException {
+        this.authority = host + ":" + port;
+        this.timer = timer;
+        this.encoder = new HpackEncoder(neverIndexedHeaders);
+        this.socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), connectTimeout);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), DEFAULT_MAX_FRAME_SIZE + 9));
+            this.out = new BufferedOutputStream(socket.getOutputStream(), DEFAULT_MAX_FRAME_SIZE + 9);
+            writeLock.lock();
+            try {
+                out.write(PREFACE);
+                writeSettings();
+                writeWindowUpdate(0, LOCAL_WINDOW_SIZE - DEFAULT_WINDOW_SIZE);
+                out.flush();
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        Thread reader = new Thread(this::readLoop, "raptor-h2c-reader-" + THREAD_NUMBER.incrementAndGet());
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return 是否还能创建新的stream
+     */
+    boolean isAvailable() {
+        return !closed && !goAway && streams.size() < maxConcurrentStreams;
+    }
+
+    int getActiveStreams() {
+        return streams.size();
+    }
+
+    CompletableFuture<Response> execute(Request request, Request.Options options) {
+        List<String[]> headers = toHeaders(request);
+        byte[] body = request.body();
+        boolean hasBody = body != null && body.length > 0;
+        Http2Stream stream;
+        try {
+            writeLock.lock();
+            try {
+                if (closed || goAway) {
+                    //连接池会重新选择连接,这里不关闭仍在进行的stream
+                    return failed(new IOException("HTTP/2 connection to " + authority + " is closing."));
+                }
+                stream = new Http2Stream(nextStreamId, request);
+                nextStreamId += 2;
+                if (nextStreamId < 0) {
+                    //stream id用完,不再接收新请求,由连接池新建连接
+                    goAway = true;
+                }
+                windowLock.lock();
+                try {
+                    stream.sendWindow = initialSendWindow;
+                } finally {
+                    windowLock.unlock();
+                }
+                streams.put(stream.id, stream);
+                stream.timeout = timer.schedule(() -> reset(stream, new SocketTimeoutException("Read timed out: " + request.url())),
+                        options.readTimeoutMillis(), TimeUnit.MILLISECONDS);
+                //调用方取消时发送RST_STREAM
+                stream.future.whenComplete((response, ex) -> {
+                    if (stream.future.isCancelled()) {
+                        reset(stream, null);
+                    }
+                });
+                writeHeaders(stream.id, encoder.encode(headers), !hasBody);
+                if (!hasBody) {
+                    out.flush();
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (IOException e) {
+            close(e);
+            return failed(e);
+        }
+        if (hasBody) {
+            try {
+                writeData(stream, body, options.readTimeoutMillis());
+            } catch (IOException e) {
+                if (streams.remove(stream.id, stream)) {
+                    stream.fail(e);
+                }
+            }
+        }
+        return stream.future;
+    }
+
+    private static CompletableFuture<Response> failed(IOException e) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    private List<String[]> toHeaders(Request request) {
+        URI uri = URI.create(request.url());
+        String path = uri.getRawPath();
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        }
+        if (uri.getRawQuery() != null) {
+            path = path + "?" + uri.getRawQuery();
+        }
+        List<String[]> headers = new ArrayList<>();
+        headers.add(new String[]{":method", request.method()});
+        headers.add(new String[]{":scheme", "http"});
+        headers.add(new String[]{":authority", authority});
+        headers.add(new String[]{":path", path});
+        for (Map.Entry<String, Collection<String>> entry : request.headers().entrySet()) {
+            String name = entry.getKey().toLowerCase(Locale.ENGLISH);
+            if (CONNECTION_HEADERS.contains(name)) {
+                continue;
+            }
+            for (String value : entry.getValue()) {
+                headers.add(new String[]{name, value});
+            }
+        }
+        return headers;
+    }
+
+    private void writeData(Http2Stream stream, byte[] body, long timeoutMillis) throws IOException {
+        int offset = 0;
+        while (offset < body.length) {
+            int length = acquireSendWindow(stream, Math.min(body.length - offset, maxFrameSize), timeoutMillis);
+            boolean last = offset + length == body.length;
+            writeLock.lock();
+            try {
+                writeFrameHeader(length, TYPE_DATA, last ? FLAG_END_STREAM : 0, stream.id);
+                out.write(body, offset, length);
+                if (last) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                close(e);
+                throw e;
+            } finally {
+                writeLock.unlock();
+            }
+            offset += length;
+        }
+    }
+
+    private int acquireSendWindow(Http2Stream stream, int requested, long timeoutMillis) throws IOException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        windowLock.lock();
+        try {
+            while (connectionSendWindow <= 0 || stream.sendWindow <= 0) {
+                if (closed || stream.future.isDone()) {
+                    throw new IOException("HTTP/2 stream " + stream.id + " is closed.");
+                }
+                long wait = deadline - System.currentTimeMillis();
+                if (wait <= 0) {
+                    throw new SocketTimeoutException("Timed out waiting for HTTP/2 flow control window.");
+                }
+                try {
+                    windowAvailable.await(wait, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(e.getMessage());
+                }
+            }
+            int length = (int) Math.min(requested, Math.min(connectionSendWindow, stream.sendWindow));
+            connectionSendWindow -= length;
+            stream.sendWindow -= length;
+            return length;
+        } finally {
+            windowLock.unlock();
+        }
+    }
+
+    /**
+     * 超时或取消时结束stream并通知服务端
+     *
+     * @param cause 为null时stream已被取消
+     */
+    private void reset(Http2Stream stream, IOException cause) {
+        if (streams.remove(stream.id, stream)) {
+            if (cause != null) {
+                stream.fail(cause);
+            } else if (stream.timeout != null) {
+                stream.timeout.cancel(false);
+            }
+            writeLock.lock();
+            try {
+                writeFrameHeader(4, TYPE_RST_STREAM, 0, stream.id);
+                writeInt(ERROR_CANCEL);
+                out.flush();
+            } catch (IOException e) {
+                close(e);
+            } finally {
+                writeLock.unlock();
+            }
+            closeIfIdle();
+        }
+    }
+
+    private void readLoop() {
+        try {
+            while (!closed) {
+                int length = (in.readUnsignedByte() << 16) | (in.readUnsignedByte() << 8) | in.readUnsignedByte();
+                int type = in.readUnsignedByte();
+                int flags = in.readUnsignedByte();
+                int streamId = in.readInt() & 0x7FFFFFFF;
+                if (length > DEFAULT_MAX_FRAME_SIZE) {
+                    throw new IOException("HTTP/2 frame too large: " + length);
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                if (continuationBuffer != null && type != TYPE_CONTINUATION) {
+                    throw new IOException("Expected HTTP/2 CONTINUATION frame but was " + type);
+                }
+                onFrame(type, flags, streamId, payload);
+            }
+        } catch (IOException e) {
+            close(e);
+        } catch (RuntimeException e) {
+            log.error("HTTP/2 connection to {} failed.", authority, e);
+            close(new IOException(e));
+        }
+    }
+
+    private void onFrame(int type, int flags, int streamId, byte[] payload) throws IOException {
+        switch (type) {
+            case TYPE_DATA:
+                onData(flags, streamId, payload);
+                break;
+            case TYPE_HEADERS:
+                int offset = 0;
+                int end = payload.length;
+                if ((flags & FLAG_PADDED) != 0) {
+                    offset = 1;
+                    end -= payload[0] & 0xFF;
+                }
+                if ((flags & FLAG_PRIORITY) != 0) {
+                    offset += 5;
+                }
+                if ((flags & FLAG_END_HEADERS) != 0) {
+                    onHeaders(streamId, payload, offset, end - offset, (flags & FLAG_END_STREAM) != 0);
+                } else {
+                    continuationBuffer = new ByteArrayOutputStream();
+                    continuationBuffer.write(payload, offset, end - offset);
+                    continuationStreamId = streamId;
+                    continuationEndStream = (flags & FLAG_END_STREAM) != 0;
+                }
+                break;
+            case TYPE_CONTINUATION:
+                if (continuationBuffer == null || continuationStreamId != streamId) {
+                    throw new IOException("Unexpected HTTP/2 CONTINUATION frame.");
+                }
+                continuationBuffer.write(payload, 0, payload.length);
+                if ((flags & FLAG_END_HEADERS) != 0) {
+                    byte[] block = continuationBuffer.toByteArray();
+                    continuationBuffer = null;
+                    onHeaders(streamId, block, 0, block.length, continuationEndStream);
+                }
+                break;
+            case TYPE_RST_STREAM:
+                Http2Stream reset = streams.remove(streamId);
+                if (reset != null) {
+                    reset.fail(new IOException("HTTP/2 stream reset by peer, error code " + readInt(payload, 0)));
+                }
+                closeIfIdle();
+                break;
+            case TYPE_SETTINGS:
+                if ((flags & FLAG_ACK) == 0) {
+                    onSettings(payload);
+                }
+                break;
+            case TYPE_PING:
+                if ((flags & FLAG_ACK) == 0) {
+                    writeLock.lock();
+                    try {
+                        writeFrameHeader(payload.length, TYPE_PING, FLAG_ACK, 0);
+                        out.write(payload);
+                        out.flush();
+                    } finally {
+                        writeLock.unlock();
+                    }
+                }
+                break;
+            case TYPE_GOAWAY:
+                onGoAway(readInt(payload, 0) & 0x7FFFFFFF, readInt(payload, 4));
+                break;
+            case TYPE_WINDOW_UPDATE:
+                int increment = readInt(payload, 0) & 0x7FFFFFFF;
+                windowLock.lock();
+                try {
+                    if (streamId == 0) {
+                        connectionSendWindow += increment;
+                    } else {
+                        Http2Stream stream = streams.get(streamId);
+                        if (stream != null) {
+                            stream.sendWindow += increment;
+                        }
+                    }
+                    windowAvailable.signalAll();
+                } finally {
+                    windowLock.unlock();
+                }
+                break;
+            case TYPE_PUSH_PROMISE:
+                throw new IOException("HTTP/2 server push is disabled.");
+            default:
+                //PRIORITY和未知类型直接忽略
+                break;
+        }
+    }
+
+    private void onData(int flags, int streamId, byte[] payload) throws IOException {
+        int offset = 0;
+        int end = payload.length;
+        if ((flags & FLAG_PADDED) != 0) {
+            offset = 1;
+            end -= payload[0] & 0xFF;
+        }
+        boolean endStream = (flags & FLAG_END_STREAM) != 0;
+        Http2Stream stream = streams.get(streamId);
+        if (stream != null) {
+            stream.body.write(payload, offset, end - offset);
+        }
+
+        //padding也计入流控
+        connectionUnacknowledged += payload.length;
+        int streamIncrement = 0;
+        if (stream != null && !endStream) {
+            stream.unacknowledged += payload.length;
+            if (stream.unacknowledged >= LOCAL_WINDOW_SIZE / 2) {
+                streamIncrement = stream.unacknowledged;
+                stream.unacknowledged = 0;
+            }
+        }
+        if (connectionUnacknowledged >= LOCAL_WINDOW_SIZE / 2 || streamIncrement > 0) {
+            writeLock.lock();
+            try {
+                if (connectionUnacknowledged >= LOCAL_WINDOW_SIZE / 2) {
+                    writeWindowUpdate(0, connectionUnacknowledged);
+                    connectionUnacknowledged = 0;
+                }
+                if (streamIncrement > 0) {
+                    writeWindowUpdate(streamId, streamIncrement);
+                }
+                out.flush();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        if (endStream && stream != null) {
+            complete(stream);
+        }
+    }
+
+    private void onHeaders(int streamId, byte[] block, int offset, int length, boolean endStream) throws IOException {
+        //即使stream已经超时也要解码,保持HPACK动态表同步
+        List<String[]> headers = decoder.decode(block, offset, length);
+        Http2Stream stream = streams.get(streamId);
+        if (stream == null) {
+            return;
+        }
+        for (String[] header : headers) {
+            if (":status".equals(header[0])) {
+                int status = Integer.parseInt(header[1]);
+                if (status >= 200) {
+                    stream.status = status;
+                }
+            } else if (!header[0].startsWith(":")) {
+                stream.headers.computeIfAbsent(header[0], k -> new ArrayList<>()).add(header[1]);
+            }
+        }
+        if (endStream) {
+            complete(stream);
+        }
+    }
+
+    private void onSettings(byte[] payload) throws IOException {
+        for (int i = 0; i + 6 <= payload.length; i += 6) {
+            int id = ((payload[i] & 0xFF) << 8) | (payload[i + 1] & 0xFF);
+            int value = readInt(payload, i + 2);
+            switch (id) {
+                case SETTINGS_HEADER_TABLE_SIZE:
+                    writeLock.lock();
+                    try {
+                        encoder.setMaxTableSize(value);
+                    } finally {
+                        writeLock.unlock();
+                    }
+                    break;
+                case SETTINGS_MAX_CONCURRENT_STREAMS:
+                    maxConcurrentStreams = value & 0xFFFFFFFFL;
+                    break;
+                case SETTINGS_INITIAL_WINDOW_SIZE:
+                    windowLock.lock();
+                    try {
+                        int delta = value - initialSendWindow;
+                        initialSendWindow = value;
+                        for (Http2Stream stream : streams.values()) {
+                            stream.sendWindow += delta;
+                        }
+                        windowAvailable.signalAll();
+                    } finally {
+                        windowLock.unlock();
+                    }
+                    break;
+                case SETTINGS_MAX_FRAME_SIZE:
+                    maxFrameSize = value;
+                    break;
+                default:
+                    break;
+            }
+        }
+        writeLock.lock();
+        try {
+            writeFrameHeader(0, TYPE_SETTINGS, FLAG_ACK, 0);
+            out.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void onGoAway(int lastStreamId, int errorCode) {
+        goAway = true;
+        log.debug("HTTP/2 GOAWAY from {}, lastStreamId={}, errorCode={}", authority, lastStreamId, errorCode);
+        for (Http2Stream stream : new ArrayList<>(streams.values())) {
+            if (stream.id > lastStreamId && streams.remove(stream.id, stream)) {
+                stream.fail(new IOException("HTTP/2 stream " + stream.id + " refused by GOAWAY, error code " + errorCode));
+            }
+        }
+        closeIfIdle();
+    }
+
+    private void complete(Http2Stream stream) {
+        if (!streams.remove(stream.id, stream)) {
+            return;
+        }
+        if (stream.timeout != null) {
+            stream.timeout.cancel(false);
+        }
+        Response response = Response.builder()
+                .status(stream.status)
+                .reason(getReasonPhrase(stream.status))
+                .headers(stream.headers)
+                .request(stream.request)
+                .body(stream.body.toByteArray())
+                .build();
+        stream.future.complete(response);
+        closeIfIdle();
+    }
+
+    private static String getReasonPhrase(int status) {
+        try {
+            return HttpStatus.valueOf(status).getReasonPhrase();
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    private void closeIfIdle() {
+        if (goAway && streams.isEmpty()) {
+            close(new IOException("HTTP/2 connection to " + authority + " closed by GOAWAY."));
+        }
+    }
+
+    @Override
+    public void close() {
+        close(new IOException("HTTP/2 connection to " + authority + " closed."));
+    }
+
+    private void close(IOException cause) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+        for (Http2Stream stream : new ArrayList<>(streams.values())) {
+            if (streams.remove(stream.id, stream)) {
+                stream.fail(cause);
+            }
+        }
+        windowLock.lock();
+        try {
+            windowAvailable.signalAll();
+        } finally {
+            windowLock.unlock();
+        }
+    }
+
+    private void writeSettings() throws IOException {
+        writeFrameHeader(12, TYPE_SETTINGS, 0, 0);
+        writeShort(SETTINGS_ENABLE_PUSH);
+        writeInt(0);
+        writeShort(SETTINGS_INITIAL_WINDOW_SIZE);
+        writeInt(LOCAL_WINDOW_SIZE);
+    }
+
+    private void writeHeaders(int streamId, byte[] block, boolean endStream) throws IOException {
+        int frameSize = maxFrameSize;
+        int length = Math.min(block.length, frameSize);
+        int flags = (endStream ? FLAG_END_STREAM : 0) | (length == block.length ? FLAG_END_HEADERS : 0);
+        writeFrameHeader(length, TYPE_HEADERS, flags, streamId);
+        out.write(block, 0, length);
+        for (int offset = length; offset < block.length; offset += length) {
+            length = Math.min(block.length - offset, frameSize);
+            writeFrameHeader(length, TYPE_CONTINUATION, offset + length == block.length ? FLAG_END_HEADERS : 0, streamId);
+            out.write(block, offset, length);
+        }
+    }
+
+    private void writeWindowUpdate(int streamId, int increment) throws IOException {
+        writeFrameHeader(4, TYPE_WINDOW_UPDATE, 0, streamId);
+        writeInt(increment);
+    }
+
+    private void writeFrameHeader(int length, int type, int flags, int streamId) throws IOException {
+        out.write(length >>> 16);
+        out.write(length >>> 8);
+        out.write(length);
+        out.write(type);
+        out.write(flags);
+        writeInt(streamId & 0x7FFFFFFF);
+    }
+
+    private void writeShort(int value) throws IOException {
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16)
+                | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+    }
+
+    private static class Http2Stream {
+        private final int id;
+        private final Request request;
+        private final CompletableFuture<Response> future = new CompletableFuture<>();
+        private final Map<String, Collection<String>> headers = new LinkedHashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private volatile ScheduledFuture<?> timeout;
+        private int status;
+        //windowLock保护
+        private long sendWindow;
+        //只在读线程上访问
+        private int unacknowledged;
+
+        Http2Stream(int id, Request request) {
+            this.id = id;
+            this.request = request;
+        }
+
+        void fail(Throwable cause) {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            future.completeExceptionally(cause);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.ppdai.framework.raptor.spring.client.http2;
+
+import com.ppdai.framework.raptor.common.RaptorConstants;
+import com.ppdai.framework.raptor.spring.client.feign.RaptorAsyncClient;
+import feign.Request;
+import feign.Response;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * h2c客户端,每个host:port只保持少量连接,请求以stream的形式复用连接.
+ * <p>
+ * 优先复用活跃stream最少的连接,只有在所有连接都达到服务端SETTINGS_MAX_CONCURRENT_STREAMS时才新建连接
+ *
+ * @author yinzuolong
+ */
+public class Http2RaptorClient implements RaptorAsyncClient, Closeable {
+
+    private static final String HTTP_SCHEME = "http";
+    private static final int DEFAULT_HTTP_PORT = 80;
+
+    private final int maxConnectionsPerRoute;
+    private final Set<String> neverIndexedHeaders;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private volatile boolean closed;
+
+    public Http2RaptorClient(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        //每次请求都不同的header不进入HPACK动态表,避免把有用的条目挤出去
+        this.neverIndexedHeaders = new HashSet<>(Arrays.asList("content-length", RaptorConstants.HEADER_REQUEST_ID));
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("raptor-h2c-timer-");
+        threadFactory.setDaemon(true);
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+        executor.setRemoveOnCancelPolicy(true);
+        this.timer = executor;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Request.Options options) {
+        try {
+            URI uri = URI.create(request.url());
+            if (!HTTP_SCHEME.equalsIgnoreCase(uri.getScheme())) {
+                throw new IllegalArgumentException("h2c only supports http url: " + request.url());
+            }
+            int port = uri.getPort() > 0 ? uri.getPort() : DEFAULT_HTTP_PORT;
+            return acquire(uri.getHost(), port, options.connectTimeoutMillis()).execute(request, options);
+        } catch (Exception e) {
+            CompletableFuture<Response> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    private Http2Connection acquire(String host, int port, int connectTimeout) throws IOException {
+        if (closed) {
+            throw new IOException("Http2RaptorClient is closed.");
+        }
+        String route = host + ":" + port;
+        Route routeEntry = routes.computeIfAbsent(route, k -> new Route());
+        //新建连接时会阻塞在socket connect上,使用ReentrantLock避免虚拟线程pin住载体线程
+        routeEntry.lock.lock();
+        try {
+            List<Http2Connection> list = routeEntry.connections;
+            list.removeIf(Http2Connection::isClosed);
+            Http2Connection best = null;
+            for (Http2Connection connection : list) {
+                if (connection.isAvailable() && (best == null || connection.getActiveStreams() < best.getActiveStreams())) {
+                    best = connection;
+                }
+            }
+            if (best != null) {
+                return best;
+            }
+            if (list.size() >= maxConnectionsPerRoute) {
+                throw new IOException("No available HTTP/2 stream for " + route + ", connections: " + list.size());
+            }
+            Http2Connection connection = new Http2Connection(host, port, connectTimeout, neverIndexedHeaders, timer);
+            list.add(connection);
+            return connection;
+        } finally {
+            routeEntry.lock.unlock();
+        }
+    }
+
+    /**
+     * @return 当前打开的连接数
+     */
+    public int getConnectionCount() {
+        int count = 0;
+        for (Route route : routes.values()) {
+            route.lock.lock();
+            try {
+                for (Http2Connection connection : route.connections) {
+                    if (!connection.isClosed()) {
+                        count++;
+                    }
+                }
+            } finally {
+                route.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Route route : routes.values()) {
+            route.lock.lock();
+            try {
+                route.connections.forEach(Http2Connection::close);
+                route.connections.clear();
+            } finally {
+                route.lock.unlock();
+            }
+        }
+        timer.shutdownNow();
+    }
+
+    /**
+     * 一个host:port上的连接
+     */
+    private static class Route {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<Http2Connection> connections = new ArrayList<>();
+    }
+}
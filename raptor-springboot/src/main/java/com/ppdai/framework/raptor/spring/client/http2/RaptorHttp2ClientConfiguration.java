@@ -0,0 +1,32 @@
+package com.ppdai.framework.raptor.spring.client.http2;
+
+import com.ppdai.framework.raptor.spring.client.httpclient.RaptorHttpClientProperties;
+import feign.Client;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * raptor.httpclient=h2c时使用HTTP/2(prior knowledge)传输,服务端需要开启raptor.server.http2.enabled
+ *
+ * @author yinzuolong
+ */
+@Configuration
+@EnableConfigurationProperties({RaptorHttpClientProperties.class})
+@ConditionalOnProperty(name = "raptor.httpclient", havingValue = "h2c")
+public class RaptorHttp2ClientConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public Http2RaptorClient createHttp2RaptorClient(RaptorHttpClientProperties httpClientProperties) {
+        return new Http2RaptorClient(httpClientProperties.getHttp2MaxConnectionsPerRoute());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public Client createRaptorFeignClient(Http2RaptorClient http2RaptorClient) {
+        return http2RaptorClient.toBlockingClient();
+    }
+}
@@ -0,0 +1,108 @@
+package com.ppdai.framework.raptor.spring.client.httpclient;
+
+import com.ppdai.framework.raptor.spring.client.feign.RaptorAsyncClient;
+import feign.Request;
+import feign.Response;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * 基于{@link HttpAsyncClient}的非阻塞客户端,请求在I/O线程上完成,不占用调用线程
+ *
+ * @author yinzuolong
+ */
+public class ApacheAsyncHttpClient implements RaptorAsyncClient {
+
+    private final HttpAsyncClient httpAsyncClient;
+
+    public ApacheAsyncHttpClient(HttpAsyncClient httpAsyncClient) {
+        this.httpAsyncClient = httpAsyncClient;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Request.Options options) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        Future<HttpResponse> httpFuture = httpAsyncClient.execute(toHttpUriRequest(request, options), new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse httpResponse) {
+                try {
+                    future.complete(toFeignResponse(httpResponse, request));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                future.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                future.completeExceptionally(new CancellationException("Request cancelled: " + request.url()));
+            }
+        });
+        //调用方取消时中止请求,释放连接
+        future.whenComplete((response, ex) -> {
+            if (future.isCancelled()) {
+                httpFuture.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    protected HttpUriRequest toHttpUriRequest(Request request, Request.Options options) {
+        RequestBuilder requestBuilder = RequestBuilder.create(request.method())
+                .setUri(request.url())
+                .setConfig(RequestConfig.custom()
+                        .setConnectTimeout(options.connectTimeoutMillis())
+                        .setSocketTimeout(options.readTimeoutMillis())
+                        .build());
+        for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+            //Content-Length由httpclient根据entity设置
+            if (HTTP.CONTENT_LEN.equalsIgnoreCase(header.getKey())) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                requestBuilder.addHeader(header.getKey(), value);
+            }
+        }
+        if (request.body() != null) {
+            requestBuilder.setEntity(new ByteArrayEntity(request.body()));
+        }
+        return requestBuilder.build();
+    }
+
+    protected Response toFeignResponse(HttpResponse httpResponse, Request request) throws IOException {
+        Map<String, Collection<String>> headers = new LinkedHashMap<>();
+        for (Header header : httpResponse.getAllHeaders()) {
+            headers.computeIfAbsent(header.getName(), k -> new ArrayList<>()).add(header.getValue());
+        }
+        HttpEntity entity = httpResponse.getEntity();
+        return Response.builder()
+                .status(httpResponse.getStatusLine().getStatusCode())
+                .reason(httpResponse.getStatusLine().getReasonPhrase())
+                .headers(headers)
+                .request(request)
+                .body(entity != null ? EntityUtils.toByteArray(entity) : null)
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.ppdai.framework.raptor.spring.client.httpclient;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NHttpClientConnectionManager;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * 创建基于NIO的连接池,所有连接由少量I/O线程复用
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+public class ApacheAsyncHttpClientConnectionManagerFactory {
+
+    public NHttpClientConnectionManager newConnectionManager(RaptorHttpClientProperties httpClientProperties) {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(httpClientProperties.getIoThreadCount())
+                .setConnectTimeout(httpClientProperties.getConnectionTimeout())
+                .setSoTimeout(httpClientProperties.getReadTimeout())
+                .setTcpNoDelay(true)
+                .build();
+        DefaultConnectingIOReactor ioReactor;
+        try {
+            ioReactor = new DefaultConnectingIOReactor(ioReactorConfig);
+        } catch (IOReactorException e) {
+            throw new IllegalStateException("Error creating IOReactor", e);
+        }
+
+        PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(
+                ioReactor, null, createRegistry(httpClientProperties.isDisableSslValidation()), null, null,
+                httpClientProperties.getTimeToLive(), httpClientProperties.getTimeToLiveUnit());
+        connectionManager.setMaxTotal(httpClientProperties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(httpClientProperties.getMaxConnectionsPerRoute());
+        return connectionManager;
+    }
+
+    protected Registry<SchemeIOSessionStrategy> createRegistry(boolean disableSslValidation) {
+        RegistryBuilder<SchemeIOSessionStrategy> registryBuilder = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                .register(ApacheHttpClientConnectionManagerFactory.HTTP_SCHEME, NoopIOSessionStrategy.INSTANCE);
+        if (disableSslValidation) {
+            try {
+                SSLContext sslContext = SSLContext.getInstance("SSL");
+                sslContext.init(null,
+                        new TrustManager[]{new ApacheHttpClientConnectionManagerFactory.DisabledValidationTrustManager()},
+                        new SecureRandom());
+                registryBuilder.register(ApacheHttpClientConnectionManagerFactory.HTTPS_SCHEME,
+                        new SSLIOSessionStrategy(sslContext, NoopHostnameVerifier.INSTANCE));
+            } catch (NoSuchAlgorithmException | KeyManagementException e) {
+                log.warn("Error creating SSLContext", e);
+            }
+        } else {
+            registryBuilder.register(ApacheHttpClientConnectionManagerFactory.HTTPS_SCHEME, SSLIOSessionStrategy.getDefaultStrategy());
+        }
+        return registryBuilder.build();
+    }
+}
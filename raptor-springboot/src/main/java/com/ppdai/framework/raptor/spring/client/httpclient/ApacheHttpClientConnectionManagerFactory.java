@@ -67,7 +67,7 @@ public class ApacheHttpClientConnectionManagerFactory {
         return connectionManager;
     }
 
-    class DisabledValidationTrustManager implements X509TrustManager {
+    static class DisabledValidationTrustManager implements X509TrustManager {
         @Override
         public void checkClientTrusted(X509Certificate[] x509Certificates, String s) throws CertificateException {
         }
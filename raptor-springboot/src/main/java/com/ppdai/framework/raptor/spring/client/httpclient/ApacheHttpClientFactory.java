@@ -24,6 +24,7 @@ public class ApacheHttpClientFactory {
         HttpRequestRetryHandler retryHandler = new DefaultHttpRequestRetryHandler(httpClientProperties.getRetryCount(),
                 httpClientProperties.isRequestSentRetryEnabled());
 
+        //压缩由RaptorMessageEncoder和响应解码按raptor.client配置处理,httpclient不自动发送Accept-Encoding和解压
         return HttpClientBuilder.create().disableContentCompression()
                 .disableCookieManagement()
                 .useSystemProperties()
@@ -0,0 +1,102 @@
+package com.ppdai.framework.raptor.spring.client.httpclient;
+
+import feign.Client;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.nio.conn.NHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * raptor.httpclient=async时使用HttpAsyncClient,同步和异步调用共用同一组I/O线程
+ *
+ * @author yinzuolong
+ */
+@Configuration
+@EnableConfigurationProperties({RaptorHttpClientProperties.class})
+@ConditionalOnClass(CloseableHttpAsyncClient.class)
+@ConditionalOnMissingBean(CloseableHttpAsyncClient.class)
+@ConditionalOnProperty(name = "raptor.httpclient", havingValue = "async")
+public class RaptorAsyncHttpClientConfiguration {
+
+    @Autowired
+    private RaptorHttpClientProperties httpClientProperties;
+
+    private ScheduledExecutorService connectionManagerSchedule;
+
+    private CloseableHttpAsyncClient httpAsyncClient;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ApacheAsyncHttpClientConnectionManagerFactory asyncConnectionManagerFactory() {
+        return new ApacheAsyncHttpClientConnectionManagerFactory();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(NHttpClientConnectionManager.class)
+    public NHttpClientConnectionManager asyncConnectionManager(
+            ApacheAsyncHttpClientConnectionManagerFactory connectionManagerFactory) {
+        final NHttpClientConnectionManager connectionManager = connectionManagerFactory.newConnectionManager(httpClientProperties);
+
+        CustomizableThreadFactory customizableThreadFactory = new CustomizableThreadFactory("RaptorAsyncHttpClient.connectionManager.schedule");
+        customizableThreadFactory.setDaemon(true);
+        connectionManagerSchedule = new ScheduledThreadPoolExecutor(1, customizableThreadFactory);
+        connectionManagerSchedule.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                connectionManager.closeExpiredConnections();
+            }
+        }, 30000, httpClientProperties.getConnectionTimerRepeat(), TimeUnit.MILLISECONDS);
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpAsyncClient httpAsyncClient(NHttpClientConnectionManager connectionManager) {
+        RequestConfig defaultRequestConfig = RequestConfig.custom()
+                .setConnectTimeout(httpClientProperties.getConnectionTimeout())
+                .setSocketTimeout(httpClientProperties.getReadTimeout())
+                .setRedirectsEnabled(httpClientProperties.isFollowRedirects())
+                .build();
+        this.httpAsyncClient = HttpAsyncClients.custom()
+                .disableCookieManagement()
+                .useSystemProperties()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(defaultRequestConfig)
+                .build();
+        this.httpAsyncClient.start();
+        return this.httpAsyncClient;
+    }
+
+    @Bean
+    public ApacheAsyncHttpClient createRaptorAsyncClient(CloseableHttpAsyncClient httpAsyncClient) {
+        return new ApacheAsyncHttpClient(httpAsyncClient);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public Client createRaptorFeignClient(ApacheAsyncHttpClient asyncHttpClient) {
+        return asyncHttpClient.toBlockingClient();
+    }
+
+    @PreDestroy
+    public void destroy() throws Exception {
+        if (connectionManagerSchedule != null) {
+            connectionManagerSchedule.shutdownNow();
+        }
+        if (httpAsyncClient != null) {
+            httpAsyncClient.close();
+        }
+    }
+}
@@ -21,6 +21,8 @@ public class RaptorHttpClientProperties {
     public static final int DEFAULT_CONNECTION_TIMER_REPEAT = 10000;
     public static final int DEFAULT_RETRY_COUNT = 0;
     public static final boolean DEFAULT_RETRY_ENABLE = false;
+    public static final int DEFAULT_IO_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+    public static final int DEFAULT_HTTP2_MAX_CONNECTIONS_PER_ROUTE = 4;
 
 
     private boolean disableSslValidation = DEFAULT_DISABLE_SSL_VALIDATION;
@@ -34,4 +36,12 @@ public class RaptorHttpClientProperties {
     private int connectionTimerRepeat = DEFAULT_CONNECTION_TIMER_REPEAT;
     private int retryCount = DEFAULT_RETRY_COUNT;
     private boolean requestSentRetryEnabled = DEFAULT_RETRY_ENABLE;
+    /**
+     * raptor.httpclient=async时I/O线程数
+     */
+    private int ioThreadCount = DEFAULT_IO_THREAD_COUNT;
+    /**
+     * raptor.httpclient=h2c时每个host:port最多的连接数
+     */
+    private int http2MaxConnectionsPerRoute = DEFAULT_HTTP2_MAX_CONNECTIONS_PER_ROUTE;
 }
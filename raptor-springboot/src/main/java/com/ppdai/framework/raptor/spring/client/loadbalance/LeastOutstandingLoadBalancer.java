@@ -0,0 +1,34 @@
+package com.ppdai.framework.raptor.spring.client.loadbalance;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 选择正在执行的请求最少的实例,请求数相同时从轮转的起点开始选第一个,避免总是选中同一个实例
+ *
+ * @author yinzuolong
+ */
+public class LeastOutstandingLoadBalancer implements RaptorLoadBalancer {
+
+    private final AtomicInteger index = new AtomicInteger();
+
+    @Override
+    public RaptorEndpoint choose(List<RaptorEndpoint> endpoints) {
+        int size = endpoints.size();
+        int start = (index.getAndIncrement() & Integer.MAX_VALUE) % size;
+        RaptorEndpoint chosen = null;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            RaptorEndpoint endpoint = endpoints.get((start + i) % size);
+            int inFlight = endpoint.getInFlight();
+            if (inFlight < min) {
+                min = inFlight;
+                chosen = endpoint;
+                if (inFlight == 0) {
+                    break;
+                }
+            }
+        }
+        return chosen;
+    }
+}
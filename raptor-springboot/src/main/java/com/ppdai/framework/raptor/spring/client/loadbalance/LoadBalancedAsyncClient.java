@@ -0,0 +1,62 @@
+package com.ppdai.framework.raptor.spring.client.loadbalance;
+
+import com.ppdai.framework.raptor.spring.client.feign.RaptorAsyncClient;
+import feign.Request;
+import feign.Response;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步请求的负载均衡,与{@link LoadBalancedClient}共用同一组实例的统计
+ *
+ * @author yinzuolong
+ */
+@Getter
+public class LoadBalancedAsyncClient implements RaptorAsyncClient {
+
+    private final RaptorAsyncClient delegate;
+    private final RaptorEndpointGroup endpointGroup;
+
+    public LoadBalancedAsyncClient(RaptorAsyncClient delegate, RaptorEndpointGroup endpointGroup) {
+        this.delegate = delegate;
+        this.endpointGroup = endpointGroup;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Request.Options options) {
+        RaptorEndpoint endpoint = endpointGroup.choose();
+        if (endpoint == null) {
+            return noEndpoint();
+        }
+        return execute(request, options, endpoint);
+    }
+
+    /**
+     * 向指定实例发送请求.返回delegate的future,取消时delegate可以中止请求;
+     * 被取消的请求只记录延迟,不算作实例失败
+     */
+    protected CompletableFuture<Response> execute(Request request, Request.Options options, RaptorEndpoint endpoint) {
+        Request target = endpointGroup.rewrite(request, endpoint);
+        endpoint.onStart();
+        long start = System.nanoTime();
+        CompletableFuture<Response> future;
+        try {
+            future = delegate.execute(target, options);
+        } catch (RuntimeException e) {
+            endpoint.onComplete(System.nanoTime() - start, true);
+            throw e;
+        }
+        future.whenComplete((response, ex) -> endpoint.onComplete(System.nanoTime() - start,
+                ex != null && !(ex instanceof CancellationException)));
+        return future;
+    }
+
+    protected CompletableFuture<Response> noEndpoint() {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        future.completeExceptionally(new IOException("No available endpoint for " + endpointGroup.getBaseUrl()));
+        return future;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ppdai.framework.raptor.spring.client.loadbalance;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+
+/**
+ * 每个请求按负载均衡选择实例,记录实例正在执行的请求数和收到响应的延迟
+ *
+ * @author yinzuolong
+ */
+public class LoadBalancedClient implements Client {
+
+    private final Client delegate;
+    private final RaptorEndpointGroup endpointGroup;
+
+    public LoadBalancedClient(Client delegate, RaptorEndpointGroup endpointGroup) {
+        this.delegate = delegate;
+        this.endpointGroup = endpointGroup;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        RaptorEndpoint endpoint = endpointGroup.choose();
+        if (endpoint == null) {
+            throw new IOException("No available endpoint for " + endpointGroup.getBaseUrl());
+        }
+        Request target = endpointGroup.rewrite(request, endpoint);
+        endpoint.onStart();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Response response = delegate.execute(target, options);
+            failed = false;
+            return response;
+        } finally {
+            endpoint.onComplete(System.nanoTime() - start, failed);
+        }
+    }
+}
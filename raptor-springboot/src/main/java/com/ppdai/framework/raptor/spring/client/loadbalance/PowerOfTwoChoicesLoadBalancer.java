@@ -0,0 +1,35 @@
+package com.ppdai.framework.raptor.spring.client.loadbalance;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 随机取两个实例,选择负载较小的一个。负载为(EWMA延迟 + 1) * (正在执行的请求数 + 1),
+ * 慢实例和积压请求的实例都会少分到请求;只比较两个实例,实例很多时也不需要扫描全部
+ *
+ * @author yinzuolong
+ */
+public class PowerOfTwoChoicesLoadBalancer implements RaptorLoadBalancer {
+
+    @Override
+    public RaptorEndpoint choose(List<RaptorEndpoint> endpoints) {
+        int size = endpoints.size();
+        if (size == 1) {
+            return endpoints.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        long now = System.nanoTime();
+        RaptorEndpoint a = endpoints.get(first);
+        RaptorEndpoint b = endpoints.get(second);
+        return load(a, now) <= load(b, now) ? a : b;
+    }
+
+    static double load(RaptorEndpoint endpoint, long now) {
+        return (endpoint.getLatency(now) + 1.0) * (endpoint.getInFlight() + 1);
+    }
+}
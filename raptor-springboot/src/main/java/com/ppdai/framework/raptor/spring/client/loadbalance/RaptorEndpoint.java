@@ -0,0 +1,75 @@
+package com.ppdai.framework.raptor.spring.client.loadbalance;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一个服务实例,记录正在执行的请求数和peak EWMA延迟。
+ * <p>
+ * 延迟变大时立即取新值,变小时按两次记录的时间间隔衰减;读取时按距离上次记录的时间衰减,
+ * 长时间没有被选中的实例延迟逐渐变小,会重新被尝试
+ *
+ * @author yinzuolong
+ */
+public class RaptorEndpoint {
+
+    static final long DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+    /**
+     * 请求失败(连接失败、超时)时至少按该延迟记录,避免快速失败的实例被当成最快的实例
+     */
+    static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Getter
+    private final String url;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile long latency;
+    private volatile long lastUpdate;
+
+    public RaptorEndpoint(String url) {
+        this.url = url;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public void onStart() {
+        inFlight.incrementAndGet();
+    }
+
+    public void onComplete(long latencyNanos, boolean failed) {
+        inFlight.decrementAndGet();
+        update(failed ? Math.max(latencyNanos, FAILURE_PENALTY_NANOS) : latencyNanos, System.nanoTime());
+    }
+
+    /**
+     * 选择实例时读取,不加锁,与并发的更新之间读到新旧值都可以
+     *
+     * @return 衰减后的延迟纳秒数,没有记录时为0
+     */
+    public long getLatency(long now) {
+        long latency = this.latency;
+        return latency == 0 ? 0 : (long) (latency * weight(now - lastUpdate));
+    }
+
+    synchronized void update(long latencyNanos, long now) {
+        if (latencyNanos > latency) {
+            latency = latencyNanos;
+        } else {
+            double weight = weight(now - lastUpdate);
+            latency = (long) (latency * weight + latencyNanos * (1 - weight));
+        }
+        lastUpdate = now;
+    }
+
+    private static double weight(long elapsed) {
+        return elapsed <= 0 ? 1 : Math.exp(-(double) elapsed / DECAY_NANOS);
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+}
@@ -0,0 +1,123 @@
+package com.ppdai.framework.raptor.spring.client.loadbalance;
+
+import feign.Request;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个客户端的全部服务实例。
+ * feign的target使用baseUrl,发送请求前把url前缀替换成负载均衡选中的实例;
+ * 实例列表可以通过{@link #update(List)}更新,不需要重新创建feign代理
+ *
+ * @author yinzuolong
+ */
+@Getter
+public class RaptorEndpointGroup {
+
+    private final String baseUrl;
+    private volatile List<RaptorEndpoint> endpoints;
+    private final RaptorLoadBalancer loadBalancer;
+
+    /**
+     * 使用第一个实例的url作为baseUrl
+     */
+    public RaptorEndpointGroup(List<String> urls, RaptorLoadBalancer loadBalancer) {
+        this(firstUrl(urls), urls, loadBalancer);
+    }
+
+    /**
+     * @param baseUrl feign target的url,可以不是实例的url
+     * @param urls    可以为空,服务发现得到实例后再更新
+     */
+    public RaptorEndpointGroup(String baseUrl, List<String> urls, RaptorLoadBalancer loadBalancer) {
+        this.baseUrl = trimTrailingSlash(baseUrl);
+        this.loadBalancer = loadBalancer;
+        this.endpoints = createEndpoints(urls, Collections.emptyList());
+    }
+
+    /**
+     * @return 没有实例时为null
+     */
+    public RaptorEndpoint choose() {
+        List<RaptorEndpoint> endpoints = this.endpoints;
+        return endpoints.isEmpty() ? null : loadBalancer.choose(endpoints);
+    }
+
+    /**
+     * 选择exclude以外负载最小的实例,用于对冲请求;负载的计算同{@link PowerOfTwoChoicesLoadBalancer},
+     * 不经过loadBalancer,不影响轮询的顺序
+     *
+     * @return 没有其他实例时为null
+     */
+    public RaptorEndpoint chooseOther(RaptorEndpoint exclude) {
+        long now = System.nanoTime();
+        RaptorEndpoint chosen = null;
+        double minLoad = Double.MAX_VALUE;
+        for (RaptorEndpoint endpoint : this.endpoints) {
+            if (endpoint == exclude) {
+                continue;
+            }
+            double load = PowerOfTwoChoicesLoadBalancer.load(endpoint, now);
+            if (load < minLoad) {
+                chosen = endpoint;
+                minLoad = load;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * 更新实例列表,url不变的实例保留正在执行的请求数和延迟
+     */
+    public synchronized void update(List<String> urls) {
+        this.endpoints = createEndpoints(urls, this.endpoints);
+    }
+
+    /**
+     * 把请求url中的baseUrl替换成endpoint的url,不是baseUrl开头的请求不变
+     */
+    public Request rewrite(Request request, RaptorEndpoint endpoint) {
+        String url = request.url();
+        if (endpoint.getUrl().equals(baseUrl) || !url.startsWith(baseUrl)) {
+            return request;
+        }
+        return Request.create(request.method(), endpoint.getUrl() + url.substring(baseUrl.length()),
+                request.headers(), request.body(), request.charset());
+    }
+
+    private static List<RaptorEndpoint> createEndpoints(List<String> urls, List<RaptorEndpoint> exists) {
+        Map<String, RaptorEndpoint> existMap = new HashMap<>();
+        for (RaptorEndpoint endpoint : exists) {
+            existMap.put(endpoint.getUrl(), endpoint);
+        }
+        List<RaptorEndpoint> endpoints = new ArrayList<>();
+        for (String url : urls) {
+            String trimmed = trimTrailingSlash(url);
+            RaptorEndpoint endpoint = existMap.remove(trimmed);
+            endpoints.add(endpoint != null ? endpoint : new RaptorEndpoint(trimmed));
+        }
+        return Collections.unmodifiableList(endpoints);
+    }
+
+    private static String firstUrl(List<String> urls) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("Endpoint urls is empty.");
+        }
+        return urls.get(0);
+    }
+
+    private static String trimTrailingSlash(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    @Override
+    public String toString() {
+        return baseUrl + endpoints;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ppdai.framework.raptor.spring.client.loadbalance;
+
+import java.util.List;
+
+/**
+ * 从一组服务实例中选择一个发送请求
+ *
+ * @author yinzuolong
+ */
+public interface RaptorLoadBalancer {
+
+    String ROUND_ROBIN = "round-robin";
+    String LEAST_OUTSTANDING = "least-outstanding";
+    String POWER_OF_TWO_CHOICES = "p2c";
+
+    /**
+     * @param endpoints 不为空
+     */
+    RaptorEndpoint choose(List<RaptorEndpoint> endpoints);
+
+    /**
+     * @param name 为空时使用round-robin
+     */
+    static RaptorLoadBalancer forName(String name) {
+        if (name == null || ROUND_ROBIN.equalsIgnoreCase(name)) {
+            return new RoundRobinLoadBalancer();
+        }
+        if (LEAST_OUTSTANDING.equalsIgnoreCase(name)) {
+            return new LeastOutstandingLoadBalancer();
+        }
+        if (POWER_OF_TWO_CHOICES.equalsIgnoreCase(name)) {
+            return new PowerOfTwoChoicesLoadBalancer();
+        }
+        throw new IllegalArgumentException("Unsupported load balancer " + name
+                + ", supported: " + ROUND_ROBIN + ", " + LEAST_OUTSTANDING + ", " + POWER_OF_TWO_CHOICES);
+    }
+}
@@ -0,0 +1,19 @@
+package com.ppdai.framework.raptor.spring.client.loadbalance;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 依次选择,不考虑实例的负载
+ *
+ * @author yinzuolong
+ */
+public class RoundRobinLoadBalancer implements RaptorLoadBalancer {
+
+    private final AtomicInteger index = new AtomicInteger();
+
+    @Override
+    public RaptorEndpoint choose(List<RaptorEndpoint> endpoints) {
+        return endpoints.get((index.getAndIncrement() & Integer.MAX_VALUE) % endpoints.size());
+    }
+}
@@ -0,0 +1,147 @@
+package com.ppdai.framework.raptor.spring.compress;
+
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 一个客户端或者服务的压缩配置:按优先顺序的压缩格式和最小压缩字节数。
+ * 小body压缩后几乎不变小,CPU开销却不少,低于minSize时不压缩。
+ * <p>
+ * Accept-Encoding的协商结果按header原文缓存,缓存数量超过{@link #MAX_CACHE_SIZE}后不再缓存新的取值
+ *
+ * @author yinzuolong
+ */
+@Getter
+public class RaptorCompressionPolicy {
+
+    public static final int DEFAULT_MIN_SIZE = 2048;
+    public static final RaptorCompressionPolicy NONE = new RaptorCompressionPolicy(Collections.emptyList(), DEFAULT_MIN_SIZE);
+
+    private static final int MAX_CACHE_SIZE = 256;
+    private static final Integer NOT_ACCEPTABLE = -1;
+
+    private final List<RaptorCompressor> compressors;
+    private final int minSize;
+    /**
+     * 客户端发送的Accept-Encoding
+     */
+    private final String acceptEncoding;
+    private final ConcurrentMap<String, Integer> negotiations = new ConcurrentHashMap<>();
+
+    public RaptorCompressionPolicy(List<RaptorCompressor> compressors, int minSize) {
+        this.compressors = compressors;
+        this.minSize = minSize;
+        StringBuilder acceptEncoding = new StringBuilder();
+        for (RaptorCompressor compressor : compressors) {
+            if (acceptEncoding.length() > 0) {
+                acceptEncoding.append(", ");
+            }
+            acceptEncoding.append(compressor.getEncoding());
+        }
+        this.acceptEncoding = acceptEncoding.toString();
+    }
+
+    /**
+     * @param encodings 为空时不压缩
+     * @throws IllegalArgumentException 有不支持的格式
+     */
+    public static RaptorCompressionPolicy of(List<String> encodings, int minSize) {
+        if (encodings == null || encodings.isEmpty()) {
+            return NONE;
+        }
+        return new RaptorCompressionPolicy(RaptorCompressors.getCompressors(encodings), minSize);
+    }
+
+    public boolean isEnabled() {
+        return !compressors.isEmpty();
+    }
+
+    /**
+     * body需要压缩时返回第一个格式,用于客户端压缩请求body
+     */
+    public RaptorCompressor getCompressor(int size) {
+        return isEnabled() && size >= minSize ? compressors.get(0) : null;
+    }
+
+    /**
+     * 服务端解压请求body时只接受配置了的格式
+     *
+     * @return 没有配置该格式时返回null
+     */
+    public RaptorCompressor getDecompressor(String contentEncoding) {
+        for (RaptorCompressor compressor : compressors) {
+            if (compressor.getEncoding().equalsIgnoreCase(contentEncoding.trim())) {
+                return compressor;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按配置的优先顺序选择对方Accept-Encoding接受的格式,q=0表示不接受
+     *
+     * @return 没有可用的格式时返回null
+     */
+    public RaptorCompressor negotiate(String acceptEncoding) {
+        if (!isEnabled() || !StringUtils.hasText(acceptEncoding)) {
+            return null;
+        }
+        Integer index = negotiations.get(acceptEncoding);
+        if (index == null) {
+            index = doNegotiate(acceptEncoding);
+            if (negotiations.size() < MAX_CACHE_SIZE) {
+                negotiations.putIfAbsent(acceptEncoding, index);
+            }
+        }
+        return index >= 0 ? compressors.get(index) : null;
+    }
+
+    private Integer doNegotiate(String acceptEncoding) {
+        Float wildcard = null;
+        float[] qualities = new float[compressors.size()];
+        boolean[] present = new boolean[compressors.size()];
+        for (String token : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+            String[] parts = StringUtils.tokenizeToStringArray(token, ";");
+            if (parts.length == 0) {
+                continue;
+            }
+            float quality = parseQuality(parts);
+            if ("*".equals(parts[0])) {
+                wildcard = quality;
+                continue;
+            }
+            for (int i = 0; i < compressors.size(); i++) {
+                if (compressors.get(i).getEncoding().equalsIgnoreCase(parts[0])) {
+                    qualities[i] = quality;
+                    present[i] = true;
+                }
+            }
+        }
+        for (int i = 0; i < compressors.size(); i++) {
+            float quality = present[i] ? qualities[i] : (wildcard != null ? wildcard : 0);
+            if (quality > 0) {
+                return i;
+            }
+        }
+        return NOT_ACCEPTABLE;
+    }
+
+    private static float parseQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i];
+            if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                try {
+                    return Float.parseFloat(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ppdai.framework.raptor.spring.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * body的压缩格式,名称与Content-Encoding/Accept-Encoding中的取值相同
+ *
+ * @author yinzuolong
+ */
+public interface RaptorCompressor {
+
+    String getEncoding();
+
+    /**
+     * 返回的流关闭时写出剩余数据并关闭out
+     */
+    OutputStream compress(OutputStream out) throws IOException;
+
+    InputStream decompress(InputStream in) throws IOException;
+}
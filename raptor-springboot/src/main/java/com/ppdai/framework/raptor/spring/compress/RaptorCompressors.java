@@ -0,0 +1,80 @@
+package com.ppdai.framework.raptor.spring.compress;
+
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 支持的压缩格式:gzip总是可用,x-snappy-framed需要classpath中有org.iq80.snappy:snappy
+ *
+ * @author yinzuolong
+ */
+public class RaptorCompressors {
+
+    public static final String IDENTITY = "identity";
+
+    private static final Map<String, RaptorCompressor> COMPRESSORS;
+
+    static {
+        Map<String, RaptorCompressor> compressors = new LinkedHashMap<>();
+        compressors.put(GzipCompressor.ENCODING, new GzipCompressor());
+        if (ClassUtils.isPresent("org.iq80.snappy.SnappyFramedOutputStream", RaptorCompressors.class.getClassLoader())) {
+            compressors.put(SnappyCompressor.ENCODING, new SnappyCompressor());
+        }
+        COMPRESSORS = Collections.unmodifiableMap(compressors);
+    }
+
+    /**
+     * @return 不支持时返回null
+     */
+    public static RaptorCompressor get(String encoding) {
+        return encoding != null ? COMPRESSORS.get(encoding.trim().toLowerCase()) : null;
+    }
+
+    /**
+     * @throws IllegalArgumentException 有不支持的格式
+     */
+    public static List<RaptorCompressor> getCompressors(List<String> encodings) {
+        List<RaptorCompressor> compressors = new ArrayList<>();
+        for (String encoding : encodings) {
+            RaptorCompressor compressor = get(encoding);
+            if (compressor == null) {
+                throw new IllegalArgumentException("Unsupported compression encoding " + encoding + ", supported: " + COMPRESSORS.keySet());
+            }
+            if (!compressors.contains(compressor)) {
+                compressors.add(compressor);
+            }
+        }
+        return compressors;
+    }
+
+    /**
+     * 没有Content-Encoding或者为identity,body没有压缩
+     */
+    public static boolean isIdentity(String contentEncoding) {
+        return !StringUtils.hasText(contentEncoding) || IDENTITY.equalsIgnoreCase(contentEncoding.trim());
+    }
+
+    /**
+     * 按Content-Encoding解压body
+     *
+     * @throws IOException 不支持的Content-Encoding
+     */
+    public static InputStream decompress(InputStream in, String contentEncoding) throws IOException {
+        if (isIdentity(contentEncoding)) {
+            return in;
+        }
+        RaptorCompressor compressor = get(contentEncoding);
+        if (compressor == null) {
+            throw new IOException("Unsupported Content-Encoding: " + contentEncoding);
+        }
+        return compressor.decompress(in);
+    }
+}
@@ -0,0 +1,34 @@
+package com.ppdai.framework.raptor.spring.compress;
+
+import org.iq80.snappy.SnappyFramedInputStream;
+import org.iq80.snappy.SnappyFramedOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * snappy framing格式,压缩率低于gzip,CPU开销小很多,适合机房之间的大响应。
+ * 需要依赖org.iq80.snappy:snappy
+ *
+ * @author yinzuolong
+ */
+public class SnappyCompressor implements RaptorCompressor {
+
+    public static final String ENCODING = "x-snappy-framed";
+
+    @Override
+    public String getEncoding() {
+        return ENCODING;
+    }
+
+    @Override
+    public OutputStream compress(OutputStream out) throws IOException {
+        return new SnappyFramedOutputStream(out);
+    }
+
+    @Override
+    public InputStream decompress(InputStream in) throws IOException {
+        return new SnappyFramedInputStream(in, true);
+    }
+}
@@ -0,0 +1,20 @@
+package com.ppdai.framework.raptor.spring.context;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 在Spring线程池中传递RaptorContext,raptor.context.propagation.enabled=false时关闭
+ *
+ * @author yinzuolong
+ */
+@Configuration
+@ConditionalOnProperty(name = "raptor.context.propagation.enabled", havingValue = "true", matchIfMissing = true)
+public class RaptorContextPropagationConfiguration {
+
+    @Bean
+    public static RaptorTaskExecutorPostProcessor raptorTaskExecutorPostProcessor() {
+        return new RaptorTaskExecutorPostProcessor();
+    }
+}
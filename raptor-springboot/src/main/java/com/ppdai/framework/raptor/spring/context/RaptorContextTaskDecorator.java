@@ -0,0 +1,29 @@
+package com.ppdai.framework.raptor.spring.context;
+
+import com.ppdai.framework.raptor.concurrent.RaptorContextExecutors;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 把提交线程的{@link com.ppdai.framework.raptor.rpc.RaptorContext}传递到Spring线程池执行的任务中,
+ * 原来已经设置的TaskDecorator在之后执行
+ *
+ * @author yinzuolong
+ */
+public class RaptorContextTaskDecorator implements TaskDecorator {
+
+    private final TaskDecorator delegate;
+
+    public RaptorContextTaskDecorator() {
+        this(null);
+    }
+
+    public RaptorContextTaskDecorator(TaskDecorator delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        Runnable task = delegate != null ? delegate.decorate(runnable) : runnable;
+        return RaptorContextExecutors.wrap(task);
+    }
+}
@@ -0,0 +1,55 @@
+package com.ppdai.framework.raptor.spring.context;
+
+import com.ppdai.framework.raptor.spring.utils.FieldUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * 为Spring的TaskExecutor设置{@link RaptorContextTaskDecorator},@Async方法和提交到这些线程池的任务都能拿到提交时的RaptorContext
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+public class RaptorTaskExecutorPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        //ThreadPoolTaskExecutor在初始化时使用TaskDecorator,需要在初始化之前设置
+        if (bean instanceof ThreadPoolTaskExecutor) {
+            TaskDecorator decorator = getTaskDecorator(ThreadPoolTaskExecutor.class, bean);
+            if (!(decorator instanceof RaptorContextTaskDecorator)) {
+                ((ThreadPoolTaskExecutor) bean).setTaskDecorator(new RaptorContextTaskDecorator(decorator));
+                log.debug("Propagate RaptorContext in task executor [{}].", beanName);
+            }
+        } else if (bean instanceof SimpleAsyncTaskExecutor) {
+            TaskDecorator decorator = getTaskDecorator(SimpleAsyncTaskExecutor.class, bean);
+            if (!(decorator instanceof RaptorContextTaskDecorator)) {
+                ((SimpleAsyncTaskExecutor) bean).setTaskDecorator(new RaptorContextTaskDecorator(decorator));
+                log.debug("Propagate RaptorContext in task executor [{}].", beanName);
+            }
+        } else if (bean instanceof ConcurrentTaskExecutor) {
+            Object adapter = FieldUtils.getPrivateField(ConcurrentTaskExecutor.class, bean, "adaptedExecutor");
+            TaskDecorator decorator = adapter != null ? getTaskDecorator(TaskExecutorAdapter.class, adapter) : null;
+            if (!(decorator instanceof RaptorContextTaskDecorator)) {
+                ((ConcurrentTaskExecutor) bean).setTaskDecorator(new RaptorContextTaskDecorator(decorator));
+                log.debug("Propagate RaptorContext in task executor [{}].", beanName);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    private TaskDecorator getTaskDecorator(Class<?> clazz, Object target) {
+        return (TaskDecorator) FieldUtils.getPrivateField(clazz, target, "taskDecorator");
+    }
+}
@@ -0,0 +1,102 @@
+package com.ppdai.framework.raptor.spring.converter;
+
+import com.ppdai.framework.raptor.spring.utils.RaptorConverterUtils;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按Content-Type/Accept选择converter,协商结果按消息类型和header原文缓存,请求中不再重复解析MediaType。
+ * header的取值来自客户端,缓存数量超过{@link #MAX_CACHE_SIZE}后不再缓存新的取值
+ *
+ * @author yinzuolong
+ */
+public class RaptorConverterSelector {
+
+    private static final int MAX_CACHE_SIZE = 256;
+
+    private final List<RaptorMessageConverter> converters;
+    private final ConcurrentMap<Class<?>, ConcurrentMap<String, Selection>> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ConcurrentMap<String, Selection>> writers = new ConcurrentHashMap<>();
+
+    public RaptorConverterSelector(List<RaptorMessageConverter> converters) {
+        this.converters = converters;
+    }
+
+    /**
+     * @param contentType 请求的Content-Type,为空时按application/octet-stream处理
+     * @return 可以读取type的converter,没有时返回null
+     */
+    public Selection selectReader(String contentType, Class<?> type) {
+        ConcurrentMap<String, Selection> selections = getSelections(readers, type);
+        String key = contentType != null ? contentType : "";
+        Selection selection = selections.get(key);
+        if (selection == null) {
+            MediaType mediaType = StringUtils.hasText(contentType) ? MediaType.parseMediaType(contentType) : MediaType.APPLICATION_OCTET_STREAM;
+            RaptorMessageConverter converter = RaptorConverterUtils.findConverter(converters, mediaType);
+            if (converter != null && !converter.canRead(type, mediaType)) {
+                converter = null;
+            }
+            selection = new Selection(converter, mediaType);
+            cache(selections, key, selection);
+        }
+        return selection.getConverter() != null ? selection : null;
+    }
+
+    /**
+     * @param accept 请求的Accept,为空时接受任意类型
+     * @return 可以写出type的converter和具体的mediaType,没有时返回null
+     */
+    public Selection selectWriter(String accept, Class<?> type) {
+        ConcurrentMap<String, Selection> selections = getSelections(writers, type);
+        String key = accept != null ? accept : "";
+        Selection selection = selections.get(key);
+        if (selection == null) {
+            List<MediaType> acceptableMediaTypes = StringUtils.hasText(accept)
+                    ? MediaType.parseMediaTypes(accept) : Collections.singletonList(MediaType.ALL);
+            MediaType.sortBySpecificityAndQuality(acceptableMediaTypes);
+            MediaType mediaType = RaptorConverterUtils.findWritableMediaType(converters, acceptableMediaTypes, type);
+            selection = new Selection(mediaType != null ? RaptorConverterUtils.findConverter(converters, mediaType) : null, mediaType);
+            cache(selections, key, selection);
+        }
+        return selection.getConverter() != null ? selection : null;
+    }
+
+    public List<RaptorMessageConverter> getConverters() {
+        return converters;
+    }
+
+    private static ConcurrentMap<String, Selection> getSelections(ConcurrentMap<Class<?>, ConcurrentMap<String, Selection>> cache, Class<?> type) {
+        ConcurrentMap<String, Selection> selections = cache.get(type);
+        if (selections == null) {
+            selections = new ConcurrentHashMap<>();
+            ConcurrentMap<String, Selection> exist = cache.putIfAbsent(type, selections);
+            if (exist != null) {
+                selections = exist;
+            }
+        }
+        return selections;
+    }
+
+    private static void cache(ConcurrentMap<String, Selection> cache, String key, Selection selection) {
+        if (cache.size() < MAX_CACHE_SIZE) {
+            cache.putIfAbsent(key, selection);
+        }
+    }
+
+    @Getter
+    public static class Selection {
+        private final RaptorMessageConverter converter;
+        private final MediaType mediaType;
+
+        Selection(RaptorMessageConverter converter, MediaType mediaType) {
+            this.converter = converter;
+            this.mediaType = mediaType;
+        }
+    }
+}
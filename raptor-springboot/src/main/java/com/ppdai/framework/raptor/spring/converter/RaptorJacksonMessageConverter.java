@@ -1,18 +1,117 @@
 package com.ppdai.framework.raptor.spring.converter;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ppdai.framework.raptor.serialize.CodecRegistry;
+import com.ppdai.framework.raptor.serialize.JsonCodec;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
 
 /**
+ * 消息类有代码生成的{@link JsonCodec}时直接使用生成的编解码器,不经过jackson的反射bean序列化
+ *
  * @author yinzuolong
  */
 public class RaptorJacksonMessageConverter extends MappingJackson2HttpMessageConverter implements RaptorMessageConverter {
 
+    @Getter
+    @Setter
+    private boolean useGeneratedCodec = true;
+
+    /**
+     * ObjectMapper是否为默认的映射配置,设置ObjectMapper时计算一次;之后再修改ObjectMapper的配置需要重新设置
+     */
+    private boolean defaultMapping;
+
     public RaptorJacksonMessageConverter() {
         super();
+        this.defaultMapping = isDefaultMapping(getObjectMapper());
     }
 
     public RaptorJacksonMessageConverter(ObjectMapper objectMapper) {
         super(objectMapper);
+        this.defaultMapping = isDefaultMapping(objectMapper);
+    }
+
+    @Override
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        super.setObjectMapper(objectMapper);
+        this.defaultMapping = isDefaultMapping(objectMapper);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+        JsonCodec<Object> codec = type instanceof Class ? getJsonCodec((Class<?>) type) : null;
+        if (codec == null) {
+            return super.read(type, contextClass, inputMessage);
+        }
+        try (JsonParser parser = getObjectMapper().getFactory().createParser(inputMessage.getBody())) {
+            parser.nextToken();
+            return codec.read(parser);
+        } catch (IOException | RuntimeException ex) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        JsonCodec<Object> codec = object instanceof MappingJacksonValue ? null : getJsonCodec(object.getClass());
+        if (codec == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        JsonEncoding encoding = getJsonEncoding(outputMessage.getHeaders().getContentType());
+        JsonGenerator generator = getObjectMapper().getFactory().createGenerator(outputMessage.getBody(), encoding);
+        try {
+            if (getObjectMapper().isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+                generator.useDefaultPrettyPrinter();
+            }
+            writePrefix(generator, object);
+            codec.write(object, generator);
+            writeSuffix(generator, object);
+            generator.flush();
+        } catch (IOException | RuntimeException ex) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + ex.getMessage(), ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private JsonCodec<Object> getJsonCodec(Class<?> clazz) {
+        if (!useGeneratedCodec || !defaultMapping) {
+            return null;
+        }
+        return CodecRegistry.getCodec(clazz, JsonCodec.class);
+    }
+
+    /**
+     * 生成的编解码器按jackson默认配置输出,ObjectMapper修改了命名、null处理或枚举格式时仍使用jackson
+     */
+    private static boolean isDefaultMapping(ObjectMapper objectMapper) {
+        SerializationConfig config = objectMapper.getSerializationConfig();
+        JsonInclude.Include inclusion = config.getDefaultPropertyInclusion().getValueInclusion();
+        return config.getPropertyNamingStrategy() == null
+                && (inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS)
+                && objectMapper.mixInCount() == 0
+                && !config.isEnabled(SerializationFeature.WRITE_ENUMS_USING_TO_STRING)
+                && !config.isEnabled(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                && !objectMapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                && !objectMapper.isEnabled(DeserializationFeature.READ_ENUMS_USING_TO_STRING);
     }
 }
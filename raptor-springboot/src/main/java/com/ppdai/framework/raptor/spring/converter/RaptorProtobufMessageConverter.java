@@ -0,0 +1,61 @@
+package com.ppdai.framework.raptor.spring.converter;
+
+import com.ppdai.framework.raptor.annotation.RaptorMessage;
+import com.ppdai.framework.raptor.serialize.ProtobufReader;
+import com.ppdai.framework.raptor.serialize.ProtobufSerializer;
+import com.ppdai.framework.raptor.serialize.ProtobufWriter;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 使用protobuf二进制格式读写RaptorMessage,Content-Type为application/x-protobuf
+ *
+ * @author yinzuolong
+ */
+public class RaptorProtobufMessageConverter extends AbstractHttpMessageConverter<Object> implements RaptorMessageConverter {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public RaptorProtobufMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return AnnotationUtils.findAnnotation(clazz, RaptorMessage.class) != null;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+        //直接从流中解析,内存占用与body大小无关;已知长度的小消息按实际长度分配缓冲区
+        long contentLength = inputMessage.getHeaders().getContentLength();
+        int bufferSize = contentLength >= 0 && contentLength < ProtobufReader.DEFAULT_BUFFER_SIZE
+                ? (int) contentLength : ProtobufReader.DEFAULT_BUFFER_SIZE;
+        try {
+            return ProtobufSerializer.deserialize(new ProtobufReader(inputMessage.getBody(), bufferSize), clazz);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            throw new HttpMessageNotReadableException("Could not read protobuf message: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object message, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        ProtobufWriter writer = new ProtobufWriter();
+        try {
+            ProtobufSerializer.serialize(message, writer);
+        } catch (RuntimeException e) {
+            throw new HttpMessageNotWritableException("Could not write protobuf message: " + e.getMessage(), e);
+        }
+        writer.writeTo(outputMessage.getBody());
+    }
+}
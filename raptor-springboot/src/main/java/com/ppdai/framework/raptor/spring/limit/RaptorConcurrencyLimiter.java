@@ -0,0 +1,120 @@
+package com.ppdai.framework.raptor.spring.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 自适应的并发限制,按梯度算法根据RTT调整允许同时执行的请求数。
+ * <p>
+ * 长期RTT是所有样本的指数平均,代表没有排队时的延迟;每个样本的RTT与长期RTT比较:
+ * 样本RTT没有明显变大时limit按sqrt(limit)增长,变大说明开始排队,limit按比例减小(最多减半)。
+ * 请求被下游拒绝或超时时按固定比例减小。limit只在正在执行的请求数接近limit时增长,
+ * 请求量小时不会把limit推到很大,流量突增时仍然受限制
+ *
+ * @author yinzuolong
+ */
+public class RaptorConcurrencyLimiter {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 10;
+    public static final int DEFAULT_MAX_LIMIT = 200;
+
+    /**
+     * 样本RTT在长期RTT的该倍数以内时不认为在排队
+     */
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int WARMUP_SAMPLES = 10;
+    private static final double LONG_RTT_FACTOR = 2.0 / (600 + 1);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    private double longRtt;
+    private int samples;
+
+    public RaptorConcurrencyLimiter() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT);
+    }
+
+    public RaptorConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limit range [" + minLimit + ", " + maxLimit + "].");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * @return false时超过限制,不要执行请求
+     */
+    public boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 请求完成后调用,与{@link #tryAcquire()}成对
+     *
+     * @param rttNanos 请求执行的纳秒数
+     * @param dropped  请求被下游拒绝或超时
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        update(rttNanos, current, dropped);
+    }
+
+    synchronized void update(long rttNanos, int inFlight, boolean dropped) {
+        double limit = this.limit;
+        double newLimit;
+        if (dropped) {
+            newLimit = limit * BACKOFF_RATIO;
+        } else {
+            if (rttNanos <= 0) {
+                return;
+            }
+            if (samples < WARMUP_SAMPLES) {
+                longRtt = (longRtt * samples + rttNanos) / (samples + 1);
+                samples++;
+            } else {
+                longRtt += (rttNanos - longRtt) * LONG_RTT_FACTOR;
+            }
+            //负载下降后长期RTT偏大,较快向当前RTT回落,避免之后的排队不被发现
+            if (longRtt > rttNanos * 2) {
+                longRtt *= 0.95;
+            }
+            //请求数远小于limit时没有压力,不调整
+            if (inFlight < limit / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / rttNanos));
+            newLimit = limit * gradient + Math.sqrt(limit);
+            newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        }
+        this.limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public String toString() {
+        return "limit=" + getLimit() + ", inFlight=" + getInFlight();
+    }
+}
@@ -0,0 +1,105 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import com.ppdai.framework.raptor.common.RaptorConstants;
+import com.ppdai.framework.raptor.rpc.RaptorContext;
+import com.ppdai.framework.raptor.spring.batch.RaptorBatchCodec;
+import com.ppdai.framework.raptor.spring.batch.RaptorBatchRequest;
+import com.ppdai.framework.raptor.spring.batch.RaptorBatchResponse;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量请求入口,把每个调用作为独立的请求交给DispatcherServlet处理,
+ * 拦截器、参数解析和异常处理与单独调用时一致,响应按请求顺序返回.
+ * <p>
+ * 调用只能访问{@link RaptorHandlerMapping}路由表中的raptor方法,其他路径(包括批量入口本身)返回404;
+ * 调用直接交给DispatcherServlet,不经过servlet Filter
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+public class RaptorBatchRequestHandler implements HttpRequestHandler {
+
+    private static final int DEFAULT_MAX_CALLS = 1000;
+
+    private final ObjectProvider<DispatcherServlet> dispatcherServlet;
+    private final ObjectProvider<RaptorHandlerMapping> raptorHandlerMapping;
+
+    /**
+     * 一个批量请求最多包含的调用数
+     */
+    @Getter
+    @Setter
+    private int maxCalls = DEFAULT_MAX_CALLS;
+
+    public RaptorBatchRequestHandler(ObjectProvider<DispatcherServlet> dispatcherServlet,
+                                     ObjectProvider<RaptorHandlerMapping> raptorHandlerMapping) {
+        this.dispatcherServlet = dispatcherServlet;
+        this.raptorHandlerMapping = raptorHandlerMapping;
+    }
+
+    @Override
+    public void handleRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!"POST".equals(request.getMethod())) {
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+        List<RaptorBatchRequest> batchRequests;
+        try {
+            batchRequests = RaptorBatchCodec.readRequests(request.getInputStream(), maxCalls);
+        } catch (IOException e) {
+            log.warn("Read raptor batch request error.", e);
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        DispatcherServlet servlet = dispatcherServlet.getObject();
+        //关闭路由表时不允许任何调用
+        RaptorHandlerMapping handlerMapping = raptorHandlerMapping.getIfAvailable();
+        List<RaptorBatchResponse> batchResponses = new ArrayList<>(batchRequests.size());
+        for (RaptorBatchRequest batchRequest : batchRequests) {
+            batchResponses.add(dispatch(servlet, handlerMapping, request, response, batchRequest));
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(RaptorBatchCodec.MEDIA_TYPE.toString());
+        RaptorBatchCodec.writeResponses(batchResponses, response.getOutputStream());
+    }
+
+    private RaptorBatchResponse dispatch(DispatcherServlet servlet, RaptorHandlerMapping handlerMapping, HttpServletRequest request,
+                                         HttpServletResponse response, RaptorBatchRequest batchRequest) {
+        BatchServletRequest subRequest = new BatchServletRequest(request, batchRequest);
+        BatchServletResponse subResponse = new BatchServletResponse(response);
+        if (!isAllowed(handlerMapping, subRequest)) {
+            log.warn("Raptor batch call {} {} is not a raptor method, rejected.", batchRequest.getMethod(), batchRequest.getUri());
+            subResponse.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return subResponse.toBatchResponse();
+        }
+        //每个调用使用独立的RaptorContext,避免调用之间传递request/response attachments
+        try (RaptorContext ignored = RaptorContext.open()) {
+            servlet.service(subRequest, subResponse);
+        } catch (Exception e) {
+            log.error("Raptor batch call {} {} error.", batchRequest.getMethod(), batchRequest.getUri(), e);
+            if (!subResponse.isCommitted()) {
+                subResponse.reset();
+            }
+            subResponse.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+        return subResponse.toBatchResponse();
+    }
+
+    private boolean isAllowed(RaptorHandlerMapping handlerMapping, HttpServletRequest subRequest) {
+        if (handlerMapping == null || subRequest.getServletPath().startsWith(RaptorConstants.BATCH_PATH)) {
+            return false;
+        }
+        return handlerMapping.isRaptorRequest(subRequest);
+    }
+}
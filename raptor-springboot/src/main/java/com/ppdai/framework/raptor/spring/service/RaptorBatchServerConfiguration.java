@@ -0,0 +1,40 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import com.ppdai.framework.raptor.common.RaptorConstants;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+
+import java.util.Collections;
+
+/**
+ * 服务端批量请求入口{@link RaptorConstants#BATCH_PATH},raptor.server.batch.enabled=true时开启.
+ * 批量请求中的调用只能访问raptor路由表中的方法,且不经过servlet Filter,只有外层的批量请求经过Filter;
+ * 依赖Filter做鉴权、限流的服务需要在Filter中同样处理批量请求,或者不开启
+ *
+ * @author yinzuolong
+ */
+@Configuration
+@ConditionalOnClass(DispatcherServlet.class)
+@ConditionalOnProperty(name = "raptor.server.batch.enabled", havingValue = "true")
+public class RaptorBatchServerConfiguration {
+
+    @Bean
+    public RaptorBatchRequestHandler raptorBatchRequestHandler(ObjectProvider<DispatcherServlet> dispatcherServlet,
+                                                               ObjectProvider<RaptorHandlerMapping> raptorHandlerMapping) {
+        return new RaptorBatchRequestHandler(dispatcherServlet, raptorHandlerMapping);
+    }
+
+    @Bean
+    public SimpleUrlHandlerMapping raptorBatchHandlerMapping(RaptorBatchRequestHandler raptorBatchRequestHandler) {
+        SimpleUrlHandlerMapping handlerMapping = new SimpleUrlHandlerMapping();
+        handlerMapping.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        handlerMapping.setUrlMap(Collections.singletonMap(RaptorConstants.BATCH_PATH, raptorBatchRequestHandler));
+        return handlerMapping;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import com.ppdai.framework.raptor.exception.RaptorLimitExceededException;
+import com.ppdai.framework.raptor.rpc.RaptorContext;
+import com.ppdai.framework.raptor.rpc.RaptorRequest;
+import com.ppdai.framework.raptor.rpc.RaptorResponse;
+import com.ppdai.framework.raptor.rpc.RaptorServiceInterceptor;
+import com.ppdai.framework.raptor.spring.limit.RaptorConcurrencyLimiter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按服务方法(接口全名#方法名)限制同时执行的请求数,limit根据请求的执行时间自适应调整。
+ * 排在所有拦截器之前,超过限制时在读取参数和执行服务方法之前抛出{@link RaptorLimitExceededException},
+ * 由RaptorHandlerExceptionResolver返回带x-raptor-error的错误,被拒绝的请求不调用afterCompletion
+ *
+ * @author yinzuolong
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RaptorConcurrencyLimitInterceptor implements RaptorServiceInterceptor {
+
+    private static final String ATTRIBUTE_PERMIT = RaptorConcurrencyLimitInterceptor.class.getName() + ".PERMIT";
+
+    private final RaptorServerLimitProperties properties;
+    private final ConcurrentMap<String, RaptorConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public RaptorConcurrencyLimitInterceptor(RaptorServerLimitProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void preHandle(RaptorRequest request, RaptorResponse response) throws Exception {
+        String key = request.getInterfaceName() + "#" + request.getMethodName();
+        RaptorConcurrencyLimiter limiter = getLimiter(key);
+        if (!limiter.tryAcquire()) {
+            throw new RaptorLimitExceededException("Raptor service " + key + " is overloaded, concurrency limit " + limiter.getLimit() + ".");
+        }
+        RaptorContext.getContext().putAttribute(ATTRIBUTE_PERMIT, new Permit(limiter, System.nanoTime()));
+    }
+
+    @Override
+    public void postHandle(RaptorRequest request, RaptorResponse response) throws Exception {
+    }
+
+    @Override
+    public void afterCompletion(RaptorRequest request, RaptorResponse response) throws Exception {
+        Permit permit = (Permit) RaptorContext.getContext().getAttributes().remove(ATTRIBUTE_PERMIT);
+        if (permit != null) {
+            permit.limiter.release(System.nanoTime() - permit.start, false);
+        }
+    }
+
+    public RaptorConcurrencyLimiter getLimiter(String key) {
+        RaptorConcurrencyLimiter limiter = limiters.get(key);
+        if (limiter == null) {
+            limiter = limiters.computeIfAbsent(key, k -> new RaptorConcurrencyLimiter(
+                    properties.getInitialLimit(), properties.getMinLimit(), properties.getMaxLimit()));
+        }
+        return limiter;
+    }
+
+    public Map<String, RaptorConcurrencyLimiter> getLimiters() {
+        return Collections.unmodifiableMap(limiters);
+    }
+
+    private static class Permit {
+        private final RaptorConcurrencyLimiter limiter;
+        private final long start;
+
+        private Permit(RaptorConcurrencyLimiter limiter, long start) {
+            this.limiter = limiter;
+            this.start = start;
+        }
+    }
+}
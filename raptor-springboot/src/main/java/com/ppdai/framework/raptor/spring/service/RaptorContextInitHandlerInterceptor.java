@@ -11,8 +11,10 @@ import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
 
+import javax.servlet.DispatcherType;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
@@ -23,10 +25,30 @@ import java.util.Map;
 public class RaptorContextInitHandlerInterceptor extends HandlerInterceptorAdapter {
     public static final String NAME_HTTP_URI = "raptor-service-http-uri";
     public static final String NAME_HTTP_METHOD = "raptor-service-http-method";
+    private static final String NAME_RAPTOR_CONTEXT = RaptorContextInitHandlerInterceptor.class.getName() + ".CONTEXT";
 
+    /**
+     * 每个请求在独立的RaptorContext中处理,afterCompletion时清空并恢复线程上原来的context
+     */
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        initRaptorContext(request, response, handler);
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            //异步方法完成后重新分派,继续使用第一次分派时的context
+            RaptorContext context = (RaptorContext) request.getAttribute(NAME_RAPTOR_CONTEXT);
+            if (context != null) {
+                context.attach();
+                return super.preHandle(request, response, handler);
+            }
+        }
+        RaptorContext context = RaptorContext.open();
+        request.setAttribute(NAME_RAPTOR_CONTEXT, context);
+        try {
+            initRaptorContext(request, response, handler);
+        } catch (RuntimeException e) {
+            request.removeAttribute(NAME_RAPTOR_CONTEXT);
+            context.close();
+            throw e;
+        }
         return super.preHandle(request, response, handler);
     }
 
@@ -38,6 +60,22 @@ public class RaptorContextInitHandlerInterceptor extends HandlerInterceptorAdapt
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
         super.afterCompletion(request, response, handler, ex);
+        RaptorContext context = (RaptorContext) request.getAttribute(NAME_RAPTOR_CONTEXT);
+        if (context != null) {
+            request.removeAttribute(NAME_RAPTOR_CONTEXT);
+            context.close();
+        }
+    }
+
+    /**
+     * 异步处理时context随请求转到其他线程,当前线程恢复原来的context,重新分派时在preHandle中恢复
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        RaptorContext context = (RaptorContext) request.getAttribute(NAME_RAPTOR_CONTEXT);
+        if (context != null) {
+            context.detach();
+        }
     }
 
     protected void initRaptorContext(HttpServletRequest request, HttpServletResponse response, Object handler) {
@@ -65,7 +103,10 @@ public class RaptorContextInitHandlerInterceptor extends HandlerInterceptorAdapt
         RaptorRequest raptorRequest = new RaptorRequest();
         if (handler instanceof HandlerMethod) {
             HandlerMethod handlerMethod = (HandlerMethod) handler;
-            String method = handlerMethod.getMethod().getName();
+            Class<?> beanType = ClassUtils.getUserClass(handlerMethod.getBeanType());
+            //异步实现的方法名使用对应的同步方法名
+            Method syncMethod = RaptorInterfaceUtils.findSyncMethod(beanType, handlerMethod.getMethod());
+            String method = syncMethod != null ? syncMethod.getName() : handlerMethod.getMethod().getName();
             String interfaceName = RaptorInterfaceUtils.getInterfaceName(ClassUtils.getUserClass(handlerMethod.getBean()), handlerMethod.getMethod());
             raptorRequest.setMethodName(method);
             raptorRequest.setInterfaceName(interfaceName);
@@ -3,6 +3,7 @@ package com.ppdai.framework.raptor.spring.service;
 import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.util.ClassUtils;
@@ -11,6 +12,7 @@ import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 将RaptorHandlerMethodProcessor设置到RequestMappingHandlerAdapter中，优先处理参数和返回值
@@ -21,7 +23,13 @@ import java.util.ArrayList;
 public class RaptorHandlerAdapterPostProcessor implements BeanPostProcessor {
 
     @Autowired
-    private RaptorMessageConverter raptorMessageConverter;
+    private List<RaptorMessageConverter> raptorMessageConverters;
+
+    /**
+     * 在RequestMappingHandlerAdapter初始化后才获取,保证配置已经绑定
+     */
+    @Autowired
+    private ObjectProvider<RaptorServerCompressionProperties> compressionProperties;
 
     @Override
     public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
@@ -32,7 +40,11 @@ public class RaptorHandlerAdapterPostProcessor implements BeanPostProcessor {
     public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
         if (RequestMappingHandlerAdapter.class.isAssignableFrom(ClassUtils.getUserClass(bean))) {
             RequestMappingHandlerAdapter adapter = (RequestMappingHandlerAdapter) bean;
-            RaptorHandlerMethodProcessor raptorHandlerMethodProcessor = new RaptorHandlerMethodProcessor(raptorMessageConverter);
+            RaptorHandlerMethodProcessor raptorHandlerMethodProcessor = new RaptorHandlerMethodProcessor(raptorMessageConverters);
+            RaptorServerCompressionProperties properties = compressionProperties.getIfAvailable();
+            if (properties != null) {
+                raptorHandlerMethodProcessor.setCompressionProperties(properties);
+            }
 
             ArrayList<HandlerMethodArgumentResolver> argumentResolvers = new ArrayList<>(adapter.getArgumentResolvers());
             argumentResolvers.add(0, raptorHandlerMethodProcessor);
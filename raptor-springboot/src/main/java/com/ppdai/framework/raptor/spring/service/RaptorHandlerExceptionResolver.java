@@ -8,9 +8,13 @@ import com.ppdai.framework.raptor.spring.utils.RaptorHandlerUtils;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.ModelAndView;
 
@@ -18,6 +22,9 @@ import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * @author yinzuolong
@@ -27,22 +34,36 @@ public class RaptorHandlerExceptionResolver implements HandlerExceptionResolver
 
     @Setter
     @Getter
-    private RaptorMessageConverter raptorMessageConverter;
+    private List<RaptorMessageConverter> raptorMessageConverters;
 
     public RaptorHandlerExceptionResolver(RaptorMessageConverter raptorMessageConverter) {
-        this.raptorMessageConverter = raptorMessageConverter;
+        this(Collections.singletonList(raptorMessageConverter));
+    }
+
+    public RaptorHandlerExceptionResolver(List<RaptorMessageConverter> raptorMessageConverters) {
+        this.raptorMessageConverters = raptorMessageConverters;
     }
 
     @Override
     public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
         if (RaptorHandlerUtils.isRaptorService(handler)) {
+            RaptorServerStreamObserver streamObserver = (RaptorServerStreamObserver) request.getAttribute(RaptorServerStreamObserver.ATTRIBUTE_NAME);
+            if (streamObserver != null && streamObserver.isStarted()) {
+                //流式响应已经提交,错误作为最后一帧发送
+                try {
+                    streamObserver.writeError(createErrorMessage(ex));
+                } catch (UncheckedIOException e) {
+                    log.warn("Can't write error frame to raptor stream.", e);
+                }
+                return new ModelAndView();
+            }
             response.setStatus(500);
             response.addHeader(RaptorConstants.HEADER_ERROR, "true");
             ServletServerHttpResponse outputMessage = new ServletServerHttpResponse(response);
             ErrorMessage errorMessage = createErrorMessage(ex);
             try {
-                raptorMessageConverter.write(errorMessage, getMediaType(), outputMessage);
-            } catch (IOException e) {
+                writeErrorMessage(request, errorMessage, outputMessage);
+            } catch (IOException | InvalidMediaTypeException e) {
                 log.error("Can't convert error message.", e);
                 processConvertError(response, ex);
             }
@@ -51,14 +72,46 @@ public class RaptorHandlerExceptionResolver implements HandlerExceptionResolver
         return null;
     }
 
+    /**
+     * 按请求的Accept选择错误信息的格式,没有匹配时使用默认converter
+     */
+    protected void writeErrorMessage(HttpServletRequest request, ErrorMessage errorMessage, HttpOutputMessage outputMessage) throws IOException {
+        for (MediaType acceptable : getAcceptableMediaTypes(request)) {
+            for (RaptorMessageConverter converter : raptorMessageConverters) {
+                for (MediaType mediaType : converter.getSupportedMediaTypes()) {
+                    if (mediaType.isConcrete() && acceptable.includes(mediaType) && converter.canWrite(ErrorMessage.class, mediaType)) {
+                        converter.write(errorMessage, mediaType, outputMessage);
+                        return;
+                    }
+                }
+            }
+        }
+        raptorMessageConverters.get(0).write(errorMessage, getMediaType(), outputMessage);
+    }
+
     protected MediaType getMediaType() {
+        RaptorMessageConverter raptorMessageConverter = raptorMessageConverters.get(0);
         if (!CollectionUtils.isEmpty(raptorMessageConverter.getSupportedMediaTypes())) {
             return raptorMessageConverter.getSupportedMediaTypes().get(0);
         }
         return new MediaType("application", "*+json");
     }
 
+    protected List<MediaType> getAcceptableMediaTypes(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (!StringUtils.hasText(accept)) {
+            return Collections.emptyList();
+        }
+        List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        return mediaTypes;
+    }
+
     protected ErrorMessage createErrorMessage(Exception ex) {
+        return toErrorMessage(ex);
+    }
+
+    public static ErrorMessage toErrorMessage(Throwable ex) {
         ErrorMessage errorMessage = new ErrorMessage();
         errorMessage.setMessage(ex.getMessage());
         if (ex instanceof RaptorException) {
@@ -8,6 +8,7 @@ import com.ppdai.framework.raptor.spring.utils.RaptorHandlerUtils;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
 
+import javax.servlet.DispatcherType;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -22,9 +23,12 @@ public class RaptorHandlerInterceptorAdapter extends HandlerInterceptorAdapter {
         this.raptorServiceInterceptor = raptorServiceInterceptor;
     }
 
+    /**
+     * 异步方法完成后重新分派时不再调用preHandle,postHandle和afterCompletion在重新分派时调用
+     */
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        if (RaptorHandlerUtils.isRaptorService(handler)) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC && RaptorHandlerUtils.isRaptorService(handler)) {
             raptorServiceInterceptor.preHandle(RaptorContext.getContext().getRequest(), RaptorContext.getContext().getResponse());
         }
         return true;
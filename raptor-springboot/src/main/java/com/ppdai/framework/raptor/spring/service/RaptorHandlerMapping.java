@@ -0,0 +1,163 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import com.ppdai.framework.raptor.spring.utils.RaptorInterfaceUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.AbstractHandlerMapping;
+import org.springframework.web.servlet.mvc.condition.RequestMethodsRequestCondition;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * raptor服务的路径都是固定路径,启动时从RequestMappingHandlerMapping中取出raptor接口的HandlerMethod,
+ * 按路径和http方法建立精确匹配的路由表,排在RequestMappingHandlerMapping之前,不再逐个匹配所有的RequestMappingInfo。
+ * <p>
+ * 以下情况不进入路由表,仍由RequestMappingHandlerMapping处理:
+ * <ul>
+ * <li>路径中包含通配符或路径变量</li>
+ * <li>没有指定http方法,或指定了params、headers、consumes、produces等条件</li>
+ * <li>跨域请求</li>
+ * </ul>
+ * 拦截器与RequestMappingHandlerMapping使用同一组
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+public class RaptorHandlerMapping extends AbstractHandlerMapping {
+
+    private final RequestMappingHandlerMapping delegate;
+
+    /**
+     * path -> http method -> HandlerMethod
+     */
+    private Map<String, Map<String, HandlerMethod>> routes = Collections.emptyMap();
+
+    public RaptorHandlerMapping(RequestMappingHandlerMapping delegate) {
+        this.delegate = delegate;
+        setUrlPathHelper(delegate.getUrlPathHelper());
+    }
+
+    @Override
+    protected void initApplicationContext() throws BeansException {
+        setInterceptors(getDelegateInterceptors().toArray());
+        super.initApplicationContext();
+        this.routes = buildRoutes();
+        log.info("Raptor handler mapping initialized, {} paths.", routes.size());
+    }
+
+    /**
+     * MappedInterceptor已经包含在delegate的拦截器中,不再重复查找
+     */
+    @Override
+    protected void detectMappedInterceptors(List<HandlerInterceptor> mappedInterceptors) {
+    }
+
+    @Override
+    protected Object getHandlerInternal(HttpServletRequest request) throws Exception {
+        //跨域请求需要按HandlerMethod的跨域配置处理
+        if (CorsUtils.isCorsRequest(request)) {
+            return null;
+        }
+        String lookupPath = getUrlPathHelper().getLookupPathForRequest(request);
+        HandlerMethod handlerMethod = lookup(lookupPath, request.getMethod());
+        if (handlerMethod == null) {
+            return null;
+        }
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, lookupPath);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, lookupPath);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Collections.emptyMap());
+        return handlerMethod.getBean() instanceof String ? handlerMethod.createWithResolvedBean() : handlerMethod;
+    }
+
+    /**
+     * 请求是否对应路由表中的raptor方法,不考虑跨域
+     */
+    public boolean isRaptorRequest(HttpServletRequest request) {
+        return lookup(getUrlPathHelper().getLookupPathForRequest(request), request.getMethod()) != null;
+    }
+
+    private HandlerMethod lookup(String lookupPath, String method) {
+        Map<String, HandlerMethod> methods = routes.get(lookupPath);
+        return methods != null ? methods.get(method) : null;
+    }
+
+    public Map<String, Map<String, HandlerMethod>> getRoutes() {
+        return Collections.unmodifiableMap(routes);
+    }
+
+    private Map<String, Map<String, HandlerMethod>> buildRoutes() {
+        Map<String, Map<String, HandlerMethod>> routes = new HashMap<>();
+        PathMatcher pathMatcher = delegate.getPathMatcher();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : delegate.getHandlerMethods().entrySet()) {
+            RequestMappingInfo info = entry.getKey();
+            HandlerMethod handlerMethod = entry.getValue();
+            if (!isRaptorHandlerMethod(handlerMethod) || !isExactMapping(info)) {
+                continue;
+            }
+            handlerMethod = resolveSingleton(handlerMethod);
+            for (String pattern : info.getPatternsCondition().getPatterns()) {
+                if (pathMatcher.isPattern(pattern)) {
+                    continue;
+                }
+                Map<String, HandlerMethod> methods = routes.computeIfAbsent(pattern, k -> new HashMap<>());
+                for (Enum<?> requestMethod : info.getMethodsCondition().getMethods()) {
+                    methods.put(requestMethod.name(), handlerMethod);
+                }
+            }
+        }
+        return routes;
+    }
+
+    private boolean isRaptorHandlerMethod(HandlerMethod handlerMethod) {
+        Class<?> beanType = ClassUtils.getUserClass(handlerMethod.getBeanType());
+        return !RaptorInterfaceUtils.findRaptorInterfaces(beanType).isEmpty();
+    }
+
+    /**
+     * 只有路径和http方法两个条件的映射才能精确匹配
+     */
+    private boolean isExactMapping(RequestMappingInfo info) {
+        RequestMethodsRequestCondition methodsCondition = info.getMethodsCondition();
+        return !methodsCondition.isEmpty()
+                && info.getParamsCondition().isEmpty()
+                && info.getHeadersCondition().isEmpty()
+                && info.getConsumesCondition().isEmpty()
+                && info.getProducesCondition().isEmpty()
+                && info.getCustomCondition() == null;
+    }
+
+    /**
+     * 单例bean启动时解析,请求时不再从容器中获取
+     */
+    private HandlerMethod resolveSingleton(HandlerMethod handlerMethod) {
+        Object bean = handlerMethod.getBean();
+        if (bean instanceof String && getApplicationContext().isSingleton((String) bean)) {
+            return handlerMethod.createWithResolvedBean();
+        }
+        return handlerMethod;
+    }
+
+    /**
+     * 复制delegate的拦截器(包括WebMvcConfigurer中注册的和容器中的MappedInterceptor),保证raptor请求经过的拦截器不变
+     */
+    @SuppressWarnings("unchecked")
+    private List<Object> getDelegateInterceptors() {
+        Field field = ReflectionUtils.findField(AbstractHandlerMapping.class, "adaptedInterceptors");
+        ReflectionUtils.makeAccessible(field);
+        return (List<Object>) ReflectionUtils.getField(field, delegate);
+    }
+}
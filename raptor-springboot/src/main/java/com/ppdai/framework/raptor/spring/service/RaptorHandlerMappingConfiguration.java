@@ -0,0 +1,27 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * raptor服务的精确匹配路由表,排在batch入口之后、RequestMappingHandlerMapping之前,
+ * raptor.server.route-table.enabled=false时关闭
+ *
+ * @author yinzuolong
+ */
+@Configuration
+@ConditionalOnWebApplication
+@ConditionalOnProperty(name = "raptor.server.route-table.enabled", havingValue = "true", matchIfMissing = true)
+public class RaptorHandlerMappingConfiguration {
+
+    @Bean
+    public RaptorHandlerMapping raptorHandlerMapping(RequestMappingHandlerMapping requestMappingHandlerMapping) {
+        RaptorHandlerMapping handlerMapping = new RaptorHandlerMapping(requestMappingHandlerMapping);
+        handlerMapping.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return handlerMapping;
+    }
+}
@@ -1,5 +1,7 @@
 package com.ppdai.framework.raptor.spring.service;
 
+import com.ppdai.framework.raptor.spring.utils.RaptorInterfaceUtils;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.core.MethodParameter;
@@ -10,11 +12,15 @@ import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandl
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * 后置处理器，解决springMVC接口方法参数的注解无法被继承的问题。
+ * <p>
+ * 服务实现覆盖了{@link com.ppdai.framework.raptor.annotation.RaptorAsync}方法时,同步方法的路径改为调用异步方法,
+ * 返回的CompletableFuture完成前不占用容器线程
  *
  * @author yinzuolong
  */
@@ -28,6 +34,7 @@ public class RaptorHandlerMappingPostProcessor implements BeanPostProcessor {
     public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
         if (RequestMappingHandlerMapping.class.isAssignableFrom(ClassUtils.getUserClass(bean))) {
             RequestMappingHandlerMapping mapping = (RequestMappingHandlerMapping) bean;
+            registerAsyncMethods(mapping);
             Map<RequestMappingInfo, HandlerMethod> maps = mapping.getHandlerMethods();
             for (HandlerMethod handlerMethod : maps.values()) {
                 MethodParameter[] parameters = handlerMethod.getMethodParameters();
@@ -61,6 +68,26 @@ public class RaptorHandlerMappingPostProcessor implements BeanPostProcessor {
         return bean;
     }
 
+    private void registerAsyncMethods(RequestMappingHandlerMapping mapping) {
+        //getHandlerMethods返回的是注册表的视图,复制后再修改注册表
+        Map<RequestMappingInfo, HandlerMethod> handlerMethods = new LinkedHashMap<>(mapping.getHandlerMethods());
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMethods.entrySet()) {
+            HandlerMethod handlerMethod = entry.getValue();
+            Class<?> beanType = ClassUtils.getUserClass(handlerMethod.getBeanType());
+            if (RaptorInterfaceUtils.findRaptorInterfaces(beanType).isEmpty()) {
+                continue;
+            }
+            Method asyncMethod = RaptorInterfaceUtils.findAsyncMethod(beanType, handlerMethod.getMethod());
+            //只有实现类覆盖了接口的默认异步方法时才使用异步方法
+            if (asyncMethod == null || asyncMethod.getDeclaringClass().isInterface()) {
+                continue;
+            }
+            mapping.unregisterMapping(entry.getKey());
+            mapping.registerMapping(entry.getKey(), handlerMethod.getBean(),
+                    AopUtils.selectInvocableMethod(asyncMethod, handlerMethod.getBeanType()));
+        }
+    }
+
     /**
      * 找到方法实现的接口方法
      * @param method
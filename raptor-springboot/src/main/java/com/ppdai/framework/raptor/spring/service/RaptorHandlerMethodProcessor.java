@@ -1,97 +1,507 @@
 package com.ppdai.framework.raptor.spring.service;
 
-import com.ppdai.framework.raptor.annotation.RaptorMessage;
+import com.ppdai.framework.raptor.annotation.RaptorAsync;
+import com.ppdai.framework.raptor.rpc.RaptorStreamObserver;
+import com.ppdai.framework.raptor.spring.buffer.MaxBodySizeInputStream;
+import com.ppdai.framework.raptor.spring.buffer.MessageBufferPool;
+import com.ppdai.framework.raptor.spring.buffer.RecyclableBufferOutputStream;
+import com.ppdai.framework.raptor.spring.compress.RaptorCompressionPolicy;
+import com.ppdai.framework.raptor.spring.compress.RaptorCompressor;
+import com.ppdai.framework.raptor.spring.compress.RaptorCompressors;
+import com.ppdai.framework.raptor.spring.converter.RaptorConverterSelector;
 import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
-import org.springframework.beans.BeanUtils;
+import com.ppdai.framework.raptor.spring.utils.RaptorConverterUtils;
+import com.ppdai.framework.raptor.spring.utils.RaptorInterfaceUtils;
+import com.ppdai.framework.raptor.spring.utils.RaptorMessageMetadata;
+import lombok.Getter;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationUtils;
-import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.http.server.ServletServerHttpResponse;
-import org.springframework.web.bind.ServletRequestDataBinder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.method.annotation.ModelFactory;
+import org.springframework.web.method.support.AsyncHandlerMethodReturnValueHandler;
 import org.springframework.web.method.support.ModelAndViewContainer;
 import org.springframework.web.servlet.mvc.method.annotation.AbstractMessageConverterMethodProcessor;
 
-import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 
 /**
+ * 读取raptor消息参数、写出raptor消息返回值。
+ * <p>
+ * 每个参数和返回值的处理方式(消息类型、构造器、GET绑定方式、是否异步)在第一次使用时计算并缓存,
+ * converter的协商结果按Content-Type/Accept缓存,请求中只剩下编解码的开销。
+ * <p>
+ * 开启压缩时请求body按Content-Encoding解压并限制解压后的大小,响应按Accept-Encoding协商压缩格式,达到最小字节数才压缩
+ *
  * @author yinzuolong
  */
-public class RaptorHandlerMethodProcessor extends AbstractMessageConverterMethodProcessor {
+public class RaptorHandlerMethodProcessor extends AbstractMessageConverterMethodProcessor implements AsyncHandlerMethodReturnValueHandler {
+
+    private static final MessageBufferPool BUFFER_POOL = new MessageBufferPool();
+    private static final MessageBufferPool COMPRESSED_BUFFER_POOL = new MessageBufferPool();
 
     private ByteArrayBase64PropertyEditor byteArrayBase64PropertyEditor = new ByteArrayBase64PropertyEditor();
+    private List<RaptorMessageConverter> raptorMessageConverters;
+    private RaptorConverterSelector converterSelector;
+
+    private final ConcurrentMap<MethodParameter, ParameterPlan> parameterPlans = new ConcurrentHashMap<>(256);
+    /**
+     * 异步方法第一次分发时返回值类型是CompletionStage,异步结果重新分发时是结果的类型,按方法和类型分别缓存
+     */
+    private final ConcurrentMap<Method, ConcurrentMap<Class<?>, ReturnTypePlan>> returnTypePlans = new ConcurrentHashMap<>(256);
+
+    private RaptorCompressionPolicy compressionPolicy = RaptorCompressionPolicy.NONE;
+    private Map<String, RaptorCompressionPolicy> serviceCompressionPolicies = Collections.emptyMap();
+    private long maxRequestSize = RaptorServerCompressionProperties.DEFAULT_MAX_REQUEST_SIZE;
 
     public RaptorHandlerMethodProcessor(RaptorMessageConverter converter) {
-        super(Collections.singletonList(converter));
+        super(Collections.<HttpMessageConverter<?>>singletonList(converter));
+        this.raptorMessageConverters = Collections.singletonList(converter);
+        this.converterSelector = new RaptorConverterSelector(raptorMessageConverters);
+    }
+
+    /**
+     * 按请求的Content-Type选择converter读取参数,按Accept选择converter写返回值
+     */
+    @Autowired
+    public RaptorHandlerMethodProcessor(List<RaptorMessageConverter> converters) {
+        super(new ArrayList<HttpMessageConverter<?>>(converters));
+        this.raptorMessageConverters = converters;
+        this.converterSelector = new RaptorConverterSelector(converters);
+    }
+
+    /**
+     * 配置中不支持的压缩格式在启动时报错
+     */
+    @Autowired(required = false)
+    public void setCompressionProperties(RaptorServerCompressionProperties properties) {
+        this.compressionPolicy = RaptorCompressionPolicy.of(properties.isEnabled() ? properties.getEncodings() : null,
+                properties.getMinResponseSize());
+        Map<String, RaptorCompressionPolicy> policies = new HashMap<>();
+        for (Map.Entry<String, RaptorServerCompressionProperties.ServiceCompression> entry : properties.getServices().entrySet()) {
+            RaptorServerCompressionProperties.ServiceCompression service = entry.getValue();
+            boolean enabled = service.getEnabled() != null ? service.getEnabled() : properties.isEnabled();
+            List<String> encodings = service.getEncodings() != null ? service.getEncodings() : properties.getEncodings();
+            int minResponseSize = service.getMinResponseSize() != null ? service.getMinResponseSize() : properties.getMinResponseSize();
+            policies.put(entry.getKey(), RaptorCompressionPolicy.of(enabled ? encodings : null, minResponseSize));
+        }
+        this.serviceCompressionPolicies = policies;
+        this.maxRequestSize = properties.getMaxRequestSize();
+        this.parameterPlans.clear();
+        this.returnTypePlans.clear();
     }
 
     @Override
     public boolean supportsParameter(MethodParameter parameter) {
-        RaptorMessage annotation = AnnotationUtils.findAnnotation(parameter.getParameterType(), RaptorMessage.class);
-        return annotation != null;
+        ParameterPlan plan = getParameterPlan(parameter);
+        return plan.isStreamObserver() || plan.getBinder() != null;
     }
 
     @Override
     public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer, NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
-        ServletServerHttpRequest inputMessage = createInputMessage(webRequest);
-        HttpMethod httpMethod = inputMessage.getMethod();
-        switch (httpMethod) {
-            case GET:
-            case HEAD:
-                return bindData(parameter, mavContainer, webRequest, binderFactory);
-            case POST:
-            case PUT:
-            case PATCH:
-            case DELETE:
-            case OPTIONS:
-                return convertBody(parameter, mavContainer, webRequest, binderFactory);
+        ParameterPlan plan = getParameterPlan(parameter);
+        if (plan.isStreamObserver()) {
+            return createStreamObserver(plan, webRequest);
+        }
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        switch (request.getMethod()) {
+            case "GET":
+            case "HEAD":
+                return bindData(plan, mavContainer, webRequest, binderFactory, request);
+            case "POST":
+            case "PUT":
+            case "PATCH":
+            case "DELETE":
+            case "OPTIONS":
+                return convertBody(plan, request);
             default:
                 return null;
         }
     }
 
-    private Object bindData(MethodParameter parameter, ModelAndViewContainer mavContainer, NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
-        String name = ModelFactory.getNameForParameter(parameter);
-        Object arg = BeanUtils.instantiateClass(parameter.getParameterType());
-        WebDataBinder binder = binderFactory.createBinder(webRequest, arg, name);
-        binder.registerCustomEditor(byte[].class, this.byteArrayBase64PropertyEditor);
-
-        ServletRequest servletRequest = webRequest.getNativeRequest(ServletRequest.class);
-        ((ServletRequestDataBinder) binder).bind(servletRequest);
-        Map<String, Object> bindingResultModel = binder.getBindingResult().getModel();
-        mavContainer.removeAttributes(bindingResultModel);
-        mavContainer.addAllAttributes(bindingResultModel);
+    /**
+     * 简单类型字段直接赋值,其他参数再使用WebDataBinder绑定
+     */
+    private Object bindData(ParameterPlan plan, ModelAndViewContainer mavContainer, NativeWebRequest webRequest,
+                            WebDataBinderFactory binderFactory, HttpServletRequest request) throws Exception {
+        RaptorMessageBinder messageBinder = plan.getBinder();
+        Object arg = messageBinder.newInstance();
+        MutablePropertyValues others = messageBinder.bind(arg, request.getParameterMap());
+        if (others != null) {
+            WebDataBinder binder = binderFactory.createBinder(webRequest, arg, plan.getName());
+            binder.registerCustomEditor(byte[].class, this.byteArrayBase64PropertyEditor);
+            binder.bind(others);
+            Map<String, Object> bindingResultModel = binder.getBindingResult().getModel();
+            mavContainer.removeAttributes(bindingResultModel);
+            mavContainer.addAllAttributes(bindingResultModel);
+        }
         return arg;
     }
 
-    private Object convertBody(MethodParameter parameter, ModelAndViewContainer mavContainer, NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
-        parameter = parameter.nestedIfOptional();
-        return readWithMessageConverters(webRequest, parameter, parameter.getNestedGenericParameterType());
+    private Object convertBody(ParameterPlan plan, HttpServletRequest request) throws IOException, HttpMediaTypeNotSupportedException {
+        //与springMVC相同,没有body时参数为null
+        if (request.getContentLengthLong() == 0) {
+            return null;
+        }
+        String contentType = request.getContentType();
+        RaptorConverterSelector.Selection selection;
+        try {
+            selection = converterSelector.selectReader(contentType, plan.getType());
+        } catch (InvalidMediaTypeException e) {
+            throw new HttpMediaTypeNotSupportedException(e.getMessage());
+        }
+        if (selection == null) {
+            MediaType mediaType = StringUtils.hasText(contentType) ? MediaType.parseMediaType(contentType) : MediaType.APPLICATION_OCTET_STREAM;
+            throw new HttpMediaTypeNotSupportedException(mediaType, this.allSupportedMediaTypes);
+        }
+        RaptorMessageConverter converter = selection.getConverter();
+        HttpInputMessage inputMessage = new ServletServerHttpRequest(request);
+        String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (RaptorCompressors.isIdentity(contentEncoding)) {
+            return read(converter, plan.getType(), inputMessage);
+        }
+        //只接受服务配置了的压缩格式,没有开启压缩时不解压
+        RaptorCompressor compressor = plan.getCompressionPolicy().getDecompressor(contentEncoding);
+        if (compressor == null) {
+            throw new HttpMediaTypeNotSupportedException("Unsupported Content-Encoding: " + contentEncoding);
+        }
+        try {
+            return read(converter, plan.getType(), new DecompressedInputMessage(inputMessage, compressor, maxRequestSize));
+        } catch (IOException e) {
+            //压缩数据损坏或者解压后超过大小限制
+            throw new HttpMessageNotReadableException("Could not read compressed request body: " + e.getMessage(), e);
+        }
+    }
 
+    private static Object read(RaptorMessageConverter converter, Class<?> type, HttpInputMessage inputMessage) throws IOException {
+        if (converter instanceof GenericHttpMessageConverter) {
+            return ((GenericHttpMessageConverter<?>) converter).read(type, null, inputMessage);
+        }
+        return converter.read(type, inputMessage);
+    }
+
+    /**
+     * 按Accept选择消息格式,第一条消息写出前不提交响应,服务方法在此之前抛出的异常仍按普通错误响应返回
+     */
+    private RaptorServerStreamObserver createStreamObserver(ParameterPlan plan, NativeWebRequest webRequest) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+        RaptorConverterSelector.Selection selection = converterSelector.selectWriter(request.getHeader(HttpHeaders.ACCEPT), plan.getElementType());
+        RaptorMessageConverter converter;
+        MediaType mediaType;
+        if (selection != null) {
+            converter = selection.getConverter();
+            mediaType = selection.getMediaType();
+        } else {
+            converter = raptorMessageConverters.get(0);
+            mediaType = RaptorConverterUtils.getDefaultMediaType(converter);
+        }
+        RaptorServerStreamObserver observer = new RaptorServerStreamObserver(response, converter, mediaType);
+        request.setAttribute(RaptorServerStreamObserver.ATTRIBUTE_NAME, observer);
+        return observer;
     }
 
     @Override
     public boolean supportsReturnType(MethodParameter returnType) {
-        RaptorMessage annotation = AnnotationUtils.findAnnotation(returnType.getParameterType(), RaptorMessage.class);
-        return annotation != null;
+        return getReturnTypePlan(returnType).isSupported();
+    }
+
+    /**
+     * {@link RaptorAsync}方法返回的CompletionStage由当前processor处理,不使用spring默认的DeferredResult处理
+     */
+    @Override
+    public boolean isAsyncReturnValue(Object returnValue, MethodParameter returnType) {
+        return returnValue instanceof CompletionStage && getReturnTypePlan(returnType).isAsync();
     }
 
     @Override
     public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+        if (returnValue instanceof CompletionStage) {
+            handleAsyncReturnValue((CompletionStage<?>) returnValue, returnType, mavContainer, webRequest);
+            return;
+        }
         mavContainer.setRequestHandled(true);
-        ServletServerHttpRequest inputMessage = createInputMessage(webRequest);
-        ServletServerHttpResponse outputMessage = createOutputMessage(webRequest);
+        RaptorServerStreamObserver streamObserver = (RaptorServerStreamObserver) webRequest.getAttribute(
+                RaptorServerStreamObserver.ATTRIBUTE_NAME, RequestAttributes.SCOPE_REQUEST);
+        if (streamObserver != null) {
+            //服务方法返回时还没有结束的流自动结束
+            streamObserver.onCompleted();
+            return;
+        }
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
 
         //设置Response header,本应该放在拦截器中实现,但是handler处理完后,response已经关闭了,拦截器无法后置处理response
-        RaptorContextInitHandlerInterceptor.applyResponse(outputMessage.getServletResponse());
+        RaptorContextInitHandlerInterceptor.applyResponse(response);
+        if (returnValue == null) {
+            return;
+        }
+        RaptorConverterSelector.Selection selection;
+        try {
+            selection = converterSelector.selectWriter(request.getHeader(HttpHeaders.ACCEPT), returnValue.getClass());
+        } catch (InvalidMediaTypeException e) {
+            throw new HttpMediaTypeNotAcceptableException(e.getMessage());
+        }
+        if (selection == null) {
+            throw new HttpMediaTypeNotAcceptableException(this.allSupportedMediaTypes);
+        }
+        ServletServerHttpResponse outputMessage = new ServletServerHttpResponse(response);
+        RaptorCompressionPolicy policy = getReturnTypePlan(returnType).getCompressionPolicy();
+        RaptorCompressor compressor = policy.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (compressor == null) {
+            selection.getConverter().write(returnValue, selection.getMediaType(), outputMessage);
+        } else {
+            writeCompressed(returnValue, selection, policy, compressor, outputMessage);
+        }
+    }
 
-        writeWithMessageConverters(returnValue, returnType, inputMessage, outputMessage);
+    /**
+     * 先编码到缓冲区,达到最小字节数时再压缩,响应都带有Content-Length
+     */
+    private void writeCompressed(Object returnValue, RaptorConverterSelector.Selection selection, RaptorCompressionPolicy policy,
+                                 RaptorCompressor compressor, ServletServerHttpResponse outputMessage) throws IOException {
+        Class<?> type = returnValue.getClass();
+        HttpHeaders headers = outputMessage.getHeaders();
+        RecyclableBufferOutputStream buffer = BUFFER_POOL.acquire(type);
+        try {
+            selection.getConverter().write(returnValue, selection.getMediaType(), new BufferedOutputMessage(headers, buffer));
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (buffer.size() < policy.getMinSize()) {
+                headers.setContentLength(buffer.size());
+                buffer.writeTo(outputMessage.getBody());
+            } else {
+                RecyclableBufferOutputStream compressed = COMPRESSED_BUFFER_POOL.acquire(type);
+                try {
+                    try (OutputStream out = compressor.compress(compressed)) {
+                        buffer.writeTo(out);
+                    }
+                    headers.set(HttpHeaders.CONTENT_ENCODING, compressor.getEncoding());
+                    headers.setContentLength(compressed.size());
+                    compressed.writeTo(outputMessage.getBody());
+                } finally {
+                    COMPRESSED_BUFFER_POOL.release(type, compressed);
+                }
+            }
+            outputMessage.flush();
+        } finally {
+            BUFFER_POOL.release(type, buffer);
+        }
     }
 
+    /**
+     * 异步方法完成后重新分派请求写出结果,请求不支持异步(批量请求中的调用)时等待结果后直接写出
+     */
+    private void handleAsyncReturnValue(CompletionStage<?> future, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                        NativeWebRequest webRequest) throws Exception {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        if (!request.isAsyncSupported()) {
+            Object result;
+            try {
+                result = future.toCompletableFuture().get();
+            } catch (ExecutionException e) {
+                throw toException(e.getCause());
+            }
+            handleReturnValue(result, returnType.nested(), mavContainer, webRequest);
+            return;
+        }
+        DeferredResult<Object> deferredResult = new DeferredResult<>();
+        future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                deferredResult.setErrorResult(toException(ex));
+            } else {
+                deferredResult.setResult(result);
+            }
+        });
+        WebAsyncUtils.getAsyncManager(webRequest).startDeferredResultProcessing(deferredResult, mavContainer);
+    }
+
+    private static Exception toException(Throwable ex) {
+        if (ex instanceof CompletionException && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex instanceof Exception ? (Exception) ex : new CompletionException(ex);
+    }
+
+    private ParameterPlan getParameterPlan(MethodParameter parameter) {
+        ParameterPlan plan = parameterPlans.get(parameter);
+        if (plan == null || plan.getType() != parameter.getParameterType()) {
+            plan = new ParameterPlan(parameter, getCompressionPolicy(parameter.getContainingClass(), parameter.getMethod()));
+            parameterPlans.put(parameter, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * 返回值的类型是实际返回对象的类型,每个方法的每种类型只计算一次
+     */
+    private ReturnTypePlan getReturnTypePlan(MethodParameter returnType) {
+        Method method = returnType.getMethod();
+        if (method == null) {
+            return new ReturnTypePlan(returnType, compressionPolicy);
+        }
+        ConcurrentMap<Class<?>, ReturnTypePlan> plans = returnTypePlans.get(method);
+        if (plans == null) {
+            plans = new ConcurrentHashMap<>(4);
+            ConcurrentMap<Class<?>, ReturnTypePlan> existing = returnTypePlans.putIfAbsent(method, plans);
+            if (existing != null) {
+                plans = existing;
+            }
+        }
+        Class<?> type = returnType.getParameterType();
+        ReturnTypePlan plan = plans.get(type);
+        if (plan == null) {
+            plan = new ReturnTypePlan(returnType, getCompressionPolicy(returnType.getContainingClass(), method));
+            ReturnTypePlan existing = plans.putIfAbsent(type, plan);
+            if (existing != null) {
+                plan = existing;
+            }
+        }
+        return plan;
+    }
+
+    private RaptorCompressionPolicy getCompressionPolicy(Class<?> handlerType, Method method) {
+        if (method == null || serviceCompressionPolicies.isEmpty()) {
+            return compressionPolicy;
+        }
+        String interfaceName = RaptorInterfaceUtils.getInterfaceName(handlerType, method);
+        RaptorCompressionPolicy policy = interfaceName != null ? serviceCompressionPolicies.get(interfaceName) : null;
+        return policy != null ? policy : compressionPolicy;
+    }
+
+    /**
+     * 参数的处理方式:流式调用的RaptorStreamObserver,或者raptor消息
+     */
+    @Getter
+    private static class ParameterPlan {
+        private final Class<?> type;
+        private final boolean streamObserver;
+        /**
+         * RaptorStreamObserver的消息类型
+         */
+        private final Class<?> elementType;
+        /**
+         * raptor消息的GET参数绑定,不是raptor消息时为null
+         */
+        private final RaptorMessageBinder binder;
+        private final String name;
+        /**
+         * 请求body可以使用的压缩格式
+         */
+        private final RaptorCompressionPolicy compressionPolicy;
+
+        ParameterPlan(MethodParameter parameter, RaptorCompressionPolicy compressionPolicy) {
+            this.type = parameter.getParameterType();
+            this.compressionPolicy = compressionPolicy;
+            this.streamObserver = RaptorStreamObserver.class == type;
+            if (streamObserver) {
+                this.elementType = ResolvableType.forMethodParameter(parameter).getGeneric(0).resolve(Object.class);
+                this.binder = null;
+                this.name = null;
+            } else {
+                this.elementType = null;
+                this.binder = RaptorMessageMetadata.isRaptorMessage(type) ? new RaptorMessageBinder(type) : null;
+                this.name = binder != null ? ModelFactory.getNameForParameter(parameter) : null;
+            }
+        }
+    }
+
+    @Getter
+    private static class ReturnTypePlan {
+        private final Class<?> type;
+        private final boolean supported;
+        private final boolean async;
+        private final RaptorCompressionPolicy compressionPolicy;
+
+        ReturnTypePlan(MethodParameter returnType, RaptorCompressionPolicy compressionPolicy) {
+            this.type = returnType.getParameterType();
+            this.compressionPolicy = compressionPolicy;
+            Method method = returnType.getMethod();
+            this.async = method != null && AnnotationUtils.findAnnotation(method, RaptorAsync.class) != null;
+            if (void.class == type && method != null && RaptorInterfaceUtils.isStreamMethod(method)) {
+                this.supported = true;
+            } else if (CompletionStage.class.isAssignableFrom(type)) {
+                this.supported = async;
+            } else {
+                this.supported = RaptorMessageMetadata.isRaptorMessage(type);
+            }
+        }
+    }
+
+    private static class DecompressedInputMessage implements HttpInputMessage {
+        private final HttpInputMessage inputMessage;
+        private final RaptorCompressor compressor;
+        private final long maxBodySize;
+
+        DecompressedInputMessage(HttpInputMessage inputMessage, RaptorCompressor compressor, long maxBodySize) {
+            this.inputMessage = inputMessage;
+            this.compressor = compressor;
+            this.maxBodySize = maxBodySize;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            InputStream in = compressor.decompress(inputMessage.getBody());
+            return maxBodySize <= 0 ? in : new MaxBodySizeInputStream(in, maxBodySize);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return inputMessage.getHeaders();
+        }
+    }
+
+    private static class BufferedOutputMessage implements HttpOutputMessage {
+        private final HttpHeaders headers;
+        private final RecyclableBufferOutputStream buffer;
+
+        BufferedOutputMessage(HttpHeaders headers, RecyclableBufferOutputStream buffer) {
+            this.headers = headers;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return buffer;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
 }
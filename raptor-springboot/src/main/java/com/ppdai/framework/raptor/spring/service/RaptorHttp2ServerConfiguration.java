@@ -0,0 +1,40 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.embedded.ConfigurableEmbeddedServletContainer;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerCustomizer;
+import org.springframework.boot.context.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * raptor.server.http2.enabled=true时,tomcat在http端口上同时接收h2c(prior knowledge和Upgrade)连接
+ *
+ * @author yinzuolong
+ */
+@Configuration
+@ConditionalOnClass({TomcatEmbeddedServletContainerFactory.class, Http2Protocol.class})
+@ConditionalOnProperty(name = "raptor.server.http2.enabled", havingValue = "true")
+public class RaptorHttp2ServerConfiguration {
+
+    @Bean
+    public EmbeddedServletContainerCustomizer raptorHttp2ContainerCustomizer() {
+        return new EmbeddedServletContainerCustomizer() {
+            @Override
+            public void customize(ConfigurableEmbeddedServletContainer container) {
+                if (container instanceof TomcatEmbeddedServletContainerFactory) {
+                    ((TomcatEmbeddedServletContainerFactory) container).addConnectorCustomizers(new TomcatConnectorCustomizer() {
+                        @Override
+                        public void customize(Connector connector) {
+                            connector.addUpgradeProtocol(new Http2Protocol());
+                        }
+                    });
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import com.ppdai.framework.raptor.spring.utils.RaptorMessageMetadata;
+import com.ppdai.framework.raptor.spring.utils.RaptorQueryCodec;
+import org.springframework.beans.MutablePropertyValues;
+
+import java.util.Map;
+
+/**
+ * GET请求的参数绑定,使用{@link RaptorQueryCodec}按代码生成的{@link com.ppdai.framework.raptor.annotation.RaptorField}
+ * 字段列表直接赋值,参数名格式与客户端编码的格式相同。
+ * <p>
+ * 不能对应到字段的参数交给spring的DataBinder绑定
+ *
+ * @author yinzuolong
+ */
+public class RaptorMessageBinder {
+
+    private final RaptorMessageMetadata metadata;
+
+    public RaptorMessageBinder(Class<?> type) {
+        this.metadata = RaptorMessageMetadata.forClass(type);
+    }
+
+    public Object newInstance() {
+        return metadata.newInstance();
+    }
+
+    /**
+     * @param target     {@link #newInstance()}创建的对象
+     * @param parameters 请求参数
+     * @return 不能直接绑定的参数,没有时返回null
+     */
+    public MutablePropertyValues bind(Object target, Map<String, String[]> parameters) {
+        MutablePropertyValues others = null;
+        for (Map.Entry<String, String[]> entry : parameters.entrySet()) {
+            String[] values = entry.getValue();
+            if (RaptorQueryCodec.decode(target, entry.getKey(), values)) {
+                continue;
+            }
+            if (others == null) {
+                others = new MutablePropertyValues();
+            }
+            others.add(entry.getKey(), values != null && values.length == 1 ? values[0] : values);
+        }
+        return others;
+    }
+}
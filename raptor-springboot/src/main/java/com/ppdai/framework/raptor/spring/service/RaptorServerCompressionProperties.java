@@ -0,0 +1,61 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import com.ppdai.framework.raptor.spring.compress.GzipCompressor;
+import com.ppdai.framework.raptor.spring.compress.RaptorCompressionPolicy;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * raptor服务的压缩配置。
+ * 开启时响应按Accept-Encoding协商压缩,请求body只接受配置的压缩格式,解压后超过maxRequestSize的请求被拒绝;
+ * 关闭时带Content-Encoding的请求返回415
+ *
+ * @author yinzuolong
+ */
+@Setter
+@Getter
+@ConfigurationProperties("raptor.server.compression")
+public class RaptorServerCompressionProperties {
+
+    public static final long DEFAULT_MAX_REQUEST_SIZE = 10 * 1024 * 1024;
+
+    private boolean enabled = false;
+
+    /**
+     * 按优先顺序的压缩格式,可选gzip、x-snappy-framed,与请求的Accept-Encoding协商
+     */
+    private List<String> encodings = new ArrayList<>(Collections.singletonList(GzipCompressor.ENCODING));
+
+    /**
+     * 响应body达到该字节数才压缩
+     */
+    private int minResponseSize = RaptorCompressionPolicy.DEFAULT_MIN_SIZE;
+
+    /**
+     * 压缩的请求body解压后的最大字节数,小于等于0时不限制
+     */
+    private long maxRequestSize = DEFAULT_MAX_REQUEST_SIZE;
+
+    /**
+     * 按服务接口全名覆盖的配置
+     */
+    private Map<String, ServiceCompression> services = new HashMap<>();
+
+    @Setter
+    @Getter
+    public static class ServiceCompression {
+
+        private Boolean enabled;
+
+        private List<String> encodings;
+
+        private Integer minResponseSize;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * raptor.server.limit.enabled=true时,通过{@link RaptorConcurrencyLimitInterceptor}限制服务的并发请求数,
+ * springMVC和独立的raptor server都使用该拦截器
+ *
+ * @author yinzuolong
+ */
+@Configuration
+@EnableConfigurationProperties(RaptorServerLimitProperties.class)
+@ConditionalOnProperty(name = "raptor.server.limit.enabled", havingValue = "true")
+public class RaptorServerLimitConfiguration {
+
+    @Bean
+    public RaptorConcurrencyLimitInterceptor raptorConcurrencyLimitInterceptor(RaptorServerLimitProperties properties) {
+        return new RaptorConcurrencyLimitInterceptor(properties);
+    }
+}
@@ -0,0 +1,25 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import com.ppdai.framework.raptor.spring.limit.RaptorConcurrencyLimiter;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * raptor服务的自适应并发限制,每个服务方法(接口全名#方法名)单独限制
+ *
+ * @author yinzuolong
+ */
+@Setter
+@Getter
+@ConfigurationProperties("raptor.server.limit")
+public class RaptorServerLimitProperties {
+
+    private boolean enabled = false;
+
+    private int initialLimit = RaptorConcurrencyLimiter.DEFAULT_INITIAL_LIMIT;
+
+    private int minLimit = RaptorConcurrencyLimiter.DEFAULT_MIN_LIMIT;
+
+    private int maxLimit = RaptorConcurrencyLimiter.DEFAULT_MAX_LIMIT;
+}
@@ -0,0 +1,92 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import com.ppdai.framework.raptor.common.RaptorConstants;
+import com.ppdai.framework.raptor.exception.ErrorMessage;
+import com.ppdai.framework.raptor.rpc.RaptorStreamObserver;
+import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import com.ppdai.framework.raptor.spring.stream.StreamFrameWriter;
+import com.ppdai.framework.raptor.spring.stream.StreamFrames;
+
+import org.springframework.http.MediaType;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 服务端流式方法的响应,第一条消息写出时提交响应头,之后按{@link StreamFrames}格式通过chunked body逐条写出
+ *
+ * @author yinzuolong
+ */
+public class RaptorServerStreamObserver implements RaptorStreamObserver<Object> {
+
+    public static final String ATTRIBUTE_NAME = RaptorServerStreamObserver.class.getName();
+
+    private final HttpServletResponse response;
+    private final RaptorMessageConverter converter;
+    private final MediaType mediaType;
+    private StreamFrameWriter writer;
+    private boolean finished;
+
+    public RaptorServerStreamObserver(HttpServletResponse response, RaptorMessageConverter converter, MediaType mediaType) {
+        this.response = response;
+        this.converter = converter;
+        this.mediaType = mediaType;
+    }
+
+    @Override
+    public void onNext(Object value) {
+        if (finished) {
+            throw new IllegalStateException("Raptor stream is already finished.");
+        }
+        write(StreamFrames.MESSAGE, value, false);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        writeError(RaptorHandlerExceptionResolver.toErrorMessage(t));
+    }
+
+    @Override
+    public void onCompleted() {
+        if (!finished) {
+            finished = true;
+            write(StreamFrames.END, null, true);
+        }
+    }
+
+    public boolean isStarted() {
+        return writer != null;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    void writeError(ErrorMessage errorMessage) {
+        if (!finished) {
+            finished = true;
+            write(StreamFrames.ERROR, errorMessage, true);
+        }
+    }
+
+    private void write(int frameType, Object message, boolean flush) {
+        try {
+            if (writer == null) {
+                response.setStatus(HttpServletResponse.SC_OK);
+                response.setContentType(mediaType.toString());
+                response.setHeader(RaptorConstants.HEADER_STREAM, "true");
+                RaptorContextInitHandlerInterceptor.applyResponse(response);
+                writer = new StreamFrameWriter(response.getOutputStream(), converter, mediaType);
+            }
+            writer.write(frameType, message);
+            if (flush) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            //客户端断开时服务方法可以据此停止生产
+            finished = true;
+            throw new UncheckedIOException(e);
+        }
+    }
+}
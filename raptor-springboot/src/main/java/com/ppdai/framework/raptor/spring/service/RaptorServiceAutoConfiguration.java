@@ -4,6 +4,7 @@ import com.ppdai.framework.raptor.rpc.RaptorServiceInterceptor;
 import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
@@ -16,12 +17,18 @@ import java.util.List;
 
 @Import({RaptorHandlerMappingPostProcessor.class,
         RaptorHandlerAdapterPostProcessor.class,
-        RaptorHandlerMethodProcessor.class})
+        RaptorHandlerMethodProcessor.class,
+        RaptorHttp2ServerConfiguration.class,
+        RaptorBatchServerConfiguration.class,
+        RaptorHandlerMappingConfiguration.class,
+        RaptorVirtualThreadServerConfiguration.class,
+        RaptorServerLimitConfiguration.class})
 @Configuration
+@EnableConfigurationProperties(RaptorServerCompressionProperties.class)
 public class RaptorServiceAutoConfiguration extends WebMvcConfigurerAdapter {
 
     @Autowired
-    private RaptorMessageConverter raptorMessageConverter;
+    private List<RaptorMessageConverter> raptorMessageConverters;
 
     @Autowired
     private ObjectProvider<List<RaptorServiceInterceptor>> handlerInterceptors;
@@ -43,7 +50,7 @@ public class RaptorServiceAutoConfiguration extends WebMvcConfigurerAdapter {
 
     @Override
     public void configureHandlerExceptionResolvers(List<HandlerExceptionResolver> exceptionResolvers) {
-        exceptionResolvers.add(new RaptorHandlerExceptionResolver(raptorMessageConverter));
+        exceptionResolvers.add(new RaptorHandlerExceptionResolver(raptorMessageConverters));
     }
 
 }
@@ -0,0 +1,75 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import com.ppdai.framework.raptor.utils.VirtualThreadUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.embedded.ConfigurableEmbeddedServletContainer;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerCustomizer;
+import org.springframework.boot.context.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * raptor.threads.virtual=true时,tomcat每个请求使用一个虚拟线程处理(需要JDK21+),
+ * 不支持虚拟线程时仍使用tomcat原来的线程池
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+@Configuration
+@ConditionalOnClass(TomcatEmbeddedServletContainerFactory.class)
+@ConditionalOnProperty(name = "raptor.threads.virtual", havingValue = "true")
+public class RaptorVirtualThreadServerConfiguration implements DisposableBean {
+
+    private volatile ExecutorService executor;
+
+    @Bean
+    public EmbeddedServletContainerCustomizer raptorVirtualThreadContainerCustomizer() {
+        return new EmbeddedServletContainerCustomizer() {
+            @Override
+            public void customize(ConfigurableEmbeddedServletContainer container) {
+                if (!(container instanceof TomcatEmbeddedServletContainerFactory)) {
+                    return;
+                }
+                if (!VirtualThreadUtils.isSupported()) {
+                    log.warn("raptor.threads.virtual is enabled, but virtual thread is not supported by java {}, use platform threads.",
+                            System.getProperty("java.version"));
+                    return;
+                }
+                ((TomcatEmbeddedServletContainerFactory) container).addConnectorCustomizers(new TomcatConnectorCustomizer() {
+                    @Override
+                    public void customize(Connector connector) {
+                        ProtocolHandler protocolHandler = connector.getProtocolHandler();
+                        if (protocolHandler instanceof AbstractProtocol) {
+                            //外部设置的executor不会被tomcat关闭,在destroy时关闭
+                            ((AbstractProtocol<?>) protocolHandler).setExecutor(getExecutor());
+                        }
+                    }
+                });
+            }
+        };
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = VirtualThreadUtils.newThreadPerTaskExecutor("raptor-virtual-exec-");
+        }
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        ExecutorService executor = this.executor;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
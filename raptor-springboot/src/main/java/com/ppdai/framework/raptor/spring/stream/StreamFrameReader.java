@@ -0,0 +1,100 @@
+package com.ppdai.framework.raptor.spring.stream;
+
+import com.ppdai.framework.raptor.exception.ErrorMessage;
+import com.ppdai.framework.raptor.exception.RaptorException;
+import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 读取{@link StreamFrames}格式的流,每次只在内存中保留一帧
+ *
+ * @author yinzuolong
+ */
+public class StreamFrameReader {
+
+    private final InputStream in;
+    private final RaptorMessageConverter converter;
+    private final HttpHeaders headers = new HttpHeaders();
+    private final long maxFrameSize;
+    private byte[] buffer = new byte[1024];
+    private boolean finished;
+
+    /**
+     * @param maxFrameSize 单帧最大字节数,小于等于0时不限制
+     */
+    public StreamFrameReader(InputStream in, RaptorMessageConverter converter, MediaType mediaType, long maxFrameSize) {
+        this.in = in;
+        this.converter = converter;
+        this.maxFrameSize = maxFrameSize;
+        this.headers.setContentType(mediaType);
+    }
+
+    /**
+     * @return 下一条消息,流正常结束时返回null
+     * @throws RaptorException 服务端发送了错误帧
+     */
+    @SuppressWarnings("unchecked")
+    public Object read(Class<?> type) throws IOException {
+        if (finished) {
+            return null;
+        }
+        int frameType = in.read();
+        if (frameType < 0) {
+            throw new EOFException("Raptor stream closed before end frame.");
+        }
+        int length = StreamFrames.readVarint(in);
+        if (length < 0 || (maxFrameSize > 0 && length > maxFrameSize)) {
+            throw new IOException("Raptor stream frame exceeds max size " + maxFrameSize + " bytes.");
+        }
+        HttpInputMessage frame = readFrame(length);
+        switch (frameType) {
+            case StreamFrames.MESSAGE:
+                if (converter instanceof GenericHttpMessageConverter) {
+                    return ((GenericHttpMessageConverter<Object>) converter).read(type, null, frame);
+                }
+                return converter.read((Class<Object>) type, frame);
+            case StreamFrames.ERROR:
+                finished = true;
+                throw new RaptorException((ErrorMessage) converter.read(ErrorMessage.class, frame));
+            case StreamFrames.END:
+                finished = true;
+                return null;
+            default:
+                throw new IOException("Unknown raptor stream frame type " + frameType);
+        }
+    }
+
+    private HttpInputMessage readFrame(int length) throws IOException {
+        if (length > buffer.length) {
+            buffer = new byte[Math.max(length, buffer.length << 1)];
+        }
+        int read = 0;
+        while (read < length) {
+            int n = in.read(buffer, read, length - read);
+            if (n < 0) {
+                throw new EOFException("Raptor stream truncated.");
+            }
+            read += n;
+        }
+        ByteArrayInputStream body = new ByteArrayInputStream(buffer, 0, length);
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+}
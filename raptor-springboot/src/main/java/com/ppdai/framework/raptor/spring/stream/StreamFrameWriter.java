@@ -0,0 +1,60 @@
+package com.ppdai.framework.raptor.spring.stream;
+
+import com.ppdai.framework.raptor.spring.buffer.RecyclableBufferOutputStream;
+import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 按{@link StreamFrames}格式写出消息,每条消息先编码到复用的缓冲区,得到长度后写出
+ *
+ * @author yinzuolong
+ */
+public class StreamFrameWriter {
+
+    private final OutputStream out;
+    private final RaptorMessageConverter converter;
+    private final MediaType mediaType;
+    private final RecyclableBufferOutputStream buffer = new RecyclableBufferOutputStream(1024);
+    private final HttpOutputMessage bufferMessage;
+
+    public StreamFrameWriter(OutputStream out, RaptorMessageConverter converter, MediaType mediaType) {
+        this.out = out;
+        this.converter = converter;
+        this.mediaType = mediaType;
+        this.bufferMessage = new HttpOutputMessage() {
+            private final HttpHeaders headers = new HttpHeaders();
+
+            @Override
+            public OutputStream getBody() {
+                return buffer;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    /**
+     * @param message 为null时写出空内容的帧
+     */
+    public void write(int frameType, Object message) throws IOException {
+        buffer.reset();
+        if (message != null) {
+            converter.write(message, mediaType, bufferMessage);
+        }
+        out.write(frameType);
+        StreamFrames.writeVarint(out, buffer.size());
+        buffer.writeTo(out);
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+}
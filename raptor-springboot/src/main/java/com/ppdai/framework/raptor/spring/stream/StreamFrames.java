@@ -0,0 +1,47 @@
+package com.ppdai.framework.raptor.spring.stream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 服务端流式响应的帧格式:1字节帧类型 + varint长度 + 内容.
+ * <p>
+ * 内容使用响应Content-Type对应的converter编码,{@link #MESSAGE}为一条消息,{@link #ERROR}为ErrorMessage,
+ * {@link #END}表示正常结束,没有读到END或ERROR时连接就关闭表示流被截断
+ *
+ * @author yinzuolong
+ */
+public final class StreamFrames {
+
+    public static final int MESSAGE = 0;
+    public static final int ERROR = 1;
+    public static final int END = 2;
+
+    private StreamFrames() {
+    }
+
+    static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarint(InputStream in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Raptor stream truncated.");
+            }
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed raptor stream frame length.");
+    }
+}
@@ -0,0 +1,59 @@
+package com.ppdai.framework.raptor.spring.utils;
+
+import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import org.springframework.http.MediaType;
+import org.springframework.util.CollectionUtils;
+
+import java.util.List;
+
+/**
+ * 根据Content-Type/Accept在多个RaptorMessageConverter中协商
+ *
+ * @author yinzuolong
+ */
+public class RaptorConverterUtils {
+
+    /**
+     * @return 第一个支持该mediaType的converter,mediaType为空时返回默认(第一个)converter,没有匹配时返回null
+     */
+    public static RaptorMessageConverter findConverter(List<RaptorMessageConverter> converters, MediaType mediaType) {
+        if (CollectionUtils.isEmpty(converters)) {
+            return null;
+        }
+        if (mediaType == null) {
+            return converters.get(0);
+        }
+        for (RaptorMessageConverter converter : converters) {
+            for (MediaType supportedMediaType : converter.getSupportedMediaTypes()) {
+                if (supportedMediaType.includes(mediaType)) {
+                    return converter;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param acceptableMediaTypes 按优先级排序的Accept
+     * @return 第一个可以写出type的具体mediaType,没有匹配时返回null
+     */
+    public static MediaType findWritableMediaType(List<RaptorMessageConverter> converters, List<MediaType> acceptableMediaTypes, Class<?> type) {
+        for (MediaType acceptable : acceptableMediaTypes) {
+            for (RaptorMessageConverter converter : converters) {
+                for (MediaType mediaType : converter.getSupportedMediaTypes()) {
+                    if (mediaType.isConcrete() && acceptable.includes(mediaType) && converter.canWrite(type, mediaType)) {
+                        return mediaType;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    public static MediaType getDefaultMediaType(RaptorMessageConverter converter) {
+        if (!CollectionUtils.isEmpty(converter.getSupportedMediaTypes())) {
+            return converter.getSupportedMediaTypes().get(0);
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
@@ -1,6 +1,10 @@
 package com.ppdai.framework.raptor.spring.utils;
 
+import com.ppdai.framework.raptor.annotation.RaptorAsync;
 import com.ppdai.framework.raptor.annotation.RaptorInterface;
+import com.ppdai.framework.raptor.annotation.RaptorStream;
+import com.ppdai.framework.raptor.rpc.RaptorStreamIterator;
+import com.ppdai.framework.raptor.rpc.RaptorStreamObserver;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
@@ -8,9 +12,11 @@ import org.springframework.util.StringUtils;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -18,6 +24,9 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class RaptorInterfaceUtils {
 
+    private static final String ASYNC_SUFFIX = "Async";
+    private static final String STREAM_SUFFIX = "Stream";
+
     private final static Map<String, String> METHOD_INTERFACE_CACHE = new ConcurrentHashMap<>();
 
     public static String getInterfaceName(Class<?> type, Method method) {
@@ -54,6 +63,75 @@ public class RaptorInterfaceUtils {
     }
 
 
+    /**
+     * 查找{@link RaptorAsync}方法对应的同步方法,不是异步方法时返回null
+     */
+    public static Method findSyncMethod(Class<?> type, Method asyncMethod) {
+        RaptorAsync raptorAsync = AnnotationUtils.findAnnotation(asyncMethod, RaptorAsync.class);
+        if (raptorAsync == null || !CompletableFuture.class.equals(asyncMethod.getReturnType())) {
+            return null;
+        }
+        String syncMethodName = raptorAsync.value();
+        if (!StringUtils.hasText(syncMethodName)) {
+            syncMethodName = StringUtils.endsWithIgnoreCase(asyncMethod.getName(), ASYNC_SUFFIX)
+                    ? asyncMethod.getName().substring(0, asyncMethod.getName().length() - ASYNC_SUFFIX.length())
+                    : asyncMethod.getName();
+        }
+        try {
+            return type.getMethod(syncMethodName, asyncMethod.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Can't find sync method " + syncMethodName + " for async method " + getMethodSignature(asyncMethod), e);
+        }
+    }
+
+    /**
+     * 查找同步方法对应的{@link RaptorAsync}方法,没有时返回null
+     */
+    public static Method findAsyncMethod(Class<?> type, Method syncMethod) {
+        for (Method method : type.getMethods()) {
+            if (!CompletableFuture.class.equals(method.getReturnType())
+                    || !Arrays.equals(method.getParameterTypes(), syncMethod.getParameterTypes())) {
+                continue;
+            }
+            Method found = findSyncMethod(type, method);
+            if (found != null && found.getName().equals(syncMethod.getName())) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查找{@link RaptorStream}方法对应的observer方法,不是流式迭代方法时返回null
+     */
+    public static Method findStreamMethod(Class<?> type, Method iteratorMethod) {
+        RaptorStream raptorStream = AnnotationUtils.findAnnotation(iteratorMethod, RaptorStream.class);
+        if (raptorStream == null || !RaptorStreamIterator.class.equals(iteratorMethod.getReturnType())) {
+            return null;
+        }
+        String streamMethodName = raptorStream.value();
+        if (!StringUtils.hasText(streamMethodName)) {
+            streamMethodName = StringUtils.endsWithIgnoreCase(iteratorMethod.getName(), STREAM_SUFFIX)
+                    ? iteratorMethod.getName().substring(0, iteratorMethod.getName().length() - STREAM_SUFFIX.length())
+                    : iteratorMethod.getName();
+        }
+        Class<?>[] parameterTypes = Arrays.copyOf(iteratorMethod.getParameterTypes(), iteratorMethod.getParameterCount() + 1);
+        parameterTypes[parameterTypes.length - 1] = RaptorStreamObserver.class;
+        try {
+            return type.getMethod(streamMethodName, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Can't find stream method " + streamMethodName + " for method " + getMethodSignature(iteratorMethod), e);
+        }
+    }
+
+    /**
+     * 最后一个参数是{@link RaptorStreamObserver}的方法为服务端流式方法
+     */
+    public static boolean isStreamMethod(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        return parameterTypes.length > 0 && RaptorStreamObserver.class.equals(parameterTypes[parameterTypes.length - 1]);
+    }
+
     public static String getMethodSignature(Method method) {
         StringBuilder builder = new StringBuilder();
         builder.append(method.getName());
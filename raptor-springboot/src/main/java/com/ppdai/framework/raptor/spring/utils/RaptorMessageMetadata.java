@@ -0,0 +1,126 @@
+package com.ppdai.framework.raptor.spring.utils;
+
+import com.ppdai.framework.raptor.annotation.RaptorField;
+import com.ppdai.framework.raptor.annotation.RaptorMessage;
+import lombok.Getter;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 代码生成的{@link RaptorMessage}类的元数据,按类缓存:无参构造器和{@link RaptorField}字段列表。
+ * 非RaptorMessage类也会缓存,{@link #isRaptorMessage()}返回false
+ *
+ * @author yinzuolong
+ */
+@Getter
+public class RaptorMessageMetadata {
+
+    private static final ConcurrentMap<Class<?>, RaptorMessageMetadata> CACHE = new ConcurrentHashMap<>(256);
+
+    private final Class<?> type;
+    private final boolean raptorMessage;
+    private final Constructor<?> constructor;
+    private final List<FieldMetadata> fields;
+    private final Map<String, FieldMetadata> fieldMap;
+
+    private RaptorMessageMetadata(Class<?> type) {
+        this.type = type;
+        this.raptorMessage = AnnotationUtils.findAnnotation(type, RaptorMessage.class) != null;
+        if (!raptorMessage) {
+            this.constructor = null;
+            this.fields = Collections.emptyList();
+            this.fieldMap = Collections.emptyMap();
+            return;
+        }
+        this.constructor = findConstructor(type);
+        List<FieldMetadata> fields = new ArrayList<>();
+        Map<String, FieldMetadata> fieldMap = new LinkedHashMap<>();
+        for (Field field : type.getDeclaredFields()) {
+            RaptorField raptorField = AnnotationUtils.findAnnotation(field, RaptorField.class);
+            if (raptorField == null || Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            FieldMetadata fieldMetadata = new FieldMetadata(field, raptorField);
+            fields.add(fieldMetadata);
+            fieldMap.put(fieldMetadata.getName(), fieldMetadata);
+        }
+        this.fields = Collections.unmodifiableList(fields);
+        this.fieldMap = Collections.unmodifiableMap(fieldMap);
+    }
+
+    public static RaptorMessageMetadata forClass(Class<?> type) {
+        RaptorMessageMetadata metadata = CACHE.get(type);
+        if (metadata == null) {
+            metadata = new RaptorMessageMetadata(type);
+            RaptorMessageMetadata exist = CACHE.putIfAbsent(type, metadata);
+            if (exist != null) {
+                metadata = exist;
+            }
+        }
+        return metadata;
+    }
+
+    public static boolean isRaptorMessage(Class<?> type) {
+        return type != null && forClass(type).isRaptorMessage();
+    }
+
+    public FieldMetadata getField(String name) {
+        return fieldMap.get(name);
+    }
+
+    public Object newInstance() {
+        if (constructor == null) {
+            return BeanUtils.instantiateClass(type);
+        }
+        return BeanUtils.instantiateClass(constructor);
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            ReflectionUtils.makeAccessible(constructor);
+            return constructor;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * {@link RaptorField}字段,反射访问的准备工作在创建时完成
+     */
+    @Getter
+    public static class FieldMetadata {
+        private final Field field;
+        private final String name;
+        private final Class<?> type;
+        private final RaptorField raptorField;
+
+        FieldMetadata(Field field, RaptorField raptorField) {
+            ReflectionUtils.makeAccessible(field);
+            this.field = field;
+            this.name = field.getName();
+            this.type = field.getType();
+            this.raptorField = raptorField;
+        }
+
+        public Object get(Object target) {
+            return ReflectionUtils.getField(field, target);
+        }
+
+        public void set(Object target, Object value) {
+            ReflectionUtils.setField(field, target, value);
+        }
+    }
+}
@@ -0,0 +1,535 @@
+package com.ppdai.framework.raptor.spring.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Base64Utils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.NumberUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * GET请求中raptor消息与查询参数的互相转换,按{@link com.ppdai.framework.raptor.annotation.RaptorField}字段列表直接读写字段,
+ * 不使用BeanWrapper。参数名的格式:
+ * <ul>
+ * <li>字段:name,嵌套消息的字段:result.url</li>
+ * <li>List:repString[0],元素为消息时:cats[0].name</li>
+ * <li>Map:mapStringString[key],值为消息时:mapStringMessage[key].url</li>
+ * </ul>
+ * 值为字符串形式,byte[]为base64编码。与spring DataBinder相同,解析时List的下标不能超过{@link #AUTO_GROW_COLLECTION_LIMIT}
+ *
+ * @author yinzuolong
+ */
+@Slf4j
+public class RaptorQueryCodec {
+
+    public static final int AUTO_GROW_COLLECTION_LIMIT = 256;
+
+    private static final Set<Class<?>> MAP_KEY_CLASSES = new HashSet<>(Arrays.<Class<?>>asList(
+            Double.class, Float.class, Integer.class, Long.class, Boolean.class, String.class));
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final ConcurrentMap<Class<?>, MessageDescriptor> DESCRIPTORS = new ConcurrentHashMap<>(256);
+
+    /**
+     * 接收编码出的每个参数
+     */
+    public interface QueryVisitor {
+        void visit(String name, String value);
+    }
+
+    public static void encode(Object message, QueryVisitor visitor) {
+        encodeMessage(message, new StringBuilder(64), visitor);
+    }
+
+    public static Map<String, String> encodeToMap(Object message) {
+        Map<String, String> map = new LinkedHashMap<>();
+        encode(message, map::put);
+        return map;
+    }
+
+    /**
+     * @return URL编码后的查询字符串,不包括'?'
+     */
+    public static String encodeToQueryString(Object message) {
+        StringBuilder query = new StringBuilder(128);
+        encode(message, (name, value) -> {
+            if (query.length() > 0) {
+                query.append('&');
+            }
+            query.append(urlEncode(name)).append('=').append(urlEncode(value));
+        });
+        return query.toString();
+    }
+
+    /**
+     * 与{@link java.net.URLEncoder}的UTF-8编码结果相同,不需要编码时返回原字符串
+     */
+    public static String urlEncode(String value) {
+        int length = value.length();
+        int i = 0;
+        while (i < length && isUnreserved(value.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return value;
+        }
+        StringBuilder builder = new StringBuilder(length + 16);
+        builder.append(value, 0, i);
+        while (i < length) {
+            char c = value.charAt(i);
+            if (isUnreserved(c)) {
+                builder.append(c);
+                i++;
+            } else if (c == ' ') {
+                builder.append('+');
+                i++;
+            } else {
+                int end = i + 1;
+                if (Character.isHighSurrogate(c) && end < length && Character.isLowSurrogate(value.charAt(end))) {
+                    end++;
+                }
+                for (byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                    builder.append('%').append(HEX[(b >> 4) & 0x0F]).append(HEX[b & 0x0F]);
+                }
+                i = end;
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '.' || c == '-' || c == '*' || c == '_';
+    }
+
+    /**
+     * 把一个查询参数设置到消息中
+     *
+     * @return 参数名不能对应到字段时返回false;值转换失败时忽略该参数,返回true
+     */
+    public static boolean decode(Object target, String name, String[] values) {
+        if (values == null || values.length == 0) {
+            return false;
+        }
+        try {
+            return decodeValue(target, name, values);
+        } catch (IllegalArgumentException e) {
+            //与DataBinder相同,转换失败时不设置字段
+            log.debug("Decode raptor query parameter {} error: {}", name, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * @return 未知的参数名会被忽略
+     */
+    public static <T> T decode(Class<T> type, Map<String, String> map) {
+        @SuppressWarnings("unchecked")
+        T target = (T) RaptorMessageMetadata.forClass(type).newInstance();
+        if (map != null) {
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                decode(target, entry.getKey(), new String[]{entry.getValue()});
+            }
+        }
+        return target;
+    }
+
+    private static void encodeMessage(Object message, StringBuilder name, QueryVisitor visitor) {
+        int length = name.length();
+        for (QueryField field : descriptor(message.getClass()).getFields()) {
+            Object value = field.getField().get(message);
+            if (value == null) {
+                continue;
+            }
+            if (length > 0) {
+                name.append('.');
+            }
+            name.append(field.getName());
+            encodeValue(value, name, visitor);
+            name.setLength(length);
+        }
+    }
+
+    private static void encodeValue(Object value, StringBuilder name, QueryVisitor visitor) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof String) {
+            visitor.visit(name.toString(), (String) value);
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof Enum) {
+            visitor.visit(name.toString(), value.toString());
+        } else if (value instanceof List) {
+            int length = name.length();
+            List<?> list = (List<?>) value;
+            for (int i = 0; i < list.size(); i++) {
+                name.append('[').append(i).append(']');
+                encodeValue(list.get(i), name, visitor);
+                name.setLength(length);
+            }
+        } else if (value instanceof Map) {
+            int length = name.length();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                Object key = entry.getKey();
+                if (key == null || !MAP_KEY_CLASSES.contains(key.getClass())) {
+                    continue;
+                }
+                name.append('[').append(key).append(']');
+                encodeValue(entry.getValue(), name, visitor);
+                name.setLength(length);
+            }
+        } else if (value instanceof byte[]) {
+            visitor.visit(name.toString(), Base64Utils.encodeToString((byte[]) value));
+        } else if (RaptorMessageMetadata.isRaptorMessage(value.getClass())) {
+            encodeMessage(value, name, visitor);
+        } else {
+            visitor.visit(name.toString(), value.toString());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean decodeValue(Object target, String name, String[] values) {
+        MessageDescriptor descriptor = descriptor(target.getClass());
+        Object current = target;
+        int length = name.length();
+        int pos = 0;
+        while (true) {
+            int end = pos;
+            while (end < length && name.charAt(end) != '.' && name.charAt(end) != '[') {
+                end++;
+            }
+            QueryField field = descriptor.getField(pos == 0 && end == length ? name : name.substring(pos, end));
+            if (field == null) {
+                return false;
+            }
+            if (end == length) {
+                if (field.getKind() != Kind.SCALAR) {
+                    return false;
+                }
+                setScalar(field, current, values);
+                return true;
+            }
+            if (name.charAt(end) == '.') {
+                if (field.getKind() != Kind.MESSAGE) {
+                    return false;
+                }
+                Object child = field.getField().get(current);
+                if (child == null) {
+                    child = descriptor(field.getValueClass()).newInstance();
+                    field.getField().set(current, child);
+                }
+                current = child;
+                descriptor = descriptor(field.getValueClass());
+                pos = end + 1;
+                continue;
+            }
+            int close = name.indexOf(']', end);
+            if (close < 0 || (field.getKind() != Kind.LIST && field.getKind() != Kind.MAP)) {
+                return false;
+            }
+            String key = name.substring(end + 1, close);
+            boolean leaf = close + 1 == length;
+            if (!leaf && (name.charAt(close + 1) != '.' || field.getValueType() != null)) {
+                return false;
+            }
+            if (leaf && field.getValueType() == null) {
+                return false;
+            }
+            Object element;
+            if (field.getKind() == Kind.LIST) {
+                int index = Integer.parseInt(key);
+                if (index < 0 || index >= AUTO_GROW_COLLECTION_LIMIT) {
+                    throw new IllegalArgumentException("Index of " + name + " exceeds the limit " + AUTO_GROW_COLLECTION_LIMIT);
+                }
+                List<Object> list = (List<Object>) field.getField().get(current);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    field.getField().set(current, list);
+                }
+                while (list.size() <= index) {
+                    list.add(null);
+                }
+                if (leaf) {
+                    list.set(index, convertValue(field, values));
+                    return true;
+                }
+                element = list.get(index);
+                if (element == null) {
+                    element = descriptor(field.getValueClass()).newInstance();
+                    list.set(index, element);
+                }
+            } else {
+                Object mapKey = field.getKeyType().convert(field.getKeyClass(), key);
+                if (mapKey == null) {
+                    return true;
+                }
+                Map<Object, Object> map = (Map<Object, Object>) field.getField().get(current);
+                if (map == null) {
+                    map = new LinkedHashMap<>();
+                    field.getField().set(current, map);
+                }
+                if (leaf) {
+                    map.put(mapKey, convertValue(field, values));
+                    return true;
+                }
+                element = map.get(mapKey);
+                if (element == null) {
+                    element = descriptor(field.getValueClass()).newInstance();
+                    map.put(mapKey, element);
+                }
+            }
+            current = element;
+            descriptor = descriptor(field.getValueClass());
+            pos = close + 2;
+        }
+    }
+
+    private static void setScalar(QueryField field, Object target, String[] values) {
+        Object value = convertValue(field, values);
+        if (value != null || !field.getValueClass().isPrimitive()) {
+            field.getField().set(target, value);
+        }
+    }
+
+    /**
+     * 多个值只有String可以处理,按逗号拼接
+     */
+    private static Object convertValue(QueryField field, String[] values) {
+        if (values.length > 1) {
+            if (field.getValueType() != ScalarType.STRING) {
+                throw new IllegalArgumentException("Multiple values for " + field.getName());
+            }
+            return StringUtils.arrayToCommaDelimitedString(values);
+        }
+        return field.getValueType().convert(field.getValueClass(), values[0]);
+    }
+
+    private static MessageDescriptor descriptor(Class<?> type) {
+        MessageDescriptor descriptor = DESCRIPTORS.get(type);
+        if (descriptor == null) {
+            descriptor = new MessageDescriptor(RaptorMessageMetadata.forClass(type));
+            MessageDescriptor exist = DESCRIPTORS.putIfAbsent(type, descriptor);
+            if (exist != null) {
+                descriptor = exist;
+            }
+        }
+        return descriptor;
+    }
+
+    private enum Kind {
+        SCALAR, MESSAGE, LIST, MAP, UNSUPPORTED
+    }
+
+    private static class MessageDescriptor {
+        private final RaptorMessageMetadata metadata;
+        private final List<QueryField> fields;
+        private final Map<String, QueryField> fieldMap;
+
+        MessageDescriptor(RaptorMessageMetadata metadata) {
+            this.metadata = metadata;
+            List<QueryField> fields = new ArrayList<>();
+            Map<String, QueryField> fieldMap = new HashMap<>();
+            for (RaptorMessageMetadata.FieldMetadata fieldMetadata : metadata.getFields()) {
+                QueryField field = new QueryField(fieldMetadata);
+                fields.add(field);
+                fieldMap.put(field.getName(), field);
+            }
+            this.fields = Collections.unmodifiableList(fields);
+            this.fieldMap = fieldMap;
+        }
+
+        List<QueryField> getFields() {
+            return fields;
+        }
+
+        QueryField getField(String name) {
+            return fieldMap.get(name);
+        }
+
+        Object newInstance() {
+            return metadata.newInstance();
+        }
+    }
+
+    /**
+     * 字段的结构在启动时解析:简单类型、消息、List、Map,以及List元素、Map键值的类型
+     */
+    private static class QueryField {
+        private final RaptorMessageMetadata.FieldMetadata field;
+        private final Kind kind;
+        /**
+         * 简单类型字段、List元素、Map值的类型
+         */
+        private final Class<?> valueClass;
+        /**
+         * valueClass为消息时为null
+         */
+        private final ScalarType valueType;
+        private final Class<?> keyClass;
+        private final ScalarType keyType;
+
+        QueryField(RaptorMessageMetadata.FieldMetadata field) {
+            this.field = field;
+            Class<?> type = field.getType();
+            Class<?> valueClass = type;
+            Class<?> keyClass = null;
+            Kind kind;
+            if (List.class.isAssignableFrom(type)) {
+                valueClass = resolveGeneric(field.getField().getGenericType(), 0);
+                kind = Kind.LIST;
+            } else if (Map.class.isAssignableFrom(type)) {
+                keyClass = resolveGeneric(field.getField().getGenericType(), 0);
+                valueClass = resolveGeneric(field.getField().getGenericType(), 1);
+                kind = keyClass != null && MAP_KEY_CLASSES.contains(keyClass) ? Kind.MAP : Kind.UNSUPPORTED;
+            } else {
+                kind = RaptorMessageMetadata.isRaptorMessage(type) ? Kind.MESSAGE : Kind.SCALAR;
+            }
+            ScalarType valueType = valueClass != null ? ScalarType.of(valueClass) : null;
+            if (valueClass == null || (valueType == null && !RaptorMessageMetadata.isRaptorMessage(valueClass))) {
+                kind = Kind.UNSUPPORTED;
+            }
+            if (kind == Kind.MESSAGE) {
+                valueType = null;
+            }
+            this.kind = kind;
+            this.valueClass = valueClass;
+            this.valueType = valueType;
+            this.keyClass = keyClass;
+            this.keyType = keyClass != null ? ScalarType.of(keyClass) : null;
+        }
+
+        private static Class<?> resolveGeneric(Type genericType, int index) {
+            if (genericType instanceof ParameterizedType) {
+                Type argument = ((ParameterizedType) genericType).getActualTypeArguments()[index];
+                if (argument instanceof Class) {
+                    return (Class<?>) argument;
+                }
+            }
+            return null;
+        }
+
+        RaptorMessageMetadata.FieldMetadata getField() {
+            return field;
+        }
+
+        String getName() {
+            return field.getName();
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        Class<?> getValueClass() {
+            return valueClass;
+        }
+
+        ScalarType getValueType() {
+            return valueType;
+        }
+
+        Class<?> getKeyClass() {
+            return keyClass;
+        }
+
+        ScalarType getKeyType() {
+            return keyType;
+        }
+    }
+
+    /**
+     * 字符串到简单类型的转换,规则与spring默认的转换相同:空字符串为null,byte[]为base64
+     */
+    private enum ScalarType {
+        STRING {
+            @Override
+            Object convert(Class<?> type, String text) {
+                return text;
+            }
+        },
+        NUMBER {
+            @Override
+            @SuppressWarnings("unchecked")
+            Object convert(Class<?> type, String text) {
+                if (!StringUtils.hasText(text)) {
+                    return null;
+                }
+                return NumberUtils.parseNumber(text, (Class<? extends Number>) ClassUtils.resolvePrimitiveIfNecessary(type));
+            }
+        },
+        BOOLEAN {
+            @Override
+            Object convert(Class<?> type, String text) {
+                String value = text.trim().toLowerCase();
+                if (value.isEmpty()) {
+                    return null;
+                }
+                switch (value) {
+                    case "true":
+                    case "on":
+                    case "yes":
+                    case "1":
+                        return Boolean.TRUE;
+                    case "false":
+                    case "off":
+                    case "no":
+                    case "0":
+                        return Boolean.FALSE;
+                    default:
+                        throw new IllegalArgumentException("Invalid boolean value '" + text + "'");
+                }
+            }
+        },
+        ENUM {
+            @Override
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Object convert(Class<?> type, String text) {
+                String value = text.trim();
+                if (value.isEmpty()) {
+                    return null;
+                }
+                return Enum.valueOf((Class<? extends Enum>) type, value);
+            }
+        },
+        BYTES {
+            @Override
+            Object convert(Class<?> type, String text) {
+                return Base64Utils.decodeFromString(text);
+            }
+        };
+
+        abstract Object convert(Class<?> type, String text);
+
+        static ScalarType of(Class<?> type) {
+            Class<?> wrapperType = ClassUtils.resolvePrimitiveIfNecessary(type);
+            if (String.class == type) {
+                return STRING;
+            }
+            if (Number.class.isAssignableFrom(wrapperType) && wrapperType.getName().startsWith("java.lang.")) {
+                return NUMBER;
+            }
+            if (Boolean.class == wrapperType) {
+                return BOOLEAN;
+            }
+            if (type.isEnum()) {
+                return ENUM;
+            }
+            if (byte[].class == type) {
+                return BYTES;
+            }
+            return null;
+        }
+    }
+}
@@ -2,9 +2,18 @@
 // Source file: com/ppdai/framework/raptor/proto/helloworld.proto
 package com.ppdai.framework.raptor.proto;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.ppdai.framework.raptor.annotation.RaptorField;
 import com.ppdai.framework.raptor.annotation.RaptorMessage;
-
+import com.ppdai.framework.raptor.serialize.CodecRegistry;
+import com.ppdai.framework.raptor.serialize.JsonCodec;
+import com.ppdai.framework.raptor.serialize.JsonCodecUtils;
+import com.ppdai.framework.raptor.serialize.ProtobufCodec;
+import com.ppdai.framework.raptor.serialize.ProtobufReader;
+import com.ppdai.framework.raptor.serialize.ProtobufWriter;
+import java.io.IOException;
 import java.util.Objects;
 
 @RaptorMessage(
@@ -14,6 +23,58 @@ import java.util.Objects;
 public final class Cat {
   private static final long serialVersionUID = 0L;
 
+  public static final ProtobufCodec<Cat> PROTOBUF_CODEC = new ProtobufCodec<Cat>() {
+    @Override
+    public void write(Cat message, ProtobufWriter writer) {
+      if (message.color != null) {
+        writer.writeString(1, message.color);
+      }
+    }
+
+    @Override
+    public Cat read(ProtobufReader reader) {
+      Cat message = new Cat();
+      int tag;
+      while ((tag = reader.readTag()) != 0) {
+        switch (tag) {
+          case 10: message.color = reader.readString(); break;
+          default: reader.skipField(tag); break;
+        }
+      }
+      return message;
+    }
+  };
+
+  public static final JsonCodec<Cat> JSON_CODEC = new JsonCodec<Cat>() {
+    @Override
+    public void write(Cat message, JsonGenerator generator) throws IOException {
+      generator.writeStartObject();
+      generator.writeFieldName("color");
+      if (message.color == null) generator.writeNull(); else generator.writeString(message.color);
+      generator.writeEndObject();
+    }
+
+    @Override
+    public Cat read(JsonParser parser) throws IOException {
+      if (!JsonCodecUtils.startObject(parser)) return null;
+      Cat message = new Cat();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        parser.nextToken();
+        switch (fieldName) {
+          case "color": message.color = JsonCodecUtils.readString(parser); break;
+          default: parser.skipChildren(); break;
+        }
+      }
+      return message;
+    }
+  };
+
+  static {
+    CodecRegistry.register(Cat.class, ProtobufCodec.class, PROTOBUF_CODEC);
+    CodecRegistry.register(Cat.class, JsonCodec.class, JSON_CODEC);
+  }
+
   @RaptorField(
       fieldType = "string",
       order = 1,
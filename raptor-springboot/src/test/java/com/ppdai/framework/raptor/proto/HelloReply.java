@@ -2,9 +2,19 @@
 // Source file: com/ppdai/framework/raptor/proto/helloworld.proto
 package com.ppdai.framework.raptor.proto;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.ppdai.framework.raptor.annotation.RaptorField;
 import com.ppdai.framework.raptor.annotation.RaptorMessage;
-
+import com.ppdai.framework.raptor.serialize.CodecRegistry;
+import com.ppdai.framework.raptor.serialize.JsonCodec;
+import com.ppdai.framework.raptor.serialize.JsonCodecUtils;
+import com.ppdai.framework.raptor.serialize.ProtobufCodec;
+import com.ppdai.framework.raptor.serialize.ProtobufReader;
+import com.ppdai.framework.raptor.serialize.ProtobufWriter;
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 
@@ -15,6 +25,122 @@ import java.util.Objects;
 public final class HelloReply {
   private static final long serialVersionUID = 0L;
 
+  public static final ProtobufCodec<HelloReply> PROTOBUF_CODEC = new ProtobufCodec<HelloReply>() {
+    @Override
+    public void write(HelloReply message, ProtobufWriter writer) {
+      if (message.message != null) {
+        writer.writeString(1, message.message);
+      }
+      if (message.code != null) {
+        writer.writeInt32(2, message.code);
+      }
+      if (message.request != null) {
+        writer.writeMessage(3, message.request, HelloRequest.PROTOBUF_CODEC);
+      }
+      if (message.result != null) {
+        for (Map.Entry<String, String> entry : message.result.entrySet()) {
+          int lengthPosition = writer.beginLengthDelimited(4);
+          if (entry.getKey() != null) writer.writeString(1, entry.getKey());
+          if (entry.getValue() != null) writer.writeString(2, entry.getValue());
+          writer.endLengthDelimited(lengthPosition);
+        }
+      }
+    }
+
+    @Override
+    public HelloReply read(ProtobufReader reader) {
+      HelloReply message = new HelloReply();
+      int tag;
+      while ((tag = reader.readTag()) != 0) {
+        switch (tag) {
+          case 10: message.message = reader.readString(); break;
+          case 16: message.code = reader.readInt32(); break;
+          case 26: message.request = reader.readMessage(HelloRequest.PROTOBUF_CODEC); break;
+          case 34: {
+            if (message.result == null) message.result = new LinkedHashMap<>();
+            int oldLimit = reader.pushLimit();
+            String key = "";
+            String value = "";
+            int entryTag;
+            while ((entryTag = reader.readTag()) != 0) {
+              switch (entryTag) {
+                case 10: key = reader.readString(); break;
+                case 18: value = reader.readString(); break;
+                default: reader.skipField(entryTag); break;
+              }
+            }
+            reader.popLimit(oldLimit);
+            message.result.put(key, value);
+            break;
+          }
+          default: reader.skipField(tag); break;
+        }
+      }
+      return message;
+    }
+  };
+
+  public static final JsonCodec<HelloReply> JSON_CODEC = new JsonCodec<HelloReply>() {
+    @Override
+    public void write(HelloReply message, JsonGenerator generator) throws IOException {
+      generator.writeStartObject();
+      generator.writeFieldName("message");
+      if (message.message == null) generator.writeNull(); else generator.writeString(message.message);
+      generator.writeFieldName("code");
+      if (message.code == null) generator.writeNull(); else generator.writeNumber(message.code);
+      generator.writeFieldName("request");
+      if (message.request == null) generator.writeNull(); else HelloRequest.JSON_CODEC.write(message.request, generator);
+      generator.writeFieldName("result");
+      if (message.result == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartObject();
+        for (Map.Entry<String, String> entry : message.result.entrySet()) {
+          generator.writeFieldName(String.valueOf(entry.getKey()));
+          if (entry.getValue() == null) generator.writeNull(); else generator.writeString(entry.getValue());
+        }
+        generator.writeEndObject();
+      }
+      generator.writeEndObject();
+    }
+
+    @Override
+    public HelloReply read(JsonParser parser) throws IOException {
+      if (!JsonCodecUtils.startObject(parser)) return null;
+      HelloReply message = new HelloReply();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        parser.nextToken();
+        switch (fieldName) {
+          case "message": message.message = JsonCodecUtils.readString(parser); break;
+          case "code": message.code = JsonCodecUtils.readInteger(parser); break;
+          case "request": message.request = HelloRequest.JSON_CODEC.read(parser); break;
+          case "result": {
+            if (JsonCodecUtils.startObject(parser)) {
+              Map<String, String> map = new LinkedHashMap<>();
+              while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                parser.nextToken();
+                map.put(key, JsonCodecUtils.readString(parser));
+              }
+              message.result = map;
+            } else {
+              message.result = null;
+            }
+            break;
+          }
+          default: parser.skipChildren(); break;
+        }
+      }
+      return message;
+    }
+  };
+
+  static {
+    CodecRegistry.register(HelloReply.class, ProtobufCodec.class, PROTOBUF_CODEC);
+    CodecRegistry.register(HelloReply.class, JsonCodec.class, JSON_CODEC);
+  }
+
   @RaptorField(
       fieldType = "string",
       order = 1,
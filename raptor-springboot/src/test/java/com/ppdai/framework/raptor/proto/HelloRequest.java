@@ -2,10 +2,21 @@
 // Source file: com/ppdai/framework/raptor/proto/helloworld.proto
 package com.ppdai.framework.raptor.proto;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.ppdai.framework.raptor.annotation.RaptorField;
 import com.ppdai.framework.raptor.annotation.RaptorMessage;
-
+import com.ppdai.framework.raptor.serialize.CodecRegistry;
+import com.ppdai.framework.raptor.serialize.JsonCodec;
+import com.ppdai.framework.raptor.serialize.JsonCodecUtils;
+import com.ppdai.framework.raptor.serialize.ProtobufCodec;
+import com.ppdai.framework.raptor.serialize.ProtobufReader;
+import com.ppdai.framework.raptor.serialize.ProtobufWriter;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -17,6 +28,1027 @@ import java.util.Objects;
 public final class HelloRequest {
   private static final long serialVersionUID = 0L;
 
+  public static final ProtobufCodec<HelloRequest> PROTOBUF_CODEC = new ProtobufCodec<HelloRequest>() {
+    @Override
+    public void write(HelloRequest message, ProtobufWriter writer) {
+      if (message.name != null) {
+        writer.writeString(1, message.name);
+      }
+      if (message.corpus != null) {
+        writer.writeEnum(2, message.corpus.getValue());
+      }
+      if (message.snippets != null) {
+        for (String element : message.snippets) {
+          if (element != null) writer.writeString(3, element);
+        }
+      }
+      if (message.cats != null) {
+        for (Cat element : message.cats) {
+          if (element != null) writer.writeMessage(4, element, Cat.PROTOBUF_CODEC);
+        }
+      }
+      if (message.result != null) {
+        writer.writeMessage(5, message.result, Result.PROTOBUF_CODEC);
+      }
+      if (message.tDouble != null) {
+        writer.writeDouble(6, message.tDouble);
+      }
+      if (message.tFloat != null) {
+        writer.writeFloat(7, message.tFloat);
+      }
+      if (message.tint32 != null) {
+        writer.writeInt32(8, message.tint32);
+      }
+      if (message.tint64 != null) {
+        writer.writeInt64(9, message.tint64);
+      }
+      if (message.tunit32 != null) {
+        writer.writeUInt32(10, message.tunit32);
+      }
+      if (message.tunit64 != null) {
+        writer.writeUInt64(11, message.tunit64);
+      }
+      if (message.tsint32 != null) {
+        writer.writeSInt32(12, message.tsint32);
+      }
+      if (message.tsint64 != null) {
+        writer.writeSInt64(13, message.tsint64);
+      }
+      if (message.tfixed32 != null) {
+        writer.writeFixed32(14, message.tfixed32);
+      }
+      if (message.tfixed64 != null) {
+        writer.writeFixed64(15, message.tfixed64);
+      }
+      if (message.tsfixed32 != null) {
+        writer.writeSFixed32(16, message.tsfixed32);
+      }
+      if (message.tsfixed64 != null) {
+        writer.writeSFixed64(17, message.tsfixed64);
+      }
+      if (message.tbytes != null) {
+        writer.writeBytes(18, message.tbytes);
+      }
+      if (message.tbool != null) {
+        writer.writeBool(19, message.tbool);
+      }
+      if (message.repInt32 != null && !message.repInt32.isEmpty()) {
+        int lengthPosition = writer.beginLengthDelimited(201);
+        for (Integer element : message.repInt32) {
+          if (element != null) writer.writeInt32NoTag(element);
+        }
+        writer.endLengthDelimited(lengthPosition);
+      }
+      if (message.repUint32 != null && !message.repUint32.isEmpty()) {
+        int lengthPosition = writer.beginLengthDelimited(202);
+        for (Integer element : message.repUint32) {
+          if (element != null) writer.writeUInt32NoTag(element);
+        }
+        writer.endLengthDelimited(lengthPosition);
+      }
+      if (message.repSint32 != null && !message.repSint32.isEmpty()) {
+        int lengthPosition = writer.beginLengthDelimited(203);
+        for (Integer element : message.repSint32) {
+          if (element != null) writer.writeSInt32NoTag(element);
+        }
+        writer.endLengthDelimited(lengthPosition);
+      }
+      if (message.repFixed32 != null && !message.repFixed32.isEmpty()) {
+        int lengthPosition = writer.beginLengthDelimited(204);
+        for (Integer element : message.repFixed32) {
+          if (element != null) writer.writeFixed32NoTag(element);
+        }
+        writer.endLengthDelimited(lengthPosition);
+      }
+      if (message.repSfixed32 != null && !message.repSfixed32.isEmpty()) {
+        int lengthPosition = writer.beginLengthDelimited(205);
+        for (Integer element : message.repSfixed32) {
+          if (element != null) writer.writeSFixed32NoTag(element);
+        }
+        writer.endLengthDelimited(lengthPosition);
+      }
+      if (message.repInt64 != null && !message.repInt64.isEmpty()) {
+        int lengthPosition = writer.beginLengthDelimited(206);
+        for (Long element : message.repInt64) {
+          if (element != null) writer.writeInt64NoTag(element);
+        }
+        writer.endLengthDelimited(lengthPosition);
+      }
+      if (message.repUint64 != null && !message.repUint64.isEmpty()) {
+        int lengthPosition = writer.beginLengthDelimited(207);
+        for (Long element : message.repUint64) {
+          if (element != null) writer.writeUInt64NoTag(element);
+        }
+        writer.endLengthDelimited(lengthPosition);
+      }
+      if (message.repSint64 != null && !message.repSint64.isEmpty()) {
+        int lengthPosition = writer.beginLengthDelimited(208);
+        for (Long element : message.repSint64) {
+          if (element != null) writer.writeSInt64NoTag(element);
+        }
+        writer.endLengthDelimited(lengthPosition);
+      }
+      if (message.repFixed64 != null && !message.repFixed64.isEmpty()) {
+        int lengthPosition = writer.beginLengthDelimited(209);
+        for (Long element : message.repFixed64) {
+          if (element != null) writer.writeFixed64NoTag(element);
+        }
+        writer.endLengthDelimited(lengthPosition);
+      }
+      if (message.repSfixed64 != null && !message.repSfixed64.isEmpty()) {
+        int lengthPosition = writer.beginLengthDelimited(210);
+        for (Long element : message.repSfixed64) {
+          if (element != null) writer.writeSFixed64NoTag(element);
+        }
+        writer.endLengthDelimited(lengthPosition);
+      }
+      if (message.repBool != null && !message.repBool.isEmpty()) {
+        int lengthPosition = writer.beginLengthDelimited(211);
+        for (Boolean element : message.repBool) {
+          if (element != null) writer.writeBoolNoTag(element);
+        }
+        writer.endLengthDelimited(lengthPosition);
+      }
+      if (message.repFloat != null && !message.repFloat.isEmpty()) {
+        int lengthPosition = writer.beginLengthDelimited(212);
+        for (Float element : message.repFloat) {
+          if (element != null) writer.writeFloatNoTag(element);
+        }
+        writer.endLengthDelimited(lengthPosition);
+      }
+      if (message.repDouble != null && !message.repDouble.isEmpty()) {
+        int lengthPosition = writer.beginLengthDelimited(213);
+        for (Double element : message.repDouble) {
+          if (element != null) writer.writeDoubleNoTag(element);
+        }
+        writer.endLengthDelimited(lengthPosition);
+      }
+      if (message.repString != null) {
+        for (String element : message.repString) {
+          if (element != null) writer.writeString(214, element);
+        }
+      }
+      if (message.repBytes != null) {
+        for (byte[] element : message.repBytes) {
+          if (element != null) writer.writeBytes(215, element);
+        }
+      }
+      if (message.repResult != null) {
+        for (Result element : message.repResult) {
+          if (element != null) writer.writeMessage(216, element, Result.PROTOBUF_CODEC);
+        }
+      }
+      if (message.mapInt32Int32 != null) {
+        for (Map.Entry<Integer, Integer> entry : message.mapInt32Int32.entrySet()) {
+          int lengthPosition = writer.beginLengthDelimited(501);
+          if (entry.getKey() != null) writer.writeInt32(1, entry.getKey());
+          if (entry.getValue() != null) writer.writeInt32(2, entry.getValue());
+          writer.endLengthDelimited(lengthPosition);
+        }
+      }
+      if (message.mapStringString != null) {
+        for (Map.Entry<String, String> entry : message.mapStringString.entrySet()) {
+          int lengthPosition = writer.beginLengthDelimited(502);
+          if (entry.getKey() != null) writer.writeString(1, entry.getKey());
+          if (entry.getValue() != null) writer.writeString(2, entry.getValue());
+          writer.endLengthDelimited(lengthPosition);
+        }
+      }
+      if (message.mapStringMessage != null) {
+        for (Map.Entry<String, Result> entry : message.mapStringMessage.entrySet()) {
+          int lengthPosition = writer.beginLengthDelimited(503);
+          if (entry.getKey() != null) writer.writeString(1, entry.getKey());
+          if (entry.getValue() != null) writer.writeMessage(2, entry.getValue(), Result.PROTOBUF_CODEC);
+          writer.endLengthDelimited(lengthPosition);
+        }
+      }
+      if (message.mapStringEnum != null) {
+        for (Map.Entry<String, Corpus> entry : message.mapStringEnum.entrySet()) {
+          int lengthPosition = writer.beginLengthDelimited(504);
+          if (entry.getKey() != null) writer.writeString(1, entry.getKey());
+          if (entry.getValue() != null) writer.writeEnum(2, entry.getValue().getValue());
+          writer.endLengthDelimited(lengthPosition);
+        }
+      }
+    }
+
+    @Override
+    public HelloRequest read(ProtobufReader reader) {
+      HelloRequest message = new HelloRequest();
+      int tag;
+      while ((tag = reader.readTag()) != 0) {
+        switch (tag) {
+          case 10: message.name = reader.readString(); break;
+          case 16: message.corpus = Corpus.fromValue(reader.readEnum()); break;
+          case 26: {
+            if (message.snippets == null) message.snippets = new ArrayList<>();
+            message.snippets.add(reader.readString());
+            break;
+          }
+          case 34: {
+            if (message.cats == null) message.cats = new ArrayList<>();
+            message.cats.add(reader.readMessage(Cat.PROTOBUF_CODEC));
+            break;
+          }
+          case 42: message.result = reader.readMessage(Result.PROTOBUF_CODEC); break;
+          case 49: message.tDouble = reader.readDouble(); break;
+          case 61: message.tFloat = reader.readFloat(); break;
+          case 64: message.tint32 = reader.readInt32(); break;
+          case 72: message.tint64 = reader.readInt64(); break;
+          case 80: message.tunit32 = reader.readUInt32(); break;
+          case 88: message.tunit64 = reader.readUInt64(); break;
+          case 96: message.tsint32 = reader.readSInt32(); break;
+          case 104: message.tsint64 = reader.readSInt64(); break;
+          case 117: message.tfixed32 = reader.readFixed32(); break;
+          case 121: message.tfixed64 = reader.readFixed64(); break;
+          case 133: message.tsfixed32 = reader.readSFixed32(); break;
+          case 137: message.tsfixed64 = reader.readSFixed64(); break;
+          case 146: message.tbytes = reader.readBytes(); break;
+          case 152: message.tbool = reader.readBool(); break;
+          case 1610: {
+            if (message.repInt32 == null) message.repInt32 = new ArrayList<>();
+            int oldLimit = reader.pushLimit();
+            while (!reader.isAtEnd()) message.repInt32.add(reader.readInt32());
+            reader.popLimit(oldLimit);
+            break;
+          }
+          case 1608: {
+            if (message.repInt32 == null) message.repInt32 = new ArrayList<>();
+            message.repInt32.add(reader.readInt32());
+            break;
+          }
+          case 1618: {
+            if (message.repUint32 == null) message.repUint32 = new ArrayList<>();
+            int oldLimit = reader.pushLimit();
+            while (!reader.isAtEnd()) message.repUint32.add(reader.readUInt32());
+            reader.popLimit(oldLimit);
+            break;
+          }
+          case 1616: {
+            if (message.repUint32 == null) message.repUint32 = new ArrayList<>();
+            message.repUint32.add(reader.readUInt32());
+            break;
+          }
+          case 1626: {
+            if (message.repSint32 == null) message.repSint32 = new ArrayList<>();
+            int oldLimit = reader.pushLimit();
+            while (!reader.isAtEnd()) message.repSint32.add(reader.readSInt32());
+            reader.popLimit(oldLimit);
+            break;
+          }
+          case 1624: {
+            if (message.repSint32 == null) message.repSint32 = new ArrayList<>();
+            message.repSint32.add(reader.readSInt32());
+            break;
+          }
+          case 1634: {
+            if (message.repFixed32 == null) message.repFixed32 = new ArrayList<>();
+            int oldLimit = reader.pushLimit();
+            while (!reader.isAtEnd()) message.repFixed32.add(reader.readFixed32());
+            reader.popLimit(oldLimit);
+            break;
+          }
+          case 1637: {
+            if (message.repFixed32 == null) message.repFixed32 = new ArrayList<>();
+            message.repFixed32.add(reader.readFixed32());
+            break;
+          }
+          case 1642: {
+            if (message.repSfixed32 == null) message.repSfixed32 = new ArrayList<>();
+            int oldLimit = reader.pushLimit();
+            while (!reader.isAtEnd()) message.repSfixed32.add(reader.readSFixed32());
+            reader.popLimit(oldLimit);
+            break;
+          }
+          case 1645: {
+            if (message.repSfixed32 == null) message.repSfixed32 = new ArrayList<>();
+            message.repSfixed32.add(reader.readSFixed32());
+            break;
+          }
+          case 1650: {
+            if (message.repInt64 == null) message.repInt64 = new ArrayList<>();
+            int oldLimit = reader.pushLimit();
+            while (!reader.isAtEnd()) message.repInt64.add(reader.readInt64());
+            reader.popLimit(oldLimit);
+            break;
+          }
+          case 1648: {
+            if (message.repInt64 == null) message.repInt64 = new ArrayList<>();
+            message.repInt64.add(reader.readInt64());
+            break;
+          }
+          case 1658: {
+            if (message.repUint64 == null) message.repUint64 = new ArrayList<>();
+            int oldLimit = reader.pushLimit();
+            while (!reader.isAtEnd()) message.repUint64.add(reader.readUInt64());
+            reader.popLimit(oldLimit);
+            break;
+          }
+          case 1656: {
+            if (message.repUint64 == null) message.repUint64 = new ArrayList<>();
+            message.repUint64.add(reader.readUInt64());
+            break;
+          }
+          case 1666: {
+            if (message.repSint64 == null) message.repSint64 = new ArrayList<>();
+            int oldLimit = reader.pushLimit();
+            while (!reader.isAtEnd()) message.repSint64.add(reader.readSInt64());
+            reader.popLimit(oldLimit);
+            break;
+          }
+          case 1664: {
+            if (message.repSint64 == null) message.repSint64 = new ArrayList<>();
+            message.repSint64.add(reader.readSInt64());
+            break;
+          }
+          case 1674: {
+            if (message.repFixed64 == null) message.repFixed64 = new ArrayList<>();
+            int oldLimit = reader.pushLimit();
+            while (!reader.isAtEnd()) message.repFixed64.add(reader.readFixed64());
+            reader.popLimit(oldLimit);
+            break;
+          }
+          case 1673: {
+            if (message.repFixed64 == null) message.repFixed64 = new ArrayList<>();
+            message.repFixed64.add(reader.readFixed64());
+            break;
+          }
+          case 1682: {
+            if (message.repSfixed64 == null) message.repSfixed64 = new ArrayList<>();
+            int oldLimit = reader.pushLimit();
+            while (!reader.isAtEnd()) message.repSfixed64.add(reader.readSFixed64());
+            reader.popLimit(oldLimit);
+            break;
+          }
+          case 1681: {
+            if (message.repSfixed64 == null) message.repSfixed64 = new ArrayList<>();
+            message.repSfixed64.add(reader.readSFixed64());
+            break;
+          }
+          case 1690: {
+            if (message.repBool == null) message.repBool = new ArrayList<>();
+            int oldLimit = reader.pushLimit();
+            while (!reader.isAtEnd()) message.repBool.add(reader.readBool());
+            reader.popLimit(oldLimit);
+            break;
+          }
+          case 1688: {
+            if (message.repBool == null) message.repBool = new ArrayList<>();
+            message.repBool.add(reader.readBool());
+            break;
+          }
+          case 1698: {
+            if (message.repFloat == null) message.repFloat = new ArrayList<>();
+            int oldLimit = reader.pushLimit();
+            while (!reader.isAtEnd()) message.repFloat.add(reader.readFloat());
+            reader.popLimit(oldLimit);
+            break;
+          }
+          case 1701: {
+            if (message.repFloat == null) message.repFloat = new ArrayList<>();
+            message.repFloat.add(reader.readFloat());
+            break;
+          }
+          case 1706: {
+            if (message.repDouble == null) message.repDouble = new ArrayList<>();
+            int oldLimit = reader.pushLimit();
+            while (!reader.isAtEnd()) message.repDouble.add(reader.readDouble());
+            reader.popLimit(oldLimit);
+            break;
+          }
+          case 1705: {
+            if (message.repDouble == null) message.repDouble = new ArrayList<>();
+            message.repDouble.add(reader.readDouble());
+            break;
+          }
+          case 1714: {
+            if (message.repString == null) message.repString = new ArrayList<>();
+            message.repString.add(reader.readString());
+            break;
+          }
+          case 1722: {
+            if (message.repBytes == null) message.repBytes = new ArrayList<>();
+            message.repBytes.add(reader.readBytes());
+            break;
+          }
+          case 1730: {
+            if (message.repResult == null) message.repResult = new ArrayList<>();
+            message.repResult.add(reader.readMessage(Result.PROTOBUF_CODEC));
+            break;
+          }
+          case 4010: {
+            if (message.mapInt32Int32 == null) message.mapInt32Int32 = new LinkedHashMap<>();
+            int oldLimit = reader.pushLimit();
+            Integer key = 0;
+            Integer value = 0;
+            int entryTag;
+            while ((entryTag = reader.readTag()) != 0) {
+              switch (entryTag) {
+                case 8: key = reader.readInt32(); break;
+                case 16: value = reader.readInt32(); break;
+                default: reader.skipField(entryTag); break;
+              }
+            }
+            reader.popLimit(oldLimit);
+            message.mapInt32Int32.put(key, value);
+            break;
+          }
+          case 4018: {
+            if (message.mapStringString == null) message.mapStringString = new LinkedHashMap<>();
+            int oldLimit = reader.pushLimit();
+            String key = "";
+            String value = "";
+            int entryTag;
+            while ((entryTag = reader.readTag()) != 0) {
+              switch (entryTag) {
+                case 10: key = reader.readString(); break;
+                case 18: value = reader.readString(); break;
+                default: reader.skipField(entryTag); break;
+              }
+            }
+            reader.popLimit(oldLimit);
+            message.mapStringString.put(key, value);
+            break;
+          }
+          case 4026: {
+            if (message.mapStringMessage == null) message.mapStringMessage = new LinkedHashMap<>();
+            int oldLimit = reader.pushLimit();
+            String key = "";
+            Result value = new Result();
+            int entryTag;
+            while ((entryTag = reader.readTag()) != 0) {
+              switch (entryTag) {
+                case 10: key = reader.readString(); break;
+                case 18: value = reader.readMessage(Result.PROTOBUF_CODEC); break;
+                default: reader.skipField(entryTag); break;
+              }
+            }
+            reader.popLimit(oldLimit);
+            message.mapStringMessage.put(key, value);
+            break;
+          }
+          case 4034: {
+            if (message.mapStringEnum == null) message.mapStringEnum = new LinkedHashMap<>();
+            int oldLimit = reader.pushLimit();
+            String key = "";
+            Corpus value = Corpus.fromValue(0);
+            int entryTag;
+            while ((entryTag = reader.readTag()) != 0) {
+              switch (entryTag) {
+                case 10: key = reader.readString(); break;
+                case 16: value = Corpus.fromValue(reader.readEnum()); break;
+                default: reader.skipField(entryTag); break;
+              }
+            }
+            reader.popLimit(oldLimit);
+            message.mapStringEnum.put(key, value);
+            break;
+          }
+          default: reader.skipField(tag); break;
+        }
+      }
+      return message;
+    }
+  };
+
+  public static final JsonCodec<HelloRequest> JSON_CODEC = new JsonCodec<HelloRequest>() {
+    @Override
+    public void write(HelloRequest message, JsonGenerator generator) throws IOException {
+      generator.writeStartObject();
+      generator.writeFieldName("name");
+      if (message.name == null) generator.writeNull(); else generator.writeString(message.name);
+      generator.writeFieldName("corpus");
+      if (message.corpus == null) generator.writeNull(); else generator.writeString(message.corpus.name());
+      generator.writeFieldName("snippets");
+      if (message.snippets == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (String element : message.snippets) {
+          if (element == null) generator.writeNull(); else generator.writeString(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("cats");
+      if (message.cats == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Cat element : message.cats) {
+          if (element == null) generator.writeNull(); else Cat.JSON_CODEC.write(element, generator);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("result");
+      if (message.result == null) generator.writeNull(); else Result.JSON_CODEC.write(message.result, generator);
+      generator.writeFieldName("tint32");
+      if (message.tint32 == null) generator.writeNull(); else generator.writeNumber(message.tint32);
+      generator.writeFieldName("tint64");
+      if (message.tint64 == null) generator.writeNull(); else generator.writeNumber(message.tint64);
+      generator.writeFieldName("tunit32");
+      if (message.tunit32 == null) generator.writeNull(); else generator.writeNumber(message.tunit32);
+      generator.writeFieldName("tunit64");
+      if (message.tunit64 == null) generator.writeNull(); else generator.writeNumber(message.tunit64);
+      generator.writeFieldName("tsint32");
+      if (message.tsint32 == null) generator.writeNull(); else generator.writeNumber(message.tsint32);
+      generator.writeFieldName("tsint64");
+      if (message.tsint64 == null) generator.writeNull(); else generator.writeNumber(message.tsint64);
+      generator.writeFieldName("tfixed32");
+      if (message.tfixed32 == null) generator.writeNull(); else generator.writeNumber(message.tfixed32);
+      generator.writeFieldName("tfixed64");
+      if (message.tfixed64 == null) generator.writeNull(); else generator.writeNumber(message.tfixed64);
+      generator.writeFieldName("tsfixed32");
+      if (message.tsfixed32 == null) generator.writeNull(); else generator.writeNumber(message.tsfixed32);
+      generator.writeFieldName("tsfixed64");
+      if (message.tsfixed64 == null) generator.writeNull(); else generator.writeNumber(message.tsfixed64);
+      generator.writeFieldName("tbytes");
+      if (message.tbytes == null) generator.writeNull(); else generator.writeBinary(message.tbytes);
+      generator.writeFieldName("tbool");
+      if (message.tbool == null) generator.writeNull(); else generator.writeBoolean(message.tbool);
+      generator.writeFieldName("repInt32");
+      if (message.repInt32 == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Integer element : message.repInt32) {
+          if (element == null) generator.writeNull(); else generator.writeNumber(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repUint32");
+      if (message.repUint32 == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Integer element : message.repUint32) {
+          if (element == null) generator.writeNull(); else generator.writeNumber(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repSint32");
+      if (message.repSint32 == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Integer element : message.repSint32) {
+          if (element == null) generator.writeNull(); else generator.writeNumber(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repFixed32");
+      if (message.repFixed32 == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Integer element : message.repFixed32) {
+          if (element == null) generator.writeNull(); else generator.writeNumber(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repSfixed32");
+      if (message.repSfixed32 == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Integer element : message.repSfixed32) {
+          if (element == null) generator.writeNull(); else generator.writeNumber(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repInt64");
+      if (message.repInt64 == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Long element : message.repInt64) {
+          if (element == null) generator.writeNull(); else generator.writeNumber(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repUint64");
+      if (message.repUint64 == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Long element : message.repUint64) {
+          if (element == null) generator.writeNull(); else generator.writeNumber(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repSint64");
+      if (message.repSint64 == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Long element : message.repSint64) {
+          if (element == null) generator.writeNull(); else generator.writeNumber(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repFixed64");
+      if (message.repFixed64 == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Long element : message.repFixed64) {
+          if (element == null) generator.writeNull(); else generator.writeNumber(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repSfixed64");
+      if (message.repSfixed64 == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Long element : message.repSfixed64) {
+          if (element == null) generator.writeNull(); else generator.writeNumber(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repBool");
+      if (message.repBool == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Boolean element : message.repBool) {
+          if (element == null) generator.writeNull(); else generator.writeBoolean(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repFloat");
+      if (message.repFloat == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Float element : message.repFloat) {
+          if (element == null) generator.writeNull(); else generator.writeNumber(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repDouble");
+      if (message.repDouble == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Double element : message.repDouble) {
+          if (element == null) generator.writeNull(); else generator.writeNumber(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repString");
+      if (message.repString == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (String element : message.repString) {
+          if (element == null) generator.writeNull(); else generator.writeString(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repBytes");
+      if (message.repBytes == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (byte[] element : message.repBytes) {
+          if (element == null) generator.writeNull(); else generator.writeBinary(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("repResult");
+      if (message.repResult == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (Result element : message.repResult) {
+          if (element == null) generator.writeNull(); else Result.JSON_CODEC.write(element, generator);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeFieldName("mapInt32Int32");
+      if (message.mapInt32Int32 == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartObject();
+        for (Map.Entry<Integer, Integer> entry : message.mapInt32Int32.entrySet()) {
+          generator.writeFieldName(String.valueOf(entry.getKey()));
+          if (entry.getValue() == null) generator.writeNull(); else generator.writeNumber(entry.getValue());
+        }
+        generator.writeEndObject();
+      }
+      generator.writeFieldName("mapStringString");
+      if (message.mapStringString == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartObject();
+        for (Map.Entry<String, String> entry : message.mapStringString.entrySet()) {
+          generator.writeFieldName(String.valueOf(entry.getKey()));
+          if (entry.getValue() == null) generator.writeNull(); else generator.writeString(entry.getValue());
+        }
+        generator.writeEndObject();
+      }
+      generator.writeFieldName("mapStringMessage");
+      if (message.mapStringMessage == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartObject();
+        for (Map.Entry<String, Result> entry : message.mapStringMessage.entrySet()) {
+          generator.writeFieldName(String.valueOf(entry.getKey()));
+          if (entry.getValue() == null) generator.writeNull(); else Result.JSON_CODEC.write(entry.getValue(), generator);
+        }
+        generator.writeEndObject();
+      }
+      generator.writeFieldName("mapStringEnum");
+      if (message.mapStringEnum == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartObject();
+        for (Map.Entry<String, Corpus> entry : message.mapStringEnum.entrySet()) {
+          generator.writeFieldName(String.valueOf(entry.getKey()));
+          if (entry.getValue() == null) generator.writeNull(); else generator.writeString(entry.getValue().name());
+        }
+        generator.writeEndObject();
+      }
+      generator.writeFieldName("tdouble");
+      if (message.tDouble == null) generator.writeNull(); else generator.writeNumber(message.tDouble);
+      generator.writeFieldName("tfloat");
+      if (message.tFloat == null) generator.writeNull(); else generator.writeNumber(message.tFloat);
+      generator.writeEndObject();
+    }
+
+    @Override
+    public HelloRequest read(JsonParser parser) throws IOException {
+      if (!JsonCodecUtils.startObject(parser)) return null;
+      HelloRequest message = new HelloRequest();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        parser.nextToken();
+        switch (fieldName) {
+          case "name": message.name = JsonCodecUtils.readString(parser); break;
+          case "corpus": message.corpus = JsonCodecUtils.readEnum(parser, Corpus.class); break;
+          case "snippets": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<String> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readString(parser));
+              message.snippets = list;
+            } else {
+              message.snippets = null;
+            }
+            break;
+          }
+          case "cats": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Cat> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(Cat.JSON_CODEC.read(parser));
+              message.cats = list;
+            } else {
+              message.cats = null;
+            }
+            break;
+          }
+          case "result": message.result = Result.JSON_CODEC.read(parser); break;
+          case "tint32": message.tint32 = JsonCodecUtils.readInteger(parser); break;
+          case "tint64": message.tint64 = JsonCodecUtils.readLong(parser); break;
+          case "tunit32": message.tunit32 = JsonCodecUtils.readInteger(parser); break;
+          case "tunit64": message.tunit64 = JsonCodecUtils.readLong(parser); break;
+          case "tsint32": message.tsint32 = JsonCodecUtils.readInteger(parser); break;
+          case "tsint64": message.tsint64 = JsonCodecUtils.readLong(parser); break;
+          case "tfixed32": message.tfixed32 = JsonCodecUtils.readInteger(parser); break;
+          case "tfixed64": message.tfixed64 = JsonCodecUtils.readLong(parser); break;
+          case "tsfixed32": message.tsfixed32 = JsonCodecUtils.readInteger(parser); break;
+          case "tsfixed64": message.tsfixed64 = JsonCodecUtils.readLong(parser); break;
+          case "tbytes": message.tbytes = JsonCodecUtils.readBytes(parser); break;
+          case "tbool": message.tbool = JsonCodecUtils.readBoolean(parser); break;
+          case "repInt32": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Integer> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readInteger(parser));
+              message.repInt32 = list;
+            } else {
+              message.repInt32 = null;
+            }
+            break;
+          }
+          case "repUint32": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Integer> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readInteger(parser));
+              message.repUint32 = list;
+            } else {
+              message.repUint32 = null;
+            }
+            break;
+          }
+          case "repSint32": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Integer> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readInteger(parser));
+              message.repSint32 = list;
+            } else {
+              message.repSint32 = null;
+            }
+            break;
+          }
+          case "repFixed32": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Integer> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readInteger(parser));
+              message.repFixed32 = list;
+            } else {
+              message.repFixed32 = null;
+            }
+            break;
+          }
+          case "repSfixed32": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Integer> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readInteger(parser));
+              message.repSfixed32 = list;
+            } else {
+              message.repSfixed32 = null;
+            }
+            break;
+          }
+          case "repInt64": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Long> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readLong(parser));
+              message.repInt64 = list;
+            } else {
+              message.repInt64 = null;
+            }
+            break;
+          }
+          case "repUint64": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Long> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readLong(parser));
+              message.repUint64 = list;
+            } else {
+              message.repUint64 = null;
+            }
+            break;
+          }
+          case "repSint64": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Long> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readLong(parser));
+              message.repSint64 = list;
+            } else {
+              message.repSint64 = null;
+            }
+            break;
+          }
+          case "repFixed64": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Long> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readLong(parser));
+              message.repFixed64 = list;
+            } else {
+              message.repFixed64 = null;
+            }
+            break;
+          }
+          case "repSfixed64": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Long> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readLong(parser));
+              message.repSfixed64 = list;
+            } else {
+              message.repSfixed64 = null;
+            }
+            break;
+          }
+          case "repBool": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Boolean> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readBoolean(parser));
+              message.repBool = list;
+            } else {
+              message.repBool = null;
+            }
+            break;
+          }
+          case "repFloat": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Float> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readFloat(parser));
+              message.repFloat = list;
+            } else {
+              message.repFloat = null;
+            }
+            break;
+          }
+          case "repDouble": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Double> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readDouble(parser));
+              message.repDouble = list;
+            } else {
+              message.repDouble = null;
+            }
+            break;
+          }
+          case "repString": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<String> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readString(parser));
+              message.repString = list;
+            } else {
+              message.repString = null;
+            }
+            break;
+          }
+          case "repBytes": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<byte[]> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readBytes(parser));
+              message.repBytes = list;
+            } else {
+              message.repBytes = null;
+            }
+            break;
+          }
+          case "repResult": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<Result> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(Result.JSON_CODEC.read(parser));
+              message.repResult = list;
+            } else {
+              message.repResult = null;
+            }
+            break;
+          }
+          case "mapInt32Int32": {
+            if (JsonCodecUtils.startObject(parser)) {
+              Map<Integer, Integer> map = new LinkedHashMap<>();
+              while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                Integer key = Integer.valueOf(parser.getCurrentName());
+                parser.nextToken();
+                map.put(key, JsonCodecUtils.readInteger(parser));
+              }
+              message.mapInt32Int32 = map;
+            } else {
+              message.mapInt32Int32 = null;
+            }
+            break;
+          }
+          case "mapStringString": {
+            if (JsonCodecUtils.startObject(parser)) {
+              Map<String, String> map = new LinkedHashMap<>();
+              while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                parser.nextToken();
+                map.put(key, JsonCodecUtils.readString(parser));
+              }
+              message.mapStringString = map;
+            } else {
+              message.mapStringString = null;
+            }
+            break;
+          }
+          case "mapStringMessage": {
+            if (JsonCodecUtils.startObject(parser)) {
+              Map<String, Result> map = new LinkedHashMap<>();
+              while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                parser.nextToken();
+                map.put(key, Result.JSON_CODEC.read(parser));
+              }
+              message.mapStringMessage = map;
+            } else {
+              message.mapStringMessage = null;
+            }
+            break;
+          }
+          case "mapStringEnum": {
+            if (JsonCodecUtils.startObject(parser)) {
+              Map<String, Corpus> map = new LinkedHashMap<>();
+              while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                parser.nextToken();
+                map.put(key, JsonCodecUtils.readEnum(parser, Corpus.class));
+              }
+              message.mapStringEnum = map;
+            } else {
+              message.mapStringEnum = null;
+            }
+            break;
+          }
+          case "tdouble": message.tDouble = JsonCodecUtils.readDouble(parser); break;
+          case "tfloat": message.tFloat = JsonCodecUtils.readFloat(parser); break;
+          default: parser.skipChildren(); break;
+        }
+      }
+      return message;
+    }
+  };
+
+  static {
+    CodecRegistry.register(HelloRequest.class, ProtobufCodec.class, PROTOBUF_CODEC);
+    CodecRegistry.register(HelloRequest.class, JsonCodec.class, JSON_CODEC);
+  }
+
   @RaptorField(
       fieldType = "string",
       order = 1,
@@ -868,6 +1900,65 @@ public final class HelloRequest {
   public static final class Result {
     private static final long serialVersionUID = 0L;
 
+    public static final ProtobufCodec<Result> PROTOBUF_CODEC = new ProtobufCodec<Result>() {
+      @Override
+      public void write(Result message, ProtobufWriter writer) {
+        if (message.url != null) {
+          writer.writeString(1, message.url);
+        }
+        if (message.corpus != null) {
+          writer.writeEnum(2, message.corpus.getValue());
+        }
+      }
+
+      @Override
+      public Result read(ProtobufReader reader) {
+        Result message = new Result();
+        int tag;
+        while ((tag = reader.readTag()) != 0) {
+          switch (tag) {
+            case 10: message.url = reader.readString(); break;
+            case 16: message.corpus = Corpus.fromValue(reader.readEnum()); break;
+            default: reader.skipField(tag); break;
+          }
+        }
+        return message;
+      }
+    };
+
+    public static final JsonCodec<Result> JSON_CODEC = new JsonCodec<Result>() {
+      @Override
+      public void write(Result message, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName("url");
+        if (message.url == null) generator.writeNull(); else generator.writeString(message.url);
+        generator.writeFieldName("corpus");
+        if (message.corpus == null) generator.writeNull(); else generator.writeString(message.corpus.name());
+        generator.writeEndObject();
+      }
+
+      @Override
+      public Result read(JsonParser parser) throws IOException {
+        if (!JsonCodecUtils.startObject(parser)) return null;
+        Result message = new Result();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String fieldName = parser.getCurrentName();
+          parser.nextToken();
+          switch (fieldName) {
+            case "url": message.url = JsonCodecUtils.readString(parser); break;
+            case "corpus": message.corpus = JsonCodecUtils.readEnum(parser, Corpus.class); break;
+            default: parser.skipChildren(); break;
+          }
+        }
+        return message;
+      }
+    };
+
+    static {
+      CodecRegistry.register(Result.class, ProtobufCodec.class, PROTOBUF_CODEC);
+      CodecRegistry.register(Result.class, JsonCodec.class, JSON_CODEC);
+    }
+
     @RaptorField(
         fieldType = "string",
         order = 1,
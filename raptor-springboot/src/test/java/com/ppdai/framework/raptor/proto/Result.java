@@ -2,9 +2,19 @@
 // Source file: com/ppdai/framework/raptor/proto/Result.proto
 package com.ppdai.framework.raptor.proto;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.ppdai.framework.raptor.annotation.RaptorField;
 import com.ppdai.framework.raptor.annotation.RaptorMessage;
-
+import com.ppdai.framework.raptor.serialize.CodecRegistry;
+import com.ppdai.framework.raptor.serialize.JsonCodec;
+import com.ppdai.framework.raptor.serialize.JsonCodecUtils;
+import com.ppdai.framework.raptor.serialize.ProtobufCodec;
+import com.ppdai.framework.raptor.serialize.ProtobufReader;
+import com.ppdai.framework.raptor.serialize.ProtobufWriter;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -14,6 +24,95 @@ import java.util.Objects;
 public final class Result {
   private static final long serialVersionUID = 0L;
 
+  public static final ProtobufCodec<Result> PROTOBUF_CODEC = new ProtobufCodec<Result>() {
+    @Override
+    public void write(Result message, ProtobufWriter writer) {
+      if (message.url != null) {
+        writer.writeString(1, message.url);
+      }
+      if (message.title != null) {
+        writer.writeString(2, message.title);
+      }
+      if (message.snippets != null) {
+        for (String element : message.snippets) {
+          if (element != null) writer.writeString(3, element);
+        }
+      }
+    }
+
+    @Override
+    public Result read(ProtobufReader reader) {
+      Result message = new Result();
+      int tag;
+      while ((tag = reader.readTag()) != 0) {
+        switch (tag) {
+          case 10: message.url = reader.readString(); break;
+          case 18: message.title = reader.readString(); break;
+          case 26: {
+            if (message.snippets == null) message.snippets = new ArrayList<>();
+            message.snippets.add(reader.readString());
+            break;
+          }
+          default: reader.skipField(tag); break;
+        }
+      }
+      return message;
+    }
+  };
+
+  public static final JsonCodec<Result> JSON_CODEC = new JsonCodec<Result>() {
+    @Override
+    public void write(Result message, JsonGenerator generator) throws IOException {
+      generator.writeStartObject();
+      generator.writeFieldName("url");
+      if (message.url == null) generator.writeNull(); else generator.writeString(message.url);
+      generator.writeFieldName("title");
+      if (message.title == null) generator.writeNull(); else generator.writeString(message.title);
+      generator.writeFieldName("snippets");
+      if (message.snippets == null) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        for (String element : message.snippets) {
+          if (element == null) generator.writeNull(); else generator.writeString(element);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeEndObject();
+    }
+
+    @Override
+    public Result read(JsonParser parser) throws IOException {
+      if (!JsonCodecUtils.startObject(parser)) return null;
+      Result message = new Result();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        parser.nextToken();
+        switch (fieldName) {
+          case "url": message.url = JsonCodecUtils.readString(parser); break;
+          case "title": message.title = JsonCodecUtils.readString(parser); break;
+          case "snippets": {
+            if (JsonCodecUtils.startArray(parser)) {
+              List<String> list = new ArrayList<>();
+              while (parser.nextToken() != JsonToken.END_ARRAY) list.add(JsonCodecUtils.readString(parser));
+              message.snippets = list;
+            } else {
+              message.snippets = null;
+            }
+            break;
+          }
+          default: parser.skipChildren(); break;
+        }
+      }
+      return message;
+    }
+  };
+
+  static {
+    CodecRegistry.register(Result.class, ProtobufCodec.class, PROTOBUF_CODEC);
+    CodecRegistry.register(Result.class, JsonCodec.class, JSON_CODEC);
+  }
+
   @RaptorField(
       fieldType = "string",
       order = 1,
@@ -2,8 +2,13 @@
 // Source file: com/ppdai/framework/raptor/proto/helloworld.proto
 package com.ppdai.framework.raptor.proto;
 
+import com.ppdai.framework.raptor.annotation.RaptorAsync;
 import com.ppdai.framework.raptor.annotation.RaptorInterface;
 import com.ppdai.framework.raptor.annotation.RaptorMethod;
+import com.ppdai.framework.raptor.annotation.RaptorStream;
+import com.ppdai.framework.raptor.rpc.RaptorStreamIterator;
+import com.ppdai.framework.raptor.rpc.RaptorStreamObserver;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 
@@ -22,4 +27,27 @@ public interface Simple {
   )
   @RaptorMethod
   HelloReply sayHello(HelloRequest request);
+
+  @RaptorAsync
+  default CompletableFuture<HelloReply> sayHelloAsync(HelloRequest request) {
+    CompletableFuture<HelloReply> future = new CompletableFuture<>();
+    try {
+      future.complete(sayHello(request));
+    } catch (Throwable e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  @RequestMapping(
+      path = "/raptor/com.ppdai.framework.raptor.proto.Simple/listHello",
+      method = RequestMethod.POST
+  )
+  @RaptorMethod
+  void listHello(HelloRequest request, RaptorStreamObserver<HelloReply> responseObserver);
+
+  @RaptorStream
+  default RaptorStreamIterator<HelloReply> listHelloStream(HelloRequest request) {
+    return RaptorStreamIterator.collect(responseObserver -> listHello(request, responseObserver));
+  }
 }
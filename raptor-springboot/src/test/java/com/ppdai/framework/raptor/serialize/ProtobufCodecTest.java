@@ -0,0 +1,52 @@
+package com.ppdai.framework.raptor.serialize;
+
+import com.ppdai.framework.raptor.proto.HelloReply;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import com.ppdai.framework.raptor.spring.converter.RaptorProtobufMessageConverterTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * 生成的ProtobufCodec与反射实现的wire格式一致
+ *
+ * @author yinzuolong
+ */
+public class ProtobufCodecTest {
+
+    @Test
+    public void testRegistered() {
+        Assert.assertSame(HelloRequest.PROTOBUF_CODEC, CodecRegistry.getCodec(HelloRequest.class, ProtobufCodec.class));
+        Assert.assertNull(CodecRegistry.getCodec(String.class, ProtobufCodec.class));
+    }
+
+    @Test
+    public void testSameAsReflection() {
+        HelloReply reply = new HelloReply();
+        reply.setMessage("hello");
+        reply.setCode(-1);
+        reply.setRequest(RaptorProtobufMessageConverterTest.createHelloRequest());
+        reply.setResult(Collections.singletonMap("k", "v"));
+
+        ProtobufWriter writer = new ProtobufWriter();
+        ProtobufSchema.of(HelloReply.class).write(reply, writer);
+        byte[] reflection = writer.toByteArray();
+        byte[] generated = ProtobufSerializer.serialize(reply);
+        Assert.assertArrayEquals(reflection, generated);
+
+        HelloReply result = ProtobufSerializer.deserialize(generated, HelloReply.class);
+        Assert.assertArrayEquals(generated, ProtobufSerializer.serialize(result));
+        HelloReply reflectionResult = (HelloReply) ProtobufSchema.of(HelloReply.class).read(new ProtobufReader(generated));
+        Assert.assertArrayEquals(generated, ProtobufSerializer.serialize(reflectionResult));
+    }
+
+    @Test
+    public void testReadUnpacked() {
+        //未打包的repeated字段: field 201, varint
+        byte[] data = new byte[]{(byte) 0xC8, 0x0C, 0x01, (byte) 0xC8, 0x0C, 0x02};
+        HelloRequest request = ProtobufSerializer.deserialize(data, HelloRequest.class);
+        Assert.assertEquals(Arrays.asList(1, 2), request.getRepInt32());
+    }
+}
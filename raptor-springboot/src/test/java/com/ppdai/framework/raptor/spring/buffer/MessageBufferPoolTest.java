@@ -0,0 +1,55 @@
+package com.ppdai.framework.raptor.spring.buffer;
+
+import com.ppdai.framework.raptor.proto.HelloReply;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * @author yinzuolong
+ */
+public class MessageBufferPoolTest {
+
+    @Test
+    public void testReuse() {
+        MessageBufferPool pool = new MessageBufferPool(1, 1024 * 1024);
+        RecyclableBufferOutputStream buffer = pool.acquire(HelloRequest.class);
+        buffer.write(new byte[]{1, 2, 3}, 0, 3);
+        Assert.assertArrayEquals(new byte[]{1, 2, 3}, buffer.toByteArray());
+        pool.release(HelloRequest.class, buffer);
+
+        RecyclableBufferOutputStream reused = pool.acquire(HelloRequest.class);
+        Assert.assertSame(buffer, reused);
+        Assert.assertEquals(0, reused.size());
+        //池已空,新分配
+        Assert.assertNotSame(buffer, pool.acquire(HelloRequest.class));
+    }
+
+    @Test
+    public void testEstimate() {
+        MessageBufferPool pool = new MessageBufferPool(1, 1024 * 1024);
+        RecyclableBufferOutputStream buffer = pool.acquire(HelloRequest.class);
+        byte[] body = new byte[100 * 1024];
+        Arrays.fill(body, (byte) 1);
+        buffer.write(body, 0, body.length);
+        pool.release(HelloRequest.class, buffer);
+
+        Assert.assertTrue(pool.getEstimate(HelloRequest.class) >= body.length);
+        Assert.assertEquals(pool.getEstimate(HelloReply.class), new MessageBufferPool().getEstimate(HelloReply.class));
+        //没有复用的缓冲区时,按估计值一次分配
+        RecyclableBufferOutputStream other = new MessageBufferPool(0, 0).acquire(HelloRequest.class);
+        Assert.assertTrue(other.capacity() < body.length);
+        Assert.assertTrue(pool.acquire(HelloRequest.class).capacity() >= body.length);
+    }
+
+    @Test
+    public void testNotRetainLargeBuffer() {
+        MessageBufferPool pool = new MessageBufferPool(4, 1024);
+        RecyclableBufferOutputStream buffer = pool.acquire(HelloRequest.class);
+        buffer.write(new byte[4096], 0, 4096);
+        pool.release(HelloRequest.class, buffer);
+        Assert.assertNotSame(buffer, pool.acquire(HelloRequest.class));
+    }
+}
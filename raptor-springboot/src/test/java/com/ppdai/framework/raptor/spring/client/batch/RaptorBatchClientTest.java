@@ -0,0 +1,143 @@
+package com.ppdai.framework.raptor.spring.client.batch;
+
+import com.ppdai.framework.raptor.spring.batch.RaptorBatchCodec;
+import com.ppdai.framework.raptor.spring.batch.RaptorBatchRequest;
+import com.ppdai.framework.raptor.spring.batch.RaptorBatchResponse;
+import com.ppdai.framework.raptor.spring.client.feign.RaptorAsyncClient;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorBatchClientTest {
+
+    private static final String URL = "http://localhost:8080";
+
+    @Test
+    public void testMaxSize() throws Exception {
+        EchoBatchClient delegate = new EchoBatchClient(200);
+        RaptorBatchClient client = new RaptorBatchClient(URL, delegate, 3, 60000);
+        List<CompletableFuture<Response>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(client.execute(request("/raptor/test?id=" + i, "body" + i), new Request.Options()));
+        }
+        //达到maxSize时不等待定时器
+        for (int i = 0; i < 3; i++) {
+            Response response = futures.get(i).get(1, TimeUnit.SECONDS);
+            Assert.assertEquals(200, response.status());
+            Assert.assertEquals("POST /raptor/test?id=" + i + " body" + i, Util.toString(response.body().asReader()));
+        }
+        Assert.assertEquals(Collections.singletonList(URL + "/raptor/batch"), delegate.urls);
+    }
+
+    @Test
+    public void testMaxDelay() throws Exception {
+        EchoBatchClient delegate = new EchoBatchClient(200);
+        RaptorBatchClient client = new RaptorBatchClient(URL, delegate, 100, 10);
+        CompletableFuture<Response> first = client.execute(request("/raptor/a", "a"), new Request.Options());
+        CompletableFuture<Response> second = client.execute(request("/raptor/b", "b"), new Request.Options());
+        Assert.assertEquals("POST /raptor/a a", Util.toString(first.get(1, TimeUnit.SECONDS).body().asReader()));
+        Assert.assertEquals("POST /raptor/b b", Util.toString(second.get(1, TimeUnit.SECONDS).body().asReader()));
+        Assert.assertEquals(1, delegate.urls.size());
+
+        //只有一个调用时按原请求发送
+        client.execute(request("/raptor/c", "c"), new Request.Options()).get(1, TimeUnit.SECONDS);
+        Assert.assertEquals(URL + "/raptor/c", delegate.urls.get(1));
+    }
+
+    @Test
+    public void testUnsupported() throws Exception {
+        EchoBatchClient delegate = new EchoBatchClient(404);
+        RaptorBatchClient client = new RaptorBatchClient(URL, delegate, 2, 60000);
+        CompletableFuture<Response> first = client.execute(request("/raptor/a", "a"), new Request.Options());
+        CompletableFuture<Response> second = client.execute(request("/raptor/b", "b"), new Request.Options());
+        Assert.assertEquals("direct /raptor/a", Util.toString(first.get(1, TimeUnit.SECONDS).body().asReader()));
+        Assert.assertEquals("direct /raptor/b", Util.toString(second.get(1, TimeUnit.SECONDS).body().asReader()));
+
+        //之后不再尝试批量请求
+        client.execute(request("/raptor/c", "c"), new Request.Options()).get(1, TimeUnit.SECONDS);
+        Assert.assertEquals(Arrays.asList(URL + "/raptor/batch", URL + "/raptor/a", URL + "/raptor/b", URL + "/raptor/c"), delegate.urls);
+    }
+
+    @Test
+    public void testCodec() throws Exception {
+        RaptorBatchRequest request = new RaptorBatchRequest();
+        request.setMethod("GET");
+        request.setUri("/more/get2?name=%E4%B8%AD");
+        request.getHeaders().add("x-raptor-request-id", "1");
+        request.getHeaders().add("Accept", "application/json");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RaptorBatchCodec.writeRequests(Arrays.asList(request, request), out);
+        List<RaptorBatchRequest> requests = RaptorBatchCodec.readRequests(new ByteArrayInputStream(out.toByteArray()), 2);
+        Assert.assertEquals(2, requests.size());
+        Assert.assertEquals("/more/get2?name=%E4%B8%AD", requests.get(1).getUri());
+        Assert.assertEquals("1", requests.get(1).getHeaders().getFirst("X-Raptor-Request-Id"));
+        Assert.assertEquals(0, requests.get(1).getBody().length);
+
+        try {
+            RaptorBatchCodec.readRequests(new ByteArrayInputStream(out.toByteArray()), 1);
+            Assert.fail();
+        } catch (java.io.IOException e) {
+            Assert.assertTrue(e.getMessage().contains("exceeds"));
+        }
+    }
+
+    private Request request(String path, String body) {
+        return Request.create("POST", URL + path, new HashMap<>(), body.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    /**
+     * 批量请求返回每个调用的method、uri和body,单独请求返回direct + path
+     */
+    private static class EchoBatchClient implements RaptorAsyncClient {
+        private final int batchStatus;
+        private final List<String> urls = Collections.synchronizedList(new ArrayList<>());
+
+        EchoBatchClient(int batchStatus) {
+            this.batchStatus = batchStatus;
+        }
+
+        @Override
+        public CompletableFuture<Response> execute(Request request, Request.Options options) {
+            urls.add(request.url());
+            try {
+                if (!request.url().endsWith("/raptor/batch")) {
+                    return CompletableFuture.completedFuture(response(200, ("direct " + request.url().substring(URL.length())).getBytes(StandardCharsets.UTF_8)));
+                }
+                if (batchStatus != 200) {
+                    return CompletableFuture.completedFuture(response(batchStatus, new byte[0]));
+                }
+                List<RaptorBatchResponse> responses = new ArrayList<>();
+                for (RaptorBatchRequest batchRequest : RaptorBatchCodec.readRequests(new ByteArrayInputStream(request.body()), 100)) {
+                    RaptorBatchResponse response = new RaptorBatchResponse();
+                    response.setStatus(200);
+                    response.setBody((batchRequest.getMethod() + " " + batchRequest.getUri() + " "
+                            + new String(batchRequest.getBody(), StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8));
+                    responses.add(response);
+                }
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                RaptorBatchCodec.writeResponses(responses, out);
+                return CompletableFuture.completedFuture(response(200, out.toByteArray()));
+            } catch (Exception e) {
+                CompletableFuture<Response> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                return failed;
+            }
+        }
+
+        private Response response(int status, byte[] body) {
+            return Response.builder().status(status).headers(new HashMap<>()).body(body).build();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.ppdai.framework.raptor.spring.client.breaker;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorCircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private RaptorCircuitBreakerConfig createConfig() {
+        RaptorCircuitBreakerConfig config = new RaptorCircuitBreakerConfig();
+        config.setMinimumCalls(4);
+        config.setOpenMillis(50);
+        config.setHalfOpenCalls(2);
+        config.setSlowCallDurationMillis(100);
+        return config;
+    }
+
+    @Test
+    public void testOpenAndRecover() throws Exception {
+        RaptorCircuitBreaker breaker = new RaptorCircuitBreaker("Simple#sayHello", createConfig());
+        //调用数不足minimumCalls时不打开
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(breaker.tryAcquire());
+            breaker.onComplete(FAST, true);
+        }
+        Assert.assertEquals(RaptorCircuitBreaker.State.CLOSED, breaker.getState());
+        Assert.assertTrue(breaker.tryAcquire());
+        breaker.onComplete(FAST, true);
+        Assert.assertEquals(RaptorCircuitBreaker.State.OPEN, breaker.getState());
+        Assert.assertFalse(breaker.tryAcquire());
+
+        //半开时只放行halfOpenCalls个调用,全部成功后关闭
+        Thread.sleep(60);
+        Assert.assertTrue(breaker.tryAcquire());
+        Assert.assertEquals(RaptorCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        Assert.assertTrue(breaker.tryAcquire());
+        Assert.assertFalse(breaker.tryAcquire());
+        breaker.onComplete(FAST, false);
+        Assert.assertEquals(RaptorCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onComplete(FAST, false);
+        Assert.assertEquals(RaptorCircuitBreaker.State.CLOSED, breaker.getState());
+
+        //关闭后使用新的窗口
+        Assert.assertTrue(breaker.tryAcquire());
+        breaker.onComplete(FAST, true);
+        Assert.assertEquals(RaptorCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenFailure() throws Exception {
+        RaptorCircuitBreaker breaker = new RaptorCircuitBreaker("Simple#sayHello", createConfig());
+        for (int i = 0; i < 4; i++) {
+            breaker.onComplete(FAST, true);
+        }
+        Thread.sleep(60);
+        Assert.assertTrue(breaker.tryAcquire());
+        breaker.onComplete(FAST, true);
+        Assert.assertEquals(RaptorCircuitBreaker.State.OPEN, breaker.getState());
+        Assert.assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testFailureRate() {
+        RaptorCircuitBreaker breaker = new RaptorCircuitBreaker("Simple#sayHello", createConfig());
+        for (int i = 0; i < 10; i++) {
+            breaker.onComplete(FAST, false);
+        }
+        //失败率 4/14 < 50%
+        for (int i = 0; i < 4; i++) {
+            breaker.onComplete(FAST, true);
+        }
+        Assert.assertEquals(RaptorCircuitBreaker.State.CLOSED, breaker.getState());
+        for (int i = 0; i < 6; i++) {
+            breaker.onComplete(FAST, true);
+        }
+        Assert.assertEquals(RaptorCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testSlowCallRate() {
+        RaptorCircuitBreakerConfig config = createConfig();
+        config.setSlowCallRateThreshold(50);
+        RaptorCircuitBreaker breaker = new RaptorCircuitBreaker("Simple#sayHello", config);
+        long slow = TimeUnit.MILLISECONDS.toNanos(200);
+        breaker.onComplete(FAST, false);
+        breaker.onComplete(FAST, false);
+        breaker.onComplete(slow, false);
+        Assert.assertEquals(RaptorCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onComplete(slow, false);
+        Assert.assertEquals(RaptorCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testWindow() {
+        RaptorCircuitBreaker.Window window = new RaptorCircuitBreaker.Window(2);
+        long second = TimeUnit.SECONDS.toNanos(1);
+        window.record(0, true, false);
+        window.record(second, false, true);
+        Assert.assertArrayEquals(new int[]{2, 1, 1}, window.sum(second));
+        //过期的桶不再统计,写入时被替换
+        Assert.assertArrayEquals(new int[]{1, 0, 1}, window.sum(second * 2));
+        window.record(second * 2, false, false);
+        Assert.assertArrayEquals(new int[]{2, 0, 1}, window.sum(second * 2));
+    }
+}
@@ -0,0 +1,81 @@
+package com.ppdai.framework.raptor.spring.client.discovery;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author yinzuolong
+ */
+public class FileRaptorServiceDiscoveryTest {
+
+    private Path file;
+    private FileRaptorServiceDiscovery discovery;
+
+    @Before
+    public void before() throws Exception {
+        file = Files.createTempFile("raptor-services", ".properties");
+        discovery = new FileRaptorServiceDiscovery(file, 10);
+    }
+
+    @After
+    public void after() throws Exception {
+        discovery.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        write("123456=http://host1:8080, http://host2:8080/\ndemo=http://host3:8080\n");
+        discovery.refresh();
+        Assert.assertEquals(Arrays.asList("http://host1:8080", "http://host2:8080/"), discovery.getUrls("123456", "demo"));
+        Assert.assertEquals(Collections.singletonList("http://host3:8080"), discovery.getUrls("", "demo"));
+        Assert.assertEquals(Collections.singletonList("http://host3:8080"), discovery.getUrls("654321", "demo"));
+        Assert.assertTrue(discovery.getUrls("654321", "").isEmpty());
+
+        List<List<String>> changes = new ArrayList<>();
+        discovery.subscribe("123456", "demo", changes::add);
+        //订阅时收到当前的实例
+        Assert.assertEquals(Collections.singletonList(Arrays.asList("http://host1:8080", "http://host2:8080/")), changes);
+        changes.clear();
+        write("123456=http://host1:8080,http://host2:8080/\ndemo=http://host4:8080\n");
+        discovery.refresh();
+        Assert.assertTrue(changes.isEmpty());
+
+        write("demo=http://host4:8080\n");
+        discovery.refresh();
+        Assert.assertEquals(Collections.singletonList(Collections.singletonList("http://host4:8080")), changes);
+
+        //文件删除时保留上次的实例
+        Files.delete(file);
+        discovery.refresh();
+        Assert.assertEquals(Collections.singletonList("http://host4:8080"), discovery.getUrls("123456", "demo"));
+    }
+
+    @Test
+    public void testWatch() throws Exception {
+        write("demo=http://host1:8080\n");
+        discovery.start();
+        Assert.assertEquals(Collections.singletonList("http://host1:8080"), discovery.getUrls(null, "demo"));
+
+        write("demo=http://host2:8080\n");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!discovery.getUrls(null, "demo").contains("http://host2:8080") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(Collections.singletonList("http://host2:8080"), discovery.getUrls(null, "demo"));
+    }
+
+    private void write(String content) throws Exception {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
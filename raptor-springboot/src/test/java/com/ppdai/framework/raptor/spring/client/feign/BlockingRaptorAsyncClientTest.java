@@ -0,0 +1,52 @@
+package com.ppdai.framework.raptor.spring.client.feign;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author yinzuolong
+ */
+public class BlockingRaptorAsyncClientTest {
+
+    @Test
+    public void testRejectWhenFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Client client = (request, options) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Response.builder().status(200).headers(Collections.emptyMap()).body(new byte[0]).build();
+        };
+        Request request = Request.create("POST", "http://localhost/raptor", Collections.emptyMap(), new byte[0], StandardCharsets.UTF_8);
+        try (BlockingRaptorAsyncClient asyncClient = new BlockingRaptorAsyncClient(client, 1, 1)) {
+            CompletableFuture<Response> running = asyncClient.execute(request, new Request.Options());
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Response> queued = asyncClient.execute(request, new Request.Options());
+            CompletableFuture<Response> rejected = asyncClient.execute(request, new Request.Options());
+            try {
+                rejected.get(5, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+            release.countDown();
+            Assert.assertEquals(200, running.get(5, TimeUnit.SECONDS).status());
+            Assert.assertEquals(200, queued.get(5, TimeUnit.SECONDS).status());
+        }
+    }
+}
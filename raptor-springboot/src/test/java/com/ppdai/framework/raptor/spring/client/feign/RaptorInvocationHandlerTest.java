@@ -0,0 +1,245 @@
+package com.ppdai.framework.raptor.spring.client.feign;
+
+import com.ppdai.framework.raptor.exception.RaptorCircuitOpenException;
+import com.ppdai.framework.raptor.exception.RaptorLimitExceededException;
+import com.ppdai.framework.raptor.rpc.RaptorClientInterceptor;
+import com.ppdai.framework.raptor.rpc.RaptorContext;
+import com.ppdai.framework.raptor.rpc.RaptorRequest;
+import com.ppdai.framework.raptor.rpc.RaptorResponse;
+import com.ppdai.framework.raptor.spring.client.breaker.RaptorCircuitBreaker;
+import com.ppdai.framework.raptor.spring.client.breaker.RaptorCircuitBreakerConfig;
+import com.ppdai.framework.raptor.spring.limit.RaptorConcurrencyLimiter;
+import feign.InvocationHandlerFactory;
+import feign.Target;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorInvocationHandlerTest {
+
+    public interface Echo {
+        String echo(String value);
+    }
+
+    public interface AsyncEcho extends Echo {
+        CompletableFuture<String> echoAsync(String value);
+    }
+
+    @Test
+    public void testInvoke() throws Exception {
+        Target<Echo> target = new Target.HardCodedTarget<>(Echo.class, "http://localhost:8080");
+        Map<Method, InvocationHandlerFactory.MethodHandler> dispatch = new HashMap<>();
+        dispatch.put(Echo.class.getMethod("echo", String.class), argv -> "echo " + argv[0]);
+
+        List<String> calls = new ArrayList<>();
+        RaptorInvocationHandler handler = new RaptorInvocationHandler(target, dispatch);
+        handler.setInterceptors(Collections.singletonList(new RaptorClientInterceptor() {
+            @Override
+            public void preHandle(RaptorRequest request, RaptorResponse response) {
+                calls.add("pre " + request.getInterfaceName() + "." + request.getMethodName());
+            }
+
+            @Override
+            public void postHandle(RaptorRequest request, RaptorResponse response) {
+                response.setValue(response.getValue() + "!");
+            }
+
+            @Override
+            public void afterCompletion(RaptorRequest request, RaptorResponse response) {
+                calls.add("after " + response.getValue());
+            }
+        }));
+        handler.prepare();
+
+        Echo echo = (Echo) Proxy.newProxyInstance(Echo.class.getClassLoader(), new Class[]{Echo.class}, handler);
+        Assert.assertEquals("echo a!", echo.echo("a"));
+        Assert.assertEquals("echo b!", echo.echo("b"));
+        Assert.assertEquals(4, calls.size());
+        Assert.assertEquals("pre " + Echo.class.getName() + ".echo", calls.get(0));
+        Assert.assertEquals("after echo b", calls.get(3));
+
+        //代理传入的Method实例按引用命中缓存
+        Method proxyMethod = Echo.class.getMethod("echo", String.class);
+        Assert.assertSame(handler.getDescriptor(proxyMethod), handler.getDescriptor(proxyMethod));
+        Assert.assertEquals(RaptorInvocationHandler.MethodKind.SYNC, handler.getDescriptor(proxyMethod).getKind());
+
+        Assert.assertEquals(target.toString(), echo.toString());
+        Assert.assertEquals(target.hashCode(), echo.hashCode());
+        Assert.assertTrue(echo.equals(echo));
+        Assert.assertFalse(echo.equals(new Object()));
+        Assert.assertEquals(4, calls.size());
+
+        //修改拦截器后重新创建方法信息
+        handler.setInterceptors(Collections.emptyList());
+        Assert.assertEquals("echo c", echo.echo("c"));
+        Assert.assertEquals(4, calls.size());
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        Target<Echo> target = new Target.HardCodedTarget<>(Echo.class, "http://localhost:8080");
+        Map<Method, InvocationHandlerFactory.MethodHandler> dispatch = new HashMap<>();
+        Echo[] proxy = new Echo[1];
+        //调用过程中再次调用,超过并发限制1
+        dispatch.put(Echo.class.getMethod("echo", String.class), argv -> {
+            if ("inner".equals(argv[0])) {
+                return "inner";
+            }
+            try {
+                return proxy[0].echo("inner");
+            } catch (RaptorLimitExceededException e) {
+                return "rejected";
+            }
+        });
+        RaptorInvocationHandler handler = new RaptorInvocationHandler(target, dispatch);
+        RaptorConcurrencyLimiter limiter = new RaptorConcurrencyLimiter(1, 1, 1);
+        handler.setConcurrencyLimiter(limiter);
+        proxy[0] = (Echo) Proxy.newProxyInstance(Echo.class.getClassLoader(), new Class[]{Echo.class}, handler);
+
+        Assert.assertEquals("rejected", proxy[0].echo("a"));
+        Assert.assertEquals("inner", proxy[0].echo("inner"));
+        Assert.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        Target<Echo> target = new Target.HardCodedTarget<>(Echo.class, "http://localhost:8080");
+        Map<Method, InvocationHandlerFactory.MethodHandler> dispatch = new HashMap<>();
+        dispatch.put(Echo.class.getMethod("echo", String.class), argv -> {
+            throw new IllegalStateException("down");
+        });
+        RaptorInvocationHandler handler = new RaptorInvocationHandler(target, dispatch);
+        RaptorCircuitBreakerConfig config = new RaptorCircuitBreakerConfig();
+        config.setMinimumCalls(2);
+        handler.setCircuitBreakerConfig(config);
+        RaptorConcurrencyLimiter limiter = new RaptorConcurrencyLimiter(10, 1, 10);
+        handler.setConcurrencyLimiter(limiter);
+        Echo echo = (Echo) Proxy.newProxyInstance(Echo.class.getClassLoader(), new Class[]{Echo.class}, handler);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                echo.echo("a");
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                Assert.assertEquals("down", e.getMessage());
+            }
+        }
+        try {
+            echo.echo("a");
+            Assert.fail();
+        } catch (RaptorCircuitOpenException e) {
+            Assert.assertTrue(e.getMessage().contains(Echo.class.getName() + "#echo"));
+        }
+        Assert.assertEquals(RaptorCircuitBreaker.State.OPEN,
+                handler.getCircuitBreakers().get(Echo.class.getName() + "#echo").getState());
+        Assert.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testAsyncAfterParentClosed() throws Exception {
+        Target<AsyncEcho> target = new Target.HardCodedTarget<>(AsyncEcho.class, "http://localhost:8080");
+        List<CompletableFuture<Object>> pending = new ArrayList<>();
+        RaptorAsyncMethodHandler asyncHandler = new RaptorAsyncMethodHandler(target, null, null, null, null, null, null, null) {
+            @Override
+            public CompletableFuture<Object> invoke(Object[] argv) {
+                CompletableFuture<Object> future = new CompletableFuture<>();
+                pending.add(future);
+                return future;
+            }
+        };
+        RaptorInvocationHandler handler = new RaptorInvocationHandler(target, Collections.emptyMap());
+        handler.setAsyncDispatch(Collections.singletonMap(AsyncEcho.class.getMethod("echoAsync", String.class),
+                new RaptorInvocationHandler.AsyncMethod(Echo.class.getMethod("echo", String.class), asyncHandler)));
+        handler.setInterceptors(Collections.singletonList(new RaptorClientInterceptor() {
+            @Override
+            public void preHandle(RaptorRequest request, RaptorResponse response) {
+            }
+
+            @Override
+            public void postHandle(RaptorRequest request, RaptorResponse response) {
+                //模拟响应头中的trace信息
+                RaptorContext.getContext().putResponseAttachment("x-raptortrace-id", String.valueOf(response.getValue()));
+            }
+
+            @Override
+            public void afterCompletion(RaptorRequest request, RaptorResponse response) {
+            }
+        }));
+        AsyncEcho echo = (AsyncEcho) Proxy.newProxyInstance(AsyncEcho.class.getClassLoader(), new Class[]{AsyncEcho.class}, handler);
+
+        //调用方未结束时合并
+        try (RaptorContext parent = RaptorContext.open()) {
+            CompletableFuture<String> future = echo.echoAsync("a");
+            pending.get(0).complete("a");
+            Assert.assertEquals("a", future.get());
+            Assert.assertEquals("a", parent.getResponseAttachment("x-raptortrace-id"));
+        }
+
+        //调用方结束后context被复用,迟到的响应不写入
+        RaptorContext parent = RaptorContext.open();
+        CompletableFuture<String> future = echo.echoAsync("b");
+        parent.close();
+        try (RaptorContext reused = RaptorContext.open()) {
+            Assert.assertSame(parent, reused);
+            pending.get(1).complete("b");
+            Assert.assertEquals("b", future.get());
+            Assert.assertNull(reused.getResponseAttachment("x-raptortrace-id"));
+        }
+    }
+
+    @Test
+    public void testAsyncPostHandleFailure() throws Exception {
+        Target<AsyncEcho> target = new Target.HardCodedTarget<>(AsyncEcho.class, "http://localhost:8080");
+        RaptorAsyncMethodHandler asyncHandler = new RaptorAsyncMethodHandler(target, null, null, null, null, null, null, null) {
+            @Override
+            public CompletableFuture<Object> invoke(Object[] argv) {
+                return CompletableFuture.completedFuture(argv[0]);
+            }
+        };
+        RaptorInvocationHandler handler = new RaptorInvocationHandler(target, Collections.emptyMap());
+        handler.setAsyncDispatch(Collections.singletonMap(AsyncEcho.class.getMethod("echoAsync", String.class),
+                new RaptorInvocationHandler.AsyncMethod(Echo.class.getMethod("echo", String.class), asyncHandler)));
+        handler.setInterceptors(Collections.singletonList(new RaptorClientInterceptor() {
+            @Override
+            public void preHandle(RaptorRequest request, RaptorResponse response) {
+            }
+
+            @Override
+            public void postHandle(RaptorRequest request, RaptorResponse response) {
+                throw new IllegalStateException("invalid response");
+            }
+
+            @Override
+            public void afterCompletion(RaptorRequest request, RaptorResponse response) {
+            }
+        }));
+        RaptorCircuitBreakerConfig config = new RaptorCircuitBreakerConfig();
+        config.setMinimumCalls(2);
+        handler.setCircuitBreakerConfig(config);
+        AsyncEcho echo = (AsyncEcho) Proxy.newProxyInstance(AsyncEcho.class.getClassLoader(), new Class[]{AsyncEcho.class}, handler);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                echo.echoAsync("a").get();
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertEquals("invalid response", e.getCause().getMessage());
+            }
+        }
+        //postHandle失败算作熔断的失败
+        Assert.assertEquals(RaptorCircuitBreaker.State.OPEN,
+                handler.getCircuitBreakers().get(Echo.class.getName() + "#echo").getState());
+    }
+}
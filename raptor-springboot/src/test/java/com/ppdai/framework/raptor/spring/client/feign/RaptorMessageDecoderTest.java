@@ -0,0 +1,75 @@
+package com.ppdai.framework.raptor.spring.client.feign;
+
+import com.ppdai.framework.raptor.common.RaptorConstants;
+import com.ppdai.framework.raptor.exception.RaptorException;
+import com.ppdai.framework.raptor.proto.HelloReply;
+import com.ppdai.framework.raptor.spring.converter.RaptorJacksonMessageConverter;
+import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import com.ppdai.framework.raptor.spring.converter.RaptorProtobufMessageConverter;
+import com.ppdai.framework.raptor.serialize.ProtobufSerializer;
+import feign.Response;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorMessageDecoderTest {
+
+    private List<RaptorMessageConverter> converters = Arrays.asList(new RaptorJacksonMessageConverter(), new RaptorProtobufMessageConverter());
+
+    @Test
+    public void testDecodeStream() throws Exception {
+        HelloReply reply = new HelloReply();
+        reply.setMessage("hello");
+        byte[] body = ProtobufSerializer.serialize(reply);
+        RaptorMessageDecoder decoder = new RaptorMessageDecoder(converters, body.length);
+        Response response = createResponse(200, RaptorProtobufMessageConverter.APPLICATION_PROTOBUF, body, false);
+        Assert.assertEquals("hello", ((HelloReply) decoder.decode(response, HelloReply.class)).getMessage());
+    }
+
+    @Test
+    public void testMaxBodySize() throws Exception {
+        byte[] body = "{\"message\":\"hello\"}".getBytes(StandardCharsets.UTF_8);
+        RaptorMessageDecoder decoder = new RaptorMessageDecoder(converters, body.length - 1);
+        //没有Content-Length时读取过程中检查
+        for (boolean knownLength : new boolean[]{true, false}) {
+            try {
+                decoder.decode(createResponse(200, MediaType.APPLICATION_JSON_UTF8, body, knownLength), HelloReply.class);
+                Assert.fail();
+            } catch (HttpMessageNotReadableException e) {
+                Assert.assertTrue(e.getMessage().contains("exceeds max size"));
+            }
+        }
+        decoder = new RaptorMessageDecoder(converters, 0);
+        HelloReply reply = (HelloReply) decoder.decode(createResponse(200, MediaType.APPLICATION_JSON_UTF8, body, false), HelloReply.class);
+        Assert.assertEquals("hello", reply.getMessage());
+    }
+
+    @Test
+    public void testErrorBodyTruncated() {
+        char[] chars = new char[100 * 1024];
+        Arrays.fill(chars, 'a');
+        byte[] body = new String(chars).getBytes(StandardCharsets.UTF_8);
+        RaptorErrorDecoder errorDecoder = new RaptorErrorDecoder(converters);
+        Exception exception = errorDecoder.decode("test", createResponse(500, MediaType.TEXT_PLAIN, body, false));
+        Assert.assertTrue(exception instanceof RaptorException);
+        Assert.assertTrue(exception.getMessage().length() < body.length);
+        Assert.assertTrue(exception.getMessage().endsWith("..."));
+    }
+
+    private Response createResponse(int status, MediaType contentType, byte[] body, boolean knownLength) {
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put(HttpHeaders.CONTENT_TYPE, Collections.singletonList(contentType.toString()));
+        headers.put(RaptorConstants.HEADER_ERROR, Collections.singletonList(String.valueOf(status != 200)));
+        Response.Builder builder = Response.builder().status(status).headers(headers);
+        return knownLength ? builder.body(body).build() : builder.body(new ByteArrayInputStream(body), null).build();
+    }
+}
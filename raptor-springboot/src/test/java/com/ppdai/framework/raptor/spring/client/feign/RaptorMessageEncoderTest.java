@@ -0,0 +1,49 @@
+package com.ppdai.framework.raptor.spring.client.feign;
+
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import com.ppdai.framework.raptor.spring.compress.RaptorCompressionPolicy;
+import com.ppdai.framework.raptor.spring.converter.RaptorJacksonMessageConverter;
+import com.ppdai.framework.raptor.spring.converter.RaptorMessageConverter;
+import feign.RequestTemplate;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorMessageEncoderTest {
+
+    private List<RaptorMessageConverter> converters = Collections.singletonList(new RaptorJacksonMessageConverter());
+    private RaptorCompressionPolicy policy = RaptorCompressionPolicy.of(Collections.singletonList("gzip"), 0);
+
+    @Test
+    public void testRequestCompression() {
+        //默认只通过Accept-Encoding协商响应的压缩,请求body不压缩
+        RequestTemplate template = encode(new RaptorMessageEncoder(converters, null, policy));
+        Assert.assertEquals("gzip", getHeader(template, HttpHeaders.ACCEPT_ENCODING));
+        Assert.assertNull(getHeader(template, HttpHeaders.CONTENT_ENCODING));
+
+        template = encode(new RaptorMessageEncoder(converters, null, policy, true));
+        Assert.assertEquals("gzip", getHeader(template, HttpHeaders.ACCEPT_ENCODING));
+        Assert.assertEquals("gzip", getHeader(template, HttpHeaders.CONTENT_ENCODING));
+    }
+
+    private RequestTemplate encode(RaptorMessageEncoder encoder) {
+        HelloRequest request = new HelloRequest();
+        request.setName("ppdai");
+        RequestTemplate template = new RequestTemplate();
+        template.method("POST");
+        encoder.encode(request, HelloRequest.class, template);
+        return template;
+    }
+
+    private static String getHeader(RequestTemplate template, String name) {
+        Collection<String> values = template.headers().get(name);
+        return values == null || values.isEmpty() ? null : values.iterator().next();
+    }
+}
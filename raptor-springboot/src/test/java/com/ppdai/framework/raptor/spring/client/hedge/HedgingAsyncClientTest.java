@@ -0,0 +1,113 @@
+package com.ppdai.framework.raptor.spring.client.hedge;
+
+import com.ppdai.framework.raptor.spring.client.feign.RaptorAsyncClient;
+import com.ppdai.framework.raptor.spring.client.loadbalance.RaptorEndpointGroup;
+import com.ppdai.framework.raptor.spring.client.loadbalance.RoundRobinLoadBalancer;
+import feign.Request;
+import feign.Response;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * slow实例不返回响应,fast实例立即返回
+ *
+ * @author yinzuolong
+ */
+public class HedgingAsyncClientTest {
+
+    private static final String SLOW = "http://slow";
+    private static final String FAST = "http://fast";
+
+    private final Map<String, List<CompletableFuture<Response>>> sent = new ConcurrentHashMap<>();
+    private volatile boolean fastFails;
+    private RaptorEndpointGroup endpointGroup;
+
+    @Before
+    public void setUp() {
+        sent.clear();
+        fastFails = false;
+        endpointGroup = new RaptorEndpointGroup(Arrays.asList(SLOW, FAST), new RoundRobinLoadBalancer());
+    }
+
+    private RaptorAsyncClient createDelegate() {
+        return (request, options) -> {
+            CompletableFuture<Response> future = new CompletableFuture<>();
+            String host = request.url().substring(0, request.url().indexOf('/', "http://".length()));
+            sent.computeIfAbsent(host, key -> new CopyOnWriteArrayList<>()).add(future);
+            if (FAST.equals(host)) {
+                if (fastFails) {
+                    future.completeExceptionally(new IOException("fast failed"));
+                } else {
+                    future.complete(Response.builder().status(200).headers(Collections.emptyMap())
+                            .body(host, feign.Util.UTF_8).request(request).build());
+                }
+            }
+            return future;
+        };
+    }
+
+    private Request createRequest(String method) {
+        return Request.create(method, SLOW + "/more?name=ppdai", Collections.emptyMap(), null, null);
+    }
+
+    @Test
+    public void testHedge() throws Exception {
+        HedgingAsyncClient client = new HedgingAsyncClient(createDelegate(), endpointGroup, new RaptorHedgingPolicy(20L, 95, 100));
+        Response response = client.execute(createRequest("GET"), new Request.Options()).get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(FAST, feign.Util.toString(response.body().asReader()));
+        //慢的请求被取消
+        Assert.assertEquals(1, sent.get(SLOW).size());
+        Assert.assertTrue(sent.get(SLOW).get(0).isCancelled());
+        Assert.assertEquals(1, sent.get(FAST).size());
+        Assert.assertEquals(0, endpointGroup.getEndpoints().get(0).getInFlight());
+    }
+
+    @Test
+    public void testNotHedged() throws Exception {
+        //POST不对冲
+        HedgingAsyncClient client = new HedgingAsyncClient(createDelegate(), endpointGroup, new RaptorHedgingPolicy(0L, 95, 100));
+        CompletableFuture<Response> future = client.execute(createRequest("POST"), new Request.Options());
+        Thread.sleep(50);
+        Assert.assertFalse(future.isDone());
+        Assert.assertNull(sent.get(FAST));
+
+        //预算不足时不对冲
+        sent.clear();
+        setUp();
+        client = new HedgingAsyncClient(createDelegate(), endpointGroup, new RaptorHedgingPolicy(0L, 95, 0));
+        future = client.execute(createRequest("GET"), new Request.Options());
+        Thread.sleep(50);
+        Assert.assertFalse(future.isDone());
+        Assert.assertNull(sent.get(FAST));
+    }
+
+    @Test
+    public void testHedgeFailed() throws Exception {
+        //对冲请求失败时等待原请求
+        fastFails = true;
+        HedgingAsyncClient client = new HedgingAsyncClient(createDelegate(), endpointGroup, new RaptorHedgingPolicy(0L, 95, 100));
+        CompletableFuture<Response> future = client.execute(createRequest("GET"), new Request.Options());
+        Thread.sleep(50);
+        Assert.assertEquals(1, sent.get(FAST).size());
+        Assert.assertFalse(future.isDone());
+        sent.get(SLOW).get(0).completeExceptionally(new IOException("slow failed"));
+        try {
+            future.get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals("slow failed", e.getCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.ppdai.framework.raptor.spring.client.hedge;
+
+import feign.Request;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorHedgingPolicyTest {
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long micros = 0; micros < 100000; micros++) {
+            int index = RaptorLatencyHistogram.index(micros);
+            Assert.assertTrue(micros < RaptorLatencyHistogram.upperBound(index));
+            Assert.assertTrue(index == 0 || micros >= RaptorLatencyHistogram.upperBound(index - 1));
+        }
+        //上界最多偏大25%
+        Assert.assertEquals(1280, RaptorLatencyHistogram.upperBound(RaptorLatencyHistogram.index(1024)));
+    }
+
+    @Test
+    public void testPercentile() {
+        RaptorLatencyHistogram histogram = new RaptorLatencyHistogram(60000);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        Assert.assertEquals(-1, histogram.getPercentileNanos(95, 101));
+        long p95 = TimeUnit.NANOSECONDS.toMillis(histogram.getPercentileNanos(95, 100));
+        Assert.assertTrue(String.valueOf(p95), p95 >= 95 && p95 <= 95 * 5 / 4);
+        long p50 = TimeUnit.NANOSECONDS.toMillis(histogram.getPercentileNanos(50, 100));
+        Assert.assertTrue(String.valueOf(p50), p50 >= 50 && p50 <= 50 * 5 / 4);
+    }
+
+    @Test
+    public void testRotate() throws Exception {
+        RaptorLatencyHistogram histogram = new RaptorLatencyHistogram(20);
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertTrue(histogram.getPercentileNanos(95, 1) > 0);
+        //两个周期后丢弃
+        Thread.sleep(50);
+        Assert.assertEquals(-1, histogram.getPercentileNanos(95, 1));
+    }
+
+    @Test
+    public void testDelay() {
+        RaptorHedgingPolicy fixed = new RaptorHedgingPolicy(30L, 95, 5);
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(30), fixed.getDelayNanos("GET http://demo/more"));
+
+        RaptorHedgingPolicy policy = new RaptorHedgingPolicy(null, 95, 5, 10, 60000);
+        Request request = Request.create("GET", "http://demo/more?name=ppdai", Collections.emptyMap(), null, null);
+        String key = policy.getKey(request);
+        Assert.assertEquals("GET http://demo/more", key);
+        Assert.assertTrue(policy.isHedgeable(request));
+        Assert.assertFalse(policy.isHedgeable(Request.create("POST", "http://demo/more/post1", Collections.emptyMap(), null, null)));
+
+        //样本不足时不对冲
+        for (int i = 0; i < 9; i++) {
+            policy.record(key, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        Assert.assertEquals(-1, policy.getDelayNanos(key));
+        policy.record(key, TimeUnit.MILLISECONDS.toNanos(10));
+        long delay = policy.getDelayNanos(key);
+        Assert.assertTrue(delay >= TimeUnit.MILLISECONDS.toNanos(10) && delay <= TimeUnit.MILLISECONDS.toNanos(13));
+        Assert.assertEquals(-1, policy.getDelayNanos("GET http://demo/more/get2"));
+    }
+
+    @Test
+    public void testBudget() {
+        RaptorHedgingPolicy policy = new RaptorHedgingPolicy(0L, 95, 5);
+        int hedges = 0;
+        for (int i = 0; i < 1000; i++) {
+            policy.onRequest();
+            if (policy.tryAcquire()) {
+                hedges++;
+            }
+        }
+        Assert.assertEquals(50, hedges);
+
+        //空闲时最多积累MAX_BUDGET_TOKENS个
+        RaptorHedgingPolicy idle = new RaptorHedgingPolicy(0L, 95, 100);
+        for (int i = 0; i < 100; i++) {
+            idle.onRequest();
+        }
+        hedges = 0;
+        while (idle.tryAcquire()) {
+            hedges++;
+        }
+        Assert.assertEquals(RaptorHedgingPolicy.MAX_BUDGET_TOKENS, hedges);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ppdai.framework.raptor.spring.client.http2;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author yinzuolong
+ */
+public class HpackTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        HpackEncoder encoder = new HpackEncoder(Collections.singleton("content-length"));
+        HpackDecoder decoder = new HpackDecoder(4096);
+        for (int i = 0; i < 3; i++) {
+            List<String[]> headers = headers("/raptor/com.ppdai.framework.raptor.proto.Simple/sayHello", String.valueOf(10 + i));
+            byte[] block = encoder.encode(headers);
+            List<String[]> decoded = decoder.decode(block, 0, block.length);
+            Assert.assertEquals(headers.size(), decoded.size());
+            for (int j = 0; j < headers.size(); j++) {
+                Assert.assertArrayEquals(headers.get(j), decoded.get(j));
+            }
+        }
+    }
+
+    @Test
+    public void testRepeatedHeadersIndexed() throws Exception {
+        HpackEncoder encoder = new HpackEncoder(Collections.<String>emptySet());
+        List<String[]> headers = new ArrayList<>();
+        headers.add(new String[]{"x-raptor-client", "raptor-test"});
+        byte[] first = encoder.encode(headers);
+        byte[] second = encoder.encode(headers);
+        Assert.assertTrue(first.length > 1);
+        //第二次只发送动态表索引62
+        Assert.assertArrayEquals(new byte[]{(byte) (0x80 | 62)}, second);
+    }
+
+    @Test
+    public void testNeverIndexed() throws Exception {
+        HpackEncoder encoder = new HpackEncoder(Collections.singleton("content-length"));
+        List<String[]> headers = new ArrayList<>();
+        headers.add(new String[]{"content-length", "12"});
+        byte[] first = encoder.encode(headers);
+        byte[] second = encoder.encode(headers);
+        Assert.assertArrayEquals(first, second);
+        Assert.assertEquals(0, first[0] & 0xF0);
+    }
+
+    @Test
+    public void testDecodeHuffman() throws Exception {
+        //RFC 7541 C.4.1
+        byte[] data = hex("f1e3c2e5f23a6ba0ab90f4ff");
+        Assert.assertEquals("www.example.com", Hpack.decodeHuffman(data, 0, data.length));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Hpack.writeString(out, "www.example.com");
+        byte[] encoded = out.toByteArray();
+        Assert.assertEquals(0x80 | data.length, encoded[0] & 0xFF);
+        Assert.assertArrayEquals(data, Arrays.copyOfRange(encoded, 1, encoded.length));
+    }
+
+    @Test
+    public void testDecodeRfcRequest() throws Exception {
+        //RFC 7541 C.4.1/C.4.2, 第二个header块引用第一个块加入的动态表条目
+        HpackDecoder decoder = new HpackDecoder(4096);
+        byte[] first = hex("828684418cf1e3c2e5f23a6ba0ab90f4ff");
+        List<String[]> headers = decoder.decode(first, 0, first.length);
+        Assert.assertArrayEquals(new String[]{":authority", "www.example.com"}, headers.get(3));
+        byte[] second = hex("828684be5886a8eb10649cbf");
+        headers = decoder.decode(second, 0, second.length);
+        Assert.assertEquals(5, headers.size());
+        Assert.assertArrayEquals(new String[]{":authority", "www.example.com"}, headers.get(3));
+        Assert.assertArrayEquals(new String[]{"cache-control", "no-cache"}, headers.get(4));
+    }
+
+    private static List<String[]> headers(String path, String contentLength) {
+        List<String[]> headers = new ArrayList<>();
+        headers.add(new String[]{":method", "POST"});
+        headers.add(new String[]{":scheme", "http"});
+        headers.add(new String[]{":path", path});
+        headers.add(new String[]{":authority", "localhost:8080"});
+        headers.add(new String[]{"content-type", "application/json;charset=UTF-8"});
+        headers.add(new String[]{"content-length", contentLength});
+        headers.add(new String[]{"x-raptor-client", "测试".getBytes(StandardCharsets.UTF_8).length + ""});
+        return headers;
+    }
+
+    private static byte[] hex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+}
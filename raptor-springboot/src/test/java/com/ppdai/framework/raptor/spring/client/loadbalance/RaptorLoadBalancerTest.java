@@ -0,0 +1,142 @@
+package com.ppdai.framework.raptor.spring.client.loadbalance;
+
+import feign.Request;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorLoadBalancerTest {
+
+    private List<RaptorEndpoint> endpoints = Arrays.asList(
+            new RaptorEndpoint("http://host1"), new RaptorEndpoint("http://host2"), new RaptorEndpoint("http://host3"));
+
+    @Test
+    public void testForName() {
+        Assert.assertTrue(RaptorLoadBalancer.forName(null) instanceof RoundRobinLoadBalancer);
+        Assert.assertTrue(RaptorLoadBalancer.forName("least-outstanding") instanceof LeastOutstandingLoadBalancer);
+        Assert.assertTrue(RaptorLoadBalancer.forName("P2C") instanceof PowerOfTwoChoicesLoadBalancer);
+        try {
+            RaptorLoadBalancer.forName("random");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("random"));
+        }
+    }
+
+    @Test
+    public void testRoundRobin() {
+        RaptorLoadBalancer loadBalancer = new RoundRobinLoadBalancer();
+        Map<RaptorEndpoint, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            counts.merge(loadBalancer.choose(endpoints), 1, Integer::sum);
+        }
+        for (RaptorEndpoint endpoint : endpoints) {
+            Assert.assertEquals(Integer.valueOf(10), counts.get(endpoint));
+        }
+    }
+
+    @Test
+    public void testLeastOutstanding() {
+        RaptorLoadBalancer loadBalancer = new LeastOutstandingLoadBalancer();
+        endpoints.get(0).onStart();
+        endpoints.get(0).onStart();
+        endpoints.get(2).onStart();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertSame(endpoints.get(1), loadBalancer.choose(endpoints));
+        }
+    }
+
+    @Test
+    public void testPowerOfTwoChoices() {
+        RaptorLoadBalancer loadBalancer = new PowerOfTwoChoicesLoadBalancer();
+        long now = System.nanoTime();
+        endpoints.get(0).update(TimeUnit.MILLISECONDS.toNanos(500), now);
+        endpoints.get(1).update(TimeUnit.MILLISECONDS.toNanos(5), now);
+        endpoints.get(2).update(TimeUnit.MILLISECONDS.toNanos(5), now);
+        //两个候选中慢的实例不会被选中
+        for (int i = 0; i < 100; i++) {
+            Assert.assertNotSame(endpoints.get(0), loadBalancer.choose(endpoints));
+        }
+        Assert.assertSame(endpoints.get(0), loadBalancer.choose(Collections.singletonList(endpoints.get(0))));
+    }
+
+    @Test
+    public void testEwma() {
+        RaptorEndpoint endpoint = new RaptorEndpoint("http://host1");
+        long now = System.nanoTime();
+        Assert.assertEquals(0, endpoint.getLatency(now));
+
+        //变大时立即取新值
+        endpoint.update(100, now);
+        endpoint.update(1000, now);
+        Assert.assertEquals(1000, endpoint.getLatency(now));
+
+        //变小时按时间衰减
+        endpoint.update(100, now + RaptorEndpoint.DECAY_NANOS);
+        long latency = endpoint.getLatency(now + RaptorEndpoint.DECAY_NANOS);
+        Assert.assertTrue(latency > 100 && latency < 1000);
+        Assert.assertTrue(endpoint.getLatency(now + RaptorEndpoint.DECAY_NANOS * 10) < latency);
+
+        endpoint.onStart();
+        Assert.assertEquals(1, endpoint.getInFlight());
+        endpoint.onComplete(1, true);
+        Assert.assertEquals(0, endpoint.getInFlight());
+        Assert.assertTrue(endpoint.getLatency(System.nanoTime()) >= RaptorEndpoint.FAILURE_PENALTY_NANOS / 2);
+    }
+
+    @Test
+    public void testRewrite() {
+        RaptorEndpointGroup group = new RaptorEndpointGroup(Arrays.asList("http://host1/", "http://host2"), new RoundRobinLoadBalancer());
+        Assert.assertEquals("http://host1", group.getBaseUrl());
+
+        byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+        Request request = Request.create("POST", "http://host1/raptor/Simple/sayHello",
+                Collections.emptyMap(), body, StandardCharsets.UTF_8);
+        Request rewritten = group.rewrite(request, group.getEndpoints().get(1));
+        Assert.assertEquals("http://host2/raptor/Simple/sayHello", rewritten.url());
+        Assert.assertSame(body, rewritten.body());
+        Assert.assertSame(request, group.rewrite(request, group.getEndpoints().get(0)));
+    }
+
+    @Test
+    public void testUpdate() {
+        RaptorEndpointGroup group = new RaptorEndpointGroup("http://demo", Collections.emptyList(), new RoundRobinLoadBalancer());
+        Assert.assertNull(group.choose());
+
+        group.update(Arrays.asList("http://host1", "http://host2"));
+        RaptorEndpoint host2 = group.getEndpoints().get(1);
+        group.update(Arrays.asList("http://host2/", "http://host3"));
+        Assert.assertSame(host2, group.getEndpoints().get(0));
+        Assert.assertEquals("http://host3", group.getEndpoints().get(1).getUrl());
+
+        Request request = Request.create("GET", "http://demo/raptor/Simple/sayHello", Collections.emptyMap(), null, null);
+        Assert.assertEquals("http://host2/raptor/Simple/sayHello", group.rewrite(request, host2).url());
+    }
+
+    @Test
+    public void testChooseOther() {
+        RaptorEndpointGroup group = new RaptorEndpointGroup(Arrays.asList("http://host1", "http://host2", "http://host3"),
+                new RoundRobinLoadBalancer());
+        RaptorEndpoint host1 = group.getEndpoints().get(0);
+        RaptorEndpoint host2 = group.getEndpoints().get(1);
+        RaptorEndpoint host3 = group.getEndpoints().get(2);
+        host2.onStart();
+        Assert.assertSame(host3, group.chooseOther(host1));
+        //不影响轮询的顺序
+        Assert.assertSame(host1, group.choose());
+        Assert.assertSame(host2, group.choose());
+
+        RaptorEndpointGroup single = new RaptorEndpointGroup(Collections.singletonList("http://host1"), new RoundRobinLoadBalancer());
+        Assert.assertNull(single.chooseOther(single.getEndpoints().get(0)));
+    }
+}
@@ -0,0 +1,82 @@
+package com.ppdai.framework.raptor.spring.compress;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorCompressionPolicyTest {
+
+    @Test
+    public void testNegotiate() {
+        RaptorCompressionPolicy policy = RaptorCompressionPolicy.of(Arrays.asList("x-snappy-framed", "GZIP"), 1024);
+        Assert.assertEquals("x-snappy-framed, gzip", policy.getAcceptEncoding());
+        Assert.assertEquals(SnappyCompressor.ENCODING, policy.negotiate("gzip, x-snappy-framed").getEncoding());
+        Assert.assertEquals(GzipCompressor.ENCODING, policy.negotiate("gzip;q=0.5, deflate").getEncoding());
+        Assert.assertEquals(GzipCompressor.ENCODING, policy.negotiate("x-snappy-framed;q=0, *").getEncoding());
+        Assert.assertEquals(SnappyCompressor.ENCODING, policy.negotiate("*;q=0.1").getEncoding());
+        Assert.assertNull(policy.negotiate("deflate, br"));
+        Assert.assertNull(policy.negotiate("gzip;q=0"));
+        Assert.assertNull(policy.negotiate(null));
+
+        Assert.assertNull(policy.getCompressor(1023));
+        Assert.assertEquals(SnappyCompressor.ENCODING, policy.getCompressor(1024).getEncoding());
+
+        Assert.assertSame(RaptorCompressionPolicy.NONE, RaptorCompressionPolicy.of(Collections.emptyList(), 0));
+        Assert.assertNull(RaptorCompressionPolicy.NONE.negotiate("gzip"));
+        Assert.assertNull(RaptorCompressionPolicy.NONE.getCompressor(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testGetDecompressor() {
+        RaptorCompressionPolicy policy = RaptorCompressionPolicy.of(Collections.singletonList("gzip"), 1024);
+        Assert.assertEquals(GzipCompressor.ENCODING, policy.getDecompressor(" GZIP").getEncoding());
+        Assert.assertNull(policy.getDecompressor(SnappyCompressor.ENCODING));
+        Assert.assertNull(RaptorCompressionPolicy.NONE.getDecompressor(GzipCompressor.ENCODING));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupported() {
+        RaptorCompressionPolicy.of(Collections.singletonList("br"), 0);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("{\"name\":\"ppdai").append(i).append("\"},");
+        }
+        byte[] body = sb.toString().getBytes(StandardCharsets.UTF_8);
+        for (String encoding : Arrays.asList(GzipCompressor.ENCODING, SnappyCompressor.ENCODING)) {
+            RaptorCompressor compressor = RaptorCompressors.get(encoding);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream out = compressor.compress(compressed)) {
+                out.write(body);
+            }
+            Assert.assertTrue(encoding, compressed.size() < body.length / 2);
+            InputStream in = RaptorCompressors.decompress(new ByteArrayInputStream(compressed.toByteArray()), encoding);
+            Assert.assertArrayEquals(body, StreamUtils.copyToByteArray(in));
+        }
+
+        InputStream in = new ByteArrayInputStream(body);
+        Assert.assertSame(in, RaptorCompressors.decompress(in, "identity"));
+        Assert.assertSame(in, RaptorCompressors.decompress(in, null));
+        try {
+            RaptorCompressors.decompress(in, "br");
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("br"));
+        }
+    }
+}
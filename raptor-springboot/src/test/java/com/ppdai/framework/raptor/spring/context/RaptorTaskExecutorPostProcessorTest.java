@@ -0,0 +1,35 @@
+package com.ppdai.framework.raptor.spring.context;
+
+import com.ppdai.framework.raptor.rpc.RaptorContext;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorTaskExecutorPostProcessorTest {
+
+    @Test
+    public void testThreadPoolTaskExecutor() throws Exception {
+        AtomicInteger decorated = new AtomicInteger();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setTaskDecorator(runnable -> {
+            decorated.incrementAndGet();
+            return runnable;
+        });
+        RaptorTaskExecutorPostProcessor postProcessor = new RaptorTaskExecutorPostProcessor();
+        postProcessor.postProcessBeforeInitialization(executor, "taskExecutor");
+        executor.afterPropertiesSet();
+        try (RaptorContext context = RaptorContext.open()) {
+            context.putRequestAttachment("x-raptortrace-id", "1");
+            Assert.assertEquals("1", executor.submit(() -> RaptorContext.getContext().getRequestAttachment("x-raptortrace-id")).get());
+        } finally {
+            executor.shutdown();
+        }
+        //保留原来的TaskDecorator
+        Assert.assertEquals(1, decorated.get());
+    }
+}
@@ -0,0 +1,77 @@
+package com.ppdai.framework.raptor.spring.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.Collections;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorJacksonMessageConverterTest {
+
+    private RaptorJacksonMessageConverter codecConverter = new RaptorJacksonMessageConverter(Jackson2ObjectMapperBuilder.json().build());
+    private RaptorJacksonMessageConverter beanConverter = new RaptorJacksonMessageConverter(Jackson2ObjectMapperBuilder.json().build());
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    public RaptorJacksonMessageConverterTest() {
+        beanConverter.setUseGeneratedCodec(false);
+    }
+
+    @Test
+    public void testGeneratedCodecMatchesJackson() throws Exception {
+        HelloRequest request = RaptorProtobufMessageConverterTest.createHelloRequest();
+        //字段名和getter不一致的属性(如tDouble)jackson按反射得到的方法顺序输出,每次运行可能不同,按json树比较
+        String codecJson = write(codecConverter, request);
+        String beanJson = write(beanConverter, request);
+        Assert.assertEquals(objectMapper.readTree(beanJson), objectMapper.readTree(codecJson));
+
+        HelloRequest empty = new HelloRequest();
+        Assert.assertEquals(objectMapper.readTree(write(beanConverter, empty)), objectMapper.readTree(write(codecConverter, empty)));
+    }
+
+    @Test
+    public void testGeneratedCodecRead() throws Exception {
+        HelloRequest request = RaptorProtobufMessageConverterTest.createHelloRequest();
+        String json = write(beanConverter, request);
+        HelloRequest codecResult = (HelloRequest) codecConverter.read(HelloRequest.class, new MockHttpInputMessage(json.getBytes("UTF-8")));
+        HelloRequest beanResult = (HelloRequest) beanConverter.read(HelloRequest.class, new MockHttpInputMessage(json.getBytes("UTF-8")));
+        Assert.assertArrayEquals(beanResult.getTbytes(), codecResult.getTbytes());
+        Assert.assertArrayEquals(beanResult.getRepBytes().get(0), codecResult.getRepBytes().get(0));
+        Assert.assertEquals(write(beanConverter, beanResult), write(beanConverter, codecResult));
+    }
+
+    @Test
+    public void testGeneratedCodecReadLenient() throws Exception {
+        String json = "{\"name\":\"n\",\"unknown\":{\"a\":[1,2]},\"tint32\":\"12\",\"corpus\":1,\"cats\":null,\"tbool\":null}";
+        HelloRequest result = (HelloRequest) codecConverter.read(HelloRequest.class, new MockHttpInputMessage(json.getBytes("UTF-8")));
+        Assert.assertEquals("n", result.getName());
+        Assert.assertEquals(Integer.valueOf(12), result.getTint32());
+        Assert.assertEquals(HelloRequest.Corpus.WEB, result.getCorpus());
+        Assert.assertNull(result.getCats());
+        Assert.assertNull(result.getTbool());
+    }
+
+    @Test
+    public void testNonDefaultMapping() throws Exception {
+        RaptorJacksonMessageConverter converter = new RaptorJacksonMessageConverter();
+        converter.setObjectMapper(Jackson2ObjectMapperBuilder.json().propertyNamingStrategy(PropertyNamingStrategy.SNAKE_CASE).build());
+        HelloRequest request = new HelloRequest();
+        request.setRepBytes(Collections.singletonList(new byte[]{1}));
+        //修改了命名策略时不使用生成的编解码器
+        Assert.assertTrue(write(converter, request).contains("\"rep_bytes\""));
+    }
+
+    private String write(RaptorJacksonMessageConverter converter, Object message) throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(message, MediaType.APPLICATION_JSON_UTF8, outputMessage);
+        return outputMessage.getBodyAsString();
+    }
+}
@@ -0,0 +1,93 @@
+package com.ppdai.framework.raptor.spring.converter;
+
+import com.ppdai.framework.raptor.exception.ErrorMessage;
+import com.ppdai.framework.raptor.proto.Cat;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.*;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorProtobufMessageConverterTest {
+
+    private RaptorProtobufMessageConverter converter = new RaptorProtobufMessageConverter();
+
+    @Test
+    public void testReadWrite() throws Exception {
+        HelloRequest request = createHelloRequest();
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(request, RaptorProtobufMessageConverter.APPLICATION_PROTOBUF, outputMessage);
+        Assert.assertEquals(RaptorProtobufMessageConverter.APPLICATION_PROTOBUF, outputMessage.getHeaders().getContentType());
+
+        HelloRequest result = (HelloRequest) converter.read(HelloRequest.class, new MockHttpInputMessage(outputMessage.getBodyAsBytes()));
+        Assert.assertArrayEquals(request.getTbytes(), result.getTbytes());
+        Assert.assertArrayEquals(request.getRepBytes().get(0), result.getRepBytes().get(0));
+        request.setTbytes(null);
+        request.setRepBytes(null);
+        result.setTbytes(null);
+        result.setRepBytes(null);
+        Assert.assertEquals(request, result);
+    }
+
+    @Test
+    public void testSupports() {
+        Assert.assertTrue(converter.canRead(HelloRequest.class, RaptorProtobufMessageConverter.APPLICATION_PROTOBUF));
+        Assert.assertTrue(converter.canWrite(ErrorMessage.class, RaptorProtobufMessageConverter.APPLICATION_PROTOBUF));
+        Assert.assertFalse(converter.canRead(String.class, RaptorProtobufMessageConverter.APPLICATION_PROTOBUF));
+        Assert.assertFalse(converter.canRead(HelloRequest.class, org.springframework.http.MediaType.APPLICATION_JSON));
+    }
+
+    public static HelloRequest createHelloRequest() {
+        HelloRequest request = new HelloRequest();
+        request.setName("中文name");
+        request.setCorpus(HelloRequest.Corpus.WEB);
+        request.setSnippets(Arrays.asList("a", "b"));
+        Cat cat = new Cat();
+        cat.setColor("black");
+        request.setCats(Collections.singletonList(cat));
+        request.setResult(new HelloRequest.Result("http://ppdai.com", HelloRequest.Result.Corpus.WEB));
+        request.setTDouble(1.5D);
+        request.setTFloat(-2.5F);
+        request.setTint32(-1);
+        request.setTint64(Long.MIN_VALUE);
+        request.setTunit32(-1);
+        request.setTunit64(Long.MAX_VALUE);
+        request.setTsint32(Integer.MIN_VALUE);
+        request.setTsint64(-3L);
+        request.setTfixed32(7);
+        request.setTfixed64(8L);
+        request.setTsfixed32(-9);
+        request.setTsfixed64(-10L);
+        request.setTbytes(new byte[]{1, 2, 3});
+        request.setTbool(false);
+        request.setRepInt32(Arrays.asList(1, -1, 300));
+        request.setRepUint32(Arrays.asList(0, 1));
+        request.setRepSint32(Arrays.asList(-1, 1));
+        request.setRepFixed32(Arrays.asList(1, 2));
+        request.setRepSfixed32(Arrays.asList(-1, -2));
+        request.setRepInt64(Arrays.asList(1L, -1L));
+        request.setRepUint64(Arrays.asList(1L, 2L));
+        request.setRepSint64(Arrays.asList(-1L, 1L));
+        request.setRepFixed64(Arrays.asList(1L, 2L));
+        request.setRepSfixed64(Arrays.asList(-1L, -2L));
+        request.setRepBool(Arrays.asList(true, false));
+        request.setRepFloat(Arrays.asList(1.0F, 2.0F));
+        request.setRepDouble(Arrays.asList(1.0D, 2.0D));
+        request.setRepString(Arrays.asList("x", ""));
+        request.setRepBytes(Collections.singletonList(new byte[]{4, 5}));
+        request.setRepResult(Collections.singletonList(new HelloRequest.Result("u", HelloRequest.Result.Corpus.UNIVERSAL)));
+        Map<Integer, Integer> mapInt32Int32 = new LinkedHashMap<>();
+        mapInt32Int32.put(1, -1);
+        mapInt32Int32.put(0, 0);
+        request.setMapInt32Int32(mapInt32Int32);
+        request.setMapStringString(Collections.singletonMap("k", "v"));
+        request.setMapStringMessage(Collections.singletonMap("r", new HelloRequest.Result("u", HelloRequest.Result.Corpus.WEB)));
+        request.setMapStringEnum(Collections.singletonMap("e", HelloRequest.Corpus.WEB));
+        return request;
+    }
+}
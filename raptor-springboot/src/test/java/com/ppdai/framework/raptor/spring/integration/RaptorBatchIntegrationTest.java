@@ -0,0 +1,217 @@
+package com.ppdai.framework.raptor.spring.integration;
+
+import com.ppdai.framework.raptor.common.RaptorConstants;
+import com.ppdai.framework.raptor.exception.RaptorException;
+import com.ppdai.framework.raptor.proto.HelloReply;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import com.ppdai.framework.raptor.proto.MoreService;
+import com.ppdai.framework.raptor.proto.Simple;
+import com.ppdai.framework.raptor.spring.TestApplication;
+import com.ppdai.framework.raptor.spring.annotation.RaptorClient;
+import com.ppdai.framework.raptor.spring.batch.RaptorBatchCodec;
+import com.ppdai.framework.raptor.spring.batch.RaptorBatchRequest;
+import com.ppdai.framework.raptor.spring.batch.RaptorBatchResponse;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.SocketUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author yinzuolong
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {TestApplication.class, RaptorBatchIntegrationTest.CountingConfiguration.class},
+        webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
+        properties = {"raptor.server.batch.enabled=true",
+                "raptor.client.config[default].batch-methods=sayHello,testGet2",
+                "raptor.client.config[default].batch-max-size=16",
+                "raptor.client.config[default].batch-max-delay-millis=50"})
+public class RaptorBatchIntegrationTest {
+
+    private static final AtomicInteger HTTP_REQUESTS = new AtomicInteger();
+    private static final AtomicInteger BATCH_REQUESTS = new AtomicInteger();
+
+    @RaptorClient
+    private Simple simple;
+
+    @RaptorClient
+    private MoreService moreService;
+
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty("server.port", String.valueOf(SocketUtils.findAvailableTcpPort()));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        System.clearProperty("server.port");
+    }
+
+    @Before
+    public void before() {
+        HTTP_REQUESTS.set(0);
+        BATCH_REQUESTS.set(0);
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        List<CompletableFuture<HelloReply>> futures = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            futures.add(simple.sayHelloAsync(request("ppdai" + i)));
+        }
+        for (int i = 0; i < 32; i++) {
+            HelloReply reply = futures.get(i).get(10, TimeUnit.SECONDS);
+            Assert.assertEquals("Hello ppdai" + i, reply.getMessage());
+        }
+        //32个调用按maxSize=16合并为2个批量请求
+        Assert.assertEquals(2, BATCH_REQUESTS.get());
+        Assert.assertEquals(2, HTTP_REQUESTS.get());
+    }
+
+    @Test
+    public void testSync() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<HelloReply>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String name = "sync" + i;
+                futures.add(executor.submit(() -> simple.sayHello(request(name))));
+            }
+            for (int i = 0; i < 8; i++) {
+                Assert.assertEquals("Hello sync" + i, futures.get(i).get(10, TimeUnit.SECONDS).getMessage());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertTrue(HTTP_REQUESTS.get() < 8);
+    }
+
+    @Test
+    public void testSingle() {
+        HelloReply reply = moreService.testGet2(request("single"));
+        Assert.assertEquals("testGet2", reply.getMessage());
+        Assert.assertEquals("single", reply.getRequest().getName());
+        //只有一个调用时直接发送
+        Assert.assertEquals(0, BATCH_REQUESTS.get());
+    }
+
+    @Test
+    public void testErrorInBatch() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<HelloReply> ok = executor.submit(() -> moreService.testGet2(request("ok")));
+            Future<HelloReply> error = executor.submit(() -> moreService.testGet2(request("RaptorException")));
+            Assert.assertEquals("ok", ok.get(10, TimeUnit.SECONDS).getRequest().getName());
+            try {
+                error.get(10, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof RaptorException);
+                Assert.assertEquals(1001, ((RaptorException) e.getCause()).getCode());
+                Assert.assertEquals("b", ((RaptorException) e.getCause()).getAttachments().get("a"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(1, BATCH_REQUESTS.get());
+    }
+
+    @Test
+    public void testRejectNonRaptorCalls() throws Exception {
+        List<RaptorBatchRequest> requests = new ArrayList<>();
+        requests.add(batchRequest("POST", "/raptor/com.ppdai.framework.raptor.proto.Simple/sayHello", "{\"name\":\"ppdai\"}"));
+        requests.add(batchRequest("GET", "/health", null));
+        requests.add(batchRequest("POST", RaptorConstants.BATCH_PATH, null));
+        requests.add(batchRequest("GET", "/raptor/com.ppdai.framework.raptor.proto.Simple/sayHello", null));
+
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + System.getProperty("server.port")
+                + RaptorConstants.BATCH_PATH).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty(HttpHeaders.CONTENT_TYPE, RaptorBatchCodec.MEDIA_TYPE.toString());
+        try (OutputStream out = connection.getOutputStream()) {
+            RaptorBatchCodec.writeRequests(requests, out);
+        }
+        Assert.assertEquals(200, connection.getResponseCode());
+        List<RaptorBatchResponse> responses;
+        try (InputStream in = connection.getInputStream()) {
+            responses = RaptorBatchCodec.readResponses(in);
+        }
+        Assert.assertEquals(4, responses.size());
+        Assert.assertEquals(200, responses.get(0).getStatus());
+        Assert.assertTrue(new String(responses.get(0).getBody(), StandardCharsets.UTF_8).contains("Hello ppdai"));
+        //非raptor方法、批量入口本身、http方法不匹配时都拒绝
+        for (int i = 1; i < 4; i++) {
+            Assert.assertEquals(404, responses.get(i).getStatus());
+        }
+    }
+
+    private RaptorBatchRequest batchRequest(String method, String uri, String body) {
+        RaptorBatchRequest batchRequest = new RaptorBatchRequest();
+        batchRequest.setMethod(method);
+        batchRequest.setUri(uri);
+        if (body != null) {
+            batchRequest.getHeaders().setContentType(MediaType.APPLICATION_JSON_UTF8);
+            batchRequest.setBody(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return batchRequest;
+    }
+
+    private HelloRequest request(String name) {
+        HelloRequest request = new HelloRequest();
+        request.setName(name);
+        return request;
+    }
+
+    @Configuration
+    public static class CountingConfiguration {
+
+        @Bean
+        public FilterRegistrationBean countingFilter() {
+            FilterRegistrationBean registration = new FilterRegistrationBean(new OncePerRequestFilter() {
+                @Override
+                protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                        throws ServletException, IOException {
+                    HTTP_REQUESTS.incrementAndGet();
+                    if (request.getRequestURI().endsWith(RaptorConstants.BATCH_PATH)) {
+                        BATCH_REQUESTS.incrementAndGet();
+                    }
+                    filterChain.doFilter(request, response);
+                }
+            });
+            registration.addUrlPatterns("/raptor/*", "/more/*");
+            return registration;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.ppdai.framework.raptor.spring.integration;
+
+import com.ppdai.framework.raptor.exception.RaptorCircuitOpenException;
+import com.ppdai.framework.raptor.proto.HelloReply;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import com.ppdai.framework.raptor.proto.MoreService;
+import com.ppdai.framework.raptor.proto.Simple;
+import com.ppdai.framework.raptor.spring.TestApplication;
+import com.ppdai.framework.raptor.spring.annotation.RaptorClient;
+import feign.RetryableException;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.SocketUtils;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Simple指向没有服务的端口,连接失败达到minimum-calls后熔断打开,之后的调用不再发出;MoreService不受影响
+ *
+ * @author yinzuolong
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
+        properties = {"raptor.client.config[com.ppdai.framework.raptor.proto.Simple].url=http://localhost:${raptor.test.unused-port}",
+                "raptor.client.config[default].circuit-breaker-enabled=true",
+                "raptor.client.config[default].circuit-breaker-minimum-calls=3",
+                "raptor.client.config[default].circuit-breaker-open-millis=60000"})
+public class RaptorCircuitBreakerIntegrationTest {
+
+    @RaptorClient
+    private Simple simple;
+
+    @RaptorClient
+    private MoreService moreService;
+
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty("server.port", String.valueOf(SocketUtils.findAvailableTcpPort()));
+        System.setProperty("raptor.test.unused-port", String.valueOf(SocketUtils.findAvailableTcpPort()));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        System.clearProperty("server.port");
+        System.clearProperty("raptor.test.unused-port");
+    }
+
+    @Test
+    public void testOpen() throws Exception {
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName("ppdai");
+        for (int i = 0; i < 3; i++) {
+            try {
+                simple.sayHello(helloRequest);
+                Assert.fail();
+            } catch (RetryableException e) {
+                //连接失败
+            }
+        }
+        try {
+            simple.sayHello(helloRequest);
+            Assert.fail();
+        } catch (RaptorCircuitOpenException e) {
+            Assert.assertTrue(e.getMessage().contains(Simple.class.getName() + "#sayHello"));
+        }
+        //异步方法与同步方法共用熔断
+        try {
+            simple.sayHelloAsync(helloRequest).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RaptorCircuitOpenException);
+        }
+
+        HelloReply reply = moreService.testGet1(helloRequest);
+        Assert.assertEquals("testGet1", reply.getMessage());
+    }
+}
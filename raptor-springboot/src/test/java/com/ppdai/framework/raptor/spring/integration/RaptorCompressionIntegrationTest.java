@@ -0,0 +1,193 @@
+package com.ppdai.framework.raptor.spring.integration;
+
+import com.ppdai.framework.raptor.common.RaptorConstants;
+import com.ppdai.framework.raptor.proto.HelloReply;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import com.ppdai.framework.raptor.proto.MoreService;
+import com.ppdai.framework.raptor.proto.Simple;
+import com.ppdai.framework.raptor.rpc.RaptorClientInterceptor;
+import com.ppdai.framework.raptor.rpc.RaptorRequest;
+import com.ppdai.framework.raptor.rpc.RaptorResponse;
+import com.ppdai.framework.raptor.rpc.RaptorStreamIterator;
+import com.ppdai.framework.raptor.spring.TestApplication;
+import com.ppdai.framework.raptor.spring.annotation.RaptorClient;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.SocketUtils;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 请求body用gzip压缩,响应按服务端的优先顺序协商为snappy;
+ * 服务没有配置的压缩格式、解压后超过大小限制的请求被拒绝
+ *
+ * @author yinzuolong
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
+        properties = {"raptor.client.config[default].compression=gzip,x-snappy-framed",
+                "raptor.client.config[default].request-compression=true",
+                "raptor.server.compression.enabled=true",
+                "raptor.server.compression.encodings=x-snappy-framed,gzip",
+                "raptor.server.compression.min-response-size=2048",
+                "raptor.server.compression.max-request-size=65536",
+                "raptor.server.compression.services[com.ppdai.framework.raptor.proto.MoreService].encodings=gzip"})
+@Import(RaptorCompressionIntegrationTest.TestConfig.class)
+public class RaptorCompressionIntegrationTest {
+
+    private static volatile Map<String, String> responseHeaders = Collections.emptyMap();
+
+    @RaptorClient
+    private Simple simple;
+
+    @RaptorClient
+    private MoreService moreService;
+
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty("server.port", String.valueOf(SocketUtils.findAvailableTcpPort()));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        System.clearProperty("server.port");
+    }
+
+    @Test
+    public void testLargeBody() {
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName(repeat("ppdai", 1000));
+        HelloReply reply = simple.sayHello(helloRequest);
+        Assert.assertEquals("Hello " + helloRequest.getName(), reply.getMessage());
+        Assert.assertEquals("x-snappy-framed", getResponseHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testSmallBody() {
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName("ppdai");
+        HelloReply reply = simple.sayHello(helloRequest);
+        Assert.assertEquals("Hello ppdai", reply.getMessage());
+        Assert.assertNull(getResponseHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testServiceConfig() {
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName(repeat("ppdai", 1000));
+        HelloReply reply = moreService.testPost1(helloRequest);
+        Assert.assertEquals(helloRequest.getName(), reply.getRequest().getName());
+        Assert.assertEquals("gzip", getResponseHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testStream() {
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName(repeat("ppdai", 1000));
+        helloRequest.setTint32(3);
+        try (RaptorStreamIterator<HelloReply> iterator = simple.listHelloStream(helloRequest)) {
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals("Hello " + helloRequest.getName() + " " + i, iterator.next().getMessage());
+            }
+            Assert.assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testRejectCompressedRequest() throws IOException {
+        String small = "{\"name\":\"ppdai\"}";
+        Assert.assertEquals(200, post("/raptor/com.ppdai.framework.raptor.proto.Simple/sayHello", small).getResponseCode());
+        //MoreService只配置了gzip
+        assertRejected(post("/more/post1", "x-snappy-framed", new byte[16]), "Unsupported Content-Encoding");
+        //解压后超过max-request-size
+        String large = "{\"name\":\"" + repeat("ppdai", 20000) + "\"}";
+        assertRejected(post("/raptor/com.ppdai.framework.raptor.proto.Simple/sayHello", large), "exceeds max size 65536");
+    }
+
+    private static void assertRejected(HttpURLConnection connection, String message) throws IOException {
+        Assert.assertEquals(500, connection.getResponseCode());
+        Assert.assertEquals("true", connection.getHeaderField(RaptorConstants.HEADER_ERROR));
+        String error = StreamUtils.copyToString(connection.getErrorStream(), StandardCharsets.UTF_8);
+        Assert.assertTrue(error, error.contains(message));
+    }
+
+    private static HttpURLConnection post(String path, String json) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(body)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return post(path, "gzip", body.toByteArray());
+    }
+
+    private static HttpURLConnection post(String path, String contentEncoding, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + System.getProperty("server.port") + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_UTF8_VALUE);
+        connection.setRequestProperty(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        return connection;
+    }
+
+    private static String getResponseHeader(String name) {
+        for (Map.Entry<String, String> entry : responseHeaders.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+
+    @TestConfiguration
+    public static class TestConfig {
+        /**
+         * 记录最后一次调用的响应header
+         */
+        @Bean
+        public RaptorClientInterceptor responseHeaderInterceptor() {
+            return new RaptorClientInterceptor() {
+                @Override
+                public void preHandle(RaptorRequest request, RaptorResponse response) {
+                }
+
+                @Override
+                public void postHandle(RaptorRequest request, RaptorResponse response) {
+                }
+
+                @Override
+                public void afterCompletion(RaptorRequest request, RaptorResponse response) {
+                    responseHeaders = response.getAttachments();
+                }
+            };
+        }
+    }
+}
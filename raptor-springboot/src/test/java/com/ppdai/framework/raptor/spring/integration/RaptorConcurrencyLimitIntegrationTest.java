@@ -0,0 +1,69 @@
+package com.ppdai.framework.raptor.spring.integration;
+
+import com.ppdai.framework.raptor.common.RaptorConstants;
+import com.ppdai.framework.raptor.exception.RaptorException;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import com.ppdai.framework.raptor.proto.Simple;
+import com.ppdai.framework.raptor.spring.TestApplication;
+import com.ppdai.framework.raptor.spring.annotation.RaptorClient;
+import com.ppdai.framework.raptor.spring.limit.RaptorConcurrencyLimiter;
+import com.ppdai.framework.raptor.spring.service.RaptorConcurrencyLimitInterceptor;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.SocketUtils;
+
+/**
+ * 服务端并发限制为1,占用唯一的许可后客户端调用被拒绝,收到code为429的RaptorException
+ *
+ * @author yinzuolong
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
+        properties = {"raptor.server.limit.enabled=true",
+                "raptor.server.limit.initial-limit=1",
+                "raptor.server.limit.min-limit=1",
+                "raptor.server.limit.max-limit=1"})
+public class RaptorConcurrencyLimitIntegrationTest {
+
+    @RaptorClient
+    private Simple simple;
+
+    @Autowired
+    private RaptorConcurrencyLimitInterceptor limitInterceptor;
+
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty("server.port", String.valueOf(SocketUtils.findAvailableTcpPort()));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        System.clearProperty("server.port");
+    }
+
+    @Test
+    public void testLimitExceeded() {
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName("ppdai");
+        Assert.assertEquals("Hello ppdai", simple.sayHello(helloRequest).getMessage());
+
+        RaptorConcurrencyLimiter limiter = limitInterceptor.getLimiter(Simple.class.getName() + "#sayHello");
+        Assert.assertTrue(limiter.tryAcquire());
+        try {
+            simple.sayHello(helloRequest);
+            Assert.fail();
+        } catch (RaptorException e) {
+            Assert.assertEquals(RaptorConstants.ERROR_CODE_LIMIT_EXCEEDED, e.getCode());
+        } finally {
+            limiter.release(0, false);
+        }
+        Assert.assertEquals("Hello ppdai", simple.sayHello(helloRequest).getMessage());
+        Assert.assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,105 @@
+package com.ppdai.framework.raptor.spring.integration;
+
+import com.ppdai.framework.raptor.proto.HelloReply;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import com.ppdai.framework.raptor.proto.MoreService;
+import com.ppdai.framework.raptor.spring.TestApplication;
+import com.ppdai.framework.raptor.spring.annotation.RaptorClient;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.SocketUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 同一个服务通过localhost和127.0.0.1配置成两个实例,127.0.0.1的请求延迟2秒,对冲后由localhost返回
+ *
+ * @author yinzuolong
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
+        properties = {"raptor.client.config[com.ppdai.framework.raptor.proto.MoreService].urls[0]=http://127.0.0.1:${server.port}",
+                "raptor.client.config[com.ppdai.framework.raptor.proto.MoreService].urls[1]=http://localhost:${server.port}",
+                "raptor.client.config[com.ppdai.framework.raptor.proto.MoreService].hedging-enabled=true",
+                "raptor.client.config[com.ppdai.framework.raptor.proto.MoreService].hedging-delay-millis=50",
+                "raptor.client.config[com.ppdai.framework.raptor.proto.MoreService].hedging-budget-percent=100"})
+@Import(RaptorHedgingIntegrationTest.TestConfig.class)
+public class RaptorHedgingIntegrationTest {
+
+    private static final String SLOW_HOST = "127.0.0.1";
+    private static final Map<String, AtomicInteger> HOST_COUNTS = new ConcurrentHashMap<>();
+
+    @RaptorClient
+    private MoreService moreService;
+
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty("server.port", String.valueOf(SocketUtils.findAvailableTcpPort()));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        System.clearProperty("server.port");
+    }
+
+    @Test
+    public void testHedge() throws Exception {
+        HOST_COUNTS.clear();
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName("ppdai");
+        for (int i = 0; i < 4; i++) {
+            long start = System.nanoTime();
+            HelloReply reply = moreService.testGet1(helloRequest);
+            Assert.assertEquals("testGet1", reply.getMessage());
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500);
+        }
+        //轮询时一半请求先发到慢实例,对冲到localhost
+        Assert.assertEquals(2, HOST_COUNTS.get(SLOW_HOST).get());
+        Assert.assertEquals(4, HOST_COUNTS.get("localhost").get());
+    }
+
+    @TestConfiguration
+    public static class TestConfig {
+
+        @Bean
+        public OncePerRequestFilter slowHostFilter() {
+            return new OncePerRequestFilter() {
+                @Override
+                protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                                FilterChain filterChain) throws ServletException, IOException {
+                    String host = request.getHeader(HttpHeaders.HOST);
+                    host = host.substring(0, host.indexOf(':'));
+                    if (request.getRequestURI().startsWith("/more")) {
+                        HOST_COUNTS.computeIfAbsent(host, key -> new AtomicInteger()).incrementAndGet();
+                        if (SLOW_HOST.equals(host)) {
+                            try {
+                                Thread.sleep(2000);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                    }
+                    filterChain.doFilter(request, response);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ppdai.framework.raptor.spring.integration;
+
+import com.ppdai.framework.raptor.exception.RaptorException;
+import com.ppdai.framework.raptor.proto.HelloReply;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import com.ppdai.framework.raptor.proto.MoreService;
+import com.ppdai.framework.raptor.proto.Simple;
+import com.ppdai.framework.raptor.spring.TestApplication;
+import com.ppdai.framework.raptor.spring.annotation.RaptorClient;
+import com.ppdai.framework.raptor.spring.client.feign.RaptorAsyncClient;
+import com.ppdai.framework.raptor.spring.client.http2.Http2RaptorClient;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.SocketUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author yinzuolong
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
+        properties = {"raptor.httpclient=h2c", "raptor.server.http2.enabled=true"})
+public class RaptorHttp2IntegrationTest {
+
+    @RaptorClient
+    private Simple simple;
+
+    @RaptorClient
+    private MoreService moreService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty("server.port", String.valueOf(SocketUtils.findAvailableTcpPort()));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        System.clearProperty("server.port");
+    }
+
+    @Test
+    public void testTransport() {
+        Assert.assertTrue(applicationContext.getBean(RaptorAsyncClient.class) instanceof Http2RaptorClient);
+        Assert.assertTrue(applicationContext.getBeansOfType(CloseableHttpClient.class).isEmpty());
+    }
+
+    @Test
+    public void testSimple() {
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName("ppdai");
+        HelloReply reply = simple.sayHello(helloRequest);
+        Assert.assertEquals("ppdai", reply.getRequest().getName());
+    }
+
+    @Test
+    public void testSimpleAsync() throws Exception {
+        List<CompletableFuture<HelloReply>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            HelloRequest helloRequest = new HelloRequest();
+            helloRequest.setName("ppdai" + i);
+            futures.add(simple.sayHelloAsync(helloRequest));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            HelloReply reply = futures.get(i).get(10, TimeUnit.SECONDS);
+            Assert.assertEquals("Hello ppdai" + i, reply.getMessage());
+        }
+        //所有请求复用同一个连接
+        Assert.assertEquals(1, applicationContext.getBean(Http2RaptorClient.class).getConnectionCount());
+    }
+
+    @Test
+    public void testGet1() {
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName("ppdai");
+        HelloReply reply = moreService.testGet1(helloRequest);
+        Assert.assertEquals("testGet1", reply.getMessage());
+    }
+
+    @Test
+    public void testException() {
+        HelloRequest request = new HelloRequest();
+        request.setName("RaptorException");
+        try {
+            moreService.testGet2(request);
+            Assert.fail();
+        } catch (Exception e) {
+            Assert.assertTrue(e instanceof RaptorException);
+            Assert.assertEquals("b", ((RaptorException) e).getAttachments().get("a"));
+        }
+    }
+}
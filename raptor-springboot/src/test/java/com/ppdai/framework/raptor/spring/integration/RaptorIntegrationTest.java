@@ -1,5 +1,6 @@
 package com.ppdai.framework.raptor.spring.integration;
 
+import com.ppdai.framework.raptor.exception.RaptorException;
 import com.ppdai.framework.raptor.proto.HelloReply;
 import com.ppdai.framework.raptor.proto.HelloRequest;
 import com.ppdai.framework.raptor.proto.MoreService;
@@ -15,6 +16,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.util.SocketUtils;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 @RunWith(SpringRunner.class)
 @SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
 public class RaptorIntegrationTest {
@@ -41,6 +45,31 @@ public class RaptorIntegrationTest {
         helloRequest.setName("ppdai");
         HelloReply reply = simple.sayHello(helloRequest);
         Assert.assertEquals("ppdai", reply.getRequest().getName());
+        //服务端由sayHelloAsync处理,context中的方法名仍为sayHello
+        Assert.assertEquals("sayHello", reply.getResult().get("method"));
+    }
+
+    @Test
+    public void testServerAsyncException() {
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName("AsyncException");
+        try {
+            simple.sayHello(helloRequest);
+            Assert.fail();
+        } catch (RaptorException e) {
+            Assert.assertEquals(1002, e.getCode());
+            Assert.assertEquals("b", e.getAttachments().get("a"));
+        }
+    }
+
+    @Test
+    public void testSimpleAsync() throws Exception {
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName("ppdai");
+        CompletableFuture<HelloReply> future = simple.sayHelloAsync(helloRequest);
+        HelloReply reply = future.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals("Hello ppdai", reply.getMessage());
+        Assert.assertEquals("ppdai", reply.getRequest().getName());
     }
 
     @Test
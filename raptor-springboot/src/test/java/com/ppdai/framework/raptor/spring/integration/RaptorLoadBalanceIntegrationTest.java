@@ -0,0 +1,92 @@
+package com.ppdai.framework.raptor.spring.integration;
+
+import com.ppdai.framework.raptor.proto.HelloReply;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import com.ppdai.framework.raptor.proto.Simple;
+import com.ppdai.framework.raptor.spring.TestApplication;
+import com.ppdai.framework.raptor.spring.annotation.RaptorClient;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.SocketUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 同一个服务通过localhost和127.0.0.1配置成两个实例,按服务端收到的Host统计每个实例的请求数
+ *
+ * @author yinzuolong
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
+        properties = {"raptor.client.config[com.ppdai.framework.raptor.proto.Simple].urls[0]=http://localhost:${server.port}",
+                "raptor.client.config[com.ppdai.framework.raptor.proto.Simple].urls[1]=http://127.0.0.1:${server.port}/",
+                "raptor.client.config[com.ppdai.framework.raptor.proto.Simple].load-balancer=round-robin"})
+@Import(RaptorLoadBalanceIntegrationTest.TestConfig.class)
+public class RaptorLoadBalanceIntegrationTest {
+
+    private static final Map<String, AtomicInteger> HOST_COUNTS = new ConcurrentHashMap<>();
+
+    @RaptorClient
+    private Simple simple;
+
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty("server.port", String.valueOf(SocketUtils.findAvailableTcpPort()));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        System.clearProperty("server.port");
+    }
+
+    @Test
+    public void testRoundRobin() throws Exception {
+        HOST_COUNTS.clear();
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName("ppdai");
+        for (int i = 0; i < 5; i++) {
+            HelloReply reply = simple.sayHello(helloRequest);
+            Assert.assertEquals("Hello ppdai", reply.getMessage());
+            reply = simple.sayHelloAsync(helloRequest).get();
+            Assert.assertEquals("Hello ppdai", reply.getMessage());
+        }
+        Assert.assertEquals(2, HOST_COUNTS.size());
+        for (AtomicInteger count : HOST_COUNTS.values()) {
+            Assert.assertEquals(5, count.get());
+        }
+    }
+
+    @TestConfiguration
+    public static class TestConfig {
+
+        @Bean
+        public OncePerRequestFilter hostCountFilter() {
+            return new OncePerRequestFilter() {
+                @Override
+                protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                                FilterChain filterChain) throws ServletException, IOException {
+                    String host = request.getHeader(HttpHeaders.HOST);
+                    HOST_COUNTS.computeIfAbsent(host.substring(0, host.indexOf(':')), key -> new AtomicInteger()).incrementAndGet();
+                    filterChain.doFilter(request, response);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.ppdai.framework.raptor.spring.integration;
+
+import com.ppdai.framework.raptor.exception.RaptorException;
+import com.ppdai.framework.raptor.proto.HelloReply;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import com.ppdai.framework.raptor.proto.MoreService;
+import com.ppdai.framework.raptor.proto.Simple;
+import com.ppdai.framework.raptor.rpc.RaptorStreamIterator;
+import com.ppdai.framework.raptor.spring.TestApplication;
+import com.ppdai.framework.raptor.spring.annotation.RaptorClient;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.SocketUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author yinzuolong
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
+        properties = "raptor.client.config[default].content-type=application/x-protobuf")
+public class RaptorProtobufIntegrationTest {
+
+    @RaptorClient
+    private Simple simple;
+
+    @RaptorClient
+    private MoreService moreService;
+
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty("server.port", String.valueOf(SocketUtils.findAvailableTcpPort()));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        System.clearProperty("server.port");
+    }
+
+    @Test
+    public void testSimple() {
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName("ppdai");
+        helloRequest.setTint64(-1L);
+        helloRequest.setRepInt32(Arrays.asList(1, -2, 300));
+        helloRequest.setMapStringString(Collections.singletonMap("k", "v"));
+        HelloReply reply = simple.sayHello(helloRequest);
+        Assert.assertEquals("Hello ppdai", reply.getMessage());
+        Assert.assertEquals(helloRequest, reply.getRequest());
+    }
+
+    @Test
+    public void testStream() {
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName("ppdai");
+        helloRequest.setTint32(5);
+        try (RaptorStreamIterator<HelloReply> iterator = simple.listHelloStream(helloRequest)) {
+            for (int i = 0; i < 5; i++) {
+                Assert.assertEquals("Hello ppdai " + i, iterator.next().getMessage());
+            }
+            Assert.assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testGet() {
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName("ppdai");
+        HelloReply reply = moreService.testGet2(helloRequest);
+        Assert.assertEquals("testGet2", reply.getMessage());
+    }
+
+    @Test
+    public void testRaptorException() {
+        HelloRequest request = new HelloRequest();
+        request.setName("RaptorException");
+        try {
+            moreService.testGet2(request);
+            Assert.fail();
+        } catch (RaptorException e) {
+            Assert.assertTrue(e.getMessage().contains("RaptorException"));
+            Assert.assertEquals("b", e.getAttachments().get("a"));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.ppdai.framework.raptor.spring.integration;
+
+import com.ppdai.framework.raptor.proto.HelloReply;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import com.ppdai.framework.raptor.proto.Simple;
+import com.ppdai.framework.raptor.spring.TestApplication;
+import com.ppdai.framework.raptor.spring.annotation.RaptorClient;
+import com.ppdai.framework.raptor.spring.client.discovery.InMemoryRaptorServiceDiscovery;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.SocketUtils;
+
+/**
+ * 清空123456配置的url,使用服务发现的实例;更新实例后同一个客户端代理直接生效
+ *
+ * @author yinzuolong
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
+        properties = {"raptor.client.config[123456].url="})
+@Import(RaptorServiceDiscoveryIntegrationTest.TestConfig.class)
+public class RaptorServiceDiscoveryIntegrationTest {
+
+    @RaptorClient
+    private Simple simple;
+
+    @Autowired
+    private InMemoryRaptorServiceDiscovery discovery;
+
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty("server.port", String.valueOf(SocketUtils.findAvailableTcpPort()));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        System.clearProperty("server.port");
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        String url = "http://localhost:" + System.getProperty("server.port");
+        HelloRequest helloRequest = new HelloRequest();
+        helloRequest.setName("ppdai");
+
+        discovery.setUrls("123456");
+        assertFail(helloRequest);
+
+        //按appName找到实例
+        discovery.setUrls("demo", url);
+        Assert.assertEquals("Hello ppdai", simple.sayHello(helloRequest).getMessage());
+
+        //appId的实例优先
+        discovery.setUrls("123456", "http://localhost:" + SocketUtils.findAvailableTcpPort());
+        assertFail(helloRequest);
+
+        discovery.setUrls("123456", url);
+        HelloReply reply = simple.sayHelloAsync(helloRequest).get();
+        Assert.assertEquals("Hello ppdai", reply.getMessage());
+    }
+
+    private void assertFail(HelloRequest helloRequest) {
+        try {
+            simple.sayHello(helloRequest);
+            Assert.fail();
+        } catch (AssertionError e) {
+            throw e;
+        } catch (Exception e) {
+            //没有可用的实例
+        }
+    }
+
+    @TestConfiguration
+    public static class TestConfig {
+
+        @Bean
+        public InMemoryRaptorServiceDiscovery inMemoryRaptorServiceDiscovery() {
+            return new InMemoryRaptorServiceDiscovery();
+        }
+    }
+}
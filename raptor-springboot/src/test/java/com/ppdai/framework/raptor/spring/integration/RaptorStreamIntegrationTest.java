@@ -0,0 +1,157 @@
+package com.ppdai.framework.raptor.spring.integration;
+
+import com.ppdai.framework.raptor.exception.RaptorException;
+import com.ppdai.framework.raptor.proto.HelloReply;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import com.ppdai.framework.raptor.proto.Simple;
+import com.ppdai.framework.raptor.rpc.RaptorStreamIterator;
+import com.ppdai.framework.raptor.rpc.RaptorStreamObserver;
+import com.ppdai.framework.raptor.spring.TestApplication;
+import com.ppdai.framework.raptor.spring.annotation.RaptorClient;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.SocketUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author yinzuolong
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+public class RaptorStreamIntegrationTest {
+
+    @RaptorClient
+    private Simple simple;
+
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty("server.port", String.valueOf(SocketUtils.findAvailableTcpPort()));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        System.clearProperty("server.port");
+    }
+
+    @Test
+    public void testIterator() {
+        try (RaptorStreamIterator<HelloReply> iterator = simple.listHelloStream(request("ppdai", 100))) {
+            int i = 0;
+            while (iterator.hasNext()) {
+                HelloReply reply = iterator.next();
+                Assert.assertEquals("Hello ppdai " + i, reply.getMessage());
+                Assert.assertEquals(Integer.valueOf(i), reply.getCode());
+                i++;
+            }
+            Assert.assertEquals(100, i);
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        try (RaptorStreamIterator<HelloReply> iterator = simple.listHelloStream(request("ppdai", 0))) {
+            Assert.assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testCloseBeforeEnd() {
+        RaptorStreamIterator<HelloReply> iterator = simple.listHelloStream(request("ppdai", 1000));
+        Assert.assertEquals("Hello ppdai 0", iterator.next().getMessage());
+        iterator.close();
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testObserver() {
+        List<HelloReply> replies = new ArrayList<>();
+        AtomicBoolean completed = new AtomicBoolean();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        simple.listHello(request("ppdai", 10), new RaptorStreamObserver<HelloReply>() {
+            @Override
+            public void onNext(HelloReply value) {
+                replies.add(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                error.set(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.set(true);
+            }
+        });
+        Assert.assertEquals(10, replies.size());
+        Assert.assertEquals("Hello ppdai 9", replies.get(9).getMessage());
+        Assert.assertTrue(completed.get());
+        Assert.assertNull(error.get());
+    }
+
+    @Test
+    public void testErrorBeforeStream() {
+        try {
+            simple.listHelloStream(request("RaptorException", 3));
+            Assert.fail();
+        } catch (RaptorException e) {
+            Assert.assertEquals(1001, e.getCode());
+            Assert.assertEquals("b", e.getAttachments().get("a"));
+        }
+    }
+
+    @Test
+    public void testErrorInStream() {
+        RaptorStreamIterator<HelloReply> iterator = simple.listHelloStream(request("StreamError", 3));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("Hello StreamError " + i, iterator.next().getMessage());
+        }
+        try {
+            iterator.hasNext();
+            Assert.fail();
+        } catch (RaptorException e) {
+            Assert.assertTrue(e.getMessage().contains("StreamError!"));
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testObserverError() {
+        List<HelloReply> replies = new ArrayList<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        simple.listHello(request("StreamError", 2), new RaptorStreamObserver<HelloReply>() {
+            @Override
+            public void onNext(HelloReply value) {
+                replies.add(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                error.set(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                Assert.fail();
+            }
+        });
+        Assert.assertEquals(2, replies.size());
+        Assert.assertTrue(error.get() instanceof RaptorException);
+    }
+
+    private HelloRequest request(String name, int count) {
+        HelloRequest request = new HelloRequest();
+        request.setName(name);
+        request.setTint32(count);
+        return request;
+    }
+}
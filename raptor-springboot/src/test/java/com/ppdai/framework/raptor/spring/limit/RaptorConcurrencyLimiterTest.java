@@ -0,0 +1,64 @@
+package com.ppdai.framework.raptor.spring.limit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorConcurrencyLimiterTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void testAcquire() {
+        RaptorConcurrencyLimiter limiter = new RaptorConcurrencyLimiter(2, 1, 10);
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertEquals(2, limiter.getInFlight());
+        limiter.release(RTT, false);
+        Assert.assertEquals(1, limiter.getInFlight());
+        Assert.assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testGradient() {
+        RaptorConcurrencyLimiter limiter = new RaptorConcurrencyLimiter(20, 10, 200);
+        //请求数接近limit,RTT稳定时limit增长
+        for (int i = 0; i < 100; i++) {
+            limiter.update(RTT, limiter.getLimit(), false);
+        }
+        int grown = limiter.getLimit();
+        Assert.assertTrue(grown > 20);
+
+        //RTT明显变大时limit减小
+        for (int i = 0; i < 20; i++) {
+            limiter.update(RTT * 4, limiter.getLimit(), false);
+        }
+        Assert.assertTrue(limiter.getLimit() < grown);
+
+        //请求数远小于limit时不调整
+        int limit = limiter.getLimit();
+        limiter.update(RTT, 1, false);
+        Assert.assertEquals(limit, limiter.getLimit());
+    }
+
+    @Test
+    public void testDropped() {
+        RaptorConcurrencyLimiter limiter = new RaptorConcurrencyLimiter(100, 10, 200);
+        limiter.update(RTT, 0, true);
+        Assert.assertEquals(90, limiter.getLimit());
+        for (int i = 0; i < 100; i++) {
+            limiter.update(RTT, 0, true);
+        }
+        Assert.assertEquals(10, limiter.getLimit());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+        new RaptorConcurrencyLimiter(10, 20, 10);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import com.ppdai.framework.raptor.common.RaptorConstants;
+import com.ppdai.framework.raptor.exception.RaptorLimitExceededException;
+import com.ppdai.framework.raptor.rpc.RaptorContext;
+import com.ppdai.framework.raptor.rpc.RaptorRequest;
+import com.ppdai.framework.raptor.rpc.RaptorResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorConcurrencyLimitInterceptorTest {
+
+    @Test
+    public void testLimit() throws Exception {
+        RaptorServerLimitProperties properties = new RaptorServerLimitProperties();
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        properties.setMaxLimit(1);
+        RaptorConcurrencyLimitInterceptor interceptor = new RaptorConcurrencyLimitInterceptor(properties);
+
+        RaptorRequest request = new RaptorRequest();
+        request.setInterfaceName("com.ppdai.framework.raptor.proto.Simple");
+        request.setMethodName("sayHello");
+        RaptorResponse response = new RaptorResponse();
+
+        try (RaptorContext first = RaptorContext.open()) {
+            interceptor.preHandle(request, response);
+            try (RaptorContext second = RaptorContext.open()) {
+                interceptor.preHandle(request, response);
+                Assert.fail();
+            } catch (RaptorLimitExceededException e) {
+                Assert.assertEquals(RaptorConstants.ERROR_CODE_LIMIT_EXCEEDED, e.getCode());
+            }
+            //其他方法单独限制
+            RaptorRequest other = new RaptorRequest();
+            other.setInterfaceName(request.getInterfaceName());
+            other.setMethodName("sayHelloAsync");
+            try (RaptorContext third = RaptorContext.open()) {
+                interceptor.preHandle(other, response);
+                interceptor.afterCompletion(other, response);
+            }
+            interceptor.afterCompletion(request, response);
+        }
+        Assert.assertEquals(0, interceptor.getLimiter("com.ppdai.framework.raptor.proto.Simple#sayHello").getInFlight());
+
+        try (RaptorContext context = RaptorContext.open()) {
+            interceptor.preHandle(request, response);
+            interceptor.afterCompletion(request, response);
+            //重复调用不会多次释放
+            interceptor.afterCompletion(request, response);
+        }
+        Assert.assertEquals(0, interceptor.getLimiter("com.ppdai.framework.raptor.proto.Simple#sayHello").getInFlight());
+    }
+}
@@ -0,0 +1,69 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import com.ppdai.framework.raptor.spring.TestApplication;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.SocketUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * @author yinzuolong
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+public class RaptorHandlerMappingTest {
+
+    private static final String SAY_HELLO = "/raptor/com.ppdai.framework.raptor.proto.Simple/sayHello";
+
+    @Autowired
+    private RaptorHandlerMapping raptorHandlerMapping;
+
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty("server.port", String.valueOf(SocketUtils.findAvailableTcpPort()));
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        System.clearProperty("server.port");
+    }
+
+    @Test
+    public void testRoutes() {
+        Assert.assertTrue(raptorHandlerMapping.getRoutes().get(SAY_HELLO).containsKey("POST"));
+        Assert.assertTrue(raptorHandlerMapping.getRoutes().get("/more").containsKey("GET"));
+        Assert.assertTrue(raptorHandlerMapping.getRoutes().get("/more/post1").containsKey("POST"));
+    }
+
+    @Test
+    public void testGetHandler() throws Exception {
+        HandlerExecutionChain chain = raptorHandlerMapping.getHandler(new MockHttpServletRequest("POST", SAY_HELLO));
+        Assert.assertNotNull(chain);
+        HandlerMethod handlerMethod = (HandlerMethod) chain.getHandler();
+        Assert.assertTrue(handlerMethod.getBean() instanceof SimpleImpl);
+        Assert.assertEquals("sayHelloAsync", handlerMethod.getMethod().getName());
+        boolean hasContextInterceptor = false;
+        for (HandlerInterceptor interceptor : chain.getInterceptors()) {
+            hasContextInterceptor |= interceptor instanceof RaptorContextInitHandlerInterceptor;
+        }
+        Assert.assertTrue(hasContextInterceptor);
+    }
+
+    @Test
+    public void testNotMatch() throws Exception {
+        Assert.assertNull(raptorHandlerMapping.getHandler(new MockHttpServletRequest("GET", SAY_HELLO)));
+        Assert.assertNull(raptorHandlerMapping.getHandler(new MockHttpServletRequest("POST", SAY_HELLO + "/")));
+        MockHttpServletRequest corsRequest = new MockHttpServletRequest("POST", SAY_HELLO);
+        corsRequest.addHeader("Origin", "http://other.ppdai.com");
+        Assert.assertNull(raptorHandlerMapping.getHandler(corsRequest));
+    }
+}
@@ -0,0 +1,71 @@
+package com.ppdai.framework.raptor.spring.service;
+
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.util.Base64Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorMessageBinderTest {
+
+    private RaptorMessageBinder binder = new RaptorMessageBinder(HelloRequest.class);
+
+    @Test
+    public void testScalar() {
+        Map<String, String[]> parameters = new LinkedHashMap<>();
+        parameters.put("name", new String[]{"ppdai"});
+        parameters.put("corpus", new String[]{"UNIVERSAL"});
+        parameters.put("tDouble", new String[]{"1.01"});
+        parameters.put("tint64", new String[]{"3232132555244324324"});
+        parameters.put("tbool", new String[]{"true"});
+        parameters.put("tbytes", new String[]{Base64Utils.encodeToString("拍拍贷".getBytes(StandardCharsets.UTF_8))});
+
+        HelloRequest request = (HelloRequest) binder.newInstance();
+        Assert.assertNull(binder.bind(request, parameters));
+        Assert.assertEquals("ppdai", request.getName());
+        Assert.assertEquals(HelloRequest.Corpus.UNIVERSAL, request.getCorpus());
+        Assert.assertEquals(1.01, request.getTDouble(), 0);
+        Assert.assertEquals(3232132555244324324L, request.getTint64().longValue());
+        Assert.assertTrue(request.getTbool());
+        Assert.assertEquals("拍拍贷", new String(request.getTbytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEmptyAndInvalid() {
+        Map<String, String[]> parameters = new LinkedHashMap<>();
+        parameters.put("tint32", new String[]{""});
+        parameters.put("tint64", new String[]{"abc"});
+        parameters.put("name", new String[]{"a", "b"});
+
+        HelloRequest request = (HelloRequest) binder.newInstance();
+        Assert.assertNull(binder.bind(request, parameters));
+        Assert.assertNull(request.getTint32());
+        Assert.assertNull(request.getTint64());
+        Assert.assertEquals("a,b", request.getName());
+    }
+
+    @Test
+    public void testOthers() {
+        Map<String, String[]> parameters = new LinkedHashMap<>();
+        parameters.put("name", new String[]{"ppdai"});
+        parameters.put("result.url", new String[]{"http://ppdai.com"});
+        parameters.put("repString[0]", new String[]{"str1"});
+        parameters.put("unknown", new String[]{"1"});
+
+        HelloRequest request = (HelloRequest) binder.newInstance();
+        MutablePropertyValues others = binder.bind(request, parameters);
+        Assert.assertEquals("ppdai", request.getName());
+        Assert.assertEquals("http://ppdai.com", request.getResult().getUrl());
+        Assert.assertEquals("str1", request.getRepString().get(0));
+        Assert.assertNotNull(others);
+        Assert.assertEquals(1, others.size());
+        Assert.assertEquals("1", others.getPropertyValue("unknown").getValue());
+    }
+}
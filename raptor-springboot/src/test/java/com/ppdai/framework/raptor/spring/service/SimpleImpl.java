@@ -1,11 +1,17 @@
 package com.ppdai.framework.raptor.spring.service;
 
+import com.ppdai.framework.raptor.concurrent.RaptorContextExecutors;
+import com.ppdai.framework.raptor.exception.RaptorException;
 import com.ppdai.framework.raptor.proto.HelloReply;
 import com.ppdai.framework.raptor.proto.HelloRequest;
 import com.ppdai.framework.raptor.proto.Simple;
+import com.ppdai.framework.raptor.rpc.RaptorContext;
+import com.ppdai.framework.raptor.rpc.RaptorStreamObserver;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author yinzuolong
@@ -19,4 +25,34 @@ public class SimpleImpl implements Simple {
         return new HelloReply(hello, 123, request, new HashMap<>());
     }
 
+    /**
+     * 服务端异步实现,sayHello的请求在其他线程上完成
+     */
+    @Override
+    public CompletableFuture<HelloReply> sayHelloAsync(HelloRequest request) {
+        return RaptorContextExecutors.supplyAsync(() -> {
+            if ("AsyncException".equals(request.getName())) {
+                throw new RaptorException(1002, "AsyncException!", Collections.singletonMap("a", "b"), null);
+            }
+            HelloReply reply = sayHello(request);
+            reply.getResult().put("method", RaptorContext.getContext().getRequest().getMethodName());
+            return reply;
+        });
+    }
+
+    @Override
+    public void listHello(HelloRequest request, RaptorStreamObserver<HelloReply> responseObserver) {
+        if ("RaptorException".equals(request.getName())) {
+            throw new RaptorException(1001, "RaptorException!", Collections.singletonMap("a", "b"), null);
+        }
+        int count = request.getTint32() == null ? 0 : request.getTint32();
+        for (int i = 0; i < count; i++) {
+            responseObserver.onNext(new HelloReply("Hello " + request.getName() + " " + i, i, null, new HashMap<>()));
+        }
+        if ("StreamError".equals(request.getName())) {
+            throw new IllegalStateException("StreamError!");
+        }
+        responseObserver.onCompleted();
+    }
+
 }
@@ -2,6 +2,7 @@ package com.ppdai.framework.raptor.spring.utils;
 
 import com.ppdai.framework.raptor.proto.HelloRequest;
 import com.ppdai.framework.raptor.proto.MoreService;
+import com.ppdai.framework.raptor.proto.Simple;
 import com.ppdai.framework.raptor.spring.service.MoreServiceImpl;
 import org.junit.Assert;
 import org.junit.Test;
@@ -29,4 +30,13 @@ public class RaptorInterfaceUtilsTest {
         System.out.println(interfaceName);
         Assert.assertEquals(MoreService.class.getName(), interfaceName);
     }
+
+    @Test
+    public void testFindSyncMethod() throws Exception {
+        Method asyncMethod = Simple.class.getMethod("sayHelloAsync", HelloRequest.class);
+        Method syncMethod = RaptorInterfaceUtils.findSyncMethod(Simple.class, asyncMethod);
+        Assert.assertEquals(Simple.class.getMethod("sayHello", HelloRequest.class), syncMethod);
+
+        Assert.assertNull(RaptorInterfaceUtils.findSyncMethod(Simple.class, syncMethod));
+    }
 }
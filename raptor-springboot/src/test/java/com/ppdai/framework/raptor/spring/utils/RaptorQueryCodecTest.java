@@ -0,0 +1,75 @@
+package com.ppdai.framework.raptor.spring.utils;
+
+import com.ppdai.framework.raptor.proto.Cat;
+import com.ppdai.framework.raptor.proto.HelloRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author yinzuolong
+ */
+public class RaptorQueryCodecTest {
+
+    @Test
+    public void testKeyFormat() {
+        HelloRequest request = new HelloRequest();
+        request.setName("ppdai");
+        request.setResult(new HelloRequest.Result("url", HelloRequest.Result.Corpus.NEWS));
+        request.setCats(Arrays.asList(new Cat("black"), new Cat("white")));
+        request.setRepInt32(Arrays.asList(1, 2));
+        Map<String, HelloRequest.Result> results = new LinkedHashMap<>();
+        results.put("c1", new HelloRequest.Result("url1", null));
+        request.setMapStringMessage(results);
+
+        Map<String, String> map = RaptorQueryCodec.encodeToMap(request);
+        Assert.assertEquals("ppdai", map.get("name"));
+        Assert.assertEquals("url", map.get("result.url"));
+        Assert.assertEquals("NEWS", map.get("result.corpus"));
+        Assert.assertEquals("white", map.get("cats[1].color"));
+        Assert.assertEquals("2", map.get("repInt32[1]"));
+        Assert.assertEquals("url1", map.get("mapStringMessage[c1].url"));
+        Assert.assertEquals(request, RaptorQueryCodec.decode(HelloRequest.class, map));
+    }
+
+    @Test
+    public void testQueryString() throws Exception {
+        HelloRequest request = new HelloRequest();
+        request.setName("拍拍 贷&=*~");
+        request.setSnippets(Arrays.asList("a", "b"));
+        String expected = "name=" + URLEncoder.encode(request.getName(), "UTF-8")
+                + "&snippets%5B0%5D=a&snippets%5B1%5D=b";
+        Assert.assertEquals(expected, RaptorQueryCodec.encodeToQueryString(request));
+
+        String emoji = "😀ppdai";
+        Assert.assertEquals(URLEncoder.encode(emoji, "UTF-8"), RaptorQueryCodec.urlEncode(emoji));
+        Assert.assertSame("ppdai.com", RaptorQueryCodec.urlEncode("ppdai.com"));
+    }
+
+    @Test
+    public void testDecode() {
+        HelloRequest request = new HelloRequest();
+        Assert.assertTrue(RaptorQueryCodec.decode(request, "repString[2]", new String[]{"s2"}));
+        Assert.assertEquals(Arrays.asList(null, null, "s2"), request.getRepString());
+        Assert.assertTrue(RaptorQueryCodec.decode(request, "mapInt32Int32[1]", new String[]{"2"}));
+        Assert.assertEquals(Integer.valueOf(2), request.getMapInt32Int32().get(1));
+        Assert.assertTrue(RaptorQueryCodec.decode(request, "tbytes", new String[]{"cHBkYWk="}));
+        Assert.assertEquals("ppdai", new String(request.getTbytes(), StandardCharsets.UTF_8));
+
+        Assert.assertFalse(RaptorQueryCodec.decode(request, "unknown", new String[]{"1"}));
+        Assert.assertFalse(RaptorQueryCodec.decode(request, "name.unknown", new String[]{"1"}));
+        Assert.assertFalse(RaptorQueryCodec.decode(request, "result", new String[]{"1"}));
+    }
+
+    @Test
+    public void testCollectionLimit() {
+        HelloRequest request = new HelloRequest();
+        Assert.assertTrue(RaptorQueryCodec.decode(request, "repString[100000000]", new String[]{"s"}));
+        Assert.assertNull(request.getRepString());
+    }
+}